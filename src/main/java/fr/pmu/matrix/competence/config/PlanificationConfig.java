@@ -0,0 +1,12 @@
+package fr.pmu.matrix.competence.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active l'exécution des tâches planifiées (rafraîchissement des rapports en cache)
+ */
+@Configuration
+@EnableScheduling
+public class PlanificationConfig {
+}
@@ -0,0 +1,51 @@
+package fr.pmu.matrix.competence.config;
+
+import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recale la séquence des compétences requises au-dessus des identifiants existants.
+ * <p>
+ * Les identifiants de {@code competence_requise} étaient attribués par une colonne IDENTITY ;
+ * sur une base existante, la mise à jour du schéma crée la séquence à partir de 1 et les
+ * premières insertions réutiliseraient des identifiants déjà pris. Au démarrage, une fois le
+ * schéma à jour (la fabrique d'entités est injectée pour cela) et avant toute insertion, la
+ * séquence est redémarrée à {@code max(id) + TAILLE_ALLOCATION} si le prochain bloc qu'elle
+ * donnerait chevauche des lignes existantes. La vérification consomme un bloc d'identifiants.
+ */
+@Component
+public class RecalageSequenceCompetenceRequise {
+
+    private static final String MAX_IDENTIFIANT = "SELECT COALESCE(MAX(id), 0) FROM competence_requise";
+
+    private static final String VALEUR_SUIVANTE = "SELECT NEXT VALUE FOR " + CompetenceRequiseEntity.SEQUENCE;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public RecalageSequenceCompetenceRequise(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Redémarre la séquence si son prochain bloc chevauche les identifiants existants
+     */
+    @PostConstruct
+    public void recaler() {
+        long max = jdbcTemplate.queryForObject(MAX_IDENTIFIANT, Long.class);
+        if (max == 0) {
+            return;
+        }
+        // Bloc ]valeur - TAILLE_ALLOCATION, valeur], comme l'optimiseur pooled d'Hibernate
+        long valeur = jdbcTemplate.queryForObject(VALEUR_SUIVANTE, Long.class);
+        if (valeur - CompetenceRequiseEntity.TAILLE_ALLOCATION + 1 > max) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE " + CompetenceRequiseEntity.SEQUENCE
+                + " RESTART WITH " + (max + CompetenceRequiseEntity.TAILLE_ALLOCATION));
+    }
+}
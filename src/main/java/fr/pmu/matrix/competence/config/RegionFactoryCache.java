@@ -0,0 +1,40 @@
+package fr.pmu.matrix.competence.config;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import javax.cache.CacheManager;
+import javax.cache.spi.CachingProvider;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Fabrique des régions du cache de second niveau, configurées par {@code ehcache.xml}.
+ * <p>
+ * Ehcache partage un même gestionnaire entre toutes les fabriques de sessions ouvertes sur une même
+ * URI, et Hibernate le ferme à l'arrêt de chacune : chaque fabrique reçoit donc son propre
+ * gestionnaire, afin que l'arrêt de l'une (contextes de test notamment) ne ferme pas les régions
+ * des autres.
+ */
+public class RegionFactoryCache extends JCacheRegionFactory {
+
+    @Override
+    protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map<String, Object> properties) {
+        CachingProvider provider = getCachingProvider(properties);
+        if (!(provider instanceof EhcacheCachingProvider ehcache)) {
+            return super.resolveCacheManager(settings, properties);
+        }
+        URI uri = getUri(settings, properties);
+        try {
+            XmlConfiguration configuration = new XmlConfiguration(uri.toURL(), getClassLoader(provider));
+            return ehcache.getCacheManager(URI.create("urn:matrice-competence:" + UUID.randomUUID()), configuration);
+        } catch (MalformedURLException e) {
+            throw new CacheException("Configuration du cache illisible: " + uri, e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package fr.pmu.matrix.competence.controller;
+
+import fr.pmu.matrix.competence.dto.StatistiquesCache;
+import fr.pmu.matrix.competence.service.CacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Contrôleur d'observation du cache de second niveau
+ */
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+    private final CacheService cacheService;
+
+    @Autowired
+    public CacheController(CacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    /**
+     * Succès, échecs et ajouts de chaque région du cache (GET /cache/statistiques)
+     *
+     * @return Les statistiques par région
+     */
+    @GetMapping("/statistiques")
+    public ResponseEntity<List<StatistiquesCache>> getStatistiques() {
+        return ResponseEntity.ok(cacheService.getStatistiques());
+    }
+
+    /**
+     * Remet les compteurs à zéro (DELETE /cache/statistiques)
+     *
+     * @return Réponse vide
+     */
+    @DeleteMapping("/statistiques")
+    public ResponseEntity<Void> reinitialiserStatistiques() {
+        cacheService.reinitialiserStatistiques();
+        return ResponseEntity.noContent().build();
+    }
+}
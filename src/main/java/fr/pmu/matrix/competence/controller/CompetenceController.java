@@ -2,8 +2,10 @@ package fr.pmu.matrix.competence.controller;
 
 import fr.pmu.matrix.competence.domain.Competence;
 import fr.pmu.matrix.competence.dto.CreateCompetenceRequest;
+import fr.pmu.matrix.competence.dto.RapportRisques;
 import fr.pmu.matrix.competence.dto.UpdateCompetenceRequest;
 import fr.pmu.matrix.competence.service.CompetenceService;
+import fr.pmu.matrix.competence.service.RisqueCompetenceService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,10 +18,12 @@ import java.util.List;
 public class CompetenceController {
 
     private final CompetenceService competenceService;
+    private final RisqueCompetenceService risqueCompetenceService;
 
     @Autowired
-    public CompetenceController(CompetenceService competenceService) {
+    public CompetenceController(CompetenceService competenceService, RisqueCompetenceService risqueCompetenceService) {
         this.competenceService = competenceService;
+        this.risqueCompetenceService = risqueCompetenceService;
     }
 
     /**
@@ -37,6 +41,21 @@ public class CompetenceController {
         }
     }
 
+    /**
+     * Récupère le rapport des compétences à risque par équipe et par groupement.
+     * Le rapport est servi depuis le cache, recalculé périodiquement.
+     * 
+     * @return Le dernier rapport calculé
+     */
+    @GetMapping("/risques")
+    public ResponseEntity<RapportRisques> getRapportRisques() {
+        try {
+            return ResponseEntity.ok(risqueCompetenceService.getRapport());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Crée une nouvelle compétence
      * 
@@ -1,16 +1,13 @@
 package fr.pmu.matrix.competence.controller;
 
-import fr.pmu.matrix.competence.domain.Competence;
 import fr.pmu.matrix.competence.domain.CompetenceRequise;
 import fr.pmu.matrix.competence.domain.Demande;
-import fr.pmu.matrix.competence.domain.Note;
 import fr.pmu.matrix.competence.dto.CompetenceRequiseCreationDto;
 import fr.pmu.matrix.competence.dto.CompetenceRequiseUpdateDto;
-import fr.pmu.matrix.competence.service.CompetenceService;
 import fr.pmu.matrix.competence.service.DemandeService;
-import fr.pmu.matrix.competence.service.NoteService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,16 +21,10 @@ import java.util.Optional;
 public class CompetenceRequiseController {
 
     private final DemandeService demandeService;
-    private final CompetenceService competenceService;
-    private final NoteService noteService;
 
     @Autowired
-    public CompetenceRequiseController(DemandeService demandeService,
-                                       CompetenceService competenceService,
-                                       NoteService noteService) {
+    public CompetenceRequiseController(DemandeService demandeService) {
         this.demandeService = demandeService;
-        this.competenceService = competenceService;
-        this.noteService = noteService;
     }
 
     @GetMapping
@@ -47,43 +38,23 @@ public class CompetenceRequiseController {
         }
     }
 
+    /**
+     * Ajoute une compétence requise à la demande ; seule la nouvelle ligne est écrite.
+     * Si la version de la demande est renseignée et n'est plus à jour, la demande a été modifiée
+     * entre-temps et l'ajout est refusé (409).
+     */
     @PostMapping
     public ResponseEntity<CompetenceRequise> addCompetenceRequise(
             @PathVariable String demandeId,
             @RequestBody CompetenceRequiseCreationDto creationDto) {
         
         try {
-            Demande demande = demandeService.getDemandeById(demandeId);
-            
-            // Vérifier si la compétence existe déjà dans la demande
-            boolean competenceExisteDeja = demande.getCompetencesRecherchees().stream()
-                    .anyMatch(cr -> cr.getCompetence().getLibelle().equals(creationDto.getCompetenceLibelle()));
-            
-            if (competenceExisteDeja) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
-                        "La compétence est déjà présente dans cette demande");
-            }
-            
-            // Récupérer la compétence et la note requise
-            Competence competence = competenceService.getCompetenceByLibelle(creationDto.getCompetenceLibelle());
-            Note note = noteService.getNoteByValeur(creationDto.getNoteValeur());
-            
-            // Créer et ajouter la compétence requise
-            CompetenceRequise competenceRequise = new CompetenceRequise(competence, note);
-            demande.getCompetencesRecherchees().add(competenceRequise);
+            CompetenceRequise competenceRequise = demandeService.ajouterCompetenceRequise(demandeId,
+                    creationDto.getCompetenceLibelle(), creationDto.getNoteValeur(), creationDto.getVersion());
+            return new ResponseEntity<>(competenceRequise, HttpStatus.CREATED);
             
-            // Mettre à jour la demande
-            Demande updatedDemande = demandeService.updateDemande(demandeId, demande);
-            
-            // Récupérer la compétence requise mise à jour
-            Optional<CompetenceRequise> updatedCompetenceRequise = updatedDemande.getCompetencesRecherchees().stream()
-                    .filter(cr -> cr.getCompetence().getLibelle().equals(competence.getLibelle()))
-                    .findFirst();
-            
-            return new ResponseEntity<>(updatedCompetenceRequise.get(), HttpStatus.CREATED);
-            
-        } catch (ResponseStatusException e) {
-            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            throw conflit(demandeId);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("trouvée")) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
@@ -123,6 +94,9 @@ public class CompetenceRequiseController {
         }
     }
 
+    /**
+     * Change la note requise d'une compétence de la demande ; seule cette ligne est écrite
+     */
     @PutMapping("/{competenceId}/{noteValeur}")
     public ResponseEntity<CompetenceRequise> updateCompetenceRequise(
             @PathVariable String demandeId,
@@ -131,43 +105,12 @@ public class CompetenceRequiseController {
             @RequestBody CompetenceRequiseUpdateDto updateDto) {
         
         try {
-            Demande demande = demandeService.getDemandeById(demandeId);
-            
-            // Vérifier que la compétence existe dans la demande
-            Optional<CompetenceRequise> competenceRequiseOptional = demande.getCompetencesRecherchees().stream()
-                    .filter(cr -> cr.getCompetence().getLibelle().equals(competenceId) &&
-                                  cr.getNoteRequise().getValeur() == noteValeur)
-                    .findFirst();
-            
-            if (competenceRequiseOptional.isEmpty()) {
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
-                        "Compétence requise non trouvée dans la demande");
-            }
-            
-            // Récupérer la nouvelle note
-            Note nouvelleNote = noteService.getNoteByValeur(updateDto.getNouvelleNoteValeur());
-            
-            // Mettre à jour la compétence requise
-            CompetenceRequise competenceRequise = competenceRequiseOptional.get();
-            demande.getCompetencesRecherchees().remove(competenceRequise);
-            
-            CompetenceRequise nouvelleCompetenceRequise = new CompetenceRequise(
-                    competenceRequise.getCompetence(), nouvelleNote);
-            demande.getCompetencesRecherchees().add(nouvelleCompetenceRequise);
+            CompetenceRequise competenceRequise = demandeService.modifierCompetenceRequise(demandeId, competenceId,
+                    noteValeur, updateDto.getNouvelleNoteValeur(), updateDto.getVersion());
+            return ResponseEntity.ok(competenceRequise);
             
-            // Mettre à jour la demande
-            Demande updatedDemande = demandeService.updateDemande(demandeId, demande);
-            
-            // Récupérer la compétence requise mise à jour
-            Optional<CompetenceRequise> updatedCompetenceRequise = updatedDemande.getCompetencesRecherchees().stream()
-                    .filter(cr -> cr.getCompetence().getLibelle().equals(competenceId) &&
-                                  cr.getNoteRequise().getValeur() == updateDto.getNouvelleNoteValeur())
-                    .findFirst();
-            
-            return ResponseEntity.ok(updatedCompetenceRequise.get());
-            
-        } catch (ResponseStatusException e) {
-            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            throw conflit(demandeId);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("trouvée")) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
@@ -177,36 +120,22 @@ public class CompetenceRequiseController {
         }
     }
 
+    /**
+     * Retire une compétence requise de la demande ; seule cette ligne est supprimée
+     */
     @DeleteMapping("/{competenceId}/{noteValeur}")
     public ResponseEntity<Void> deleteCompetenceRequise(
             @PathVariable String demandeId,
             @PathVariable String competenceId,
-            @PathVariable int noteValeur) {
+            @PathVariable int noteValeur,
+            @RequestParam(required = false) Long version) {
         
         try {
-            Demande demande = demandeService.getDemandeById(demandeId);
-            
-            // Vérifier que la compétence existe dans la demande
-            Optional<CompetenceRequise> competenceRequiseOptional = demande.getCompetencesRecherchees().stream()
-                    .filter(cr -> cr.getCompetence().getLibelle().equals(competenceId) &&
-                                  cr.getNoteRequise().getValeur() == noteValeur)
-                    .findFirst();
-            
-            if (competenceRequiseOptional.isEmpty()) {
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
-                        "Compétence requise non trouvée dans la demande");
-            }
-            
-            // Supprimer la compétence requise
-            demande.getCompetencesRecherchees().remove(competenceRequiseOptional.get());
-            
-            // Mettre à jour la demande
-            demandeService.updateDemande(demandeId, demande);
-            
+            demandeService.supprimerCompetenceRequise(demandeId, competenceId, noteValeur, version);
             return ResponseEntity.noContent().build();
             
-        } catch (ResponseStatusException e) {
-            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            throw conflit(demandeId);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("trouvée")) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
@@ -243,4 +172,9 @@ public class CompetenceRequiseController {
                     "Demande non trouvée avec l'ID: " + demandeId);
         }
     }
+
+    private ResponseStatusException conflit(String demandeId) {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "La demande a été modifiée entre-temps: " + demandeId);
+    }
 }
\ No newline at end of file
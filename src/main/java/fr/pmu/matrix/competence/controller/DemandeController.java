@@ -1,22 +1,40 @@
 package fr.pmu.matrix.competence.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import fr.pmu.matrix.competence.domain.*;
+import fr.pmu.matrix.competence.dto.CandidatDemande;
+import fr.pmu.matrix.competence.dto.CorrespondancesDemande;
 import fr.pmu.matrix.competence.dto.CompetenceRequiseRequest;
+import fr.pmu.matrix.competence.dto.CritereRechercheDemande;
 import fr.pmu.matrix.competence.dto.DemandeCreationRequest;
 import fr.pmu.matrix.competence.dto.DemandeUpdateRequest;
 import fr.pmu.matrix.competence.dto.DestinationRequest;
+import fr.pmu.matrix.competence.dto.PageCurseur;
+import fr.pmu.matrix.competence.dto.PageResultat;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
+import fr.pmu.matrix.competence.service.CandidatService;
 import fr.pmu.matrix.competence.service.CompetenceService;
+import fr.pmu.matrix.competence.service.DemandeImportService;
 import fr.pmu.matrix.competence.service.DemandeService;
 import fr.pmu.matrix.competence.service.EquipeService;
 import fr.pmu.matrix.competence.service.GroupementService;
 import fr.pmu.matrix.competence.service.NoteService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
@@ -36,24 +54,35 @@ public class DemandeController {
     private final NoteService noteService;
     private final EquipeService equipeService;
     private final GroupementService groupementService;
+    private final CandidatService candidatService;
+    private final DemandeImportService demandeImportService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
     public DemandeController(DemandeService demandeService, 
                             CompetenceService competenceService,
                             NoteService noteService,
                             EquipeService equipeService,
-                            GroupementService groupementService) {
+                            GroupementService groupementService,
+                            CandidatService candidatService,
+                            DemandeImportService demandeImportService,
+                            ObjectMapper objectMapper) {
         this.demandeService = demandeService;
         this.competenceService = competenceService;
         this.noteService = noteService;
         this.equipeService = equipeService;
         this.groupementService = groupementService;
+        this.candidatService = candidatService;
+        this.demandeImportService = demandeImportService;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Liste toutes les demandes avec filtres optionnels.
+     * Liste toutes les demandes avec filtres optionnels, combinés en ET.
      * Sans paramètre, retourne toutes les demandes.
      * Avec le paramètre matricule, retourne les demandes d'un demandeur spécifique.
+     * Les demandes archivées ne sont incluses qu'avec {@code includeArchived=true}.
+     * Le paramètre fields limite les champs renvoyés ; les destinations ne sont lues que si elles sont demandées.
      */
     @GetMapping
     public ResponseEntity<List<Demande>> getAllDemandes(
@@ -61,54 +90,89 @@ public class DemandeController {
             @RequestParam(required = false) String matricule, 
             @RequestParam(required = false) String competence,
             @RequestParam(required = false) List<String> competences,
-            @RequestParam(required = false) List<Integer> notes) {
+            @RequestParam(required = false) List<Integer> notes,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) String fields) {
         
         try {
-            List<Demande> demandes;
-            
-            // Filtrage par plusieurs critères
-            if (competences != null && !competences.isEmpty() && notes != null && !notes.isEmpty()) {
-                demandes = demandeService.getDemandesByCompetencesAndNotes(competences, notes);
-            }
-            // Filtrage par plusieurs compétences
-            else if (competences != null && !competences.isEmpty()) {
-                demandes = demandeService.getDemandesByCompetences(competences);
-            }
-            // Filtrage par plusieurs notes
-            else if (notes != null && !notes.isEmpty()) {
-                demandes = demandeService.getDemandesByNotes(notes);
+            SelectionChamps champs = SelectionChamps.depuis(fields);
+            CritereRechercheDemande critere = new CritereRechercheDemande();
+            if (active != null && active) {
+                critere.setActiveLe(new Date());
             }
-            // Filtrage par statut actif
-            else if (active != null && active) {
-                demandes = demandeService.getDemandesActiveAtDate(new Date());
+            critere.setMatricule(matricule);
+            List<String> libelles = new ArrayList<>();
+            if (competences != null) {
+                libelles.addAll(competences);
             }
-            // Filtrage par matricule du demandeur
-            else if (matricule != null && !matricule.isEmpty()) {
-                demandes = demandeService.getDemandesByDemandeur(matricule);
+            if (competence != null && !competence.isEmpty()) {
+                libelles.add(competence);
             }
-            // Filtrage par une seule compétence
-            else if (competence != null && !competence.isEmpty()) {
-                demandes = demandeService.getDemandesByCompetence(competence);
-            }
-            // Sans filtre
-            else {
-                demandes = demandeService.getAllDemandes();
-            }
-            
+            critere.setCompetences(libelles);
+            critere.setNotes(notes);
+            critere.setIncludeArchived(includeArchived);
+
+            List<Demande> demandes = critere.estVide() && !includeArchived
+                    ? demandeService.getAllDemandes(champs)
+                    : demandeService.rechercherDemandes(critere, champs);
             return ResponseEntity.ok(demandes);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                    "Erreur lors de la récupération des demandes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Récupère une page de demandes triées par identifiant.
+     * La pagination ne s'applique qu'à la liste sans filtre.
+     */
+    @GetMapping(params = {"taille", "!active", "!matricule", "!competence", "!competences", "!notes", "!includeArchived"})
+    public ResponseEntity<PageCurseur<Demande>> getDemandesPage(
+            @RequestParam int taille,
+            @RequestParam(required = false) String curseur) {
+        try {
+            return ResponseEntity.ok(demandeService.getDemandesPage(curseur, taille));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
                     "Erreur lors de la récupération des demandes: " + e.getMessage());
         }
     }
 
+    /**
+     * Recherche paginée des demandes : tous les critères renseignés sont combinés en ET
+     * et évalués en base, en une requête plus le comptage.
+     * Avec {@code includeArchived=true}, les demandes archivées sont fusionnées dans le même ordre.
+     */
+    @GetMapping("/recherche")
+    public ResponseEntity<PageResultat<Demande>> rechercherDemandes(
+            CritereRechercheDemande critere,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int taille,
+            @RequestParam(defaultValue = "id") String tri,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+        try {
+            return ResponseEntity.ok(demandeService.rechercherDemandes(critere, page, taille, tri, direction));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                    "Erreur lors de la recherche des demandes: " + e.getMessage());
+        }
+    }
+
     /**
      * Récupère les demandes d'un demandeur par son matricule
      */
     @GetMapping("/demandeur/{matricule}")
-    public ResponseEntity<List<Demande>> getDemandesByDemandeur(@PathVariable String matricule) {
+    public ResponseEntity<List<Demande>> getDemandesByDemandeur(
+            @PathVariable String matricule,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
         try {
-            List<Demande> demandes = demandeService.getDemandesByDemandeur(matricule);
+            List<Demande> demandes = demandeService.getDemandesByDemandeur(matricule, includeArchived);
             return ResponseEntity.ok(demandes);
         } catch (RuntimeException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
@@ -117,13 +181,37 @@ public class DemandeController {
     }
 
     /**
-     * Récupère une demande par son ID (conservé pour compatibilité)
+     * Récupère une demande par son ID (conservé pour compatibilité), limitée aux champs de fields s'il est renseigné
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Demande> getDemandeById(@PathVariable String id) {
+    public ResponseEntity<Demande> getDemandeById(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) String fields) {
         try {
-            Demande demande = demandeService.getDemandeById(id);
+            Demande demande = demandeService.getDemandeById(id, includeArchived, SelectionChamps.depuis(fields));
             return ResponseEntity.ok(demande);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
+                    "Demande non trouvée avec l'ID: " + id);
+        }
+    }
+
+    /**
+     * Classe les personnes les plus proches des compétences recherchées par une demande.
+     * Avec disponibles=true, seules les personnes disponibles aujourd'hui sont classées.
+     */
+    @GetMapping("/{id}/candidats")
+    public ResponseEntity<List<CandidatDemande>> getCandidats(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "10") int top,
+            @RequestParam(defaultValue = "false") boolean disponibles) {
+        try {
+            return ResponseEntity.ok(candidatService.getCandidats(id, top, disponibles));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         } catch (RuntimeException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
                     "Demande non trouvée avec l'ID: " + id);
@@ -131,17 +219,41 @@ public class DemandeController {
     }
 
     /**
-     * Recherche des demandes par compétence(s) et/ou note(s)
+     * Personnes qui satisfont toutes les compétences requises d'une demande active, et flux des
+     * correspondances gagnées ou perdues depuis l'événement {@code depuis}.
+     */
+    @GetMapping("/{id}/matches")
+    public ResponseEntity<CorrespondancesDemande> getCorrespondances(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") long depuis) {
+        try {
+            return ResponseEntity.ok(candidatService.getCorrespondances(id, depuis));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
+                    "Demande non trouvée avec l'ID: " + id);
+        }
+    }
+
+    /**
+     * Recherche des demandes par compétence(s) et/ou note(s).
+     * Avec {@code mode=all|any}, la recherche passe par l'index inversé des compétences requises :
+     * {@code notesMin} donne la note requise minimale (une seule, ou une par compétence)
+     * et {@code exclues} les compétences que les demandes ne doivent pas requérir.
      */
     @GetMapping("/search")
     public ResponseEntity<List<Demande>> searchDemandes(
             @RequestParam(required = false) List<String> competences,
-            @RequestParam(required = false) List<Integer> notes) {
+            @RequestParam(required = false) List<Integer> notes,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) List<Integer> notesMin,
+            @RequestParam(required = false) List<String> exclues) {
         
         try {
             List<Demande> demandes;
             
-            if (competences != null && !competences.isEmpty() && notes != null && !notes.isEmpty()) {
+            if (mode != null) {
+                demandes = demandeService.rechercherParCompetences(mode, competences, notesMin, exclues);
+            } else if (competences != null && !competences.isEmpty() && notes != null && !notes.isEmpty()) {
                 demandes = demandeService.getDemandesByCompetencesAndNotes(competences, notes);
             } else if (competences != null && !competences.isEmpty()) {
                 demandes = demandeService.getDemandesByCompetences(competences);
@@ -153,6 +265,8 @@ public class DemandeController {
             }
             
             return ResponseEntity.ok(demandes);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
                     "Erreur lors de la recherche des demandes: " + e.getMessage());
@@ -177,6 +291,37 @@ public class DemandeController {
         }
     }
 
+    /**
+     * Crée des demandes en masse, depuis un flux NDJSON ou un export CSV (sélectionné par {@code Content-Type}).
+     * Le résultat de chaque demande est renvoyé en NDJSON, au fil de l'écriture des lots.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importerDemandes(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType type,
+            InputStream flux) {
+        DemandeImportService.Source source;
+        try {
+            source = demandeImportService.ouvrir(flux, MediaType.APPLICATION_NDJSON.includes(type)
+                    ? DemandeImportService.Format.NDJSON
+                    : DemandeImportService.Format.CSV);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        StreamingResponseBody corps = sortie -> {
+            try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(sortie)) {
+                demandeImportService.importer(source, ligne -> {
+                    try {
+                        writer.write(ligne);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corps);
+    }
+
     /**
      * Met à jour une demande existante
      */
@@ -186,6 +331,9 @@ public class DemandeController {
             Demande demande = mapToDemandeFromUpdateRequest(request);
             Demande updatedDemande = demandeService.updateDemande(id, demande);
             return ResponseEntity.ok(updatedDemande);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "La demande a été modifiée entre-temps: " + id);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("non trouvée")) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
@@ -254,6 +402,7 @@ public class DemandeController {
         demande.setNature(request.getNature());
         demande.setDateDebut(request.getDateDebut());
         demande.setDateFin(request.getDateFin());
+        demande.setVersion(request.getVersion());
         
         // Création de la destination
         setDestinationFromRequest(demande, request.getDestination());
@@ -2,19 +2,27 @@ package fr.pmu.matrix.competence.controller;
 
 import fr.pmu.matrix.competence.domain.CompetenceRequise;
 import fr.pmu.matrix.competence.domain.Equipe;
+import fr.pmu.matrix.competence.dto.CapacitePerimetre;
 import fr.pmu.matrix.competence.dto.CompetenceRequiseDto;
+import fr.pmu.matrix.competence.dto.CouvertureEquipe;
 import fr.pmu.matrix.competence.dto.CreateEquipeRequest;
+import fr.pmu.matrix.competence.dto.PageCurseur;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
 import fr.pmu.matrix.competence.dto.UpdateEquipeRequest;
+import fr.pmu.matrix.competence.service.CapaciteService;
 import fr.pmu.matrix.competence.service.CompetenceService;
+import fr.pmu.matrix.competence.service.CouvertureEquipeService;
 import fr.pmu.matrix.competence.service.EquipeService;
 import fr.pmu.matrix.competence.service.NoteService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,44 +37,79 @@ public class EquipeController {
     private final EquipeService equipeService;
     private final CompetenceService competenceService;
     private final NoteService noteService;
+    private final CouvertureEquipeService couvertureEquipeService;
+    private final CapaciteService capaciteService;
 
     @Autowired
     public EquipeController(EquipeService equipeService, 
                            CompetenceService competenceService,
-                           NoteService noteService) {
+                           NoteService noteService,
+                           CouvertureEquipeService couvertureEquipeService,
+                           CapaciteService capaciteService) {
         this.equipeService = equipeService;
         this.competenceService = competenceService;
         this.noteService = noteService;
+        this.couvertureEquipeService = couvertureEquipeService;
+        this.capaciteService = capaciteService;
     }
 
     /**
-     * Récupère toutes les équipes (GET /equipes)
+     * Récupère toutes les équipes (GET /equipes?fields=...)
      * Opération: getAllEquipes
      *
+     * @param fields Champs à renvoyer (ex. {@code code,groupement.libelle}) ; tous si absent.
+     *               Les membres, le groupement et le profil recherché ne sont lus que s'ils sont demandés
      * @return Liste des équipes
      */
     @GetMapping
-    public ResponseEntity<List<Equipe>> getAllEquipes() {
+    public ResponseEntity<List<Equipe>> getAllEquipes(@RequestParam(required = false) String fields) {
         try {
-            List<Equipe> equipes = equipeService.getAllEquipes();
+            List<Equipe> equipes = equipeService.getAllEquipes(SelectionChamps.depuis(fields));
             return ResponseEntity.ok(equipes);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Erreur lors de la récupération des équipes", e);
         }
     }
 
     /**
-     * Récupère une équipe par son code (GET /equipes/{code})
+     * Récupère une page d'équipes triées par code (GET /equipes?taille=...&curseur=...)
+     * Opération: getEquipesPage
+     *
+     * @param taille Nombre maximal d'équipes par page
+     * @param curseur Curseur renvoyé avec la page précédente (absent pour la première page)
+     * @return La page d'équipes et le curseur de la page suivante
+     */
+    @GetMapping(params = "taille")
+    public ResponseEntity<PageCurseur<Equipe>> getEquipesPage(
+            @RequestParam int taille,
+            @RequestParam(required = false) String curseur) {
+        try {
+            return ResponseEntity.ok(equipeService.getEquipesPage(curseur, taille));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Erreur lors de la récupération des équipes", e);
+        }
+    }
+
+    /**
+     * Récupère une équipe par son code (GET /equipes/{code}?fields=...)
      * Opération: getEquipeByCode
      *
      * @param code Code unique de l'équipe
+     * @param fields Champs à renvoyer ; tous si absent
      * @return Équipe correspondante au code
      */
     @GetMapping("/{code}")
-    public ResponseEntity<Equipe> getEquipeByCode(@PathVariable String code) {
+    public ResponseEntity<Equipe> getEquipeByCode(@PathVariable String code,
+                                                  @RequestParam(required = false) String fields) {
         try {
-            Equipe equipe = equipeService.getEquipeByCode(code);
+            Equipe equipe = equipeService.getEquipeByCode(code, SelectionChamps.depuis(fields));
             return ResponseEntity.ok(equipe);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         } catch (RuntimeException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
         } catch (Exception e) {
@@ -166,6 +209,61 @@ public class EquipeController {
         }
     }
     
+    /**
+     * Calcule la couverture du profil de recherche de toutes les équipes (GET /equipes/couverture)
+     *
+     * @return Couverture de chaque équipe, triée par code
+     */
+    @GetMapping("/couverture")
+    public ResponseEntity<List<CouvertureEquipe>> getCouvertures() {
+        try {
+            return ResponseEntity.ok(couvertureEquipeService.getCouvertures());
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Erreur lors du calcul des couvertures", e);
+        }
+    }
+
+    /**
+     * Calcule la couverture du profil de recherche d'une équipe par ses membres (GET /equipes/{code}/couverture)
+     *
+     * @param code Code de l'équipe
+     * @return Pour chaque compétence requise : membres au niveau, meilleure note et écart
+     */
+    @GetMapping("/{code}/couverture")
+    public ResponseEntity<CouvertureEquipe> getCouverture(@PathVariable String code) {
+        try {
+            return ResponseEntity.ok(couvertureEquipeService.getCouverture(code));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Calcule l'effectif disponible jour par jour pour une compétence (GET /equipes/{code}/capacite)
+     *
+     * @param code Code de l'équipe
+     * @param from Premier jour de la période (AAAA-MM-JJ)
+     * @param to Dernier jour de la période, inclus (AAAA-MM-JJ)
+     * @param competence Libellé de la compétence
+     * @param noteMin Note minimale pour être compté
+     * @return Pour chaque jour : disponibles, absentes, en partance et mobilisées par un événement
+     */
+    @GetMapping("/{code}/capacite")
+    public ResponseEntity<CapacitePerimetre> getCapacite(
+            @PathVariable String code,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam String competence,
+            @RequestParam int noteMin) {
+        try {
+            return ResponseEntity.ok(capaciteService.getCapaciteEquipe(code, from, to, competence, noteMin));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
     /**
      * Récupère le profil de recherche d'une équipe
      * 
@@ -0,0 +1,78 @@
+package fr.pmu.matrix.competence.controller;
+
+import fr.pmu.matrix.competence.dto.CompetenceRequiseRequest;
+import fr.pmu.matrix.competence.dto.StaffingEvenement;
+import fr.pmu.matrix.competence.service.StaffingEvenementService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Contrôleur de vérification de l'armement des événements
+ */
+@RestController
+@RequestMapping("/evenements")
+public class EvenementController {
+
+    private final StaffingEvenementService staffingEvenementService;
+
+    @Autowired
+    public EvenementController(StaffingEvenementService staffingEvenementService) {
+        this.staffingEvenementService = staffingEvenementService;
+    }
+
+    /**
+     * Vérifie tous les événements critiques ou majeurs qui ne sont pas terminés (GET /evenements/staffing)
+     *
+     * @return Une vérification par événement
+     */
+    @GetMapping("/staffing")
+    public ResponseEntity<List<StaffingEvenement>> getStaffingEvenementsAVenir() {
+        try {
+            return ResponseEntity.ok(staffingEvenementService.getStaffingEvenementsAVenir());
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Erreur lors de la vérification des événements", e);
+        }
+    }
+
+    /**
+     * Vérifie qu'un événement est armé (GET /evenements/{id}/staffing)
+     *
+     * @param id Identifiant de l'événement
+     * @return La couverture des compétences requises, les participants absents et les doubles affectations
+     */
+    @GetMapping("/{id}/staffing")
+    public ResponseEntity<StaffingEvenement> getStaffing(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(staffingEvenementService.getStaffing(id));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Remplace les compétences requises d'un événement (PUT /evenements/{id}/competences-requises)
+     *
+     * @param id Identifiant de l'événement
+     * @param competences Compétences requises et notes minimales
+     * @return La vérification de l'événement
+     */
+    @PutMapping("/{id}/competences-requises")
+    public ResponseEntity<StaffingEvenement> definirCompetencesRequises(
+            @PathVariable Long id,
+            @RequestBody List<CompetenceRequiseRequest> competences) {
+        try {
+            return ResponseEntity.ok(staffingEvenementService.definirCompetencesRequises(id, competences));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+}
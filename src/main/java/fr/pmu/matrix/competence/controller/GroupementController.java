@@ -1,14 +1,20 @@
 package fr.pmu.matrix.competence.controller;
 
 import fr.pmu.matrix.competence.domain.Groupement;
+import fr.pmu.matrix.competence.dto.CapacitePerimetre;
 import fr.pmu.matrix.competence.dto.CreateGroupementRequest;
+import fr.pmu.matrix.competence.dto.HeatmapGroupement;
 import fr.pmu.matrix.competence.dto.UpdateGroupementRequest;
+import fr.pmu.matrix.competence.service.CapaciteService;
 import fr.pmu.matrix.competence.service.GroupementService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -16,10 +22,12 @@ import java.util.List;
 public class GroupementController {
 
     private final GroupementService groupementService;
+    private final CapaciteService capaciteService;
 
     @Autowired
-    public GroupementController(GroupementService groupementService) {
+    public GroupementController(GroupementService groupementService, CapaciteService capaciteService) {
         this.groupementService = groupementService;
+        this.capaciteService = capaciteService;
     }
 
     /**
@@ -73,6 +81,47 @@ public class GroupementController {
         }
     }
 
+    /**
+     * Récupère la répartition des notes par compétence sur toutes les équipes d'un groupement
+     * 
+     * @param code Code unique du groupement
+     * @return La heatmap du groupement
+     */
+    @GetMapping("/{code}/heatmap")
+    public ResponseEntity<HeatmapGroupement> getHeatmap(@PathVariable String code) {
+        try {
+            return ResponseEntity.ok(groupementService.getHeatmap(code));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Calcule l'effectif disponible jour par jour pour une compétence, sur toutes les équipes d'un groupement
+     * 
+     * @param code Code unique du groupement
+     * @param from Premier jour de la période (AAAA-MM-JJ)
+     * @param to Dernier jour de la période, inclus (AAAA-MM-JJ)
+     * @param competence Libellé de la compétence
+     * @param noteMin Note minimale pour être compté
+     * @return La capacité jour par jour du groupement
+     */
+    @GetMapping("/{code}/capacite")
+    public ResponseEntity<CapacitePerimetre> getCapacite(
+            @PathVariable String code,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam String competence,
+            @RequestParam int noteMin) {
+        try {
+            return ResponseEntity.ok(capaciteService.getCapaciteGroupement(code, from, to, competence, noteMin));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     /**
      * Met à jour un groupement existant
      * 
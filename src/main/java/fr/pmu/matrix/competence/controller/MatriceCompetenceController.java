@@ -1,14 +1,26 @@
 package fr.pmu.matrix.competence.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import fr.pmu.matrix.competence.domain.MatriceCompetence;
 import fr.pmu.matrix.competence.dto.CreateMatriceCompetenceRequest;
+import fr.pmu.matrix.competence.dto.MatriceCompetenceImportResultat;
+import fr.pmu.matrix.competence.dto.PageCurseur;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
 import fr.pmu.matrix.competence.dto.UpdateMatriceCompetenceRequest;
+import fr.pmu.matrix.competence.service.MatriceCompetenceImportService;
 import fr.pmu.matrix.competence.service.MatriceCompetenceService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -16,27 +28,79 @@ import java.util.List;
 public class MatriceCompetenceController {
 
     private final MatriceCompetenceService matriceCompetenceService;
+    private final MatriceCompetenceImportService matriceCompetenceImportService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public MatriceCompetenceController(MatriceCompetenceService matriceCompetenceService) {
+    public MatriceCompetenceController(MatriceCompetenceService matriceCompetenceService,
+                                       MatriceCompetenceImportService matriceCompetenceImportService,
+                                       ObjectMapper objectMapper) {
         this.matriceCompetenceService = matriceCompetenceService;
+        this.matriceCompetenceImportService = matriceCompetenceImportService;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * Récupère toutes les matrices de compétences
      * 
+     * @param fields Champs à renvoyer (ex. {@code personne.identifiant,note.valeur}) ; tous si absent.
+     *               Les sous-objets non demandés ne sont pas construits
      * @return Liste des matrices de compétences
      */
     @GetMapping
-    public ResponseEntity<List<MatriceCompetence>> getAllMatricesCompetences() {
+    public ResponseEntity<List<MatriceCompetence>> getAllMatricesCompetences(@RequestParam(required = false) String fields) {
         try {
-            List<MatriceCompetence> matrices = matriceCompetenceService.getAllMatricesCompetences();
+            List<MatriceCompetence> matrices = matriceCompetenceService.getAllMatricesCompetences(SelectionChamps.depuis(fields));
             return ResponseEntity.ok(matrices);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Récupère une page de matrices de compétences triées par personne puis compétence
+     * 
+     * @param taille Nombre maximal de lignes par page
+     * @param curseur Curseur renvoyé avec la page précédente (absent pour la première page)
+     * @return La page de matrices de compétences et le curseur de la page suivante
+     */
+    @GetMapping(params = "taille")
+    public ResponseEntity<PageCurseur<MatriceCompetence>> getMatricesCompetencesPage(
+            @RequestParam int taille,
+            @RequestParam(required = false) String curseur) {
+        try {
+            return ResponseEntity.ok(matriceCompetenceService.getMatricesCompetencesPage(curseur, taille));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Exporte toute la matrice de compétences en NDJSON (une matrice par ligne),
+     * écrite au fil de la lecture en base (sélectionné par {@code Accept: application/x-ndjson})
+     * 
+     * @return Le flux NDJSON des matrices de compétences
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exporterMatricesCompetences() {
+        StreamingResponseBody corps = sortie -> {
+            try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(sortie)) {
+                matriceCompetenceService.exporterMatricesCompetences(matrice -> {
+                    try {
+                        writer.write(matrice);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corps);
+    }
+
     /**
      * Crée une nouvelle matrice de compétence
      * 
@@ -62,6 +126,24 @@ public class MatriceCompetenceController {
         }
     }
 
+    /**
+     * Crée ou met à jour des matrices de compétences en masse
+     * 
+     * @param flux Tableau JSON ou flux NDJSON de lignes (personneId, competenceId, noteValeur)
+     * @return Le compte rendu de l'import, avec le résultat de chaque ligne et le débit
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<MatriceCompetenceImportResultat> importerMatricesCompetences(InputStream flux) {
+        try {
+            MatriceCompetenceImportResultat resultat = matriceCompetenceImportService.importer(flux);
+            return ResponseEntity.ok(resultat);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Récupère une matrice de compétence spécifique
      * 
@@ -140,13 +222,17 @@ public class MatriceCompetenceController {
      * Récupère toutes les compétences d'une personne
      * 
      * @param personneId Identifiant de la personne
+     * @param fields Champs à renvoyer ; tous si absent
      * @return Liste des matrices de compétences pour cette personne
      */
     @GetMapping("/personnes/{personneId}")
-    public ResponseEntity<List<MatriceCompetence>> getCompetencesByPersonne(@PathVariable String personneId) {
+    public ResponseEntity<List<MatriceCompetence>> getCompetencesByPersonne(@PathVariable String personneId,
+                                                                            @RequestParam(required = false) String fields) {
         try {
-            List<MatriceCompetence> matrices = matriceCompetenceService.getCompetencesByPersonne(personneId);
+            List<MatriceCompetence> matrices = matriceCompetenceService.getCompetencesByPersonne(personneId, SelectionChamps.depuis(fields));
             return ResponseEntity.ok(matrices);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("Personne non trouvée")) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
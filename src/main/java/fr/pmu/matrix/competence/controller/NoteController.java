@@ -76,6 +76,8 @@ public class NoteController {
 
             Note createdNote = noteService.createNote(note);
             return new ResponseEntity<>(createdNote, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         } catch (RuntimeException e) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
         } catch (Exception e) {
@@ -2,12 +2,15 @@ package fr.pmu.matrix.competence.controller;
 
 import fr.pmu.matrix.competence.domain.Personne;
 import fr.pmu.matrix.competence.dto.CreatePersonneRequest;
+import fr.pmu.matrix.competence.dto.PageCurseur;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
 import fr.pmu.matrix.competence.dto.UpdatePersonneRequest;
 import fr.pmu.matrix.competence.service.PersonneService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -25,12 +28,36 @@ public class PersonneController {
     /**
      * Récupère toutes les personnes
      * 
+     * @param fields Champs à renvoyer (ex. {@code identifiant,nom,equipe.code}) ; tous si absent.
+     *               L'équipe n'est lue que si elle est demandée
      * @return Liste des personnes
      */
     @GetMapping
-    public ResponseEntity<List<Personne>> getAllPersonnes() {
-        List<Personne> personnes = personneService.getAllPersonnes();
-        return ResponseEntity.ok(personnes);
+    public ResponseEntity<List<Personne>> getAllPersonnes(@RequestParam(required = false) String fields) {
+        try {
+            List<Personne> personnes = personneService.getAllPersonnes(SelectionChamps.depuis(fields));
+            return ResponseEntity.ok(personnes);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Récupère une page de personnes triées par identifiant
+     * 
+     * @param taille Nombre maximal de personnes par page
+     * @param curseur Curseur renvoyé avec la page précédente (absent pour la première page)
+     * @return La page de personnes et le curseur de la page suivante
+     */
+    @GetMapping(params = "taille")
+    public ResponseEntity<PageCurseur<Personne>> getPersonnesPage(
+            @RequestParam int taille,
+            @RequestParam(required = false) String curseur) {
+        try {
+            return ResponseEntity.ok(personneService.getPersonnesPage(curseur, taille));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
@@ -62,13 +89,17 @@ public class PersonneController {
      * Récupère une personne par son identifiant
      * 
      * @param identifiant Identifiant unique de la personne
+     * @param fields Champs à renvoyer ; tous si absent
      * @return La personne correspondante
      */
     @GetMapping("/{identifiant}")
-    public ResponseEntity<Personne> getPersonneByIdentifiant(@PathVariable String identifiant) {
+    public ResponseEntity<Personne> getPersonneByIdentifiant(@PathVariable String identifiant,
+                                                             @RequestParam(required = false) String fields) {
         try {
-            Personne personne = personneService.getPersonneByIdentifiant(identifiant);
+            Personne personne = personneService.getPersonneByIdentifiant(identifiant, SelectionChamps.depuis(fields));
             return ResponseEntity.ok(personne);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
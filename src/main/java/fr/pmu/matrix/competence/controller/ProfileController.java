@@ -3,6 +3,7 @@ package fr.pmu.matrix.competence.controller;
 import fr.pmu.matrix.competence.domain.MatriceCompetence;
 import fr.pmu.matrix.competence.domain.Personne;
 import fr.pmu.matrix.competence.domain.Profil;
+import fr.pmu.matrix.competence.dto.PageCurseur;
 import fr.pmu.matrix.competence.service.ProfileService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -33,6 +34,24 @@ public class ProfileController {
         return ResponseEntity.ok(profils);
     }
 
+    /**
+     * Récupère une page de personnes disponibles sur le marché
+     * 
+     * @param taille Nombre maximal de profils par page
+     * @param curseur Curseur renvoyé avec la page précédente (absent pour la première page)
+     * @return La page de profils disponibles et le curseur de la page suivante
+     */
+    @GetMapping(value = "/personnes-disponibles", params = "taille")
+    public ResponseEntity<PageCurseur<Profil>> getPersonnesDisponiblesPage(
+            @RequestParam int taille,
+            @RequestParam(required = false) String curseur) {
+        try {
+            return ResponseEntity.ok(profileService.getPersonnesDisponiblesPage(curseur, taille));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Récupère la matrice de compétence complète pour une personne disponible
      * 
@@ -0,0 +1,73 @@
+package fr.pmu.matrix.competence.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+
+/**
+ * Retire des réponses JSON les propriétés non demandées par le paramètre {@code fields}.
+ * <p>
+ * Ne s'applique qu'aux méthodes de contrôleur qui déclarent ce paramètre : elles transmettent
+ * la sélection aux services pour ne pas charger les sous-objets non demandés, et ce filtre
+ * retire ensuite ce qui reste hors sélection (propriétés simples, valeurs par défaut).
+ */
+@ControllerAdvice
+public class SelectionChampsAdvice implements ResponseBodyAdvice<Object> {
+
+    /**
+     * Nom du paramètre de requête portant la sélection
+     */
+    public static final String PARAMETRE = "fields";
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public SelectionChampsAdvice(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return MappingJackson2HttpMessageConverter.class.isAssignableFrom(converterType)
+                && returnType.getMethod() != null
+                && Arrays.stream(returnType.getMethod().getParameters()).anyMatch(SelectionChampsAdvice::estParametreChamps);
+    }
+
+    private static boolean estParametreChamps(Parameter parametre) {
+        RequestParam requestParam = parametre.getAnnotation(RequestParam.class);
+        if (requestParam == null) {
+            return false;
+        }
+        String nom = !requestParam.name().isEmpty() ? requestParam.name()
+                : !requestParam.value().isEmpty() ? requestParam.value() : parametre.getName();
+        return PARAMETRE.equals(nom);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        // Le paramètre a déjà été validé par le contrôleur, qui répond 400 s'il est invalide
+        SelectionChamps champs = SelectionChamps.depuis(servletRequest.getServletRequest().getParameter(PARAMETRE));
+        if (champs.estComplete()) {
+            return body;
+        }
+        return champs.filtrer(objectMapper.valueToTree(body));
+    }
+}
@@ -55,6 +55,11 @@ public class Demande {
      * Date de fin dans le cas d'une demande temporaire
      */
     private Date dateFin;
+
+    /**
+     * Version de la demande, pour le verrouillage optimiste des modifications
+     */
+    private Long version;
     
     /**
      * Ajoute une compétence requise à la liste des compétences recherchées
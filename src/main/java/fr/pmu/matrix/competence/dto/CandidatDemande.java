@@ -0,0 +1,42 @@
+package fr.pmu.matrix.competence.dto;
+
+import fr.pmu.matrix.competence.domain.Personne;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Personne classée pour une demande, avec son écart à chaque compétence recherchée
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandidatDemande {
+
+    /**
+     * Écart entre la note d'une personne et le niveau requis pour une compétence
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Ecart {
+        private String competenceLibelle;
+        private int noteRequise;
+        /**
+         * Note de la personne, ou null si elle n'est pas évaluée sur cette compétence
+         */
+        private Integer noteActuelle;
+        /**
+         * Note actuelle (0 si non évaluée) moins note requise : négatif si le niveau n'est pas atteint
+         */
+        private int ecart;
+    }
+
+    private int rang;
+    private Personne personne;
+    private double score;
+    private int competencesCouvertes;
+    private List<Ecart> ecarts;
+}
@@ -0,0 +1,54 @@
+package fr.pmu.matrix.competence.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Effectif disponible jour par jour, dans une équipe ou un groupement, pour une compétence
+ * détenue à une note minimale
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapacitePerimetre {
+
+    /**
+     * Capacité d'un jour de la période
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CapaciteJour {
+        private LocalDate date;
+        /**
+         * Personnes qualifiées ni absentes, ni en partance, ni mobilisées par un événement
+         */
+        private int disponibles;
+        private int absentes;
+        /**
+         * Personnes dont un profil est ouvert sur le marché
+         */
+        private int enPartance;
+        /**
+         * Personnes participant à un événement, directement ou par leur équipe
+         */
+        private int mobilisees;
+    }
+
+    private String perimetreCode;
+    private String competenceLibelle;
+    private int noteMin;
+    /**
+     * Personnes du périmètre dont la note atteint la note minimale
+     */
+    private int effectif;
+    /**
+     * Plus petit nombre de personnes disponibles sur la période
+     */
+    private int minimumDisponibles;
+    private List<CapaciteJour> jours;
+}
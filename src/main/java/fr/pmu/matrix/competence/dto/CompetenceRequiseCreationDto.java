@@ -6,4 +6,5 @@ import lombok.Data;
 public class CompetenceRequiseCreationDto {
     private String competenceLibelle;
     private int noteValeur;
+    private Long version;
 }
\ No newline at end of file
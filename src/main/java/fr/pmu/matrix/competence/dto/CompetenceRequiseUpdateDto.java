@@ -5,4 +5,5 @@ import lombok.Data;
 @Data
 public class CompetenceRequiseUpdateDto {
     private int nouvelleNoteValeur;
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package fr.pmu.matrix.competence.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Personnes qui satisfont une demande, avec le flux des changements de correspondance.
+ * <p>
+ * Le client renvoie {@code sequence} dans le paramètre {@code depuis} de l'appel suivant pour
+ * ne recevoir que les nouveaux événements.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorrespondancesDemande {
+
+    /**
+     * Changement de correspondance d'une personne avec la demande
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Evenement {
+        private long sequence;
+        private String personneId;
+        /**
+         * SATISFAITE si la personne satisfait désormais la demande, PERDUE sinon
+         */
+        private String type;
+        private Date date;
+    }
+
+    private String demandeId;
+    private List<String> personnes;
+    private List<Evenement> evenements;
+    /**
+     * Numéro du dernier événement du flux pris en compte
+     */
+    private long sequence;
+}
@@ -0,0 +1,44 @@
+package fr.pmu.matrix.competence.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Couverture du profil de recherche d'une équipe par ses membres
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouvertureEquipe {
+
+    /**
+     * Couverture d'une compétence requise par les membres de l'équipe
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CouvertureCompetence {
+        private String competenceLibelle;
+        private int noteRequise;
+        /**
+         * Nombre de membres dont la note atteint le niveau requis
+         */
+        private int membresAuNiveau;
+        /**
+         * Meilleure note détenue par un membre, ou null si aucun membre n'est évalué
+         */
+        private Integer meilleureNote;
+        /**
+         * Meilleure note (0 si aucune) moins note requise : négatif si personne n'atteint le niveau
+         */
+        private int ecart;
+    }
+
+    private String equipeCode;
+    private String equipeNom;
+    private int nbMembres;
+    private List<CouvertureCompetence> competences;
+}
@@ -0,0 +1,62 @@
+package fr.pmu.matrix.competence.dto;
+
+import fr.pmu.matrix.competence.domain.Nature;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Critères de recherche des demandes. Les critères renseignés se combinent en ET ;
+ * un critère null (ou une liste vide) est ignoré.
+ */
+@Data
+@NoArgsConstructor
+public class CritereRechercheDemande {
+
+    /**
+     * Demandes actives à cette date
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private Date activeLe;
+    private String matricule;
+    private Nature nature;
+    /**
+     * true pour un groupement, false pour une équipe ; n'est pris en compte qu'avec {@link #destinationCode}
+     */
+    private Boolean estGroupement;
+    private String destinationCode;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private Date dateDebutMin;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private Date dateDebutMax;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private Date dateFinMin;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private Date dateFinMax;
+    /**
+     * Au moins une de ces compétences est requise
+     */
+    private List<String> competences;
+    /**
+     * Au moins une compétence est requise avec une de ces notes (sur la même compétence
+     * que le critère {@link #competences} lorsque les deux sont renseignés)
+     */
+    private List<Integer> notes;
+    /**
+     * Inclut les demandes archivées ; ce n'est pas un critère et n'est pas pris en compte par {@link #estVide()}
+     */
+    private boolean includeArchived;
+
+    /**
+     * Indique si aucun critère n'est renseigné
+     * @return true si la recherche porte sur toutes les demandes
+     */
+    public boolean estVide() {
+        return activeLe == null && matricule == null && nature == null && destinationCode == null
+                && dateDebutMin == null && dateDebutMax == null && dateFinMin == null && dateFinMax == null
+                && (competences == null || competences.isEmpty()) && (notes == null || notes.isEmpty());
+    }
+}
@@ -0,0 +1,27 @@
+package fr.pmu.matrix.competence.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat de l'import d'une demande
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandeImportLigne {
+
+    /**
+     * Statut d'une demande importée
+     */
+    public enum Statut {
+        CREEE,
+        REJETEE
+    }
+
+    private int index;
+    private String demandeId;
+    private Statut statut;
+    private String message;
+}
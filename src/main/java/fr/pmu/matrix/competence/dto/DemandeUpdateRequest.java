@@ -6,4 +6,10 @@ import lombok.EqualsAndHashCode;
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class DemandeUpdateRequest extends DemandeCreationRequest {
+
+    /**
+     * Version de la demande lue par le client ; si elle est renseignée et que la demande
+     * a été modifiée depuis, la mise à jour est refusée
+     */
+    private Long version;
 }
\ No newline at end of file
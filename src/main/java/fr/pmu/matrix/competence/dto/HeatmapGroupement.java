@@ -0,0 +1,35 @@
+package fr.pmu.matrix.competence.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Répartition des notes par compétence pour toutes les personnes d'un groupement
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeatmapGroupement {
+
+    /**
+     * Répartition des notes d'une compétence
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RepartitionCompetence {
+        private String competenceLibelle;
+        /**
+         * Nombre de personnes par valeur de note
+         */
+        private Map<Integer, Integer> repartition;
+        private int total;
+    }
+
+    private String groupementCode;
+    private List<RepartitionCompetence> competences;
+}
@@ -0,0 +1,30 @@
+package fr.pmu.matrix.competence.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat de l'import d'une ligne de matrice de compétences
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatriceCompetenceImportLigne {
+
+    /**
+     * Statut d'une ligne importée
+     */
+    public enum Statut {
+        CREEE,
+        MISE_A_JOUR,
+        REJETEE
+    }
+
+    private int index;
+    private String personneId;
+    private String competenceId;
+    private int noteValeur;
+    private Statut statut;
+    private String message;
+}
@@ -0,0 +1,22 @@
+package fr.pmu.matrix.competence.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compte rendu d'un import en masse de la matrice de compétences
+ */
+@Data
+@NoArgsConstructor
+public class MatriceCompetenceImportResultat {
+    private int total;
+    private int creees;
+    private int misesAJour;
+    private int rejetees;
+    private long dureeMs;
+    private double lignesParSeconde;
+    private List<MatriceCompetenceImportLigne> lignes = new ArrayList<>();
+}
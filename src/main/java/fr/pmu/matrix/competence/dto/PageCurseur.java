@@ -0,0 +1,105 @@
+package fr.pmu.matrix.competence.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page d'une liste paginée par clé (keyset).
+ * <p>
+ * Le curseur est opaque pour le client : il encode la clé naturelle du dernier élément
+ * de la page et se renvoie tel quel pour obtenir la page suivante. Il vaut {@code null}
+ * sur la dernière page.
+ *
+ * @param <T> Type des éléments
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageCurseur<T> {
+
+    /**
+     * Taille de page maximale acceptée
+     */
+    public static final int TAILLE_MAX = 1000;
+
+    private static final String SEPARATEUR = "\u001F";
+
+    private List<T> elements;
+    private int taille;
+    private String curseurSuivant;
+
+    /**
+     * Construit une page à partir d'une tranche lue en base
+     * @param tranche La tranche d'entités
+     * @param conversion Conversion d'une entité en élément de la page
+     * @param cle Clé naturelle d'une entité, encodée dans le curseur suivant
+     * @return La page
+     * @param <E> Type des entités
+     * @param <T> Type des éléments
+     */
+    public static <E, T> PageCurseur<T> depuis(Slice<E> tranche, Function<E, T> conversion, Function<E, String[]> cle) {
+        List<E> entites = tranche.getContent();
+        List<T> elements = new ArrayList<>(entites.size());
+        for (E entite : entites) {
+            elements.add(conversion.apply(entite));
+        }
+        String curseurSuivant = tranche.hasNext() && !entites.isEmpty()
+                ? encoder(cle.apply(entites.get(entites.size() - 1)))
+                : null;
+        return new PageCurseur<>(elements, elements.size(), curseurSuivant);
+    }
+
+    /**
+     * Vérifie la taille de page demandée
+     * @param taille Taille demandée par le client
+     * @return La taille
+     * @throws IllegalArgumentException Si la taille n'est pas comprise entre 1 et {@link #TAILLE_MAX}
+     */
+    public static int verifierTaille(int taille) {
+        if (taille < 1 || taille > TAILLE_MAX) {
+            throw new IllegalArgumentException("Taille de page invalide: " + taille + " (entre 1 et " + TAILLE_MAX + ")");
+        }
+        return taille;
+    }
+
+    /**
+     * Encode une clé (éventuellement composite) en curseur opaque
+     * @param cle Les composantes de la clé
+     * @return Le curseur
+     */
+    public static String encoder(String... cle) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(SEPARATEUR, cle).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décode un curseur reçu du client
+     * @param curseur Le curseur, ou {@code null} pour la première page
+     * @param nbComposantes Nombre de composantes attendues dans la clé
+     * @return Les composantes de la clé, ou {@code null} pour la première page
+     * @throws IllegalArgumentException Si le curseur est invalide
+     */
+    public static String[] decoder(String curseur, int nbComposantes) {
+        if (curseur == null || curseur.isEmpty()) {
+            return null;
+        }
+        String[] cle;
+        try {
+            cle = new String(Base64.getUrlDecoder().decode(curseur), StandardCharsets.UTF_8).split(SEPARATEUR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide: " + curseur, e);
+        }
+        if (cle.length != nbComposantes) {
+            throw new IllegalArgumentException("Curseur de pagination invalide: " + curseur);
+        }
+        return cle;
+    }
+}
@@ -0,0 +1,39 @@
+package fr.pmu.matrix.competence.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page numérotée d'un résultat de recherche, avec le nombre total d'éléments
+ *
+ * @param <T> Type des éléments
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResultat<T> {
+
+    private List<T> elements;
+    private int page;
+    private int taille;
+    private long totalElements;
+    private int totalPages;
+
+    /**
+     * Construit une page à partir d'une page lue en base
+     * @param page La page d'entités
+     * @param conversion Conversion de la liste des entités de la page en éléments
+     * @return La page
+     * @param <E> Type des entités
+     * @param <T> Type des éléments
+     */
+    public static <E, T> PageResultat<T> depuis(Page<E> page, Function<List<E>, List<T>> conversion) {
+        return new PageResultat<>(conversion.apply(page.getContent()), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages());
+    }
+}
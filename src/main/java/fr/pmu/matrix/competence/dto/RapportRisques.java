@@ -0,0 +1,51 @@
+package fr.pmu.matrix.competence.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Rapport des compétences à risque (« bus factor ») par équipe et par groupement :
+ * compétences détenues au niveau expert par moins de {@code seuil} personnes disponibles
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RapportRisques {
+
+    /**
+     * Compétences à risque d'une équipe ou d'un groupement
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Perimetre {
+        private String code;
+        private List<CompetenceARisque> competences;
+    }
+
+    /**
+     * Compétence détenue par trop peu d'experts disponibles
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CompetenceARisque {
+        private String competenceLibelle;
+        private int nbExpertsDisponibles;
+        private List<String> expertsDisponibles;
+        /**
+         * Experts absents aujourd'hui ou disponibles sur le marché (en partance)
+         */
+        private List<String> expertsIndisponibles;
+    }
+
+    private Date genereLe;
+    private int noteExpert;
+    private int seuil;
+    private List<Perimetre> equipes;
+    private List<Perimetre> groupements;
+}
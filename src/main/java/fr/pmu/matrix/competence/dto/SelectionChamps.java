@@ -0,0 +1,134 @@
+package fr.pmu.matrix.competence.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Champs demandés par le client avec le paramètre {@code fields} (ensemble de champs partiel).
+ * <p>
+ * Le paramètre liste des noms de propriétés séparés par des virgules ; un chemin pointé
+ * ({@code equipe.nom}) sélectionne une partie d'un sous-objet, un nom seul le sous-objet entier.
+ * Sans paramètre, tous les champs sont retenus. Les services et les mappers ne chargent pas
+ * les sous-objets non demandés, qui sont ensuite retirés de la réponse.
+ */
+public final class SelectionChamps {
+
+    /**
+     * Sélection de tous les champs, à tous les niveaux
+     */
+    public static final SelectionChamps TOUS = new SelectionChamps(null);
+
+    /**
+     * Sous-sélection de chaque champ retenu, ou null si tous les champs sont retenus
+     */
+    private final Map<String, SelectionChamps> champs;
+
+    private SelectionChamps(Map<String, SelectionChamps> champs) {
+        this.champs = champs;
+    }
+
+    /**
+     * Analyse le paramètre {@code fields}
+     * @param fields Chemins séparés par des virgules (ex. {@code code,nom,groupement.libelle}), ou null
+     * @return La sélection ; {@link #TOUS} si le paramètre est absent ou vide
+     * @throws IllegalArgumentException Si un chemin contient un nom vide
+     */
+    public static SelectionChamps depuis(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return TOUS;
+        }
+        Map<String, Object> arbre = new LinkedHashMap<>();
+        for (String chemin : fields.split(",")) {
+            String[] noms = chemin.trim().split("\\.", -1);
+            Map<String, Object> niveau = arbre;
+            for (int i = 0; i < noms.length; i++) {
+                String nom = noms[i].trim();
+                if (nom.isEmpty()) {
+                    throw new IllegalArgumentException("Champ invalide dans fields: '" + chemin.trim() + "'");
+                }
+                boolean dernier = i == noms.length - 1;
+                Object existant = niveau.get(nom);
+                if (dernier || existant == Boolean.TRUE) {
+                    // Un nom seul retient le sous-objet entier, même si un chemin plus précis le cite
+                    niveau.put(nom, Boolean.TRUE);
+                    break;
+                }
+                if (existant == null) {
+                    existant = new LinkedHashMap<String, Object>();
+                    niveau.put(nom, existant);
+                }
+                @SuppressWarnings("unchecked")
+                Map<String, Object> suivant = (Map<String, Object>) existant;
+                niveau = suivant;
+            }
+        }
+        return construire(arbre);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SelectionChamps construire(Map<String, Object> arbre) {
+        Map<String, SelectionChamps> champs = new LinkedHashMap<>();
+        arbre.forEach((nom, sousArbre) -> champs.put(nom,
+                sousArbre == Boolean.TRUE ? TOUS : construire((Map<String, Object>) sousArbre)));
+        return new SelectionChamps(Collections.unmodifiableMap(champs));
+    }
+
+    /**
+     * @return true si tous les champs sont retenus
+     */
+    public boolean estComplete() {
+        return champs == null;
+    }
+
+    /**
+     * Indique si un champ est retenu, en entier ou en partie
+     * @param champ Nom du champ
+     * @return true si le champ doit être chargé
+     */
+    public boolean inclut(String champ) {
+        return champs == null || champs.containsKey(champ);
+    }
+
+    /**
+     * Sélection à appliquer à l'intérieur d'un champ
+     * @param champ Nom du champ
+     * @return La sous-sélection ; {@link #TOUS} si le champ est retenu en entier
+     */
+    public SelectionChamps sousSelection(String champ) {
+        if (champs == null) {
+            return TOUS;
+        }
+        return champs.getOrDefault(champ, new SelectionChamps(Map.of()));
+    }
+
+    /**
+     * Retire d'une représentation JSON les propriétés non retenues ; un tableau est filtré élément par élément
+     * @param noeud La représentation JSON, modifiée en place
+     * @return Le même nœud
+     */
+    public JsonNode filtrer(JsonNode noeud) {
+        if (champs == null || noeud == null) {
+            return noeud;
+        }
+        if (noeud.isArray()) {
+            noeud.forEach(this::filtrer);
+        } else if (noeud.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> proprietes = ((ObjectNode) noeud).fields();
+            while (proprietes.hasNext()) {
+                Map.Entry<String, JsonNode> propriete = proprietes.next();
+                SelectionChamps sousSelection = champs.get(propriete.getKey());
+                if (sousSelection == null) {
+                    proprietes.remove();
+                } else {
+                    sousSelection.filtrer(propriete.getValue());
+                }
+            }
+        }
+        return noeud;
+    }
+}
@@ -0,0 +1,66 @@
+package fr.pmu.matrix.competence.dto;
+
+import fr.pmu.matrix.competence.domain.Evenement;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Vérification de l'armement d'un événement : les participants disponibles couvrent-ils les
+ * compétences requises ?
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StaffingEvenement {
+
+    /**
+     * Couverture d'une compétence requise
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BesoinCompetence {
+        private String competenceLibelle;
+        private int noteRequise;
+        /**
+         * Participants disponibles dont la note atteint la note requise
+         */
+        private List<String> personnes;
+        private boolean couverte;
+    }
+
+    /**
+     * Participant mobilisé au même moment par d'autres événements
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Conflit {
+        private String personneIdentifiant;
+        private List<Long> evenements;
+    }
+
+    private Long evenementId;
+    private String type;
+    private Evenement.Criticite criticite;
+    private Date dateDebut;
+    private Date dateFin;
+    /**
+     * Participants directs et membres des équipes participantes
+     */
+    private int nbParticipants;
+    /**
+     * Participants absents pendant l'événement
+     */
+    private List<String> absentes;
+    private List<Conflit> conflits;
+    private List<BesoinCompetence> competences;
+    /**
+     * Toutes les compétences requises sont couvertes par des participants disponibles
+     */
+    private boolean couvert;
+}
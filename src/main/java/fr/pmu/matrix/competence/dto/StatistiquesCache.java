@@ -0,0 +1,32 @@
+package fr.pmu.matrix.competence.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Statistiques d'une région du cache de second niveau depuis le démarrage
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatistiquesCache {
+
+    private String region;
+    /**
+     * Lectures servies par le cache
+     */
+    private long succes;
+    /**
+     * Lectures absentes du cache, servies par la base
+     */
+    private long echecs;
+    /**
+     * Entrées ajoutées au cache
+     */
+    private long ajouts;
+    /**
+     * Part des lectures servies par le cache, entre 0 et 1 (0 sans lecture)
+     */
+    private double tauxSucces;
+}
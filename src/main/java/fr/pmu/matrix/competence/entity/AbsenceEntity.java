@@ -1,5 +1,7 @@
 package fr.pmu.matrix.competence.entity;
 
+import fr.pmu.matrix.competence.index.IndexPeriodesListener;
+
 import lombok.Getter;
 import lombok.Setter;
 
@@ -7,6 +9,7 @@ import jakarta.persistence.*;
 import java.util.Date;
 
 @Entity
+@EntityListeners(IndexPeriodesListener.class)
 @Table(name = "absences")
 @Getter
 @Setter
@@ -0,0 +1,34 @@
+package fr.pmu.matrix.competence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entité JPA représentant une compétence requise d'une demande archivée : même forme que
+ * {@link CompetenceRequiseEntity}, dans la table {@code competence_requise_archive}.
+ * L'identifiant est celui de la compétence requise d'origine.
+ */
+@Entity
+@Table(name = "competence_requise_archive")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompetenceRequiseArchiveEntity {
+    
+    @Id
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "demande_id", nullable = false)
+    private DemandeArchiveEntity demande;
+    
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "competence_libelle", nullable = false)
+    private CompetenceEntity competence;
+    
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "note_valeur", nullable = false)
+    private NoteEntity noteRequise;
+}
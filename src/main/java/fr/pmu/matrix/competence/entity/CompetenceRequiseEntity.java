@@ -6,7 +6,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
- * Entité JPA représentant une compétence requise dans une demande
+ * Entité JPA représentant une compétence requise dans une demande.
+ * Elle n'est pas mise en cache : les demandes la modifient par des requêtes ensemblistes,
+ * et chacune viderait la région de l'entité et celles des collections qui la contiennent,
+ * dont le profil recherché des équipes.
  */
 @Entity
 @Table(name = "competence_requise")
@@ -14,9 +17,24 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class CompetenceRequiseEntity {
+
+    /**
+     * Séquence des identifiants. Contrairement à une colonne IDENTITY, elle permet de regrouper
+     * les insertions en lots JDBC : chaque appel réserve {@link #TAILLE_ALLOCATION} identifiants
+     * (optimiseur {@code pooled}), les valeurs {@code v - TAILLE_ALLOCATION + 1} à {@code v}.
+     * Au démarrage, elle est recalée au-dessus des identifiants existants, voir
+     * {@link fr.pmu.matrix.competence.config.RecalageSequenceCompetenceRequise}.
+     */
+    public static final String SEQUENCE = "competence_requise_seq";
+
+    /**
+     * Nombre d'identifiants réservés à chaque appel de la séquence
+     */
+    public static final int TAILLE_ALLOCATION = 50;
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE)
+    @SequenceGenerator(name = SEQUENCE, sequenceName = SEQUENCE, allocationSize = TAILLE_ALLOCATION)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,57 @@
+package fr.pmu.matrix.competence.entity;
+
+import fr.pmu.matrix.competence.domain.Nature;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Entité JPA représentant une demande archivée : même forme que {@link DemandeEntity},
+ * dans la table {@code demande_archive}
+ */
+@Entity
+@Table(name = "demande_archive")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandeArchiveEntity {
+    
+    @Id
+    @Column(name = "id")
+    private String id;
+    
+    @Column(name = "matricule_demandeur", nullable = false)
+    private String matriculeDemandeur;
+    
+    @Column(name = "description", length = 1000)
+    private String description;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "nature", nullable = false)
+    private Nature nature;
+    
+    @Temporal(TemporalType.DATE)
+    @Column(name = "date_debut", nullable = false)
+    private Date dateDebut;
+    
+    @Temporal(TemporalType.DATE)
+    @Column(name = "date_fin")
+    private Date dateFin;
+    
+    @Column(name = "est_groupement", nullable = false)
+    private Boolean estGroupement;
+    
+    @Column(name = "destination_code", nullable = false)
+    private String destinationCode;
+    
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
+    @OneToMany(mappedBy = "demande")
+    private List<CompetenceRequiseArchiveEntity> competencesRequises = new ArrayList<>();
+}
@@ -1,10 +1,12 @@
 package fr.pmu.matrix.competence.entity;
 
 import fr.pmu.matrix.competence.domain.Nature;
+import fr.pmu.matrix.competence.index.IndexPeriodesListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -14,6 +16,7 @@ import java.util.List;
  * Entité JPA représentant une demande de recherche de compétences
  */
 @Entity
+@EntityListeners(IndexPeriodesListener.class)
 @Table(name = "demande")
 @Data
 @NoArgsConstructor
@@ -48,6 +51,15 @@ public class DemandeEntity {
     @Column(name = "destination_code", nullable = false)
     private String destinationCode;
     
+    /**
+     * Version pour le verrouillage optimiste, incrémentée à chaque modification de la demande
+     * ou de ses compétences requises
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     @OneToMany(mappedBy = "demande", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CompetenceRequiseEntity> competencesRequises = new ArrayList<>();
 }
\ No newline at end of file
@@ -1,13 +1,21 @@
 package fr.pmu.matrix.competence.entity;
 
+import fr.pmu.matrix.competence.index.MatriceCompetenceStoreListener;
+
 import lombok.Getter;
 import lombok.Setter;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "equipe")
+@EntityListeners(MatriceCompetenceStoreListener.class)
 @Table(name = "equipes")
 @Getter
 @Setter
@@ -30,6 +38,7 @@ public class EquipeEntity {
     @OneToMany(mappedBy = "equipe", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<PersonneEntity> membres = new ArrayList<>();
     
+    // Pas de cache de collection : ses éléments, des compétences requises, ne sont pas en cache
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinTable(
         name = "equipe_profil_recherche",
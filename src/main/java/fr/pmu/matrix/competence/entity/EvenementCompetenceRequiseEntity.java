@@ -0,0 +1,36 @@
+package fr.pmu.matrix.competence.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import jakarta.persistence.*;
+
+/**
+ * Compétence que les participants d'un événement doivent couvrir, à une note minimale
+ */
+@Entity
+@Table(name = "evenement_competence_requise")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EvenementCompetenceRequiseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "evenement_id", nullable = false)
+    private EvenementEntity evenement;
+
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "competence_libelle", nullable = false)
+    private CompetenceEntity competence;
+
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "note_valeur", nullable = false)
+    private NoteEntity noteRequise;
+}
@@ -4,6 +4,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import jakarta.persistence.*;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -49,6 +50,10 @@ public class EvenementEntity {
     )
     private List<EquipeEntity> equipeParticipants;
     
+    // Compétences que les participants doivent couvrir
+    @OneToMany(mappedBy = "evenement", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<EvenementCompetenceRequiseEntity> competencesRequises = new ArrayList<>();
+    
     public enum Criticite {
         MINOR, CRITICAL, MAJOR
     }
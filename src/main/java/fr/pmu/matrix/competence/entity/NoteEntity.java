@@ -1,14 +1,23 @@
 package fr.pmu.matrix.competence.entity;
 
+import fr.pmu.matrix.competence.index.MatriceCompetenceStoreListener;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "note")
+@EntityListeners(MatriceCompetenceStoreListener.class)
 @Table(name = "note")
 @Data
 @NoArgsConstructor
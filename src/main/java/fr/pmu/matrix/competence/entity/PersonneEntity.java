@@ -1,11 +1,14 @@
 package fr.pmu.matrix.competence.entity;
 
+import fr.pmu.matrix.competence.index.MatriceCompetenceStoreListener;
+
 import lombok.Getter;
 import lombok.Setter;
 
 import jakarta.persistence.*;
 
 @Entity
+@EntityListeners(MatriceCompetenceStoreListener.class)
 @Table(name = "personnes")
 @Getter
 @Setter
@@ -1,5 +1,7 @@
 package fr.pmu.matrix.competence.entity;
 
+import fr.pmu.matrix.competence.index.IndexPeriodesListener;
+
 import lombok.Getter;
 import lombok.Setter;
 
@@ -7,7 +9,9 @@ import jakarta.persistence.*;
 import java.util.Date;
 
 @Entity
-@Table(name = "profils")
+@EntityListeners(IndexPeriodesListener.class)
+@Table(name = "profils", indexes = @Index(name = "idx_profils_disponibilite",
+        columnList = "date_debut_disponibilite, date_fin_disponibilite"))
 @Getter
 @Setter
 public class ProfilEntity {
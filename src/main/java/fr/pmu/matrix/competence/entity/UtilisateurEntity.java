@@ -8,6 +8,9 @@ import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.FetchType;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.List;
 import java.util.ArrayList;
 
@@ -25,6 +28,7 @@ public class UtilisateurEntity {
     private String matricule;
     
     @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "utilisateur.habilitations")
     @JoinTable(
         name = "utilisateur_habilitation",
         joinColumns = @JoinColumn(name = "utilisateur_id"),
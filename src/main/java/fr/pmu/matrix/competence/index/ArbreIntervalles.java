@@ -0,0 +1,176 @@
+package fr.pmu.matrix.competence.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Arbre d'intervalles centré, immuable, sur des intervalles fermés {@code [debut, fin]} d'instants.
+ * <p>
+ * Chaque nœud retient une valeur centrale et les intervalles qui la contiennent, rangés deux fois :
+ * par début croissant et par fin décroissante. Les intervalles entièrement à gauche (resp. à droite)
+ * du centre descendent dans le sous-arbre gauche (resp. droit). Une recherche ne parcourt qu'un
+ * chemin de l'arbre et s'arrête dans chaque nœud au premier intervalle qui ne convient plus :
+ * O(log n + k) pour k résultats.
+ *
+ * @param <T> Type des valeurs associées aux intervalles
+ */
+public final class ArbreIntervalles<T> {
+
+    /**
+     * Borne d'un intervalle ouvert à gauche (début inconnu)
+     */
+    public static final long DEBUT_OUVERT = Long.MIN_VALUE;
+
+    /**
+     * Borne d'un intervalle ouvert à droite (fin inconnue)
+     */
+    public static final long FIN_OUVERTE = Long.MAX_VALUE;
+
+    /**
+     * Intervalle fermé associé à une valeur
+     *
+     * @param debut Premier instant couvert
+     * @param fin Dernier instant couvert
+     * @param valeur Valeur associée
+     * @param <T> Type de la valeur
+     */
+    public record Intervalle<T>(long debut, long fin, T valeur) {
+    }
+
+    private static final class Noeud<T> {
+        private final long centre;
+        private final Intervalle<T>[] parDebut;
+        private final Intervalle<T>[] parFin;
+        private final Noeud<T> gauche;
+        private final Noeud<T> droite;
+
+        private Noeud(long centre, Intervalle<T>[] parDebut, Intervalle<T>[] parFin, Noeud<T> gauche, Noeud<T> droite) {
+            this.centre = centre;
+            this.parDebut = parDebut;
+            this.parFin = parFin;
+            this.gauche = gauche;
+            this.droite = droite;
+        }
+    }
+
+    private final Noeud<T> racine;
+    private final int taille;
+
+    private ArbreIntervalles(Noeud<T> racine, int taille) {
+        this.racine = racine;
+        this.taille = taille;
+    }
+
+    /**
+     * Construit l'arbre ; les intervalles vides ({@code debut > fin}) sont ignorés
+     * @param intervalles Les intervalles à indexer
+     * @return L'arbre
+     * @param <T> Type des valeurs
+     */
+    public static <T> ArbreIntervalles<T> construire(List<Intervalle<T>> intervalles) {
+        List<Intervalle<T>> valides = new ArrayList<>(intervalles.size());
+        for (Intervalle<T> intervalle : intervalles) {
+            if (intervalle.debut() <= intervalle.fin()) {
+                valides.add(intervalle);
+            }
+        }
+        return new ArbreIntervalles<>(construireNoeud(valides), valides.size());
+    }
+
+    /**
+     * Nombre d'intervalles indexés
+     * @return Le nombre d'intervalles
+     */
+    public int taille() {
+        return taille;
+    }
+
+    /**
+     * Valeurs des intervalles contenant un instant
+     * @param instant L'instant recherché
+     * @return Les valeurs, dans un ordre quelconque
+     */
+    public List<T> contenant(long instant) {
+        return chevauchant(instant, instant);
+    }
+
+    /**
+     * Valeurs des intervalles ayant au moins un instant commun avec {@code [debut, fin]}
+     * @param debut Début de la période recherchée
+     * @param fin Fin de la période recherchée
+     * @return Les valeurs, dans un ordre quelconque
+     */
+    public List<T> chevauchant(long debut, long fin) {
+        List<T> resultat = new ArrayList<>();
+        if (debut <= fin) {
+            chevauchant(racine, debut, fin, resultat);
+        }
+        return resultat;
+    }
+
+    private static <T> void chevauchant(Noeud<T> noeud, long debut, long fin, List<T> resultat) {
+        while (noeud != null) {
+            if (fin < noeud.centre) {
+                // Tous les intervalles du nœud finissent après le centre, donc après la période :
+                // seuls ceux qui commencent avant sa fin la chevauchent
+                for (Intervalle<T> intervalle : noeud.parDebut) {
+                    if (intervalle.debut() > fin) {
+                        break;
+                    }
+                    resultat.add(intervalle.valeur());
+                }
+                noeud = noeud.gauche;
+            } else if (debut > noeud.centre) {
+                for (Intervalle<T> intervalle : noeud.parFin) {
+                    if (intervalle.fin() < debut) {
+                        break;
+                    }
+                    resultat.add(intervalle.valeur());
+                }
+                noeud = noeud.droite;
+            } else {
+                // La période contient le centre : tous les intervalles du nœud la chevauchent
+                for (Intervalle<T> intervalle : noeud.parDebut) {
+                    resultat.add(intervalle.valeur());
+                }
+                chevauchant(noeud.gauche, debut, fin, resultat);
+                noeud = noeud.droite;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Noeud<T> construireNoeud(List<Intervalle<T>> intervalles) {
+        if (intervalles.isEmpty()) {
+            return null;
+        }
+        long[] bornes = new long[intervalles.size() * 2];
+        int i = 0;
+        for (Intervalle<T> intervalle : intervalles) {
+            bornes[i++] = intervalle.debut();
+            bornes[i++] = intervalle.fin();
+        }
+        Arrays.sort(bornes);
+        long centre = bornes[bornes.length / 2];
+
+        List<Intervalle<T>> aGauche = new ArrayList<>();
+        List<Intervalle<T>> aDroite = new ArrayList<>();
+        List<Intervalle<T>> auCentre = new ArrayList<>();
+        for (Intervalle<T> intervalle : intervalles) {
+            if (intervalle.fin() < centre) {
+                aGauche.add(intervalle);
+            } else if (intervalle.debut() > centre) {
+                aDroite.add(intervalle);
+            } else {
+                auCentre.add(intervalle);
+            }
+        }
+        Intervalle<T>[] parDebut = auCentre.toArray(new Intervalle[0]);
+        Arrays.sort(parDebut, Comparator.comparingLong(Intervalle::debut));
+        Intervalle<T>[] parFin = auCentre.toArray(new Intervalle[0]);
+        Arrays.sort(parFin, Comparator.comparingLong((Intervalle<T> intervalle) -> intervalle.fin()).reversed());
+        return new Noeud<>(centre, parDebut, parFin, construireNoeud(aGauche), construireNoeud(aDroite));
+    }
+}
@@ -0,0 +1,201 @@
+package fr.pmu.matrix.competence.index;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Classement des personnes les plus proches d'un ensemble de compétences requises.
+ * <p>
+ * Le score d'une personne combine la couverture (part des compétences où la note atteint
+ * le niveau requis) et l'adéquation (somme des ratios {@code min(note, requise) / requise},
+ * une compétence non évaluée valant 0), les deux rapportés au nombre de compétences requises.
+ * Il est compris entre 0 et 1 ; les personnes de score nul (aucune évaluation utile) ne sont pas classées.
+ * <p>
+ * Le calcul parcourt directement la grille de la {@link MatriceCompetenceSnapshot} avec des
+ * tableaux primitifs et conserve les {@code top} meilleurs dans un tas borné, sans créer
+ * d'objet par personne.
+ */
+public final class ClassementCandidats {
+
+    /**
+     * Poids de la couverture dans le score
+     */
+    static final double POIDS_COUVERTURE = 0.6;
+
+    /**
+     * Poids de l'adéquation dans le score
+     */
+    static final double POIDS_ADEQUATION = 0.4;
+
+    /**
+     * Candidat retenu par le classement
+     * @param personne Ordinal de la personne dans la photographie
+     * @param score Score entre 0 et 1
+     * @param competencesCouvertes Nombre de compétences où la note atteint le niveau requis
+     */
+    public record Candidat(int personne, double score, int competencesCouvertes) {
+    }
+
+    private ClassementCandidats() {
+    }
+
+    /**
+     * Classe les personnes selon leur proximité avec les compétences requises
+     * @param snapshot La photographie de la matrice
+     * @param competences Ordinaux des compétences requises (-1 pour une compétence absente de la matrice)
+     * @param notesRequises Niveaux requis, dans le même ordre que les compétences
+     * @param eligibles Ordinaux des personnes à classer, ou {@code null} pour toutes
+     * @param top Nombre maximal de candidats retournés
+     * @return Les meilleurs candidats, du meilleur au moins bon (à score égal, par identifiant)
+     */
+    public static List<Candidat> classer(MatriceCompetenceSnapshot snapshot,
+                                         int[] competences,
+                                         int[] notesRequises,
+                                         BitSet eligibles,
+                                         int top) {
+        if (competences.length != notesRequises.length) {
+            throw new IllegalArgumentException("Autant de notes requises que de compétences sont attendues");
+        }
+        int nbRequises = competences.length;
+        if (nbRequises == 0 || top <= 0 || snapshot.nbPersonnes() == 0) {
+            return List.of();
+        }
+
+        // Seules les compétences présentes dans la matrice sont parcourues ; les autres ne sont
+        // couvertes par personne mais comptent dans le dénominateur
+        int[] colonnes = new int[nbRequises];
+        int[] requises = new int[nbRequises];
+        double[] inverses = new double[nbRequises];
+        int nbColonnes = 0;
+        for (int i = 0; i < nbRequises; i++) {
+            if (competences[i] >= 0) {
+                colonnes[nbColonnes] = competences[i];
+                requises[nbColonnes] = notesRequises[i];
+                inverses[nbColonnes] = notesRequises[i] > 0 ? 1.0 / notesRequises[i] : 0;
+                nbColonnes++;
+            }
+        }
+
+        byte[][] grille = snapshot.grille();
+        int nbPersonnes = snapshot.nbPersonnes();
+        double poidsCouverture = POIDS_COUVERTURE / nbRequises;
+        double poidsAdequation = POIDS_ADEQUATION / nbRequises;
+
+        Tas tas = new Tas(Math.min(top, nbPersonnes));
+        int p = eligibles == null ? 0 : eligibles.nextSetBit(0);
+        while (p >= 0 && p < nbPersonnes) {
+            byte[] ligne = grille[p];
+            int couvertes = 0;
+            double adequation = 0;
+            for (int i = 0; i < nbColonnes; i++) {
+                int note = ligne[colonnes[i]] - 1;
+                if (note >= 0) {
+                    if (note >= requises[i]) {
+                        couvertes++;
+                        adequation += 1;
+                    } else {
+                        adequation += note * inverses[i];
+                    }
+                }
+            }
+            if (adequation > 0) {
+                tas.proposer(p, couvertes, poidsCouverture * couvertes + poidsAdequation * adequation);
+            }
+            p = eligibles == null ? p + 1 : eligibles.nextSetBit(p + 1);
+        }
+        return tas.trier();
+    }
+
+    /**
+     * Tas binaire borné dont la racine est le moins bon des candidats retenus
+     */
+    private static final class Tas {
+
+        private final int[] personnes;
+        private final int[] couvertes;
+        private final double[] scores;
+        private int taille;
+
+        Tas(int capacite) {
+            personnes = new int[capacite];
+            couvertes = new int[capacite];
+            scores = new double[capacite];
+        }
+
+        void proposer(int personne, int nbCouvertes, double score) {
+            if (taille < personnes.length) {
+                placer(taille, personne, nbCouvertes, score);
+                remonter(taille++);
+            } else if (moinsBon(scores[0], personnes[0], score, personne)) {
+                placer(0, personne, nbCouvertes, score);
+                descendre(0);
+            }
+        }
+
+        List<Candidat> trier() {
+            Candidat[] tries = new Candidat[taille];
+            // Extraction du moins bon au meilleur, rangée depuis la fin
+            for (int i = taille - 1; i >= 0; i--) {
+                tries[i] = new Candidat(personnes[0], scores[0], couvertes[0]);
+                taille--;
+                if (taille > 0) {
+                    placer(0, personnes[taille], couvertes[taille], scores[taille]);
+                    descendre(0);
+                }
+            }
+            return new ArrayList<>(List.of(tries));
+        }
+
+        /**
+         * À score égal, la personne d'ordinal le plus grand (identifiant le plus grand) est la moins bonne
+         */
+        private static boolean moinsBon(double scoreA, int personneA, double scoreB, int personneB) {
+            return scoreA < scoreB || (scoreA == scoreB && personneA > personneB);
+        }
+
+        private boolean moinsBon(int i, int j) {
+            return moinsBon(scores[i], personnes[i], scores[j], personnes[j]);
+        }
+
+        private void remonter(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!moinsBon(i, parent)) {
+                    return;
+                }
+                echanger(i, parent);
+                i = parent;
+            }
+        }
+
+        private void descendre(int i) {
+            while (true) {
+                int gauche = 2 * i + 1;
+                if (gauche >= taille) {
+                    return;
+                }
+                int plusPetit = gauche + 1 < taille && moinsBon(gauche + 1, gauche) ? gauche + 1 : gauche;
+                if (!moinsBon(plusPetit, i)) {
+                    return;
+                }
+                echanger(i, plusPetit);
+                i = plusPetit;
+            }
+        }
+
+        private void placer(int i, int personne, int nbCouvertes, double score) {
+            personnes[i] = personne;
+            couvertes[i] = nbCouvertes;
+            scores[i] = score;
+        }
+
+        private void echanger(int i, int j) {
+            int personne = personnes[i];
+            int nbCouvertes = couvertes[i];
+            double score = scores[i];
+            placer(i, personnes[j], couvertes[j], scores[j]);
+            placer(j, personne, nbCouvertes, score);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Table en mémoire des correspondances entre demandes actives et personnes.
+ * <p>
+ * Une personne satisfait une demande lorsqu'elle atteint la note requise pour chacune de ses
+ * compétences requises. La table, indexée par (demande, personne), est calculée en entier une
+ * seule fois, puis maintenue incrémentalement : quand la note d'une personne change sur une
+ * compétence, seules les demandes actives qui requièrent cette compétence sont réévaluées, et
+ * pour cette seule personne. L'activité de chaque demande est vérifiée sur sa propre période :
+ * une demande arrivée à échéance depuis le chargement est retirée de la table à la première
+ * lecture ou réévaluation qui la concerne, en publiant la perte de ses correspondances ; une
+ * demande dont la période a commencé depuis le chargement y est ajoutée de la même façon, en
+ * publiant ses correspondances.
+ * <p>
+ * Chaque changement d'état est publié dans un flux d'événements numérotés, conservé dans un
+ * tampon circulaire de taille fixe : un lecteur reprend le flux à partir du dernier numéro reçu.
+ */
+@Component
+public class CorrespondancesDemandes {
+
+    /**
+     * Nature d'un changement de correspondance
+     */
+    public enum TypeEvenement {
+        /**
+         * La personne satisfait désormais la demande
+         */
+        SATISFAITE,
+        /**
+         * La personne ne satisfait plus la demande
+         */
+        PERDUE
+    }
+
+    /**
+     * Changement de correspondance entre une demande et une personne
+     *
+     * @param sequence Numéro de l'événement dans le flux, strictement croissant
+     * @param demandeId Identifiant de la demande
+     * @param personneId Identifiant de la personne
+     * @param type Nature du changement
+     * @param date Date du changement
+     */
+    public record Evenement(long sequence, String demandeId, String personneId, TypeEvenement type, Date date) {
+    }
+
+    private final IndexCompetencesDemandes indexCompetencesDemandes;
+    private final IndexPeriodes indexPeriodes;
+    private final MatriceCompetenceStore matriceCompetenceStore;
+
+    private final Map<String, Set<String>> personnesParDemande = new HashMap<>();
+    private final Evenement[] flux;
+    private long derniereSequence;
+    private boolean charge;
+
+    @Autowired
+    public CorrespondancesDemandes(IndexCompetencesDemandes indexCompetencesDemandes,
+                                   IndexPeriodes indexPeriodes,
+                                   MatriceCompetenceStore matriceCompetenceStore,
+                                   @Value("${matrice.correspondances.taille-flux:10000}") int tailleFlux) {
+        this.indexCompetencesDemandes = indexCompetencesDemandes;
+        this.indexPeriodes = indexPeriodes;
+        this.matriceCompetenceStore = matriceCompetenceStore;
+        this.flux = new Evenement[tailleFlux];
+    }
+
+    /**
+     * Personnes qui satisfont une demande active
+     * @param demandeId Identifiant de la demande
+     * @return Identifiants des personnes, triés ; vide si la demande n'est pas active
+     */
+    public synchronized List<String> personnes(String demandeId) {
+        chargerSiNecessaire();
+        if (!indexPeriodes.demandeActive(demandeId, new Date())) {
+            expirer(demandeId);
+            return new ArrayList<>();
+        }
+        Set<String> personnes = personnesParDemande.get(demandeId);
+        if (personnes == null) {
+            personnes = activer(matriceCompetenceStore.getSnapshot(), demandeId);
+        }
+        return new ArrayList<>(new TreeSet<>(personnes));
+    }
+
+    /**
+     * Événements d'une demande encore présents dans le flux
+     * @param demandeId Identifiant de la demande
+     * @param depuis Numéro du dernier événement déjà reçu (0 pour tout le flux conservé)
+     * @return Les événements de numéro supérieur, dans l'ordre du flux
+     */
+    public synchronized List<Evenement> evenements(String demandeId, long depuis) {
+        List<Evenement> resultat = new ArrayList<>();
+        long premiere = Math.max(Math.max(depuis, 0) + 1, derniereSequence - flux.length + 1);
+        for (long sequence = premiere; sequence <= derniereSequence; sequence++) {
+            Evenement evenement = flux[(int) (sequence % flux.length)];
+            if (evenement.demandeId().equals(demandeId)) {
+                resultat.add(evenement);
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Numéro du dernier événement publié
+     * @return Le numéro, 0 si aucun événement n'a été publié
+     */
+    public synchronized long derniereSequence() {
+        return derniereSequence;
+    }
+
+    /**
+     * Réévalue une personne pour les demandes actives qui requièrent une compétence,
+     * après la création, la modification ou la suppression de sa note
+     * @param personneId Identifiant de la personne
+     * @param competenceLibelle Libellé de la compétence notée
+     */
+    public synchronized void noteModifiee(String personneId, String competenceLibelle) {
+        reevaluer(Map.of(competenceLibelle, Set.of(personneId)));
+    }
+
+    /**
+     * Réévalue d'un coup les personnes d'un lot de notes écrites : chaque demande concernée
+     * n'est examinée qu'une fois, pour l'ensemble des personnes du lot notées sur ses compétences
+     * @param notes Les notes écrites
+     */
+    public synchronized void notesModifiees(Collection<NoteMatriceProjection> notes) {
+        Map<String, Set<String>> personnesParCompetence = new HashMap<>();
+        for (NoteMatriceProjection note : notes) {
+            personnesParCompetence.computeIfAbsent(note.competenceLibelle(), libelle -> new HashSet<>()).add(note.personneId());
+        }
+        reevaluer(personnesParCompetence);
+    }
+
+    private void reevaluer(Map<String, Set<String>> personnesParCompetence) {
+        if (!charge) {
+            // Le chargement complet lira les notes à jour
+            return;
+        }
+        Map<String, Set<String>> personnesParDemandeRequerante = new LinkedHashMap<>();
+        personnesParCompetence.forEach((competenceLibelle, personneIds) -> {
+            for (String demandeId : indexCompetencesDemandes.demandesRequerant(competenceLibelle)) {
+                personnesParDemandeRequerante.computeIfAbsent(demandeId, id -> new TreeSet<>()).addAll(personneIds);
+            }
+        });
+
+        MatriceCompetenceSnapshot snapshot = matriceCompetenceStore.getSnapshot();
+        Date maintenant = new Date();
+        personnesParDemandeRequerante.forEach((demandeId, personneIds) -> {
+            if (!indexPeriodes.demandeActive(demandeId, maintenant)) {
+                expirer(demandeId);
+                return;
+            }
+            Set<String> personnes = personnesParDemande.get(demandeId);
+            if (personnes == null) {
+                activer(snapshot, demandeId);
+                return;
+            }
+            int[][] exigences = exigences(snapshot, demandeId);
+            for (String personneId : personneIds) {
+                int p = snapshot.ordinalPersonne(personneId);
+                boolean satisfaite = p >= 0 && satisfait(snapshot, p, exigences);
+                if (satisfaite && personnes.add(personneId)) {
+                    publier(demandeId, personneId, TypeEvenement.SATISFAITE);
+                } else if (!satisfaite && personnes.remove(personneId)) {
+                    publier(demandeId, personneId, TypeEvenement.PERDUE);
+                }
+            }
+        });
+    }
+
+    /**
+     * Ajoute à la table une demande devenue active depuis le chargement, en publiant ses correspondances
+     */
+    private Set<String> activer(MatriceCompetenceSnapshot snapshot, String demandeId) {
+        Set<String> personnes = evaluer(snapshot, demandeId);
+        personnesParDemande.put(demandeId, personnes);
+        for (String personneId : new TreeSet<>(personnes)) {
+            publier(demandeId, personneId, TypeEvenement.SATISFAITE);
+        }
+        return personnes;
+    }
+
+    /**
+     * Retire de la table une demande qui n'est plus active, en publiant la perte de ses correspondances
+     */
+    private void expirer(String demandeId) {
+        Set<String> personnes = personnesParDemande.remove(demandeId);
+        if (personnes != null) {
+            for (String personneId : new TreeSet<>(personnes)) {
+                publier(demandeId, personneId, TypeEvenement.PERDUE);
+            }
+        }
+    }
+
+    /**
+     * Réévalue entièrement une demande après sa création ou sa modification,
+     * en publiant les correspondances gagnées et perdues
+     * @param demandeId Identifiant de la demande
+     */
+    public synchronized void demandeModifiee(String demandeId) {
+        if (!charge) {
+            return;
+        }
+        Set<String> avant = personnesParDemande.getOrDefault(demandeId, Set.of());
+        boolean active = indexPeriodes.demandeActive(demandeId, new Date());
+        Set<String> apres = active ? evaluer(matriceCompetenceStore.getSnapshot(), demandeId) : new HashSet<>();
+        for (String personneId : new TreeSet<>(apres)) {
+            if (!avant.contains(personneId)) {
+                publier(demandeId, personneId, TypeEvenement.SATISFAITE);
+            }
+        }
+        for (String personneId : new TreeSet<>(avant)) {
+            if (!apres.contains(personneId)) {
+                publier(demandeId, personneId, TypeEvenement.PERDUE);
+            }
+        }
+        if (active) {
+            personnesParDemande.put(demandeId, apres);
+        } else {
+            personnesParDemande.remove(demandeId);
+        }
+    }
+
+    /**
+     * Retire une demande supprimée de la table
+     * @param demandeId Identifiant de la demande
+     */
+    public synchronized void retirerDemande(String demandeId) {
+        personnesParDemande.remove(demandeId);
+    }
+
+    /**
+     * Force le recalcul complet de la table à la prochaine utilisation ; le flux est conservé
+     */
+    public synchronized void invalider() {
+        charge = false;
+    }
+
+    private void chargerSiNecessaire() {
+        if (charge) {
+            return;
+        }
+        personnesParDemande.clear();
+        MatriceCompetenceSnapshot snapshot = matriceCompetenceStore.getSnapshot();
+        for (String demandeId : indexPeriodes.demandesActives(new Date())) {
+            personnesParDemande.put(demandeId, evaluer(snapshot, demandeId));
+        }
+        charge = true;
+    }
+
+    /**
+     * Personnes qui satisfont une demande, par un parcours de toute la matrice
+     */
+    private Set<String> evaluer(MatriceCompetenceSnapshot snapshot, String demandeId) {
+        Set<String> personnes = new HashSet<>();
+        int[][] exigences = exigences(snapshot, demandeId);
+        if (exigences == null) {
+            return personnes;
+        }
+        for (int p = 0; p < snapshot.nbPersonnes(); p++) {
+            if (satisfait(snapshot, p, exigences)) {
+                personnes.add(snapshot.identifiantPersonne(p));
+            }
+        }
+        return personnes;
+    }
+
+    /**
+     * Couples (ordinal de compétence, note requise) d'une demande, ou null si elle ne requiert
+     * aucune compétence ou une compétence absente de la matrice (aucune personne ne peut la satisfaire)
+     */
+    private int[][] exigences(MatriceCompetenceSnapshot snapshot, String demandeId) {
+        Map<String, Integer> competences = indexCompetencesDemandes.competencesRequises(demandeId);
+        if (competences.isEmpty()) {
+            return null;
+        }
+        int[][] exigences = new int[competences.size()][];
+        int i = 0;
+        for (Map.Entry<String, Integer> competence : competences.entrySet()) {
+            int c = snapshot.ordinalCompetence(competence.getKey());
+            if (c < 0) {
+                return null;
+            }
+            exigences[i++] = new int[] {c, competence.getValue()};
+        }
+        return exigences;
+    }
+
+    private static boolean satisfait(MatriceCompetenceSnapshot snapshot, int p, int[][] exigences) {
+        if (exigences == null) {
+            return false;
+        }
+        for (int[] exigence : exigences) {
+            if (snapshot.note(p, exigence[0]) < exigence[1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void publier(String demandeId, String personneId, TypeEvenement type) {
+        derniereSequence++;
+        flux[(int) (derniereSequence % flux.length)] = new Evenement(derniereSequence, demandeId, personneId, type, new Date());
+    }
+}
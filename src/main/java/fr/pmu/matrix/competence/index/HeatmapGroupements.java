@@ -0,0 +1,262 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.repository.EquipeRepository;
+import fr.pmu.matrix.competence.repository.MatriceCompetenceRepository;
+import fr.pmu.matrix.competence.repository.PersonneRepository;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import fr.pmu.matrix.competence.repository.projection.RattachementProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Agrégats matérialisés de la matrice de compétences par groupement.
+ * <p>
+ * Pour chaque équipe, l'agrégat conserve un histogramme des notes par compétence
+ * (nombre de personnes par valeur de note) ; pour chaque groupement, la somme des
+ * histogrammes de ses équipes. La lecture de la heatmap d'un groupement ne dépend
+ * donc que du nombre de compétences.
+ * <p>
+ * L'agrégat est chargé à la première utilisation puis maintenu de façon incrémentale par
+ * les écritures de la matrice et les rattachements (création ou changement d'équipe d'une
+ * personne, de groupement d'une équipe). Une note portant sur une personne inconnue, ou un
+ * rattachement à une équipe inconnue, provoque un rechargement complet.
+ * Les personnes sans équipe et les équipes sans groupement ne sont comptées nulle part.
+ */
+@Component
+public class HeatmapGroupements {
+
+    private final PersonneRepository personneRepository;
+    private final EquipeRepository equipeRepository;
+    private final MatriceCompetenceRepository matriceCompetenceRepository;
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    // Rattachements : une valeur null signifie « connu mais non rattaché »
+    private final Map<String, String> equipeParPersonne = new HashMap<>();
+    private final Map<String, String> groupementParEquipe = new HashMap<>();
+    private final Map<String, Map<String, Integer>> notesParPersonne = new HashMap<>();
+    private final Map<String, Map<String, int[]>> histogrammesParEquipe = new HashMap<>();
+    private final Map<String, Map<String, int[]>> histogrammesParGroupement = new HashMap<>();
+    private volatile boolean charge;
+
+    @Autowired
+    public HeatmapGroupements(PersonneRepository personneRepository,
+                              EquipeRepository equipeRepository,
+                              MatriceCompetenceRepository matriceCompetenceRepository) {
+        this.personneRepository = personneRepository;
+        this.equipeRepository = equipeRepository;
+        this.matriceCompetenceRepository = matriceCompetenceRepository;
+    }
+
+    /**
+     * Retourne la répartition des notes par compétence pour un groupement
+     * @param groupementCode Code du groupement
+     * @return Pour chaque compétence (triée par libellé), le nombre de personnes par valeur de note
+     */
+    public Map<String, Map<Integer, Integer>> repartition(String groupementCode) {
+        chargerSiNecessaire();
+        verrou.readLock().lock();
+        try {
+            Map<String, Map<Integer, Integer>> resultat = new TreeMap<>();
+            histogrammesParGroupement.getOrDefault(groupementCode, Map.of()).forEach((competence, histogramme) -> {
+                Map<Integer, Integer> notes = new TreeMap<>();
+                for (int note = 0; note < histogramme.length; note++) {
+                    if (histogramme[note] > 0) {
+                        notes.put(note, histogramme[note]);
+                    }
+                }
+                if (!notes.isEmpty()) {
+                    resultat.put(competence, notes);
+                }
+            });
+            return resultat;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Enregistre (ou remplace) la note d'une personne pour une compétence
+     * @param personneId Identifiant de la personne
+     * @param competenceLibelle Libellé de la compétence
+     * @param noteValeur Valeur de la note
+     */
+    public void noter(String personneId, String competenceLibelle, int noteValeur) {
+        chargerSiNecessaire();
+        verrou.writeLock().lock();
+        try {
+            noterSansVerrou(personneId, competenceLibelle, noteValeur);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Enregistre un lot de notes
+     * @param notes Les triplets (personne, compétence, note)
+     */
+    public void noter(Collection<NoteMatriceProjection> notes) {
+        chargerSiNecessaire();
+        verrou.writeLock().lock();
+        try {
+            for (NoteMatriceProjection note : notes) {
+                if (!noterSansVerrou(note.personneId(), note.competenceLibelle(), note.noteValeur())) {
+                    return;
+                }
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire la note d'une personne pour une compétence
+     * @param personneId Identifiant de la personne
+     * @param competenceLibelle Libellé de la compétence
+     */
+    public void retirer(String personneId, String competenceLibelle) {
+        chargerSiNecessaire();
+        verrou.writeLock().lock();
+        try {
+            Map<String, Integer> notes = notesParPersonne.get(personneId);
+            Integer ancienne = notes == null ? null : notes.remove(competenceLibelle);
+            if (ancienne != null) {
+                compter(equipeParPersonne.get(personneId), competenceLibelle, ancienne, -1);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rattache une personne, nouvelle ou existante (avec toutes ses notes), à une équipe
+     * @param personneId Identifiant de la personne
+     * @param equipeCode Code de la nouvelle équipe, ou null si la personne n'a plus d'équipe
+     */
+    public void changerEquipe(String personneId, String equipeCode) {
+        chargerSiNecessaire();
+        verrou.writeLock().lock();
+        try {
+            if (equipeCode != null && !groupementParEquipe.containsKey(equipeCode)) {
+                charge = false;
+                return;
+            }
+            String ancienne = equipeParPersonne.put(personneId, equipeCode);
+            Map<String, Integer> notes = notesParPersonne.getOrDefault(personneId, Map.of());
+            notes.forEach((competence, note) -> {
+                compter(ancienne, competence, note, -1);
+                compter(equipeCode, competence, note, 1);
+            });
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rattache une équipe, nouvelle ou existante (avec les histogrammes de ses membres), à un groupement
+     * @param equipeCode Code de l'équipe
+     * @param groupementCode Code du nouveau groupement, ou null si l'équipe n'a plus de groupement
+     */
+    public void changerGroupement(String equipeCode, String groupementCode) {
+        chargerSiNecessaire();
+        verrou.writeLock().lock();
+        try {
+            String ancien = groupementParEquipe.put(equipeCode, groupementCode);
+            histogrammesParEquipe.getOrDefault(equipeCode, Map.of()).forEach((competence, histogramme) -> {
+                for (int note = 0; note < histogramme.length; note++) {
+                    ajouter(histogrammesParGroupement, ancien, competence, note, -histogramme[note]);
+                    ajouter(histogrammesParGroupement, groupementCode, competence, note, histogramme[note]);
+                }
+            });
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Force le rechargement complet de l'agrégat à la prochaine utilisation
+     */
+    public void invalider() {
+        charge = false;
+    }
+
+    /**
+     * Doit être appelée sous verrou d'écriture
+     * @return false si la personne est inconnue (l'agrégat est alors invalidé)
+     */
+    private boolean noterSansVerrou(String personneId, String competenceLibelle, int noteValeur) {
+        if (!equipeParPersonne.containsKey(personneId)) {
+            charge = false;
+            return false;
+        }
+        Integer ancienne = notesParPersonne.computeIfAbsent(personneId, id -> new HashMap<>())
+                .put(competenceLibelle, noteValeur);
+        String equipeCode = equipeParPersonne.get(personneId);
+        if (ancienne != null) {
+            compter(equipeCode, competenceLibelle, ancienne, -1);
+        }
+        compter(equipeCode, competenceLibelle, noteValeur, 1);
+        return true;
+    }
+
+    /**
+     * Ajoute {@code delta} personnes à la note d'une compétence pour une équipe et son groupement
+     */
+    private void compter(String equipeCode, String competenceLibelle, int note, int delta) {
+        if (equipeCode == null) {
+            return;
+        }
+        ajouter(histogrammesParEquipe, equipeCode, competenceLibelle, note, delta);
+        ajouter(histogrammesParGroupement, groupementParEquipe.get(equipeCode), competenceLibelle, note, delta);
+    }
+
+    private static void ajouter(Map<String, Map<String, int[]>> histogrammes, String code,
+                                String competenceLibelle, int note, int delta) {
+        if (code == null || delta == 0) {
+            return;
+        }
+        int indice = Math.max(note, 0);
+        Map<String, int[]> parCompetence = histogrammes.computeIfAbsent(code, c -> new HashMap<>());
+        int[] histogramme = parCompetence.get(competenceLibelle);
+        if (histogramme == null || histogramme.length <= indice) {
+            histogramme = histogramme == null ? new int[indice + 1] : Arrays.copyOf(histogramme, indice + 1);
+            parCompetence.put(competenceLibelle, histogramme);
+        }
+        histogramme[indice] += delta;
+    }
+
+    private void chargerSiNecessaire() {
+        if (charge) {
+            return;
+        }
+        verrou.writeLock().lock();
+        try {
+            if (charge) {
+                return;
+            }
+            equipeParPersonne.clear();
+            groupementParEquipe.clear();
+            notesParPersonne.clear();
+            histogrammesParEquipe.clear();
+            histogrammesParGroupement.clear();
+            for (RattachementProjection rattachement : equipeRepository.findAllRattachements()) {
+                groupementParEquipe.put(rattachement.code(), rattachement.parentCode());
+            }
+            for (RattachementProjection rattachement : personneRepository.findAllRattachements()) {
+                equipeParPersonne.put(rattachement.code(), rattachement.parentCode());
+            }
+            for (NoteMatriceProjection ligne : matriceCompetenceRepository.findAllNotes()) {
+                noterSansVerrou(ligne.personneId(), ligne.competenceLibelle(), ligne.noteValeur());
+            }
+            charge = true;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.repository.DemandeRepository;
+import fr.pmu.matrix.competence.repository.projection.CompetenceRequiseProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire des compétences requises par les demandes.
+ * <p>
+ * Pour chaque compétence, l'index conserve la liste des demandes qui la requièrent
+ * (« posting list »), triée par identifiant de demande, avec la note requise. Une recherche
+ * filtre chaque liste sur la note minimale, puis les combine par fusion de listes triées :
+ * intersection pour « toutes les compétences », union pour « au moins une », différence pour
+ * les compétences exclues. Chaque fusion est linéaire en la taille des listes.
+ * <p>
+ * L'index est chargé à la première utilisation puis maintenu à jour par
+ * {@link fr.pmu.matrix.competence.service.DemandeService}.
+ */
+@Component
+public class IndexCompetencesDemandes {
+
+    /**
+     * Compétence recherchée avec la note requise minimale
+     *
+     * @param competence Libellé de la compétence
+     * @param noteMinimale Note requise minimale (0 pour toute note)
+     */
+    public record Terme(String competence, int noteMinimale) {
+    }
+
+    /**
+     * Liste triée des demandes requérant une compétence, avec la note requise de chacune
+     */
+    private record Postings(String[] demandes, int[] notes) {
+
+        static final Postings VIDE = new Postings(new String[0], new int[0]);
+
+        List<String> avecNoteMinimale(int noteMinimale) {
+            List<String> resultat = new ArrayList<>(demandes.length);
+            for (int i = 0; i < demandes.length; i++) {
+                if (notes[i] >= noteMinimale) {
+                    resultat.add(demandes[i]);
+                }
+            }
+            return resultat;
+        }
+
+        Postings avec(String demandeId, int note) {
+            int i = Arrays.binarySearch(demandes, demandeId);
+            if (i >= 0) {
+                int[] nouvellesNotes = notes.clone();
+                nouvellesNotes[i] = note;
+                return new Postings(demandes, nouvellesNotes);
+            }
+            int position = -i - 1;
+            String[] nouvellesDemandes = new String[demandes.length + 1];
+            int[] nouvellesNotes = new int[notes.length + 1];
+            System.arraycopy(demandes, 0, nouvellesDemandes, 0, position);
+            System.arraycopy(notes, 0, nouvellesNotes, 0, position);
+            nouvellesDemandes[position] = demandeId;
+            nouvellesNotes[position] = note;
+            System.arraycopy(demandes, position, nouvellesDemandes, position + 1, demandes.length - position);
+            System.arraycopy(notes, position, nouvellesNotes, position + 1, notes.length - position);
+            return new Postings(nouvellesDemandes, nouvellesNotes);
+        }
+
+        Postings sans(String demandeId) {
+            int i = Arrays.binarySearch(demandes, demandeId);
+            if (i < 0) {
+                return this;
+            }
+            String[] nouvellesDemandes = new String[demandes.length - 1];
+            int[] nouvellesNotes = new int[notes.length - 1];
+            System.arraycopy(demandes, 0, nouvellesDemandes, 0, i);
+            System.arraycopy(notes, 0, nouvellesNotes, 0, i);
+            System.arraycopy(demandes, i + 1, nouvellesDemandes, i, demandes.length - i - 1);
+            System.arraycopy(notes, i + 1, nouvellesNotes, i, notes.length - i - 1);
+            return new Postings(nouvellesDemandes, nouvellesNotes);
+        }
+    }
+
+    private final DemandeRepository demandeRepository;
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postingsParCompetence = new HashMap<>();
+    private final Map<String, Map<String, Integer>> competencesParDemande = new HashMap<>();
+    private volatile boolean charge;
+
+    @Autowired
+    public IndexCompetencesDemandes(DemandeRepository demandeRepository) {
+        this.demandeRepository = demandeRepository;
+    }
+
+    /**
+     * Indexe (ou réindexe) les compétences requises d'une demande, en remplaçant les précédentes
+     * @param demandeId Identifiant de la demande
+     * @param notesParCompetence Note requise par libellé de compétence
+     */
+    public void indexer(String demandeId, Map<String, Integer> notesParCompetence) {
+        chargerSiNecessaire();
+        verrou.writeLock().lock();
+        try {
+            retirerSansVerrou(demandeId);
+            for (Map.Entry<String, Integer> competence : notesParCompetence.entrySet()) {
+                indexerSansVerrou(demandeId, competence.getKey(), competence.getValue());
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexe une seule compétence requise d'une demande, en remplaçant sa note précédente
+     * @param demandeId Identifiant de la demande
+     * @param competenceLibelle Libellé de la compétence
+     * @param noteValeur Note requise
+     */
+    public void indexerCompetence(String demandeId, String competenceLibelle, int noteValeur) {
+        chargerSiNecessaire();
+        verrou.writeLock().lock();
+        try {
+            competencesParDemande.computeIfAbsent(demandeId, id -> new HashMap<>()).put(competenceLibelle, noteValeur);
+            postingsParCompetence.put(competenceLibelle, postings(competenceLibelle).avec(demandeId, noteValeur));
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire une seule compétence requise d'une demande
+     * @param demandeId Identifiant de la demande
+     * @param competenceLibelle Libellé de la compétence
+     */
+    public void retirerCompetence(String demandeId, String competenceLibelle) {
+        chargerSiNecessaire();
+        verrou.writeLock().lock();
+        try {
+            Map<String, Integer> competences = competencesParDemande.get(demandeId);
+            if (competences == null || competences.remove(competenceLibelle) == null) {
+                return;
+            }
+            if (competences.isEmpty()) {
+                competencesParDemande.remove(demandeId);
+            }
+            retirerPostingSansVerrou(demandeId, competenceLibelle);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire une demande de l'index
+     * @param demandeId Identifiant de la demande
+     */
+    public void retirer(String demandeId) {
+        chargerSiNecessaire();
+        verrou.writeLock().lock();
+        try {
+            retirerSansVerrou(demandeId);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les demandes qui requièrent toutes les compétences données, chacune au moins à la note
+     * minimale du terme, et aucune des compétences exclues
+     * @param termes Compétences recherchées (intersection)
+     * @param exclues Libellés des compétences exclues
+     * @return Identifiants des demandes, triés
+     */
+    public List<String> toutes(Collection<Terme> termes, Collection<String> exclues) {
+        chargerSiNecessaire();
+        verrou.readLock().lock();
+        try {
+            List<List<String>> listes = new ArrayList<>(termes.size());
+            for (Terme terme : termes) {
+                listes.add(postings(terme.competence()).avecNoteMinimale(terme.noteMinimale()));
+            }
+            if (listes.isEmpty()) {
+                return new ArrayList<>();
+            }
+            // Les plus petites listes d'abord : le résultat intermédiaire ne peut que diminuer
+            listes.sort(Comparator.comparingInt(List::size));
+            List<String> resultat = listes.get(0);
+            for (int i = 1; i < listes.size() && !resultat.isEmpty(); i++) {
+                resultat = intersection(resultat, listes.get(i));
+            }
+            return sauf(resultat, exclues);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les demandes qui requièrent au moins une des compétences données à la note minimale
+     * du terme, et aucune des compétences exclues
+     * @param termes Compétences recherchées (union)
+     * @param exclues Libellés des compétences exclues
+     * @return Identifiants des demandes, triés
+     */
+    public List<String> auMoinsUne(Collection<Terme> termes, Collection<String> exclues) {
+        chargerSiNecessaire();
+        verrou.readLock().lock();
+        try {
+            List<String> resultat = new ArrayList<>();
+            for (Terme terme : termes) {
+                resultat = union(resultat, postings(terme.competence()).avecNoteMinimale(terme.noteMinimale()));
+            }
+            return sauf(resultat, exclues);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Demandes qui requièrent une compétence, quelle que soit la note
+     * @param competence Libellé de la compétence
+     * @return Identifiants des demandes, triés
+     */
+    public List<String> demandesRequerant(String competence) {
+        chargerSiNecessaire();
+        verrou.readLock().lock();
+        try {
+            return List.of(postings(competence).demandes());
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compétences requises par une demande
+     * @param demandeId Identifiant de la demande
+     * @return Note requise par libellé de compétence, vide si la demande n'est pas indexée
+     */
+    public Map<String, Integer> competencesRequises(String demandeId) {
+        chargerSiNecessaire();
+        verrou.readLock().lock();
+        try {
+            return Map.copyOf(competencesParDemande.getOrDefault(demandeId, Map.of()));
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Force le rechargement complet de l'index à la prochaine utilisation
+     */
+    public void invalider() {
+        charge = false;
+    }
+
+    /**
+     * Retire d'une liste triée les demandes qui requièrent une des compétences exclues.
+     * Doit être appelée sous verrou.
+     */
+    private List<String> sauf(List<String> demandes, Collection<String> exclues) {
+        List<String> resultat = demandes;
+        for (String competence : exclues) {
+            if (resultat.isEmpty()) {
+                break;
+            }
+            resultat = difference(resultat, postings(competence).avecNoteMinimale(0));
+        }
+        return resultat;
+    }
+
+    private Postings postings(String competence) {
+        return postingsParCompetence.getOrDefault(competence, Postings.VIDE);
+    }
+
+    private static List<String> intersection(List<String> a, List<String> b) {
+        List<String> resultat = new ArrayList<>(Math.min(a.size(), b.size()));
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            int comparaison = a.get(i).compareTo(b.get(j));
+            if (comparaison == 0) {
+                resultat.add(a.get(i));
+                i++;
+                j++;
+            } else if (comparaison < 0) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return resultat;
+    }
+
+    private static List<String> union(List<String> a, List<String> b) {
+        List<String> resultat = new ArrayList<>(a.size() + b.size());
+        int i = 0;
+        int j = 0;
+        while (i < a.size() || j < b.size()) {
+            int comparaison = i == a.size() ? 1 : j == b.size() ? -1 : a.get(i).compareTo(b.get(j));
+            if (comparaison <= 0) {
+                resultat.add(a.get(i++));
+                if (comparaison == 0) {
+                    j++;
+                }
+            } else {
+                resultat.add(b.get(j++));
+            }
+        }
+        return resultat;
+    }
+
+    private static List<String> difference(List<String> a, List<String> b) {
+        List<String> resultat = new ArrayList<>(a.size());
+        int j = 0;
+        for (String demande : a) {
+            while (j < b.size() && b.get(j).compareTo(demande) < 0) {
+                j++;
+            }
+            if (j == b.size() || !b.get(j).equals(demande)) {
+                resultat.add(demande);
+            }
+        }
+        return resultat;
+    }
+
+    private void indexerSansVerrou(String demandeId, String competenceLibelle, int noteValeur) {
+        Map<String, Integer> competences = competencesParDemande.computeIfAbsent(demandeId, id -> new HashMap<>());
+        // Une compétence requise plusieurs fois par la même demande retient la note la plus haute
+        int note = Math.max(noteValeur, competences.getOrDefault(competenceLibelle, Integer.MIN_VALUE));
+        competences.put(competenceLibelle, note);
+        postingsParCompetence.put(competenceLibelle, postings(competenceLibelle).avec(demandeId, note));
+    }
+
+    private void retirerSansVerrou(String demandeId) {
+        Map<String, Integer> competences = competencesParDemande.remove(demandeId);
+        if (competences == null) {
+            return;
+        }
+        for (String competence : competences.keySet()) {
+            retirerPostingSansVerrou(demandeId, competence);
+        }
+    }
+
+    private void retirerPostingSansVerrou(String demandeId, String competence) {
+        Postings restantes = postings(competence).sans(demandeId);
+        if (restantes.demandes().length == 0) {
+            postingsParCompetence.remove(competence);
+        } else {
+            postingsParCompetence.put(competence, restantes);
+        }
+    }
+
+    private void chargerSiNecessaire() {
+        if (charge) {
+            return;
+        }
+        verrou.writeLock().lock();
+        try {
+            if (charge) {
+                return;
+            }
+            postingsParCompetence.clear();
+            competencesParDemande.clear();
+            Map<String, List<CompetenceRequiseProjection>> parCompetence = new HashMap<>();
+            for (CompetenceRequiseProjection ligne : demandeRepository.findAllCompetencesRequises()) {
+                Map<String, Integer> competences = competencesParDemande.computeIfAbsent(ligne.demandeId(), id -> new HashMap<>());
+                competences.merge(ligne.competenceLibelle(), ligne.noteValeur(), Math::max);
+                parCompetence.computeIfAbsent(ligne.competenceLibelle(), c -> new ArrayList<>()).add(ligne);
+            }
+            // Construction directe des listes triées, sans insertions successives
+            for (Map.Entry<String, List<CompetenceRequiseProjection>> entree : parCompetence.entrySet()) {
+                String competence = entree.getKey();
+                List<String> demandes = entree.getValue().stream()
+                        .map(CompetenceRequiseProjection::demandeId)
+                        .distinct()
+                        .sorted()
+                        .toList();
+                String[] ids = demandes.toArray(new String[0]);
+                int[] notes = new int[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    notes[i] = competencesParDemande.get(ids[i]).get(competence);
+                }
+                postingsParCompetence.put(competence, new Postings(ids, notes));
+            }
+            charge = true;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.repository.AbsenceRepository;
+import fr.pmu.matrix.competence.repository.DemandeRepository;
+import fr.pmu.matrix.competence.repository.ProfilRepository;
+import fr.pmu.matrix.competence.repository.projection.PeriodeDemandeProjection;
+import fr.pmu.matrix.competence.repository.projection.PeriodePersonneProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index en mémoire des périodes des demandes, des disponibilités des profils et des absences.
+ * <p>
+ * Chaque famille de périodes est rangée dans un {@link ArbreIntervalles} qui répond à
+ * « actif à la date t » et « chevauchant [a, b] » en O(log n + k), sans accès base.
+ * Les bornes suivent les requêtes SQL qu'il remplace :
+ * <ul>
+ *   <li>demande : {@code dateDebut <= t} et ({@code dateFin} null ou {@code >= t}) ;</li>
+ *   <li>profil : ({@code dateDebutDisponibilite} null ou {@code < t}) et
+ *       ({@code dateFinDisponibilite} null ou {@code > t}), bornes strictes ramenées à la
+ *       milliseconde intérieure ;</li>
+ *   <li>absence : {@code dateDebut <= t <= dateFin}.</li>
+ * </ul>
+ * Chaque arbre est construit à la première utilisation et reconstruit après toute écriture
+ * validée sur l'entité correspondante, voir {@link IndexPeriodesListener}.
+ */
+@Component
+public class IndexPeriodes {
+
+    private final DemandeRepository demandeRepository;
+    private final ProfilRepository profilRepository;
+    private final AbsenceRepository absenceRepository;
+
+    private volatile ArbreIntervalles<String> demandes;
+    private volatile Map<String, ArbreIntervalles.Intervalle<String>> periodesDemandes;
+    private volatile ArbreIntervalles<PeriodePersonneProjection> profils;
+    private volatile ArbreIntervalles<PeriodePersonneProjection> absences;
+
+    @Autowired
+    public IndexPeriodes(DemandeRepository demandeRepository,
+                         ProfilRepository profilRepository,
+                         AbsenceRepository absenceRepository) {
+        this.demandeRepository = demandeRepository;
+        this.profilRepository = profilRepository;
+        this.absenceRepository = absenceRepository;
+    }
+
+    /**
+     * Identifiants des demandes actives à une date
+     * @param date La date de référence
+     * @return Les identifiants, dans un ordre quelconque
+     */
+    public List<String> demandesActives(Date date) {
+        return getDemandes().contenant(date.getTime());
+    }
+
+    /**
+     * Indique si une demande est active à une date, d'après sa seule période
+     * @param demandeId Identifiant de la demande
+     * @param date La date de référence
+     * @return true si la demande existe et que sa période contient la date
+     */
+    public boolean demandeActive(String demandeId, Date date) {
+        getDemandes();
+        ArbreIntervalles.Intervalle<String> periode = periodesDemandes.get(demandeId);
+        long instant = date.getTime();
+        return periode != null && periode.debut() <= instant && instant <= periode.fin();
+    }
+
+    /**
+     * Identifiants des demandes dont la période chevauche {@code [debut, fin]}
+     * @param debut Début de la période
+     * @param fin Fin de la période
+     * @return Les identifiants, dans un ordre quelconque
+     */
+    public List<String> demandesChevauchant(Date debut, Date fin) {
+        return getDemandes().chevauchant(debut.getTime(), fin.getTime());
+    }
+
+    /**
+     * Ids des profils disponibles à une date
+     * @param date La date de référence
+     * @return Les ids des profils, dans un ordre quelconque
+     */
+    public List<Long> profilsDisponibles(Date date) {
+        List<Long> ids = new ArrayList<>();
+        for (PeriodePersonneProjection profil : getProfils().contenant(date.getTime())) {
+            ids.add(profil.id());
+        }
+        return ids;
+    }
+
+    /**
+     * Identifiants des personnes ayant au moins un profil disponible à une date
+     * @param date La date de référence
+     * @return Les identifiants des personnes
+     */
+    public Set<String> personnesDisponibles(Date date) {
+        return personnes(getProfils().contenant(date.getTime()));
+    }
+
+    /**
+     * Identifiants des personnes absentes à une date
+     * @param date La date de référence
+     * @return Les identifiants des personnes
+     */
+    public Set<String> personnesAbsentes(Date date) {
+        return personnes(getAbsences().contenant(date.getTime()));
+    }
+
+    /**
+     * Identifiants des personnes absentes au moins un jour de {@code [debut, fin]}
+     * @param debut Début de la période
+     * @param fin Fin de la période
+     * @return Les identifiants des personnes
+     */
+    public Set<String> personnesAbsentesEntre(Date debut, Date fin) {
+        return personnes(getAbsences().chevauchant(debut.getTime(), fin.getTime()));
+    }
+
+    /**
+     * Périodes de disponibilité des profils chevauchant {@code [debut, fin]}
+     * @param debut Début de la période
+     * @param fin Fin de la période
+     * @return Les périodes, avec leurs dates d'origine (bornes exclues), dans un ordre quelconque
+     */
+    public List<PeriodePersonneProjection> profilsChevauchant(Date debut, Date fin) {
+        return getProfils().chevauchant(debut.getTime(), fin.getTime());
+    }
+
+    /**
+     * Absences chevauchant {@code [debut, fin]}
+     * @param debut Début de la période
+     * @param fin Fin de la période
+     * @return Les absences, dans un ordre quelconque
+     */
+    public List<PeriodePersonneProjection> absencesChevauchant(Date debut, Date fin) {
+        return getAbsences().chevauchant(debut.getTime(), fin.getTime());
+    }
+
+    /**
+     * Abandonne l'arbre des demandes : il sera reconstruit à la prochaine lecture
+     */
+    public synchronized void invaliderDemandes() {
+        demandes = null;
+    }
+
+    /**
+     * Abandonne l'arbre des profils : il sera reconstruit à la prochaine lecture
+     */
+    public synchronized void invaliderProfils() {
+        profils = null;
+    }
+
+    /**
+     * Abandonne l'arbre des absences : il sera reconstruit à la prochaine lecture
+     */
+    public synchronized void invaliderAbsences() {
+        absences = null;
+    }
+
+    private ArbreIntervalles<String> getDemandes() {
+        ArbreIntervalles<String> courant = demandes;
+        if (courant != null) {
+            return courant;
+        }
+        synchronized (this) {
+            if (demandes == null) {
+                List<ArbreIntervalles.Intervalle<String>> intervalles = new ArrayList<>();
+                Map<String, ArbreIntervalles.Intervalle<String>> parId = new HashMap<>();
+                for (PeriodeDemandeProjection demande : demandeRepository.findAllPeriodes()) {
+                    ArbreIntervalles.Intervalle<String> intervalle = new ArbreIntervalles.Intervalle<>(
+                            debut(demande.dateDebut()), fin(demande.dateFin()), demande.id());
+                    intervalles.add(intervalle);
+                    parId.put(demande.id(), intervalle);
+                }
+                // Publiée avant l'arbre, qui sert d'indicateur de chargement
+                periodesDemandes = parId;
+                demandes = ArbreIntervalles.construire(intervalles);
+            }
+            return demandes;
+        }
+    }
+
+    private ArbreIntervalles<PeriodePersonneProjection> getProfils() {
+        ArbreIntervalles<PeriodePersonneProjection> courant = profils;
+        if (courant != null) {
+            return courant;
+        }
+        synchronized (this) {
+            if (profils == null) {
+                List<ArbreIntervalles.Intervalle<PeriodePersonneProjection>> intervalles = new ArrayList<>();
+                for (PeriodePersonneProjection profil : profilRepository.findAllPeriodes()) {
+                    // Bornes exclues : la disponibilité commence après le début et finit avant la fin
+                    long debut = profil.dateDebut() == null ? ArbreIntervalles.DEBUT_OUVERT : profil.dateDebut().getTime() + 1;
+                    long fin = profil.dateFin() == null ? ArbreIntervalles.FIN_OUVERTE : profil.dateFin().getTime() - 1;
+                    intervalles.add(new ArbreIntervalles.Intervalle<>(debut, fin, profil));
+                }
+                profils = ArbreIntervalles.construire(intervalles);
+            }
+            return profils;
+        }
+    }
+
+    private ArbreIntervalles<PeriodePersonneProjection> getAbsences() {
+        ArbreIntervalles<PeriodePersonneProjection> courant = absences;
+        if (courant != null) {
+            return courant;
+        }
+        synchronized (this) {
+            if (absences == null) {
+                List<ArbreIntervalles.Intervalle<PeriodePersonneProjection>> intervalles = new ArrayList<>();
+                for (PeriodePersonneProjection absence : absenceRepository.findAllPeriodes()) {
+                    intervalles.add(new ArbreIntervalles.Intervalle<>(
+                            debut(absence.dateDebut()), fin(absence.dateFin()), absence));
+                }
+                absences = ArbreIntervalles.construire(intervalles);
+            }
+            return absences;
+        }
+    }
+
+    private static long debut(Date date) {
+        return date == null ? ArbreIntervalles.DEBUT_OUVERT : date.getTime();
+    }
+
+    private static long fin(Date date) {
+        return date == null ? ArbreIntervalles.FIN_OUVERTE : date.getTime();
+    }
+
+    private static Set<String> personnes(List<PeriodePersonneProjection> periodes) {
+        Set<String> identifiants = new HashSet<>();
+        for (PeriodePersonneProjection periode : periodes) {
+            identifiants.add(periode.personneIdentifiant());
+        }
+        return identifiants;
+    }
+}
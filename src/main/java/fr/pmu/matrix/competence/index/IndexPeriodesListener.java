@@ -0,0 +1,43 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.entity.AbsenceEntity;
+import fr.pmu.matrix.competence.entity.DemandeEntity;
+import fr.pmu.matrix.competence.entity.ProfilEntity;
+import fr.pmu.matrix.competence.service.ApresCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Listener JPA des entités datées (demandes, profils, absences).
+ * Invalide l'arbre correspondant de l'{@link IndexPeriodes} après le commit de
+ * toute création, modification ou suppression.
+ */
+public class IndexPeriodesListener {
+
+    private final ObjectProvider<IndexPeriodes> index;
+
+    @Autowired
+    public IndexPeriodesListener(ObjectProvider<IndexPeriodes> index) {
+        this.index = index;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void periodeModifiee(Object entity) {
+        IndexPeriodes indexPeriodes = index.getIfAvailable();
+        if (indexPeriodes == null) {
+            return;
+        }
+        if (entity instanceof DemandeEntity) {
+            ApresCommit.executer(indexPeriodes::invaliderDemandes);
+        } else if (entity instanceof ProfilEntity) {
+            ApresCommit.executer(indexPeriodes::invaliderProfils);
+        } else if (entity instanceof AbsenceEntity) {
+            ApresCommit.executer(indexPeriodes::invaliderAbsences);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.repository.MatriceCompetenceRepository;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire de la matrice de compétences.
+ * <p>
+ * Chaque personne reçoit un ordinal dense. Pour chaque compétence, l'index conserve
+ * un bitmap de personnes par niveau de note, cumulatif : le bitmap du niveau N contient
+ * toutes les personnes ayant une note supérieure ou égale à N. Le niveau 0 correspond
+ * donc à la simple possession de la compétence (les notes sont positives ou nulles).
+ * Un filtre sur plusieurs compétences se ramène ainsi à une intersection de bitmaps.
+ * <p>
+ * L'index est chargé à la première utilisation puis maintenu à jour par
+ * {@link fr.pmu.matrix.competence.service.MatriceCompetenceService}.
+ */
+@Component
+public class MatriceCompetenceIndex {
+
+    private final MatriceCompetenceRepository matriceCompetenceRepository;
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> ordinauxPersonnes = new HashMap<>();
+    private final List<String> identifiantsPersonnes = new ArrayList<>();
+    private final Map<String, BitSet[]> niveauxParCompetence = new HashMap<>();
+    private volatile boolean charge;
+
+    @Autowired
+    public MatriceCompetenceIndex(MatriceCompetenceRepository matriceCompetenceRepository) {
+        this.matriceCompetenceRepository = matriceCompetenceRepository;
+    }
+
+    /**
+     * Indexe (ou réindexe) la note d'une personne pour une compétence
+     * @param personneId Identifiant de la personne
+     * @param competenceLibelle Libellé de la compétence
+     * @param noteValeur Valeur de la note
+     */
+    public void indexer(String personneId, String competenceLibelle, int noteValeur) {
+        chargerSiNecessaire();
+        verrou.writeLock().lock();
+        try {
+            indexerSansVerrou(personneId, competenceLibelle, noteValeur);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire de l'index la note d'une personne pour une compétence
+     * @param personneId Identifiant de la personne
+     * @param competenceLibelle Libellé de la compétence
+     */
+    public void retirer(String personneId, String competenceLibelle) {
+        chargerSiNecessaire();
+        verrou.writeLock().lock();
+        try {
+            Integer ordinal = ordinauxPersonnes.get(personneId);
+            BitSet[] niveaux = niveauxParCompetence.get(competenceLibelle);
+            if (ordinal == null || niveaux == null) {
+                return;
+            }
+            for (BitSet niveau : niveaux) {
+                niveau.clear(ordinal);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les personnes ayant toutes les compétences demandées avec au moins la note minimale
+     * @param competences Libellés des compétences (intersection)
+     * @param noteMinimale Note minimale requise pour chaque compétence
+     * @return Identifiants des personnes correspondantes
+     */
+    public Set<String> personnesAvecNoteMinimale(Collection<String> competences, int noteMinimale) {
+        chargerSiNecessaire();
+        verrou.readLock().lock();
+        try {
+            BitSet resultat = intersection(competences, Math.max(noteMinimale, 0));
+            Set<String> identifiants = new HashSet<>();
+            for (int i = resultat.nextSetBit(0); i >= 0; i = resultat.nextSetBit(i + 1)) {
+                identifiants.add(identifiantsPersonnes.get(i));
+            }
+            return identifiants;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les personnes possédant toutes les compétences demandées, quelle que soit la note
+     * @param competences Libellés des compétences (intersection)
+     * @return Identifiants des personnes correspondantes
+     */
+    public Set<String> personnesAvecCompetences(Collection<String> competences) {
+        return personnesAvecNoteMinimale(competences, 0);
+    }
+
+    /**
+     * Force le rechargement complet de l'index à la prochaine utilisation
+     */
+    public void invalider() {
+        charge = false;
+    }
+
+    /**
+     * Calcule l'intersection des bitmaps cumulatifs des compétences demandées au niveau donné.
+     * Doit être appelée sous verrou.
+     */
+    private BitSet intersection(Collection<String> competences, int niveau) {
+        BitSet resultat = null;
+        for (String competence : competences) {
+            BitSet[] niveaux = niveauxParCompetence.get(competence);
+            if (niveaux == null || niveau >= niveaux.length) {
+                return new BitSet();
+            }
+            if (resultat == null) {
+                resultat = (BitSet) niveaux[niveau].clone();
+            } else {
+                resultat.and(niveaux[niveau]);
+            }
+            if (resultat.isEmpty()) {
+                return resultat;
+            }
+        }
+        return resultat == null ? new BitSet() : resultat;
+    }
+
+    private void indexerSansVerrou(String personneId, String competenceLibelle, int noteValeur) {
+        int note = Math.max(noteValeur, 0);
+        int ordinal = ordinauxPersonnes.computeIfAbsent(personneId, id -> {
+            identifiantsPersonnes.add(id);
+            return identifiantsPersonnes.size() - 1;
+        });
+
+        BitSet[] niveaux = niveauxParCompetence.get(competenceLibelle);
+        if (niveaux == null || niveaux.length <= note) {
+            niveaux = agrandir(niveaux, note + 1);
+            niveauxParCompetence.put(competenceLibelle, niveaux);
+        }
+
+        // Les bitmaps étant cumulatifs, la personne est présente de 0 à note et absente au-delà
+        for (int niveau = 0; niveau < niveaux.length; niveau++) {
+            niveaux[niveau].set(ordinal, niveau <= note);
+        }
+    }
+
+    private BitSet[] agrandir(BitSet[] niveaux, int taille) {
+        int ancienneTaille = niveaux == null ? 0 : niveaux.length;
+        BitSet[] resultat = niveaux == null ? new BitSet[taille] : Arrays.copyOf(niveaux, taille);
+        for (int i = ancienneTaille; i < taille; i++) {
+            resultat[i] = new BitSet();
+        }
+        return resultat;
+    }
+
+    private void chargerSiNecessaire() {
+        if (charge) {
+            return;
+        }
+        verrou.writeLock().lock();
+        try {
+            if (charge) {
+                return;
+            }
+            ordinauxPersonnes.clear();
+            identifiantsPersonnes.clear();
+            niveauxParCompetence.clear();
+            for (NoteMatriceProjection ligne : matriceCompetenceRepository.findAllNotes()) {
+                indexerSansVerrou(ligne.personneId(), ligne.competenceLibelle(), ligne.noteValeur());
+            }
+            charge = true;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+}
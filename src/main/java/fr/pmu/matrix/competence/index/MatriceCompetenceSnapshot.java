@@ -0,0 +1,386 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.domain.Competence;
+import fr.pmu.matrix.competence.domain.Equipe;
+import fr.pmu.matrix.competence.domain.MatriceCompetence;
+import fr.pmu.matrix.competence.domain.Note;
+import fr.pmu.matrix.competence.domain.Personne;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.EquipeEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Photographie immuable de la matrice de compétences complète, rangée ligne par personne.
+ * <p>
+ * Les personnes et les compétences sont numérotées par des ordinaux denses (dictionnaires
+ * identifiant → ordinal). Les notes sont rangées dans une grille {@code byte[][]} d'une ligne
+ * par personne et d'une case par compétence, où chaque case contient {@code valeur + 1}
+ * et 0 signifie « pas d'évaluation ». Une case ne peut donc porter qu'une note comprise entre 0
+ * et {@link #NOTE_MAX} ; le service des notes refuse d'en créer hors de cette plage.
+ * <p>
+ * Une photographie n'est jamais modifiée : les écritures produisent une nouvelle instance
+ * (copie sur écriture) qui partage les dictionnaires de la précédente, ainsi que toutes
+ * les lignes de la grille sauf celles des personnes modifiées.
+ */
+public final class MatriceCompetenceSnapshot {
+
+    /**
+     * Valeur retournée par {@link #note(int, int)} lorsqu'une personne n'est pas évaluée sur une compétence
+     */
+    public static final int AUCUNE_NOTE = -1;
+
+    /**
+     * Plus grande valeur de note représentable dans la grille
+     */
+    public static final int NOTE_MAX = Byte.MAX_VALUE - 1;
+
+    private final Map<String, Integer> ordinauxPersonnes;
+    private final String[] identifiants;
+    private final String[] noms;
+    private final String[] prenoms;
+    private final String[] postes;
+    private final String[] equipeCodes;
+    private final String[] equipeNoms;
+    private final String[] equipeDescriptions;
+
+    private final Map<String, Integer> ordinauxCompetences;
+    private final String[] libelles;
+    private final String[] descriptions;
+
+    private final Map<Integer, String> libellesNotes;
+
+    private final byte[][] grille;
+
+    private MatriceCompetenceSnapshot(MatriceCompetenceSnapshot source, byte[][] grille) {
+        this.ordinauxPersonnes = source.ordinauxPersonnes;
+        this.identifiants = source.identifiants;
+        this.noms = source.noms;
+        this.prenoms = source.prenoms;
+        this.postes = source.postes;
+        this.equipeCodes = source.equipeCodes;
+        this.equipeNoms = source.equipeNoms;
+        this.equipeDescriptions = source.equipeDescriptions;
+        this.ordinauxCompetences = source.ordinauxCompetences;
+        this.libelles = source.libelles;
+        this.descriptions = source.descriptions;
+        this.libellesNotes = source.libellesNotes;
+        this.grille = grille;
+    }
+
+    private MatriceCompetenceSnapshot(List<PersonneEntity> personnes,
+                                      List<CompetenceEntity> competences,
+                                      Collection<NoteEntity> notes) {
+        int nbPersonnes = personnes.size();
+        this.ordinauxPersonnes = new HashMap<>(nbPersonnes * 2);
+        this.identifiants = new String[nbPersonnes];
+        this.noms = new String[nbPersonnes];
+        this.prenoms = new String[nbPersonnes];
+        this.postes = new String[nbPersonnes];
+        this.equipeCodes = new String[nbPersonnes];
+        this.equipeNoms = new String[nbPersonnes];
+        this.equipeDescriptions = new String[nbPersonnes];
+        for (int i = 0; i < nbPersonnes; i++) {
+            PersonneEntity personne = personnes.get(i);
+            ordinauxPersonnes.put(personne.getIdentifiant(), i);
+            identifiants[i] = personne.getIdentifiant();
+            noms[i] = personne.getNom();
+            prenoms[i] = personne.getPrenom();
+            postes[i] = personne.getPoste();
+            EquipeEntity equipe = personne.getEquipe();
+            if (equipe != null) {
+                equipeCodes[i] = equipe.getCode();
+                equipeNoms[i] = equipe.getNom();
+                equipeDescriptions[i] = equipe.getDescription();
+            }
+        }
+
+        int nbCompetences = competences.size();
+        this.ordinauxCompetences = new HashMap<>(nbCompetences * 2);
+        this.libelles = new String[nbCompetences];
+        this.descriptions = new String[nbCompetences];
+        for (int i = 0; i < nbCompetences; i++) {
+            CompetenceEntity competence = competences.get(i);
+            ordinauxCompetences.put(competence.getLibelle(), i);
+            libelles[i] = competence.getLibelle();
+            descriptions[i] = competence.getDescription();
+        }
+
+        this.libellesNotes = new HashMap<>();
+        for (NoteEntity note : notes) {
+            libellesNotes.put(note.getValeur(), note.getLibelle());
+        }
+
+        this.grille = new byte[nbPersonnes][nbCompetences];
+    }
+
+    /**
+     * Construit une photographie à partir des données de référence et des notes de la matrice.
+     * Les personnes et compétences sont triées par identifiant afin de garantir un ordre stable.
+     *
+     * @param personnes Toutes les personnes (avec leur équipe)
+     * @param competences Toutes les compétences
+     * @param notes Toutes les notes du référentiel
+     * @param lignes Toutes les lignes de la matrice
+     * @return La photographie correspondante
+     */
+    public static MatriceCompetenceSnapshot construire(List<PersonneEntity> personnes,
+                                                       List<CompetenceEntity> competences,
+                                                       Collection<NoteEntity> notes,
+                                                       Collection<NoteMatriceProjection> lignes) {
+        List<PersonneEntity> personnesTriees = new ArrayList<>(personnes);
+        personnesTriees.sort(Comparator.comparing(PersonneEntity::getIdentifiant));
+        List<CompetenceEntity> competencesTriees = new ArrayList<>(competences);
+        competencesTriees.sort(Comparator.comparing(CompetenceEntity::getLibelle));
+
+        MatriceCompetenceSnapshot snapshot = new MatriceCompetenceSnapshot(personnesTriees, competencesTriees, notes);
+        for (NoteMatriceProjection ligne : lignes) {
+            int p = snapshot.ordinalPersonne(ligne.personneId());
+            int c = snapshot.ordinalCompetence(ligne.competenceLibelle());
+            // Une note hors plage, antérieure à la validation des notes, est ignorée plutôt que
+            // de rendre toute la matrice illisible
+            if (p >= 0 && c >= 0 && representable(ligne.noteValeur())) {
+                snapshot.grille[p][c] = encoder(ligne.noteValeur());
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Retourne une nouvelle photographie où la note de la personne pour la compétence est remplacée ;
+     * seule la ligne de la personne est copiée, les autres sont partagées
+     * @param p Ordinal de la personne
+     * @param c Ordinal de la compétence
+     * @param noteValeur Nouvelle valeur de la note, ou {@link #AUCUNE_NOTE} pour retirer l'évaluation
+     * @return La nouvelle photographie
+     */
+    public MatriceCompetenceSnapshot avecNote(int p, int c, int noteValeur) {
+        byte[][] copie = grille.clone();
+        copie[p] = grille[p].clone();
+        copie[p][c] = noteValeur == AUCUNE_NOTE ? 0 : encoder(noteValeur);
+        return new MatriceCompetenceSnapshot(this, copie);
+    }
+
+    /**
+     * Retourne une nouvelle photographie appliquant plusieurs modifications en une seule copie,
+     * où chaque ligne modifiée n'est copiée qu'une fois
+     * @param modifications Tableau de triplets (ordinal personne, ordinal compétence, note ou {@link #AUCUNE_NOTE})
+     * @return La nouvelle photographie
+     */
+    public MatriceCompetenceSnapshot avecNotes(List<int[]> modifications) {
+        byte[][] copie = grille.clone();
+        BitSet copiees = new BitSet(grille.length);
+        for (int[] modification : modifications) {
+            int p = modification[0];
+            if (!copiees.get(p)) {
+                copie[p] = grille[p].clone();
+                copiees.set(p);
+            }
+            copie[p][modification[1]] = modification[2] == AUCUNE_NOTE ? 0 : encoder(modification[2]);
+        }
+        return new MatriceCompetenceSnapshot(this, copie);
+    }
+
+    public int nbPersonnes() {
+        return identifiants.length;
+    }
+
+    public int nbCompetences() {
+        return libelles.length;
+    }
+
+    /**
+     * @param identifiant Identifiant de la personne
+     * @return L'ordinal de la personne, ou -1 si elle est inconnue
+     */
+    public int ordinalPersonne(String identifiant) {
+        Integer ordinal = ordinauxPersonnes.get(identifiant);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * @param libelle Libellé de la compétence
+     * @return L'ordinal de la compétence, ou -1 si elle est inconnue
+     */
+    public int ordinalCompetence(String libelle) {
+        Integer ordinal = ordinauxCompetences.get(libelle);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * @param p Ordinal de la personne
+     * @param c Ordinal de la compétence
+     * @return La valeur de la note, ou {@link #AUCUNE_NOTE} si la personne n'est pas évaluée
+     */
+    public int note(int p, int c) {
+        return grille[p][c] - 1;
+    }
+
+    public String identifiantPersonne(int p) {
+        return identifiants[p];
+    }
+
+    public String equipeCode(int p) {
+        return equipeCodes[p];
+    }
+
+    public String libelleCompetence(int c) {
+        return libelles[c];
+    }
+
+    /**
+     * Construit toutes les lignes de la matrice, personne par personne
+     * @return Liste des matrices de compétences
+     */
+    public List<MatriceCompetence> toutesLesLignes() {
+        return toutesLesLignes(SelectionChamps.TOUS);
+    }
+
+    /**
+     * Construit toutes les lignes de la matrice, personne par personne, avec les seuls champs demandés
+     * @param champs Champs demandés ({@code personne}, {@code competence}, {@code note} et leurs sous-champs)
+     * @return Liste des matrices de compétences
+     */
+    public List<MatriceCompetence> toutesLesLignes(SelectionChamps champs) {
+        List<MatriceCompetence> resultat = new ArrayList<>();
+        for (int p = 0; p < identifiants.length; p++) {
+            ajouterLigne(resultat, p, champs);
+        }
+        return resultat;
+    }
+
+    /**
+     * Construit les lignes de la matrice d'une personne
+     * @param p Ordinal de la personne
+     * @return Liste des matrices de compétences de la personne
+     */
+    public List<MatriceCompetence> ligne(int p) {
+        return ligne(p, SelectionChamps.TOUS);
+    }
+
+    /**
+     * Construit les lignes de la matrice d'une personne, avec les seuls champs demandés
+     * @param p Ordinal de la personne
+     * @param champs Champs demandés
+     * @return Liste des matrices de compétences de la personne
+     */
+    public List<MatriceCompetence> ligne(int p, SelectionChamps champs) {
+        List<MatriceCompetence> resultat = new ArrayList<>();
+        ajouterLigne(resultat, p, champs);
+        return resultat;
+    }
+
+    /**
+     * Construit les lignes de la matrice pour une compétence
+     * @param c Ordinal de la compétence
+     * @return Liste des matrices de compétences pour cette compétence
+     */
+    public List<MatriceCompetence> colonne(int c) {
+        List<MatriceCompetence> resultat = new ArrayList<>();
+        Competence competence = competence(c);
+        for (int p = 0; p < identifiants.length; p++) {
+            if (grille[p][c] != 0) {
+                resultat.add(new MatriceCompetence(personne(p), competence, noteDomaine(grille[p][c] - 1)));
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Construit l'objet domain d'une personne, avec son équipe (sans membres ni profil)
+     * @param p Ordinal de la personne
+     * @return La personne
+     */
+    public Personne personne(int p) {
+        return personne(p, SelectionChamps.TOUS);
+    }
+
+    /**
+     * Construit l'objet domain d'une personne ; l'équipe n'est construite que si elle est demandée
+     * @param p Ordinal de la personne
+     * @param champs Champs demandés de la personne
+     * @return La personne
+     */
+    public Personne personne(int p, SelectionChamps champs) {
+        Personne personne = new Personne();
+        personne.setIdentifiant(identifiants[p]);
+        personne.setNom(noms[p]);
+        personne.setPrenom(prenoms[p]);
+        personne.setPoste(postes[p]);
+        if (champs.inclut("equipe") && equipeCodes[p] != null) {
+            Equipe equipe = new Equipe();
+            equipe.setCode(equipeCodes[p]);
+            equipe.setNom(equipeNoms[p]);
+            equipe.setDescription(equipeDescriptions[p]);
+            personne.setEquipe(equipe);
+        }
+        return personne;
+    }
+
+    /**
+     * @param c Ordinal de la compétence
+     * @return L'objet domain de la compétence
+     */
+    public Competence competence(int c) {
+        return new Competence(libelles[c], descriptions[c]);
+    }
+
+    /**
+     * @param valeur Valeur de la note
+     * @return L'objet domain de la note
+     */
+    public Note noteDomaine(int valeur) {
+        return new Note(valeur, libellesNotes.get(valeur));
+    }
+
+    private void ajouterLigne(List<MatriceCompetence> resultat, int p, SelectionChamps champs) {
+        byte[] ligne = grille[p];
+        Personne personne = null;
+        boolean avecPersonne = champs.inclut("personne");
+        boolean avecCompetence = champs.inclut("competence");
+        boolean avecNote = champs.inclut("note");
+        for (int c = 0; c < libelles.length; c++) {
+            byte cellule = ligne[c];
+            if (cellule != 0) {
+                if (personne == null && avecPersonne) {
+                    personne = personne(p, champs.sousSelection("personne"));
+                }
+                resultat.add(new MatriceCompetence(personne, avecCompetence ? competence(c) : null,
+                        avecNote ? noteDomaine(cellule - 1) : null));
+            }
+        }
+    }
+
+    /**
+     * Accès direct à la grille pour les calculs du paquetage, sans copie : ne jamais la modifier,
+     * ses lignes sont partagées entre photographies. La case {@code [p][c]} vaut {@code valeur + 1}, ou 0.
+     */
+    byte[][] grille() {
+        return grille;
+    }
+
+    /**
+     * @param noteValeur Valeur d'une note
+     * @return Vrai si la note peut être rangée dans la grille
+     */
+    public static boolean representable(int noteValeur) {
+        return noteValeur >= 0 && noteValeur <= NOTE_MAX;
+    }
+
+    private static byte encoder(int noteValeur) {
+        if (!representable(noteValeur)) {
+            throw new IllegalArgumentException("Valeur de note hors plage pour la matrice en mémoire: " + noteValeur);
+        }
+        return (byte) (noteValeur + 1);
+    }
+}
@@ -0,0 +1,134 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.repository.CompetenceRepository;
+import fr.pmu.matrix.competence.repository.MatriceCompetenceRepository;
+import fr.pmu.matrix.competence.repository.NoteRepository;
+import fr.pmu.matrix.competence.repository.PersonneRepository;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Magasin en lecture de la matrice de compétences complète.
+ * <p>
+ * Publie une {@link MatriceCompetenceSnapshot} immuable : les lecteurs récupèrent la
+ * photographie courante sans verrou ni accès base, les écritures (déjà validées en base)
+ * publient atomiquement une nouvelle photographie par copie sur écriture.
+ * <p>
+ * La photographie est chargée à la première utilisation. Toute modification du référentiel
+ * (personnes, équipes, compétences, notes) l'invalide, voir {@link MatriceCompetenceStoreListener}.
+ */
+@Component
+public class MatriceCompetenceStore {
+
+    private final PersonneRepository personneRepository;
+    private final CompetenceRepository competenceRepository;
+    private final NoteRepository noteRepository;
+    private final MatriceCompetenceRepository matriceCompetenceRepository;
+
+    private volatile MatriceCompetenceSnapshot snapshot;
+
+    @Autowired
+    public MatriceCompetenceStore(PersonneRepository personneRepository,
+                                  CompetenceRepository competenceRepository,
+                                  NoteRepository noteRepository,
+                                  MatriceCompetenceRepository matriceCompetenceRepository) {
+        this.personneRepository = personneRepository;
+        this.competenceRepository = competenceRepository;
+        this.noteRepository = noteRepository;
+        this.matriceCompetenceRepository = matriceCompetenceRepository;
+    }
+
+    /**
+     * Retourne la photographie courante, en la chargeant si nécessaire
+     * @return La photographie courante de la matrice
+     */
+    public MatriceCompetenceSnapshot getSnapshot() {
+        MatriceCompetenceSnapshot courant = snapshot;
+        if (courant != null) {
+            return courant;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = charger();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Publie la note d'une personne pour une compétence
+     * @param personneId Identifiant de la personne
+     * @param competenceLibelle Libellé de la compétence
+     * @param noteValeur Valeur de la note
+     */
+    public void publierNote(String personneId, String competenceLibelle, int noteValeur) {
+        remplacer(personneId, competenceLibelle, noteValeur);
+    }
+
+    /**
+     * Publie un lot de notes en une seule copie de la matrice
+     * @param notes Les triplets (personne, compétence, note) à publier
+     */
+    public synchronized void publierNotes(Collection<NoteMatriceProjection> notes) {
+        MatriceCompetenceSnapshot courant = snapshot;
+        if (courant == null || notes.isEmpty()) {
+            return;
+        }
+        List<int[]> modifications = new ArrayList<>(notes.size());
+        for (NoteMatriceProjection note : notes) {
+            int p = courant.ordinalPersonne(note.personneId());
+            int c = courant.ordinalCompetence(note.competenceLibelle());
+            if (p < 0 || c < 0) {
+                snapshot = null;
+                return;
+            }
+            modifications.add(new int[] {p, c, note.noteValeur()});
+        }
+        snapshot = courant.avecNotes(modifications);
+    }
+
+    /**
+     * Retire la note d'une personne pour une compétence
+     * @param personneId Identifiant de la personne
+     * @param competenceLibelle Libellé de la compétence
+     */
+    public void retirerNote(String personneId, String competenceLibelle) {
+        remplacer(personneId, competenceLibelle, MatriceCompetenceSnapshot.AUCUNE_NOTE);
+    }
+
+    /**
+     * Abandonne la photographie courante : elle sera reconstruite à la prochaine lecture
+     */
+    public synchronized void invalider() {
+        snapshot = null;
+    }
+
+    private synchronized void remplacer(String personneId, String competenceLibelle, int noteValeur) {
+        MatriceCompetenceSnapshot courant = snapshot;
+        if (courant == null) {
+            // Rien n'est chargé : la prochaine lecture verra la base à jour
+            return;
+        }
+        int p = courant.ordinalPersonne(personneId);
+        int c = courant.ordinalCompetence(competenceLibelle);
+        if (p < 0 || c < 0) {
+            // Personne ou compétence absente des dictionnaires : reconstruction complète
+            snapshot = null;
+            return;
+        }
+        snapshot = courant.avecNote(p, c, noteValeur);
+    }
+
+    private MatriceCompetenceSnapshot charger() {
+        return MatriceCompetenceSnapshot.construire(
+                personneRepository.findAllAvecEquipe(),
+                competenceRepository.findAll(),
+                noteRepository.findAll(),
+                matriceCompetenceRepository.findAllNotes());
+    }
+}
@@ -0,0 +1,33 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.service.ApresCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Listener JPA des entités du référentiel (personnes, équipes, compétences, notes).
+ * Invalide la photographie du {@link MatriceCompetenceStore} après le commit de
+ * toute création, modification ou suppression, les dictionnaires devant être reconstruits.
+ */
+public class MatriceCompetenceStoreListener {
+
+    private final ObjectProvider<MatriceCompetenceStore> store;
+
+    @Autowired
+    public MatriceCompetenceStoreListener(ObjectProvider<MatriceCompetenceStore> store) {
+        this.store = store;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void referentielModifie(Object entity) {
+        MatriceCompetenceStore matriceCompetenceStore = store.getIfAvailable();
+        if (matriceCompetenceStore != null) {
+            ApresCommit.executer(matriceCompetenceStore::invalider);
+        }
+    }
+}
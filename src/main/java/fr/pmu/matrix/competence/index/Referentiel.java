@@ -0,0 +1,211 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.repository.CompetenceRepository;
+import fr.pmu.matrix.competence.repository.NoteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Référentiel en mémoire des compétences et des notes.
+ * <p>
+ * Ces deux tables sont petites et ne changent presque jamais : elles sont chargées au
+ * démarrage dans un contenu immuable (table de hachage pour les compétences, tableau indexé
+ * par valeur pour les notes), que les services consultent sans accès base. Les écritures de
+ * {@code CompetenceService} et {@code NoteService}, une fois validées, publient atomiquement
+ * un nouveau contenu par copie sur écriture.
+ * <p>
+ * Les entités retournées sont des copies détachées, partagées entre les threads :
+ * elles servent de références dans les associations et ne doivent pas être modifiées.
+ */
+@Component
+public class Referentiel {
+
+    private final CompetenceRepository competenceRepository;
+    private final NoteRepository noteRepository;
+
+    private volatile Contenu contenu;
+
+    @Autowired
+    public Referentiel(CompetenceRepository competenceRepository, NoteRepository noteRepository) {
+        this.competenceRepository = competenceRepository;
+        this.noteRepository = noteRepository;
+    }
+
+    /**
+     * Charge le référentiel au démarrage de l'application
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void charger() {
+        getContenu();
+    }
+
+    /**
+     * Recherche une compétence par son libellé
+     * @param libelle Libellé de la compétence
+     * @return La compétence, ou vide si elle n'existe pas
+     */
+    public Optional<CompetenceEntity> competence(String libelle) {
+        return Optional.ofNullable(getContenu().competences.get(libelle));
+    }
+
+    /**
+     * Indique si une compétence existe
+     * @param libelle Libellé de la compétence
+     * @return true si la compétence existe
+     */
+    public boolean contientCompetence(String libelle) {
+        return getContenu().competences.containsKey(libelle);
+    }
+
+    /**
+     * Recherche une note par sa valeur
+     * @param valeur Valeur de la note
+     * @return La note, ou vide si elle n'existe pas
+     */
+    public Optional<NoteEntity> note(int valeur) {
+        return Optional.ofNullable(getContenu().note(valeur));
+    }
+
+    /**
+     * Indique si une note existe
+     * @param valeur Valeur de la note
+     * @return true si la note existe
+     */
+    public boolean contientNote(int valeur) {
+        return getContenu().note(valeur) != null;
+    }
+
+    /**
+     * Publie une compétence créée ou modifiée
+     * @param competence La compétence enregistrée en base
+     */
+    public synchronized void publierCompetence(CompetenceEntity competence) {
+        Contenu courant = contenu;
+        if (courant == null) {
+            return;
+        }
+        Map<String, CompetenceEntity> competences = new HashMap<>(courant.competences);
+        competences.put(competence.getLibelle(), copie(competence));
+        contenu = new Contenu(competences, courant.notes, courant.noteMin);
+    }
+
+    /**
+     * Retire une compétence supprimée
+     * @param libelle Libellé de la compétence
+     */
+    public synchronized void retirerCompetence(String libelle) {
+        Contenu courant = contenu;
+        if (courant == null) {
+            return;
+        }
+        Map<String, CompetenceEntity> competences = new HashMap<>(courant.competences);
+        competences.remove(libelle);
+        contenu = new Contenu(competences, courant.notes, courant.noteMin);
+    }
+
+    /**
+     * Publie une note créée ou modifiée
+     * @param note La note enregistrée en base
+     */
+    public synchronized void publierNote(NoteEntity note) {
+        Contenu courant = contenu;
+        if (courant == null) {
+            return;
+        }
+        List<NoteEntity> notes = courant.listeNotes();
+        notes.removeIf(n -> n.getValeur() == note.getValeur());
+        notes.add(copie(note));
+        contenu = Contenu.construire(courant.competences, notes);
+    }
+
+    /**
+     * Retire une note supprimée
+     * @param valeur Valeur de la note
+     */
+    public synchronized void retirerNote(int valeur) {
+        Contenu courant = contenu;
+        if (courant == null) {
+            return;
+        }
+        List<NoteEntity> notes = courant.listeNotes();
+        notes.removeIf(n -> n.getValeur() == valeur);
+        contenu = Contenu.construire(courant.competences, notes);
+    }
+
+    /**
+     * Abandonne le contenu courant : il sera rechargé à la prochaine lecture
+     */
+    public synchronized void invalider() {
+        contenu = null;
+    }
+
+    private Contenu getContenu() {
+        Contenu courant = contenu;
+        if (courant != null) {
+            return courant;
+        }
+        synchronized (this) {
+            if (contenu == null) {
+                Map<String, CompetenceEntity> competences = new HashMap<>();
+                for (CompetenceEntity competence : competenceRepository.findAll()) {
+                    competences.put(competence.getLibelle(), copie(competence));
+                }
+                List<NoteEntity> notes = new ArrayList<>();
+                for (NoteEntity note : noteRepository.findAll()) {
+                    notes.add(copie(note));
+                }
+                contenu = Contenu.construire(competences, notes);
+            }
+            return contenu;
+        }
+    }
+
+    private static CompetenceEntity copie(CompetenceEntity competence) {
+        return new CompetenceEntity(competence.getLibelle(), competence.getDescription());
+    }
+
+    private static NoteEntity copie(NoteEntity note) {
+        return new NoteEntity(note.getValeur(), note.getLibelle());
+    }
+
+    /**
+     * Contenu immuable du référentiel ; les notes sont rangées à l'indice {@code valeur - noteMin}
+     */
+    private record Contenu(Map<String, CompetenceEntity> competences, NoteEntity[] notes, int noteMin) {
+
+        static Contenu construire(Map<String, CompetenceEntity> competences, Collection<NoteEntity> notes) {
+            int min = notes.stream().mapToInt(NoteEntity::getValeur).min().orElse(0);
+            int max = notes.stream().mapToInt(NoteEntity::getValeur).max().orElse(-1);
+            NoteEntity[] tableau = new NoteEntity[max - min + 1];
+            for (NoteEntity note : notes) {
+                tableau[note.getValeur() - min] = note;
+            }
+            return new Contenu(competences, tableau, min);
+        }
+
+        NoteEntity note(int valeur) {
+            int i = valeur - noteMin;
+            return i >= 0 && i < notes.length ? notes[i] : null;
+        }
+
+        List<NoteEntity> listeNotes() {
+            return Arrays.stream(notes)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package fr.pmu.matrix.competence.mapper;
 
 import fr.pmu.matrix.competence.domain.*;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
 import fr.pmu.matrix.competence.entity.*;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+
 /**
  * Mapper pour convertir entre les entités DemandeEntity et les objets domaine Demande
  */
@@ -17,6 +20,18 @@ public class DemandeMapper {
      * @return L'objet domain correspondant
      */
     public Demande mapToDemandeDomain(DemandeEntity entity, Object destinationObject) {
+        return mapToDemandeDomain(entity, destinationObject, SelectionChamps.TOUS);
+    }
+
+    /**
+     * Convertit une entité DemandeEntity en objet domain Demande, en ne lisant les compétences
+     * requises et la destination que si elles font partie des champs demandés
+     * @param entity L'entité à convertir
+     * @param destinationObject L'objet destination (Equipe ou Groupement) à utiliser
+     * @param champs Champs demandés
+     * @return L'objet domain correspondant
+     */
+    public Demande mapToDemandeDomain(DemandeEntity entity, Object destinationObject, SelectionChamps champs) {
         if (entity == null) {
             return null;
         }
@@ -28,23 +43,18 @@ public class DemandeMapper {
         demande.setNature(entity.getNature());
         demande.setDateDebut(entity.getDateDebut());
         demande.setDateFin(entity.getDateFin());
+        demande.setVersion(entity.getVersion());
 
         // Conversion des compétences requises
-        for (CompetenceRequiseEntity crEntity : entity.getCompetencesRequises()) {
-            Competence competence = new Competence();
-            competence.setLibelle(crEntity.getCompetence().getLibelle());
-            competence.setDescription(crEntity.getCompetence().getDescription());
-
-            Note note = new Note();
-            note.setValeur(crEntity.getNoteRequise().getValeur());
-            note.setLibelle(crEntity.getNoteRequise().getLibelle());
-
-            CompetenceRequise competenceRequise = new CompetenceRequise(competence, note);
-            demande.getCompetencesRecherchees().add(competenceRequise);
+        if (champs.inclut("competencesRecherchees")) {
+            for (CompetenceRequiseEntity crEntity : entity.getCompetencesRequises()) {
+                demande.getCompetencesRecherchees().add(
+                        mapToCompetenceRequiseDomain(crEntity.getCompetence(), crEntity.getNoteRequise()));
+            }
         }
 
         // Conversion de la destination
-        if (destinationObject != null) {
+        if (champs.inclut("destination") && destinationObject != null) {
             if (entity.getEstGroupement() && destinationObject instanceof GroupementEntity) {
                 GroupementEntity groupementEntity = (GroupementEntity) destinationObject;
                 Groupement groupement = new Groupement();
@@ -64,4 +74,66 @@ public class DemandeMapper {
 
         return demande;
     }
+
+    /**
+     * Convertit une entité DemandeEntity en objet domain Demande, la destination étant
+     * recherchée dans des tables préchargées pour tout un lot de demandes
+     * @param entity L'entité à convertir
+     * @param groupements Groupements de destination du lot, par code
+     * @param equipes Équipes de destination du lot, par code
+     * @param champs Champs demandés
+     * @return L'objet domain correspondant
+     */
+    public Demande mapToDemandeDomain(DemandeEntity entity, Map<String, GroupementEntity> groupements,
+                                      Map<String, EquipeEntity> equipes, SelectionChamps champs) {
+        if (entity == null) {
+            return null;
+        }
+        String code = entity.getDestinationCode();
+        Object destinationObject = code == null ? null
+                : entity.getEstGroupement() ? groupements.get(code) : equipes.get(code);
+        return mapToDemandeDomain(entity, destinationObject, champs);
+    }
+
+    /**
+     * Convertit une demande archivée en entité DemandeEntity détachée, de même contenu,
+     * pour la convertir ensuite comme une demande courante
+     * @param archive La demande archivée
+     * @return L'entité correspondante, qui ne doit pas être enregistrée
+     */
+    public DemandeEntity mapFromArchive(DemandeArchiveEntity archive) {
+        DemandeEntity entity = new DemandeEntity();
+        entity.setId(archive.getId());
+        entity.setMatriculeDemandeur(archive.getMatriculeDemandeur());
+        entity.setDescription(archive.getDescription());
+        entity.setNature(archive.getNature());
+        entity.setDateDebut(archive.getDateDebut());
+        entity.setDateFin(archive.getDateFin());
+        entity.setEstGroupement(archive.getEstGroupement());
+        entity.setDestinationCode(archive.getDestinationCode());
+        entity.setVersion(archive.getVersion());
+        for (CompetenceRequiseArchiveEntity crArchive : archive.getCompetencesRequises()) {
+            entity.getCompetencesRequises().add(new CompetenceRequiseEntity(
+                    crArchive.getId(), entity, crArchive.getCompetence(), crArchive.getNoteRequise()));
+        }
+        return entity;
+    }
+
+    /**
+     * Convertit une compétence et sa note requise en objet domain CompetenceRequise
+     * @param competenceEntity La compétence
+     * @param noteEntity La note requise
+     * @return L'objet domain correspondant
+     */
+    public CompetenceRequise mapToCompetenceRequiseDomain(CompetenceEntity competenceEntity, NoteEntity noteEntity) {
+        Competence competence = new Competence();
+        competence.setLibelle(competenceEntity.getLibelle());
+        competence.setDescription(competenceEntity.getDescription());
+
+        Note note = new Note();
+        note.setValeur(noteEntity.getValeur());
+        note.setLibelle(noteEntity.getLibelle());
+
+        return new CompetenceRequise(competence, note);
+    }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import fr.pmu.matrix.competence.domain.Equipe;
 import fr.pmu.matrix.competence.domain.Groupement;
 import fr.pmu.matrix.competence.domain.Note;
 import fr.pmu.matrix.competence.domain.Personne;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
 import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
 import fr.pmu.matrix.competence.entity.EquipeEntity;
 import fr.pmu.matrix.competence.entity.GroupementEntity;
@@ -32,6 +33,25 @@ public class EquipeMapper {
         if (entity == null) {
             return null;
         }
+        return convertToEquipe(entity, personneEntities, entity.getProfilRecherche(), SelectionChamps.TOUS);
+    }
+
+    /**
+     * Convertit une entité équipe en objet de domaine à partir de ses membres et de son profil
+     * de recherche déjà chargés, sans parcourir les collections de l'entité.
+     * Le groupement, les membres et le profil ne sont lus que s'ils font partie des champs demandés.
+     * 
+     * @param entity Entité équipe
+     * @param personneEntities Liste des personnes membres de l'équipe
+     * @param profilRechercheEntities Compétences requises du profil de recherche de l'équipe
+     * @param champs Champs demandés
+     * @return Objet de domaine équipe
+     */
+    public Equipe convertToEquipe(EquipeEntity entity, List<PersonneEntity> personneEntities,
+                                  List<CompetenceRequiseEntity> profilRechercheEntities, SelectionChamps champs) {
+        if (entity == null) {
+            return null;
+        }
         
         Equipe equipe = new Equipe();
         equipe.setCode(entity.getCode());
@@ -39,7 +59,7 @@ public class EquipeMapper {
         equipe.setDescription(entity.getDescription());
         
         // Convertir le groupement
-        if (entity.getGroupement() != null) {
+        if (champs.inclut("groupement") && entity.getGroupement() != null) {
             GroupementEntity groupementEntity = entity.getGroupement();
             Groupement groupement = new Groupement();
             groupement.setCode(groupementEntity.getCode());
@@ -49,7 +69,7 @@ public class EquipeMapper {
         }
         
         // Convertir les membres de l'équipe
-        if (personneEntities != null && !personneEntities.isEmpty()) {
+        if (champs.inclut("membres") && personneEntities != null && !personneEntities.isEmpty()) {
             List<Personne> membres = personneEntities.stream()
                     .map(this::convertToPersonneSansEquipe)
                     .collect(Collectors.toList());
@@ -57,8 +77,8 @@ public class EquipeMapper {
         }
         
         // Convertir le profil de recherche
-        if (entity.getProfilRecherche() != null && !entity.getProfilRecherche().isEmpty()) {
-            List<CompetenceRequise> profilRecherche = entity.getProfilRecherche().stream()
+        if (champs.inclut("profilRecherche") && profilRechercheEntities != null && !profilRechercheEntities.isEmpty()) {
+            List<CompetenceRequise> profilRecherche = profilRechercheEntities.stream()
                     .map(this::convertToCompetenceRequise)
                     .collect(Collectors.toList());
             equipe.setProfilRecherche(profilRecherche);
@@ -2,6 +2,7 @@ package fr.pmu.matrix.competence.mapper;
 
 import fr.pmu.matrix.competence.domain.Equipe;
 import fr.pmu.matrix.competence.domain.Personne;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
 import fr.pmu.matrix.competence.entity.EquipeEntity;
 import fr.pmu.matrix.competence.entity.PersonneEntity;
 import org.springframework.stereotype.Component;
@@ -19,6 +20,17 @@ public class PersonneMapper {
      * @return Objet de domaine personne
      */
     public Personne mapToPersonneDomain(PersonneEntity entity) {
+        return mapToPersonneDomain(entity, SelectionChamps.TOUS);
+    }
+
+    /**
+     * Convertit une entité personne en objet de domaine ; l'équipe n'est lue que si elle est demandée
+     * 
+     * @param entity Entité personne
+     * @param champs Champs demandés
+     * @return Objet de domaine personne
+     */
+    public Personne mapToPersonneDomain(PersonneEntity entity, SelectionChamps champs) {
         if (entity == null) {
             return null;
         }
@@ -30,7 +42,7 @@ public class PersonneMapper {
         personne.setPoste(entity.getPoste());
         
         // Convertir l'équipe
-        if (entity.getEquipe() != null) {
+        if (champs.inclut("equipe") && entity.getEquipe() != null) {
             EquipeEntity equipeEntity = entity.getEquipe();
             Equipe equipe = new Equipe();
             equipe.setCode(equipeEntity.getCode());
@@ -1,7 +1,9 @@
 package fr.pmu.matrix.competence.repository;
 
 import fr.pmu.matrix.competence.entity.AbsenceEntity;
+import fr.pmu.matrix.competence.repository.projection.PeriodePersonneProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Date;
@@ -18,4 +20,12 @@ public interface AbsenceRepository extends JpaRepository<AbsenceEntity, Long> {
     // Méthode pour trouver les absences par identifiant de personne et période
     List<AbsenceEntity> findByPersonneIdentifiantAndDateDebutLessThanEqualAndDateFinGreaterThanEqual(
         String personneIdentifiant, Date dateFin, Date dateDebut);
+
+    /**
+     * Périodes de toutes les absences, pour l'index des périodes
+     * @return Les périodes, avec l'identifiant de la personne absente
+     */
+    @Query("SELECT new fr.pmu.matrix.competence.repository.projection.PeriodePersonneProjection(" +
+           "a.id, a.personne.identifiant, a.dateDebut, a.dateFin) FROM AbsenceEntity a")
+    List<PeriodePersonneProjection> findAllPeriodes();
 }
\ No newline at end of file
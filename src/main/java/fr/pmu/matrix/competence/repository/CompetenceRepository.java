@@ -1,10 +1,24 @@
 package fr.pmu.matrix.competence.repository;
 
 import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CompetenceRepository extends JpaRepository<CompetenceEntity, String> {
     // String est le type de l'identifiant (libelle)
+
+    /**
+     * Toutes les compétences ; le résultat est conservé dans le cache de requêtes
+     * 
+     * @return Liste des compétences
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<CompetenceEntity> findAll();
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package fr.pmu.matrix.competence.repository;
 
 import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -44,4 +47,57 @@ public interface CompetenceRequiseRepository extends JpaRepository<CompetenceReq
      * @return La compétence requise correspondante, s'il existe
      */
     CompetenceRequiseEntity findByDemandeIdAndCompetenceLibelle(String demandeId, String competenceLibelle);
+    
+    /**
+     * Indique si une demande requiert déjà une compétence
+     * 
+     * @param demandeId L'identifiant de la demande
+     * @param competenceLibelle Le libellé de la compétence
+     * @return true si la compétence est déjà requise par la demande
+     */
+    boolean existsByDemandeIdAndCompetenceLibelle(String demandeId, String competenceLibelle);
+    
+    /**
+     * Change la note requise d'une compétence d'une demande, en une seule requête
+     * 
+     * @param demandeId L'identifiant de la demande
+     * @param competenceLibelle Le libellé de la compétence
+     * @param noteValeur La valeur actuelle de la note requise
+     * @param nouvelleNote La nouvelle note requise
+     * @return Le nombre de compétences requises modifiées
+     */
+    @Modifying
+    @Query("UPDATE CompetenceRequiseEntity cr SET cr.noteRequise = :nouvelleNote " +
+           "WHERE cr.demande.id = :demandeId AND cr.competence.libelle = :competenceLibelle " +
+           "AND cr.noteRequise.valeur = :noteValeur")
+    int modifierNoteRequise(@Param("demandeId") String demandeId,
+                            @Param("competenceLibelle") String competenceLibelle,
+                            @Param("noteValeur") int noteValeur,
+                            @Param("nouvelleNote") NoteEntity nouvelleNote);
+    
+    /**
+     * Supprime une compétence requise d'une demande, en une seule requête
+     * 
+     * @param demandeId L'identifiant de la demande
+     * @param competenceLibelle Le libellé de la compétence
+     * @param noteValeur La valeur de la note requise
+     * @return Le nombre de compétences requises supprimées
+     */
+    @Modifying
+    @Query("DELETE FROM CompetenceRequiseEntity cr " +
+           "WHERE cr.demande.id = :demandeId AND cr.competence.libelle = :competenceLibelle " +
+           "AND cr.noteRequise.valeur = :noteValeur")
+    int supprimer(@Param("demandeId") String demandeId,
+                  @Param("competenceLibelle") String competenceLibelle,
+                  @Param("noteValeur") int noteValeur);
+    
+    /**
+     * Supprime toutes les compétences requises de demandes, en une seule requête
+     * 
+     * @param demandeIds Les identifiants des demandes
+     * @return Le nombre de compétences requises supprimées
+     */
+    @Modifying
+    @Query("DELETE FROM CompetenceRequiseEntity cr WHERE cr.demande.id IN :demandeIds")
+    int supprimerParDemandes(@Param("demandeIds") Collection<String> demandeIds);
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package fr.pmu.matrix.competence.repository;
+
+import fr.pmu.matrix.competence.entity.DemandeArchiveEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DemandeArchiveRepository extends JpaRepository<DemandeArchiveEntity, String>, JpaSpecificationExecutor<DemandeArchiveEntity> {
+    
+    /**
+     * Recherche les demandes archivées par matricule du demandeur
+     * 
+     * @param matriculeDemandeur Le matricule du demandeur
+     * @return Liste des demandes archivées correspondantes
+     */
+    List<DemandeArchiveEntity> findByMatriculeDemandeur(String matriculeDemandeur);
+    
+    /**
+     * Copie des demandes dans la table d'archive, en une seule requête. La table modifiée est déclarée
+     * pour que cette requête native n'invalide pas tout le cache de second niveau.
+     * 
+     * @param ids Les identifiants des demandes
+     * @return Le nombre de demandes copiées
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "demande_archive"))
+    @Query(value = "INSERT INTO demande_archive (id, matricule_demandeur, description, nature, date_debut, date_fin, " +
+                   "est_groupement, destination_code, version) " +
+                   "SELECT id, matricule_demandeur, description, nature, date_debut, date_fin, " +
+                   "est_groupement, destination_code, version FROM demande WHERE id IN (:ids)",
+           nativeQuery = true)
+    int copierDemandes(@Param("ids") Collection<String> ids);
+    
+    /**
+     * Copie les compétences requises de demandes dans la table d'archive, en une seule requête
+     * 
+     * @param ids Les identifiants des demandes
+     * @return Le nombre de compétences requises copiées
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "competence_requise_archive"))
+    @Query(value = "INSERT INTO competence_requise_archive (id, demande_id, competence_libelle, note_valeur) " +
+                   "SELECT id, demande_id, competence_libelle, note_valeur FROM competence_requise " +
+                   "WHERE demande_id IN (:ids)",
+           nativeQuery = true)
+    int copierCompetencesRequises(@Param("ids") Collection<String> ids);
+}
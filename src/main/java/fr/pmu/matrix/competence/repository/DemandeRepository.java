@@ -2,7 +2,13 @@ package fr.pmu.matrix.competence.repository;
 
 import fr.pmu.matrix.competence.domain.Nature;
 import fr.pmu.matrix.competence.entity.DemandeEntity;
+import fr.pmu.matrix.competence.repository.projection.CompetenceRequiseProjection;
+import fr.pmu.matrix.competence.repository.projection.PeriodeDemandeProjection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,7 +18,7 @@ import java.util.Date;
 import java.util.List;
 
 @Repository
-public interface DemandeRepository extends JpaRepository<DemandeEntity, String> {
+public interface DemandeRepository extends JpaRepository<DemandeEntity, String>, JpaSpecificationExecutor<DemandeEntity> {
     
     /**
      * Recherche les demandes par matricule du demandeur
@@ -125,4 +131,67 @@ public interface DemandeRepository extends JpaRepository<DemandeEntity, String>
     @Query("SELECT DISTINCT d FROM DemandeEntity d JOIN d.competencesRequises cr " +
            "WHERE cr.noteRequise.valeur IN :noteValeurs")
     List<DemandeEntity> findByNotes(@Param("noteValeurs") Collection<Integer> noteValeurs);
+    
+    /**
+     * Pagination par clé : demandes dont l'identifiant suit celui donné, triées par identifiant
+     * 
+     * @param apres Identifiant de la dernière demande de la page précédente ("" pour la première page)
+     * @param pageable Taille de la page (numéro de page toujours 0)
+     * @return La page de demandes
+     */
+    Slice<DemandeEntity> findByIdGreaterThanOrderByIdAsc(String apres, Pageable pageable);
+
+    /**
+     * Périodes de toutes les demandes, pour l'index des périodes
+     * 
+     * @return Les périodes des demandes
+     */
+    @Query("SELECT new fr.pmu.matrix.competence.repository.projection.PeriodeDemandeProjection(d.id, d.dateDebut, d.dateFin) " +
+           "FROM DemandeEntity d")
+    List<PeriodeDemandeProjection> findAllPeriodes();
+
+    /**
+     * Compétences requises de toutes les demandes, pour l'index inversé des compétences
+     * 
+     * @return Les couples (demande, compétence) avec la note requise
+     */
+    @Query("SELECT new fr.pmu.matrix.competence.repository.projection.CompetenceRequiseProjection(" +
+           "cr.demande.id, cr.competence.libelle, cr.noteRequise.valeur) FROM CompetenceRequiseEntity cr")
+    List<CompetenceRequiseProjection> findAllCompetencesRequises();
+
+    /**
+     * Incrémente la version d'une demande, en une seule requête, si elle vaut encore celle attendue
+     * 
+     * @param id L'identifiant de la demande
+     * @param version La version attendue, ou null pour ne pas la vérifier
+     * @return 1 si la demande a été mise à jour, 0 si elle n'existe pas ou a changé de version
+     */
+    @Modifying
+    @Query("UPDATE DemandeEntity d SET d.version = d.version + 1 " +
+           "WHERE d.id = :id AND (:version IS NULL OR d.version = :version)")
+    int incrementerVersion(@Param("id") String id, @Param("version") Long version);
+
+    /**
+     * Identifiants des demandes d'une nature terminées avant une date, à archiver,
+     * à partir d'un identifiant (pagination par clé)
+     * 
+     * @param nature La nature des demandes
+     * @param date Les demandes dont la date de fin est strictement antérieure sont retenues
+     * @param apres Seuls les identifiants strictement supérieurs sont retenus ("" pour le premier lot)
+     * @param pageable Nombre maximal d'identifiants (numéro de page toujours 0)
+     * @return Les identifiants, triés
+     */
+    @Query("SELECT d.id FROM DemandeEntity d WHERE d.nature = :nature AND d.dateFin < :date AND d.id > :apres ORDER BY d.id")
+    List<String> findIdsTermineesAvant(@Param("nature") Nature nature, @Param("date") Date date,
+                                       @Param("apres") String apres, Pageable pageable);
+
+    /**
+     * Supprime des demandes, en une seule requête ; leurs compétences requises doivent déjà être supprimées
+     * 
+     * @param ids Les identifiants des demandes
+     * @return Le nombre de demandes supprimées
+     */
+    @Modifying
+    @Query("DELETE FROM DemandeEntity d WHERE d.id IN :ids")
+    int supprimer(@Param("ids") Collection<String> ids);
 }
\ No newline at end of file
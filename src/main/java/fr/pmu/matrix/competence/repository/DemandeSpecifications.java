@@ -0,0 +1,140 @@
+package fr.pmu.matrix.competence.repository;
+
+import fr.pmu.matrix.competence.domain.Nature;
+import fr.pmu.matrix.competence.entity.DemandeArchiveEntity;
+import fr.pmu.matrix.competence.entity.DemandeEntity;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Critères composables de recherche des demandes, à combiner avec {@link Specification#allOf}.
+ * <p>
+ * Chaque critère retourne null lorsque sa valeur n'est pas renseignée, ce qui le neutralise
+ * dans la combinaison. Le filtre sur les compétences requises est une jointure SQL avec
+ * {@code DISTINCT} : la recherche reste une seule requête (plus le comptage si paginée).
+ * <p>
+ * Les critères ne dépendent que des noms d'attributs, communs à {@link DemandeEntity}
+ * et {@link DemandeArchiveEntity} : ils s'appliquent aussi bien aux demandes archivées.
+ */
+public final class DemandeSpecifications {
+
+    private DemandeSpecifications() {
+    }
+
+    /**
+     * Demandes actives à une date : commencées et non terminées
+     * @param date La date de référence
+     * @return Le critère, ou null si la date est null
+     */
+    public static <T> Specification<T> activeLe(Date date) {
+        if (date == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.<Date>get("dateDebut"), date),
+                cb.or(cb.isNull(root.get("dateFin")), cb.greaterThanOrEqualTo(root.<Date>get("dateFin"), date)));
+    }
+
+    /**
+     * Demandes d'un demandeur
+     * @param matricule Le matricule du demandeur
+     * @return Le critère, ou null si le matricule est vide
+     */
+    public static <T> Specification<T> demandeur(String matricule) {
+        return matricule == null || matricule.isEmpty() ? null : egal("matriculeDemandeur", matricule);
+    }
+
+    /**
+     * Demandes d'une nature
+     * @param nature La nature
+     * @return Le critère, ou null si la nature est null
+     */
+    public static <T> Specification<T> nature(Nature nature) {
+        return nature == null ? null : egal("nature", nature);
+    }
+
+    /**
+     * Demandes destinées à une équipe ou un groupement
+     * @param code Code de l'équipe ou du groupement
+     * @param estGroupement true pour un groupement, false pour une équipe, null pour les deux
+     * @return Le critère, ou null si le code est vide
+     */
+    public static <T> Specification<T> destination(String code, Boolean estGroupement) {
+        if (code == null || code.isEmpty()) {
+            return null;
+        }
+        Specification<T> parCode = egal("destinationCode", code);
+        return estGroupement == null ? parCode : parCode.and(egal("estGroupement", estGroupement));
+    }
+
+    /**
+     * Demandes dont la date de début est dans l'intervalle (bornes incluses)
+     * @param min Borne inférieure, ou null
+     * @param max Borne supérieure, ou null
+     * @return Le critère, ou null si aucune borne n'est renseignée
+     */
+    public static <T> Specification<T> dateDebutEntre(Date min, Date max) {
+        return entre("dateDebut", min, max);
+    }
+
+    /**
+     * Demandes dont la date de fin est dans l'intervalle (bornes incluses)
+     * @param min Borne inférieure, ou null
+     * @param max Borne supérieure, ou null
+     * @return Le critère, ou null si aucune borne n'est renseignée
+     */
+    public static <T> Specification<T> dateFinEntre(Date min, Date max) {
+        return entre("dateFin", min, max);
+    }
+
+    /**
+     * Demandes dont une même compétence requise a un des libellés et une des notes données
+     * @param competences Libellés acceptés, ou null/vide pour tous
+     * @param notes Valeurs de notes acceptées, ou null/vide pour toutes
+     * @return Le critère, ou null si les deux listes sont vides
+     */
+    public static <T> Specification<T> competencesRequises(Collection<String> competences, Collection<Integer> notes) {
+        boolean avecCompetences = competences != null && !competences.isEmpty();
+        boolean avecNotes = notes != null && !notes.isEmpty();
+        if (!avecCompetences && !avecNotes) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            query.distinct(true);
+            Join<T, ?> cr = root.join("competencesRequises");
+            List<Predicate> predicats = new ArrayList<>(2);
+            if (avecCompetences) {
+                predicats.add(cr.get("competence").get("libelle").in(competences));
+            }
+            if (avecNotes) {
+                predicats.add(cr.get("noteRequise").get("valeur").in(notes));
+            }
+            return cb.and(predicats.toArray(new Predicate[0]));
+        };
+    }
+
+    private static <T> Specification<T> egal(String attribut, Object valeur) {
+        return (root, query, cb) -> cb.equal(root.get(attribut), valeur);
+    }
+
+    private static <T> Specification<T> entre(String attribut, Date min, Date max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (min == null) {
+                return cb.lessThanOrEqualTo(root.<Date>get(attribut), max);
+            }
+            if (max == null) {
+                return cb.greaterThanOrEqualTo(root.<Date>get(attribut), min);
+            }
+            return cb.between(root.<Date>get(attribut), min, max);
+        };
+    }
+}
@@ -1,10 +1,94 @@
 package fr.pmu.matrix.competence.repository;
 
 import fr.pmu.matrix.competence.entity.EquipeEntity;
+import fr.pmu.matrix.competence.repository.projection.ProfilRechercheProjection;
+import fr.pmu.matrix.competence.repository.projection.RattachementProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface EquipeRepository extends JpaRepository<EquipeEntity, String> {
     // String est le type de l'identifiant (code)
+
+    /**
+     * Toutes les équipes ; le résultat est conservé dans le cache de requêtes
+     * 
+     * @return Liste des équipes
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<EquipeEntity> findAll();
+
+    /**
+     * Toutes les équipes triées par code, sans leurs associations ; le résultat est conservé dans le cache de requêtes
+     * @return Liste des équipes
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<EquipeEntity> findAllByOrderByCodeAsc();
+
+    /**
+     * Pagination par clé : équipes dont le code suit celui donné, triées par code
+     * @param apres Code de la dernière équipe de la page précédente ("" pour la première page)
+     * @param pageable Taille de la page (numéro de page toujours 0)
+     * @return La page d'équipes, avec leur groupement
+     */
+    @EntityGraph(attributePaths = "groupement")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Slice<EquipeEntity> findByCodeGreaterThanOrderByCodeAsc(String apres, Pageable pageable);
+
+    /**
+     * Toutes les équipes avec leur profil de recherche (compétences et notes requises) en une requête ;
+     * hors cache de requêtes, invalidé par chaque modification de compétence requise
+     * @return Liste des équipes
+     */
+    @Query("SELECT DISTINCT e FROM EquipeEntity e " +
+           "LEFT JOIN FETCH e.profilRecherche pr LEFT JOIN FETCH pr.competence LEFT JOIN FETCH pr.noteRequise")
+    List<EquipeEntity> findAllAvecProfilRecherche();
+
+    /**
+     * Toutes les équipes avec leur groupement en une requête, triées par code
+     * @return Liste des équipes
+     */
+    @EntityGraph(attributePaths = "groupement")
+    @Query("SELECT e FROM EquipeEntity e ORDER BY e.code")
+    List<EquipeEntity> findAllAvecGroupement();
+
+    /**
+     * Lignes du profil de recherche de toutes les équipes, avec leur compétence et leur note, en une requête
+     * @return Les lignes, triées par code d'équipe puis dans l'ordre de création
+     */
+    @Query("SELECT new fr.pmu.matrix.competence.repository.projection.ProfilRechercheProjection(e.code, pr) " +
+           "FROM EquipeEntity e JOIN e.profilRecherche pr JOIN FETCH pr.competence JOIN FETCH pr.noteRequise " +
+           "ORDER BY e.code, pr.id")
+    List<ProfilRechercheProjection> findAllProfilsRecherche();
+
+    /**
+     * Lignes du profil de recherche d'un ensemble d'équipes, avec leur compétence et leur note, en une requête
+     * @param codes Codes des équipes
+     * @return Les lignes, triées par code d'équipe puis dans l'ordre de création
+     */
+    @Query("SELECT new fr.pmu.matrix.competence.repository.projection.ProfilRechercheProjection(e.code, pr) " +
+           "FROM EquipeEntity e JOIN e.profilRecherche pr JOIN FETCH pr.competence JOIN FETCH pr.noteRequise " +
+           "WHERE e.code IN :codes ORDER BY e.code, pr.id")
+    List<ProfilRechercheProjection> findProfilsRecherche(@Param("codes") Collection<String> codes);
+
+    /**
+     * Groupement de chaque équipe, sans charger les entités
+     * @return Les couples (code équipe, code groupement ou null)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new fr.pmu.matrix.competence.repository.projection.RattachementProjection(e.code, g.code) " +
+           "FROM EquipeEntity e LEFT JOIN e.groupement g")
+    List<RattachementProjection> findAllRattachements();
 }
\ No newline at end of file
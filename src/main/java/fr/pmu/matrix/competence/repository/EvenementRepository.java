@@ -2,11 +2,13 @@ package fr.pmu.matrix.competence.repository;
 
 import fr.pmu.matrix.competence.entity.EvenementEntity;
 import fr.pmu.matrix.competence.entity.EvenementEntity.Criticite;
+import fr.pmu.matrix.competence.repository.projection.PeriodePersonneProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -28,4 +30,37 @@ public interface EvenementRepository extends JpaRepository<EvenementEntity, Long
     // Méthode pour trouver les événements auxquels une équipe participe
     @Query("SELECT e FROM EvenementEntity e JOIN e.equipeParticipants eq WHERE eq.code = :equipeCode")
     List<EvenementEntity> findByEquipeParticipant(@Param("equipeCode") String equipeCode);
+
+    /**
+     * Événements des criticités données qui ne sont pas terminés à une date, avec leurs compétences requises
+     * @param criticites Criticités retenues
+     * @param date Date de référence
+     * @return Les événements, triés par date de début
+     */
+    @Query("SELECT DISTINCT e FROM EvenementEntity e LEFT JOIN FETCH e.competencesRequises cr " +
+           "LEFT JOIN FETCH cr.competence LEFT JOIN FETCH cr.noteRequise " +
+           "WHERE e.criticite IN :criticites AND e.dateFin >= :date ORDER BY e.dateDebut, e.id")
+    List<EvenementEntity> findNonTermines(@Param("criticites") Collection<Criticite> criticites, @Param("date") Date date);
+
+    /**
+     * Participations directes des personnes aux événements chevauchant {@code [debut, fin]}
+     * @param debut Début de la période
+     * @param fin Fin de la période
+     * @return Une période par couple (événement, personne participante)
+     */
+    @Query("SELECT new fr.pmu.matrix.competence.repository.projection.PeriodePersonneProjection(" +
+           "e.id, p.identifiant, e.dateDebut, e.dateFin) FROM EvenementEntity e JOIN e.personneParticipants p " +
+           "WHERE e.dateDebut <= :fin AND e.dateFin >= :debut")
+    List<PeriodePersonneProjection> findParticipationsPersonnes(@Param("debut") Date debut, @Param("fin") Date fin);
+
+    /**
+     * Participations des membres des équipes participant aux événements chevauchant {@code [debut, fin]}
+     * @param debut Début de la période
+     * @param fin Fin de la période
+     * @return Une période par couple (événement, membre d'une équipe participante)
+     */
+    @Query("SELECT new fr.pmu.matrix.competence.repository.projection.PeriodePersonneProjection(" +
+           "e.id, m.identifiant, e.dateDebut, e.dateFin) FROM EvenementEntity e JOIN e.equipeParticipants eq " +
+           "JOIN eq.membres m WHERE e.dateDebut <= :fin AND e.dateFin >= :debut")
+    List<PeriodePersonneProjection> findParticipationsEquipes(@Param("debut") Date debut, @Param("fin") Date fin);
 }
\ No newline at end of file
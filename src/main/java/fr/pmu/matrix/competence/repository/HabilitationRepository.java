@@ -1,10 +1,24 @@
 package fr.pmu.matrix.competence.repository;
 
 import fr.pmu.matrix.competence.entity.HabilitationEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface HabilitationRepository extends JpaRepository<HabilitationEntity, String> {
     // String est le type de l'identifiant (code)
+
+    /**
+     * Toutes les habilitations ; le résultat est conservé dans le cache de requêtes
+     * 
+     * @return Liste des habilitations
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<HabilitationEntity> findAll();
 }
\ No newline at end of file
@@ -3,18 +3,91 @@ package fr.pmu.matrix.competence.repository;
 import fr.pmu.matrix.competence.entity.MatriceCompetenceEntity;
 import fr.pmu.matrix.competence.entity.PersonneEntity;
 import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.repository.projection.MatriceCompetenceVue;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MatriceCompetenceRepository extends JpaRepository<MatriceCompetenceEntity, MatriceCompetenceEntity.MatriceCompetenceId> {
     // MatriceCompetenceId est la classe ID composite
     
+    /**
+     * Début commun des requêtes de projection {@link MatriceCompetenceVue} :
+     * personne, équipe, compétence et note sont lues dans la même requête jointe
+     */
+    String SELECT_VUE = "SELECT new fr.pmu.matrix.competence.repository.projection.MatriceCompetenceVue(" +
+            "p.identifiant, p.nom, p.prenom, p.poste, e.code, e.nom, e.description, " +
+            "c.libelle, c.description, n.valeur, n.libelle) " +
+            "FROM MatriceCompetenceEntity m JOIN m.personne p LEFT JOIN p.equipe e " +
+            "JOIN m.competence c JOIN m.note n ";
+    
     List<MatriceCompetenceEntity> findByPersonne(PersonneEntity personne);
     
     List<MatriceCompetenceEntity> findByCompetence(CompetenceEntity competence);
     
     Optional<MatriceCompetenceEntity> findByPersonneAndCompetence(PersonneEntity personne, CompetenceEntity competence);
+    
+    /**
+     * Récupère toutes les notes de la matrice sous forme de projection plate,
+     * en une seule requête et sans charger les personnes, compétences et notes associées
+     *
+     * @return Liste des triplets (personne, compétence, note)
+     */
+    @Query("SELECT new fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection(" +
+           "m.personne.identifiant, m.competence.libelle, m.note.valeur) FROM MatriceCompetenceEntity m")
+    List<NoteMatriceProjection> findAllNotes();
+    
+    /**
+     * Parcourt toute la matrice en lecture seule et en avant uniquement, avec les personnes,
+     * équipes, compétences et notes chargées dans la même requête.
+     * Le flux doit être consommé puis fermé dans une transaction.
+     *
+     * @return Flux des matrices de compétences
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM MatriceCompetenceEntity m " +
+           "JOIN FETCH m.personne p LEFT JOIN FETCH p.equipe " +
+           "JOIN FETCH m.competence JOIN FETCH m.note")
+    Stream<MatriceCompetenceEntity> streamAll();
+    
+    /**
+     * Récupère une ligne de la matrice sous forme de projection plate, en une seule requête
+     *
+     * @param personneId Identifiant de la personne
+     * @param competenceId Libellé de la compétence
+     * @return La projection, si la matrice existe
+     */
+    @Query(SELECT_VUE + "WHERE p.identifiant = :personneId AND c.libelle = :competenceId")
+    Optional<MatriceCompetenceVue> findVue(@Param("personneId") String personneId,
+                                           @Param("competenceId") String competenceId);
+    
+    /**
+     * Pagination par clé composite (personne, compétence) : lignes qui suivent le couple donné,
+     * triées par identifiant de personne puis libellé de compétence, en projection plate
+     *
+     * @param personneId Personne de la dernière ligne de la page précédente ("" pour la première page)
+     * @param competenceId Compétence de la dernière ligne de la page précédente ("" pour la première page)
+     * @param pageable Taille de la page (numéro de page toujours 0)
+     * @return La page de projections
+     */
+    @Query(SELECT_VUE +
+           "WHERE p.identifiant > :personneId OR (p.identifiant = :personneId AND c.libelle > :competenceId) " +
+           "ORDER BY p.identifiant, c.libelle")
+    Slice<MatriceCompetenceVue> findPageApres(@Param("personneId") String personneId,
+                                              @Param("competenceId") String competenceId,
+                                              Pageable pageable);
 }
\ No newline at end of file
@@ -1,10 +1,24 @@
 package fr.pmu.matrix.competence.repository;
 
 import fr.pmu.matrix.competence.entity.NoteEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface NoteRepository extends JpaRepository<NoteEntity, Integer> {
     // Integer est le type de l'identifiant (valeur)
+
+    /**
+     * Toutes les notes ; le résultat est conservé dans le cache de requêtes
+     * 
+     * @return Liste des notes
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<NoteEntity> findAll();
 }
\ No newline at end of file
@@ -1,13 +1,59 @@
 package fr.pmu.matrix.competence.repository;
 
 import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.repository.projection.RattachementProjection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface PersonneRepository extends JpaRepository<PersonneEntity, String> {
     // Ajoute la méthode manquante pour récupérer les personnes par code d'équipe
     List<PersonneEntity> findByEquipeCode(String equipeCode);
+
+    /**
+     * Récupère toutes les personnes avec leur équipe en une seule requête
+     * @return Liste des personnes
+     */
+    @Query("SELECT p FROM PersonneEntity p LEFT JOIN FETCH p.equipe")
+    List<PersonneEntity> findAllAvecEquipe();
+
+    /**
+     * Toutes les personnes rattachées à une équipe, pour les regrouper par équipe
+     * @return Liste des personnes, triées par code d'équipe puis par identifiant
+     */
+    @Query("SELECT p FROM PersonneEntity p JOIN p.equipe e ORDER BY e.code, p.identifiant")
+    List<PersonneEntity> findAllMembres();
+
+    /**
+     * Membres d'un ensemble d'équipes, pour les regrouper par équipe
+     * @param equipeCodes Codes des équipes
+     * @return Liste des personnes, triées par code d'équipe puis par identifiant
+     */
+    @Query("SELECT p FROM PersonneEntity p JOIN p.equipe e WHERE e.code IN :equipeCodes ORDER BY e.code, p.identifiant")
+    List<PersonneEntity> findMembres(@Param("equipeCodes") Collection<String> equipeCodes);
+
+    /**
+     * Équipe de chaque personne, sans charger les entités
+     * @return Les couples (identifiant personne, code équipe ou null)
+     */
+    @Query("SELECT new fr.pmu.matrix.competence.repository.projection.RattachementProjection(p.identifiant, e.code) " +
+           "FROM PersonneEntity p LEFT JOIN p.equipe e")
+    List<RattachementProjection> findAllRattachements();
+
+    /**
+     * Pagination par clé : personnes dont l'identifiant suit celui donné, triées par identifiant
+     * @param apres Identifiant de la dernière personne de la page précédente ("" pour la première page)
+     * @param pageable Taille de la page (numéro de page toujours 0)
+     * @return La page de personnes, avec leur équipe
+     */
+    @Query("SELECT p FROM PersonneEntity p LEFT JOIN FETCH p.equipe " +
+           "WHERE p.identifiant > :apres ORDER BY p.identifiant")
+    Slice<PersonneEntity> findPageApres(@Param("apres") String apres, Pageable pageable);
 }
\ No newline at end of file
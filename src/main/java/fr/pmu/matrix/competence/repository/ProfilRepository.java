@@ -1,13 +1,50 @@
 package fr.pmu.matrix.competence.repository;
 
 import fr.pmu.matrix.competence.entity.ProfilEntity;
+import fr.pmu.matrix.competence.repository.projection.PeriodePersonneProjection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 @Repository
 public interface ProfilRepository extends JpaRepository<ProfilEntity, Long> {
     // Méthode pour trouver les profils par identifiant de personne
     List<ProfilEntity> findByPersonneIdentifiant(String personneIdentifiant);
-}
\ No newline at end of file
+
+    /**
+     * Pagination par clé : profils disponibles à la date donnée dont l'id suit celui donné, triés par id
+     * @param date Date de disponibilité
+     * @param apresId Id du dernier profil de la page précédente (0 pour la première page)
+     * @param pageable Taille de la page (numéro de page toujours 0)
+     * @return La page de profils disponibles, avec leur personne et son équipe
+     */
+    @Query("SELECT p FROM ProfilEntity p JOIN FETCH p.personne pe LEFT JOIN FETCH pe.equipe " +
+           "WHERE (p.dateDebutDisponibilite IS NULL OR p.dateDebutDisponibilite < :date) " +
+           "AND (p.dateFinDisponibilite IS NULL OR p.dateFinDisponibilite > :date) " +
+           "AND p.id > :apresId ORDER BY p.id")
+    Slice<ProfilEntity> findDisponiblesApres(@Param("date") Date date, @Param("apresId") Long apresId, Pageable pageable);
+
+    /**
+     * Profils d'ids donnés avec leur personne et son équipe, en une seule requête
+     * @param ids Ids des profils
+     * @return Les profils, triés par id
+     */
+    @Query("SELECT p FROM ProfilEntity p JOIN FETCH p.personne pe LEFT JOIN FETCH pe.equipe " +
+           "WHERE p.id IN :ids ORDER BY p.id")
+    List<ProfilEntity> findAllAvecPersonneById(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Périodes de disponibilité de tous les profils, pour l'index des périodes
+     * @return Les périodes, avec l'identifiant de la personne
+     */
+    @Query("SELECT new fr.pmu.matrix.competence.repository.projection.PeriodePersonneProjection(" +
+           "p.id, p.personne.identifiant, p.dateDebutDisponibilite, p.dateFinDisponibilite) FROM ProfilEntity p")
+    List<PeriodePersonneProjection> findAllPeriodes();
+}
@@ -0,0 +1,33 @@
+package fr.pmu.matrix.competence.repository;
+
+import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
+
+/**
+ * Requêtes JDBC des imports en masse écrites dans la syntaxe propre à H2, seule base du projet.
+ * <p>
+ * Elles sont regroupées ici pour que le passage à une autre base ne touche que cette classe :
+ * chaque constante indique l'équivalent standard à utiliser.
+ */
+public final class RequetesH2 {
+
+    /**
+     * Crée ou remplace la note d'une personne pour une compétence.
+     * {@code MERGE … KEY} est propre à H2 ; ailleurs, {@code MERGE INTO … USING … ON}
+     * (SQL:2003) ou {@code INSERT … ON CONFLICT … DO UPDATE} (PostgreSQL).
+     * Paramètres : personne, compétence, valeur de la note.
+     */
+    public static final String UPSERT_MATRICE =
+            "MERGE INTO matrice_competence (personne_id, competence_id, note_id) " +
+            "KEY (personne_id, competence_id) VALUES (?, ?, ?)";
+
+    /**
+     * Tire plusieurs valeurs de la séquence des compétences requises en un aller-retour.
+     * {@code SYSTEM_RANGE} est propre à H2 ; ailleurs, {@code generate_series} (PostgreSQL)
+     * ou une requête récursive sur la séquence. Paramètre : nombre de valeurs.
+     */
+    public static final String RESERVER_COMPETENCES_REQUISES =
+            "SELECT NEXT VALUE FOR " + CompetenceRequiseEntity.SEQUENCE + " FROM SYSTEM_RANGE(1, ?)";
+
+    private RequetesH2() {
+    }
+}
@@ -0,0 +1,11 @@
+package fr.pmu.matrix.competence.repository.projection;
+
+/**
+ * Projection d'une compétence requise par une demande, sans charger les entités
+ *
+ * @param demandeId Identifiant de la demande
+ * @param competenceLibelle Libellé de la compétence requise
+ * @param noteValeur Valeur de la note requise
+ */
+public record CompetenceRequiseProjection(String demandeId, String competenceLibelle, int noteValeur) {
+}
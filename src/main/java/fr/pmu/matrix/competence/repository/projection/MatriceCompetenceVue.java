@@ -0,0 +1,19 @@
+package fr.pmu.matrix.competence.repository.projection;
+
+/**
+ * Projection plate d'une ligne de la matrice de compétences : exactement les colonnes
+ * nécessaires à l'objet domain {@code MatriceCompetence}, lues en une seule requête jointe
+ */
+public record MatriceCompetenceVue(
+        String personneIdentifiant,
+        String personneNom,
+        String personnePrenom,
+        String personnePoste,
+        String equipeCode,
+        String equipeNom,
+        String equipeDescription,
+        String competenceLibelle,
+        String competenceDescription,
+        int noteValeur,
+        String noteLibelle) {
+}
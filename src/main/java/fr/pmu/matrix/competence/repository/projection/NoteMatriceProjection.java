@@ -0,0 +1,12 @@
+package fr.pmu.matrix.competence.repository.projection;
+
+/**
+ * Projection minimale d'une ligne de la matrice de compétences :
+ * uniquement les clés et la valeur de la note, sans charger les entités associées
+ *
+ * @param personneId Identifiant de la personne
+ * @param competenceLibelle Libellé de la compétence
+ * @param noteValeur Valeur de la note
+ */
+public record NoteMatriceProjection(String personneId, String competenceLibelle, int noteValeur) {
+}
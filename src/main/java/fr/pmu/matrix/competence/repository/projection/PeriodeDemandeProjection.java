@@ -0,0 +1,13 @@
+package fr.pmu.matrix.competence.repository.projection;
+
+import java.util.Date;
+
+/**
+ * Projection de la période d'une demande, sans charger l'entité
+ *
+ * @param id Identifiant de la demande
+ * @param dateDebut Date de début
+ * @param dateFin Date de fin, ou null si la demande n'est pas bornée
+ */
+public record PeriodeDemandeProjection(String id, Date dateDebut, Date dateFin) {
+}
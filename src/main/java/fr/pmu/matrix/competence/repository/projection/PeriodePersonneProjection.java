@@ -0,0 +1,15 @@
+package fr.pmu.matrix.competence.repository.projection;
+
+import java.util.Date;
+
+/**
+ * Projection d'une période rattachée à une personne (profil disponible, absence, participation
+ * à un événement), sans charger les entités
+ *
+ * @param id Identifiant du profil, de l'absence ou de l'événement
+ * @param personneIdentifiant Identifiant de la personne
+ * @param dateDebut Date de début, ou null si la période n'est pas bornée
+ * @param dateFin Date de fin, ou null si la période n'est pas bornée
+ */
+public record PeriodePersonneProjection(Long id, String personneIdentifiant, Date dateDebut, Date dateFin) {
+}
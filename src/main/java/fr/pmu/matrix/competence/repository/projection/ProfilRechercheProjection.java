@@ -0,0 +1,13 @@
+package fr.pmu.matrix.competence.repository.projection;
+
+import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
+
+/**
+ * Ligne du profil de recherche d'une équipe, avec le code de l'équipe pour regrouper les lignes
+ * sans charger la collection de chaque équipe
+ *
+ * @param equipeCode Code de l'équipe
+ * @param competenceRequise Compétence requise, avec sa compétence et sa note
+ */
+public record ProfilRechercheProjection(String equipeCode, CompetenceRequiseEntity competenceRequise) {
+}
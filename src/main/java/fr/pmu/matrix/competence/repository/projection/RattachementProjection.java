@@ -0,0 +1,11 @@
+package fr.pmu.matrix.competence.repository.projection;
+
+/**
+ * Projection d'un rattachement hiérarchique (personne → équipe, équipe → groupement),
+ * sans charger les entités
+ *
+ * @param code Code ou identifiant de l'élément rattaché
+ * @param parentCode Code du parent, ou null si l'élément n'est rattaché à rien
+ */
+public record RattachementProjection(String code, String parentCode) {
+}
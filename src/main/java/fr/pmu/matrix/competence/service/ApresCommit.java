@@ -0,0 +1,32 @@
+package fr.pmu.matrix.competence.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilitaire pour différer la mise à jour des structures en mémoire
+ * (index, caches) après la validation de la transaction courante.
+ * Hors transaction, l'action est exécutée immédiatement.
+ */
+public final class ApresCommit {
+
+    private ApresCommit() {
+    }
+
+    /**
+     * Exécute l'action après le commit de la transaction courante
+     * @param action L'action à exécuter
+     */
+    public static void executer(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package fr.pmu.matrix.competence.service;
+
+import fr.pmu.matrix.competence.dto.StatistiquesCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Service de consultation du cache de second niveau d'Hibernate.
+ * <p>
+ * Les régions (entités, collections et cache de requêtes) sont configurées dans {@code ehcache.xml} ;
+ * les compteurs sont ceux des statistiques Hibernate ({@code hibernate.generate_statistics}).
+ */
+@Service
+public class CacheService {
+
+    private final Statistics statistics;
+
+    @Autowired
+    public CacheService(EntityManagerFactory entityManagerFactory) {
+        this(entityManagerFactory.unwrap(SessionFactory.class).getStatistics());
+    }
+
+    CacheService(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Statistiques de chaque région du cache, triées par nom de région
+     * @return Les statistiques des régions
+     */
+    public List<StatistiquesCache> getStatistiques() {
+        String[] regions = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regions);
+        List<StatistiquesCache> resultat = new ArrayList<>(regions.length);
+        for (String region : regions) {
+            CacheRegionStatistics statistiquesRegion = statistics.getCacheRegionStatistics(region);
+            if (statistiquesRegion == null) {
+                continue;
+            }
+            long lectures = statistiquesRegion.getHitCount() + statistiquesRegion.getMissCount();
+            resultat.add(new StatistiquesCache(region, statistiquesRegion.getHitCount(), statistiquesRegion.getMissCount(),
+                    statistiquesRegion.getPutCount(), lectures == 0 ? 0 : (double) statistiquesRegion.getHitCount() / lectures));
+        }
+        return resultat;
+    }
+
+    /**
+     * Remet à zéro toutes les statistiques Hibernate, sans vider le cache
+     */
+    public void reinitialiserStatistiques() {
+        statistics.clear();
+    }
+}
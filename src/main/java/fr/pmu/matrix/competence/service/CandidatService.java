@@ -0,0 +1,126 @@
+package fr.pmu.matrix.competence.service;
+
+import fr.pmu.matrix.competence.dto.CandidatDemande;
+import fr.pmu.matrix.competence.dto.CorrespondancesDemande;
+import fr.pmu.matrix.competence.dto.PageCurseur;
+import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
+import fr.pmu.matrix.competence.entity.DemandeEntity;
+import fr.pmu.matrix.competence.index.ClassementCandidats;
+import fr.pmu.matrix.competence.index.ClassementCandidats.Candidat;
+import fr.pmu.matrix.competence.index.CorrespondancesDemandes;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.MatriceCompetenceStore;
+import fr.pmu.matrix.competence.repository.DemandeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Service de recherche des personnes les plus proches d'une demande
+ */
+@Service
+public class CandidatService {
+
+    private final DemandeRepository demandeRepository;
+    private final IndexPeriodes indexPeriodes;
+    private final MatriceCompetenceStore matriceCompetenceStore;
+    private final CorrespondancesDemandes correspondancesDemandes;
+
+    @Autowired
+    public CandidatService(DemandeRepository demandeRepository,
+                           IndexPeriodes indexPeriodes,
+                           MatriceCompetenceStore matriceCompetenceStore,
+                           CorrespondancesDemandes correspondancesDemandes) {
+        this.demandeRepository = demandeRepository;
+        this.indexPeriodes = indexPeriodes;
+        this.matriceCompetenceStore = matriceCompetenceStore;
+        this.correspondancesDemandes = correspondancesDemandes;
+    }
+
+    /**
+     * Classe les personnes selon leur proximité avec les compétences recherchées par une demande
+     * @param demandeId L'identifiant de la demande
+     * @param top Nombre maximal de candidats retournés
+     * @param disponiblesSeulement true pour ne classer que les personnes disponibles aujourd'hui
+     * @return Les candidats, du meilleur au moins bon, avec leurs écarts par compétence
+     * @throws RuntimeException Si la demande n'existe pas
+     * @throws IllegalArgumentException Si le nombre de candidats demandé est invalide
+     */
+    @Transactional(readOnly = true)
+    public List<CandidatDemande> getCandidats(String demandeId, int top, boolean disponiblesSeulement) {
+        if (top < 1 || top > PageCurseur.TAILLE_MAX) {
+            throw new IllegalArgumentException("Nombre de candidats invalide: " + top + " (entre 1 et " + PageCurseur.TAILLE_MAX + ")");
+        }
+        DemandeEntity demande = demandeRepository.findById(demandeId)
+                .orElseThrow(() -> new RuntimeException("Demande non trouvée avec l'ID: " + demandeId));
+
+        MatriceCompetenceSnapshot snapshot = matriceCompetenceStore.getSnapshot();
+        List<CompetenceRequiseEntity> requises = demande.getCompetencesRequises();
+        String[] libelles = new String[requises.size()];
+        int[] competences = new int[requises.size()];
+        int[] notesRequises = new int[requises.size()];
+        for (int i = 0; i < requises.size(); i++) {
+            libelles[i] = requises.get(i).getCompetence().getLibelle();
+            competences[i] = snapshot.ordinalCompetence(libelles[i]);
+            notesRequises[i] = requises.get(i).getNoteRequise().getValeur();
+        }
+
+        BitSet eligibles = null;
+        if (disponiblesSeulement) {
+            eligibles = new BitSet(snapshot.nbPersonnes());
+            for (String identifiant : indexPeriodes.personnesDisponibles(new Date())) {
+                int p = snapshot.ordinalPersonne(identifiant);
+                if (p >= 0) {
+                    eligibles.set(p);
+                }
+            }
+        }
+
+        List<Candidat> classement = ClassementCandidats.classer(snapshot, competences, notesRequises, eligibles, top);
+        List<CandidatDemande> candidats = new ArrayList<>(classement.size());
+        for (Candidat candidat : classement) {
+            List<CandidatDemande.Ecart> ecarts = new ArrayList<>(libelles.length);
+            for (int i = 0; i < libelles.length; i++) {
+                int note = competences[i] < 0
+                        ? MatriceCompetenceSnapshot.AUCUNE_NOTE
+                        : snapshot.note(candidat.personne(), competences[i]);
+                Integer noteActuelle = note == MatriceCompetenceSnapshot.AUCUNE_NOTE ? null : note;
+                ecarts.add(new CandidatDemande.Ecart(libelles[i], notesRequises[i], noteActuelle,
+                        Math.max(note, 0) - notesRequises[i]));
+            }
+            candidats.add(new CandidatDemande(candidats.size() + 1, snapshot.personne(candidat.personne()),
+                    candidat.score(), candidat.competencesCouvertes(), ecarts));
+        }
+        return candidats;
+    }
+
+    /**
+     * Personnes qui satisfont toutes les compétences requises d'une demande active,
+     * avec les changements de correspondance publiés depuis un numéro d'événement
+     * @param demandeId L'identifiant de la demande
+     * @param depuis Numéro du dernier événement déjà reçu (0 pour tous les événements conservés)
+     * @return Les correspondances de la demande
+     * @throws RuntimeException Si la demande n'existe pas
+     */
+    public CorrespondancesDemande getCorrespondances(String demandeId, long depuis) {
+        if (!demandeRepository.existsById(demandeId)) {
+            throw new RuntimeException("Demande non trouvée avec l'ID: " + demandeId);
+        }
+        // Numéro lu en premier : les événements publiés ensuite seront relus au prochain appel
+        long sequence = correspondancesDemandes.derniereSequence();
+        List<CorrespondancesDemande.Evenement> evenements = new ArrayList<>();
+        for (CorrespondancesDemandes.Evenement evenement : correspondancesDemandes.evenements(demandeId, depuis)) {
+            if (evenement.sequence() <= sequence) {
+                evenements.add(new CorrespondancesDemande.Evenement(evenement.sequence(), evenement.personneId(),
+                        evenement.type().name(), evenement.date()));
+            }
+        }
+        return new CorrespondancesDemande(demandeId, correspondancesDemandes.personnes(demandeId), evenements, sequence);
+    }
+}
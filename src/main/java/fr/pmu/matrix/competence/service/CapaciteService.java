@@ -0,0 +1,292 @@
+package fr.pmu.matrix.competence.service;
+
+import fr.pmu.matrix.competence.dto.CapacitePerimetre;
+import fr.pmu.matrix.competence.index.ArbreIntervalles;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.MatriceCompetenceStore;
+import fr.pmu.matrix.competence.index.Referentiel;
+import fr.pmu.matrix.competence.repository.EquipeRepository;
+import fr.pmu.matrix.competence.repository.EvenementRepository;
+import fr.pmu.matrix.competence.repository.GroupementRepository;
+import fr.pmu.matrix.competence.repository.projection.PeriodePersonneProjection;
+import fr.pmu.matrix.competence.repository.projection.RattachementProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service de planification de capacité : effectif disponible jour par jour pour une compétence.
+ * <p>
+ * Les personnes qualifiées (note au moins égale à la note minimale) sont lues dans la matrice en
+ * mémoire. Une personne qualifiée n'est pas disponible un jour où elle est absente, où un de ses
+ * profils est ouvert (en partance), ou où elle participe à un événement, directement ou par son
+ * équipe. Les absences et les profils viennent de l'index des périodes, les participations d'une
+ * requête par type de participant.
+ * <p>
+ * Chaque période est ramenée à un intervalle de jours dont les bornes sont triées puis balayées
+ * une seule fois : le coût dépend du nombre de périodes et de jours, pas de leur produit.
+ */
+@Service
+public class CapaciteService {
+
+    /**
+     * Nombre maximal de jours d'une période de calcul
+     */
+    static final int JOURS_MAX = 732;
+
+    private static final int ABSENCE = 0;
+    private static final int PARTANCE = 1;
+    private static final int EVENEMENT = 2;
+    private static final int NB_MOTIFS = 3;
+
+    private final MatriceCompetenceStore matriceCompetenceStore;
+    private final Referentiel referentiel;
+    private final IndexPeriodes indexPeriodes;
+    private final EvenementRepository evenementRepository;
+    private final EquipeRepository equipeRepository;
+    private final GroupementRepository groupementRepository;
+
+    @Autowired
+    public CapaciteService(MatriceCompetenceStore matriceCompetenceStore,
+                           Referentiel referentiel,
+                           IndexPeriodes indexPeriodes,
+                           EvenementRepository evenementRepository,
+                           EquipeRepository equipeRepository,
+                           GroupementRepository groupementRepository) {
+        this.matriceCompetenceStore = matriceCompetenceStore;
+        this.referentiel = referentiel;
+        this.indexPeriodes = indexPeriodes;
+        this.evenementRepository = evenementRepository;
+        this.equipeRepository = equipeRepository;
+        this.groupementRepository = groupementRepository;
+    }
+
+    /**
+     * Calcule la capacité d'une équipe sur une période
+     * @param code Code de l'équipe
+     * @param du Premier jour de la période
+     * @param au Dernier jour de la période (inclus)
+     * @param competenceLibelle Libellé de la compétence
+     * @param noteMin Note minimale pour être compté
+     * @return La capacité jour par jour
+     * @throws RuntimeException Si l'équipe ou la compétence n'existe pas
+     * @throws IllegalArgumentException Si la période est invalide
+     */
+    public CapacitePerimetre getCapaciteEquipe(String code, LocalDate du, LocalDate au,
+                                               String competenceLibelle, int noteMin) {
+        if (!equipeRepository.existsById(code)) {
+            throw new RuntimeException("Équipe non trouvée avec le code: " + code);
+        }
+        return calculer(code, Set.of(code), du, au, competenceLibelle, noteMin);
+    }
+
+    /**
+     * Calcule la capacité de toutes les équipes d'un groupement sur une période
+     * @param code Code du groupement
+     * @param du Premier jour de la période
+     * @param au Dernier jour de la période (inclus)
+     * @param competenceLibelle Libellé de la compétence
+     * @param noteMin Note minimale pour être compté
+     * @return La capacité jour par jour
+     * @throws RuntimeException Si le groupement ou la compétence n'existe pas
+     * @throws IllegalArgumentException Si la période est invalide
+     */
+    public CapacitePerimetre getCapaciteGroupement(String code, LocalDate du, LocalDate au,
+                                                   String competenceLibelle, int noteMin) {
+        if (!groupementRepository.existsById(code)) {
+            throw new RuntimeException("Groupement non trouvé avec le code: " + code);
+        }
+        Set<String> equipes = new HashSet<>();
+        for (RattachementProjection rattachement : equipeRepository.findAllRattachements()) {
+            if (code.equals(rattachement.parentCode())) {
+                equipes.add(rattachement.code());
+            }
+        }
+        return calculer(code, equipes, du, au, competenceLibelle, noteMin);
+    }
+
+    /**
+     * Calcule la capacité des personnes d'un ensemble d'équipes
+     */
+    CapacitePerimetre calculer(String perimetreCode, Set<String> equipes, LocalDate du, LocalDate au,
+                               String competenceLibelle, int noteMin) {
+        if (du == null || au == null || au.isBefore(du)) {
+            throw new IllegalArgumentException("Période invalide: la date de fin doit suivre la date de début");
+        }
+        int nbJours = (int) Math.min(ChronoUnit.DAYS.between(du, au) + 1, Integer.MAX_VALUE);
+        if (nbJours > JOURS_MAX) {
+            throw new IllegalArgumentException("Période trop longue: " + nbJours + " jours (maximum " + JOURS_MAX + ")");
+        }
+        if (!referentiel.contientCompetence(competenceLibelle)) {
+            throw new RuntimeException("Compétence non trouvée: " + competenceLibelle);
+        }
+
+        Map<String, Integer> qualifiees = personnesQualifiees(equipes, competenceLibelle, noteMin);
+        Periode periode = new Periode(du, nbJours);
+        List<Borne> bornes = new ArrayList<>();
+        if (!qualifiees.isEmpty()) {
+            Date debut = new Date(periode.debut);
+            Date fin = new Date(periode.fin);
+            for (PeriodePersonneProjection absence : indexPeriodes.absencesChevauchant(debut, fin)) {
+                ajouter(bornes, periode, qualifiees, absence, ABSENCE, instant(absence.dateDebut(), ArbreIntervalles.DEBUT_OUVERT),
+                        instant(absence.dateFin(), ArbreIntervalles.FIN_OUVERTE));
+            }
+            for (PeriodePersonneProjection profil : indexPeriodes.profilsChevauchant(debut, fin)) {
+                // Bornes exclues, comme dans l'index des périodes
+                long debutProfil = profil.dateDebut() == null ? ArbreIntervalles.DEBUT_OUVERT : profil.dateDebut().getTime() + 1;
+                long finProfil = profil.dateFin() == null ? ArbreIntervalles.FIN_OUVERTE : profil.dateFin().getTime() - 1;
+                ajouter(bornes, periode, qualifiees, profil, PARTANCE, debutProfil, finProfil);
+            }
+            List<PeriodePersonneProjection> participations = new ArrayList<>(evenementRepository.findParticipationsPersonnes(debut, fin));
+            participations.addAll(evenementRepository.findParticipationsEquipes(debut, fin));
+            for (PeriodePersonneProjection participation : participations) {
+                ajouter(bornes, periode, qualifiees, participation, EVENEMENT,
+                        participation.dateDebut().getTime(), participation.dateFin().getTime());
+            }
+        }
+
+        List<CapacitePerimetre.CapaciteJour> jours = balayer(bornes, qualifiees.size(), du, nbJours);
+        int minimum = jours.stream().mapToInt(CapacitePerimetre.CapaciteJour::getDisponibles).min().orElse(0);
+        return new CapacitePerimetre(perimetreCode, competenceLibelle, noteMin, qualifiees.size(), minimum, jours);
+    }
+
+    /**
+     * Numérote de 0 à n - 1 les personnes des équipes dont la note atteint la note minimale
+     */
+    private Map<String, Integer> personnesQualifiees(Collection<String> equipes, String competenceLibelle, int noteMin) {
+        MatriceCompetenceSnapshot snapshot = matriceCompetenceStore.getSnapshot();
+        Map<String, Integer> qualifiees = new HashMap<>();
+        int c = snapshot.ordinalCompetence(competenceLibelle);
+        if (c < 0) {
+            return qualifiees;
+        }
+        for (int p = 0; p < snapshot.nbPersonnes(); p++) {
+            String equipeCode = snapshot.equipeCode(p);
+            int note = snapshot.note(p, c);
+            if (equipeCode != null && equipes.contains(equipeCode)
+                    && note != MatriceCompetenceSnapshot.AUCUNE_NOTE && note >= noteMin) {
+                qualifiees.put(snapshot.identifiantPersonne(p), qualifiees.size());
+            }
+        }
+        return qualifiees;
+    }
+
+    /**
+     * Ajoute les deux bornes de la période d'une personne qualifiée : +1 le premier jour
+     * couvert, -1 le lendemain du dernier
+     */
+    private void ajouter(List<Borne> bornes, Periode periode, Map<String, Integer> qualifiees,
+                         PeriodePersonneProjection projection, int motif, long debut, long fin) {
+        Integer personne = qualifiees.get(projection.personneIdentifiant());
+        if (personne == null || debut > fin || fin < periode.debut || debut > periode.fin) {
+            return;
+        }
+        bornes.add(new Borne(periode.jour(debut), personne, motif, 1));
+        bornes.add(new Borne(periode.jour(fin) + 1, personne, motif, -1));
+    }
+
+    /**
+     * Parcourt les bornes dans l'ordre des jours en tenant, par personne et par motif, le nombre
+     * de périodes en cours : une personne est comptée indisponible tant qu'une de ses périodes
+     * est ouverte, même lorsque plusieurs se chevauchent
+     */
+    private List<CapacitePerimetre.CapaciteJour> balayer(List<Borne> bornes, int effectif, LocalDate du, int nbJours) {
+        bornes.sort(Comparator.comparingInt(Borne::jour));
+        int[][] ouvertesParMotif = new int[NB_MOTIFS][effectif];
+        int[] ouvertes = new int[effectif];
+        int[] personnesParMotif = new int[NB_MOTIFS];
+        int indisponibles = 0;
+
+        List<CapacitePerimetre.CapaciteJour> jours = new ArrayList<>(nbJours);
+        int i = 0;
+        for (int jour = 0; jour < nbJours; jour++) {
+            for (; i < bornes.size() && bornes.get(i).jour() == jour; i++) {
+                Borne borne = bornes.get(i);
+                int[] parPersonne = ouvertesParMotif[borne.motif()];
+                if (borne.delta() > 0) {
+                    if (parPersonne[borne.personne()]++ == 0) {
+                        personnesParMotif[borne.motif()]++;
+                    }
+                    if (ouvertes[borne.personne()]++ == 0) {
+                        indisponibles++;
+                    }
+                } else {
+                    if (--parPersonne[borne.personne()] == 0) {
+                        personnesParMotif[borne.motif()]--;
+                    }
+                    if (--ouvertes[borne.personne()] == 0) {
+                        indisponibles--;
+                    }
+                }
+            }
+            jours.add(new CapacitePerimetre.CapaciteJour(du.plusDays(jour), effectif - indisponibles,
+                    personnesParMotif[ABSENCE], personnesParMotif[PARTANCE], personnesParMotif[EVENEMENT]));
+        }
+        return jours;
+    }
+
+    private static long instant(Date date, long siNull) {
+        return date == null ? siNull : date.getTime();
+    }
+
+    /**
+     * Borne d'un intervalle de jours
+     * @param jour Indice du jour dans la période
+     * @param personne Numéro de la personne qualifiée
+     * @param motif Motif d'indisponibilité
+     * @param delta +1 à l'ouverture, -1 à la fermeture
+     */
+    private record Borne(int jour, int personne, int motif, int delta) {
+    }
+
+    /**
+     * Période de calcul : jours consécutifs à partir de {@code du}, dans le fuseau du serveur
+     */
+    private static final class Periode {
+        private final LocalDate du;
+        private final ZoneId fuseau = ZoneId.systemDefault();
+        /**
+         * Premier instant du premier jour
+         */
+        private final long debut;
+        /**
+         * Dernier instant du dernier jour
+         */
+        private final long fin;
+        private final int nbJours;
+
+        private Periode(LocalDate du, int nbJours) {
+            this.du = du;
+            this.nbJours = nbJours;
+            this.debut = du.atStartOfDay(fuseau).toInstant().toEpochMilli();
+            this.fin = du.plusDays(nbJours).atStartOfDay(fuseau).toInstant().toEpochMilli() - 1;
+        }
+
+        /**
+         * Indice du jour contenant un instant, ramené à la période
+         */
+        private int jour(long instant) {
+            if (instant <= debut) {
+                return 0;
+            }
+            if (instant >= fin) {
+                return nbJours - 1;
+            }
+            return (int) ChronoUnit.DAYS.between(du, Instant.ofEpochMilli(instant).atZone(fuseau).toLocalDate());
+        }
+    }
+}
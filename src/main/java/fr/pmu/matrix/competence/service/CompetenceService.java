@@ -2,6 +2,7 @@ package fr.pmu.matrix.competence.service;
 
 import fr.pmu.matrix.competence.domain.Competence;
 import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.index.Referentiel;
 import fr.pmu.matrix.competence.mapper.CompetenceMapper;
 import fr.pmu.matrix.competence.repository.CompetenceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,12 +17,15 @@ public class CompetenceService {
 
     private final CompetenceRepository competenceRepository;
     private final CompetenceMapper competenceMapper;
+    private final Referentiel referentiel;
 
     @Autowired
     public CompetenceService(CompetenceRepository competenceRepository, 
-                            CompetenceMapper competenceMapper) {
+                            CompetenceMapper competenceMapper,
+                            Referentiel referentiel) {
         this.competenceRepository = competenceRepository;
         this.competenceMapper = competenceMapper;
+        this.referentiel = referentiel;
     }
 
     /**
@@ -61,8 +65,9 @@ public class CompetenceService {
         }
         
         CompetenceEntity competenceEntity = competenceMapper.mapToCompetenceEntity(competence);
-        competenceEntity = competenceRepository.save(competenceEntity);
-        return competenceMapper.mapToCompetenceDomain(competenceEntity);
+        CompetenceEntity savedEntity = competenceRepository.save(competenceEntity);
+        ApresCommit.executer(() -> referentiel.publierCompetence(savedEntity));
+        return competenceMapper.mapToCompetenceDomain(savedEntity);
     }
 
     /**
@@ -80,8 +85,9 @@ public class CompetenceService {
         // On ne met à jour que la description, pas le libellé
         competenceEntity.setDescription(competence.getDescription());
         
-        competenceEntity = competenceRepository.save(competenceEntity);
-        return competenceMapper.mapToCompetenceDomain(competenceEntity);
+        CompetenceEntity updatedEntity = competenceRepository.save(competenceEntity);
+        ApresCommit.executer(() -> referentiel.publierCompetence(updatedEntity));
+        return competenceMapper.mapToCompetenceDomain(updatedEntity);
     }
 
     /**
@@ -95,5 +101,6 @@ public class CompetenceService {
             throw new RuntimeException("Compétence non trouvée avec le libellé: " + libelle);
         }
         competenceRepository.deleteById(libelle);
+        ApresCommit.executer(() -> referentiel.retirerCompetence(libelle));
     }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package fr.pmu.matrix.competence.service;
+
+import fr.pmu.matrix.competence.dto.CouvertureEquipe;
+import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
+import fr.pmu.matrix.competence.entity.EquipeEntity;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.MatriceCompetenceStore;
+import fr.pmu.matrix.competence.repository.EquipeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service d'analyse de la couverture des profils de recherche des équipes par leurs membres.
+ * <p>
+ * Les notes sont lues dans la matrice en mémoire : le calcul pour toutes les équipes répartit
+ * les personnes par équipe en un seul parcours, sans requête par équipe.
+ */
+@Service
+public class CouvertureEquipeService {
+
+    private final EquipeRepository equipeRepository;
+    private final MatriceCompetenceStore matriceCompetenceStore;
+
+    @Autowired
+    public CouvertureEquipeService(EquipeRepository equipeRepository,
+                                   MatriceCompetenceStore matriceCompetenceStore) {
+        this.equipeRepository = equipeRepository;
+        this.matriceCompetenceStore = matriceCompetenceStore;
+    }
+
+    /**
+     * Calcule la couverture du profil de recherche d'une équipe
+     * @param code Code de l'équipe
+     * @return La couverture de chaque compétence requise
+     * @throws RuntimeException Si l'équipe n'existe pas
+     */
+    @Transactional(readOnly = true)
+    public CouvertureEquipe getCouverture(String code) {
+        EquipeEntity equipe = equipeRepository.findById(code)
+                .orElseThrow(() -> new RuntimeException("Équipe non trouvée avec le code: " + code));
+        MatriceCompetenceSnapshot snapshot = matriceCompetenceStore.getSnapshot();
+        return calculer(snapshot, equipe, membresParEquipe(snapshot).getOrDefault(code, new int[0]));
+    }
+
+    /**
+     * Calcule la couverture du profil de recherche de toutes les équipes
+     * @return La couverture de chaque équipe, triée par code
+     */
+    @Transactional(readOnly = true)
+    public List<CouvertureEquipe> getCouvertures() {
+        List<EquipeEntity> equipes = new ArrayList<>(equipeRepository.findAllAvecProfilRecherche());
+        equipes.sort(Comparator.comparing(EquipeEntity::getCode));
+        MatriceCompetenceSnapshot snapshot = matriceCompetenceStore.getSnapshot();
+        Map<String, int[]> membres = membresParEquipe(snapshot);
+
+        List<CouvertureEquipe> couvertures = new ArrayList<>(equipes.size());
+        for (EquipeEntity equipe : equipes) {
+            couvertures.add(calculer(snapshot, equipe, membres.getOrDefault(equipe.getCode(), new int[0])));
+        }
+        return couvertures;
+    }
+
+    /**
+     * Répartit les ordinaux des personnes par code d'équipe (comptage puis remplissage)
+     */
+    private Map<String, int[]> membresParEquipe(MatriceCompetenceSnapshot snapshot) {
+        Map<String, Integer> tailles = new HashMap<>();
+        for (int p = 0; p < snapshot.nbPersonnes(); p++) {
+            if (snapshot.equipeCode(p) != null) {
+                tailles.merge(snapshot.equipeCode(p), 1, Integer::sum);
+            }
+        }
+        Map<String, int[]> membres = new HashMap<>(tailles.size() * 2);
+        Map<String, Integer> positions = new HashMap<>(tailles.size() * 2);
+        for (int p = 0; p < snapshot.nbPersonnes(); p++) {
+            String equipeCode = snapshot.equipeCode(p);
+            if (equipeCode != null) {
+                int position = positions.merge(equipeCode, 1, Integer::sum) - 1;
+                membres.computeIfAbsent(equipeCode, code -> new int[tailles.get(code)])[position] = p;
+            }
+        }
+        return membres;
+    }
+
+    private CouvertureEquipe calculer(MatriceCompetenceSnapshot snapshot, EquipeEntity equipe, int[] membres) {
+        List<CouvertureEquipe.CouvertureCompetence> competences = new ArrayList<>();
+        for (CompetenceRequiseEntity requise : equipe.getProfilRecherche()) {
+            String libelle = requise.getCompetence().getLibelle();
+            int noteRequise = requise.getNoteRequise().getValeur();
+            int c = snapshot.ordinalCompetence(libelle);
+            int auNiveau = 0;
+            int meilleure = MatriceCompetenceSnapshot.AUCUNE_NOTE;
+            if (c >= 0) {
+                for (int p : membres) {
+                    int note = snapshot.note(p, c);
+                    if (note != MatriceCompetenceSnapshot.AUCUNE_NOTE && note >= noteRequise) {
+                        auNiveau++;
+                    }
+                    meilleure = Math.max(meilleure, note);
+                }
+            }
+            Integer meilleureNote = meilleure == MatriceCompetenceSnapshot.AUCUNE_NOTE ? null : meilleure;
+            competences.add(new CouvertureEquipe.CouvertureCompetence(libelle, noteRequise, auNiveau,
+                    meilleureNote, Math.max(meilleure, 0) - noteRequise));
+        }
+        return new CouvertureEquipe(equipe.getCode(), equipe.getNom(), membres.length, competences);
+    }
+}
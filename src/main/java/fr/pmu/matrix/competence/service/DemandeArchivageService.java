@@ -0,0 +1,140 @@
+package fr.pmu.matrix.competence.service;
+
+import fr.pmu.matrix.competence.domain.Nature;
+import fr.pmu.matrix.competence.index.CorrespondancesDemandes;
+import fr.pmu.matrix.competence.index.IndexCompetencesDemandes;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.repository.CompetenceRequiseRepository;
+import fr.pmu.matrix.competence.repository.DemandeArchiveRepository;
+import fr.pmu.matrix.competence.repository.DemandeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Archivage des demandes temporaires terminées.
+ * <p>
+ * Les demandes {@link Nature#TEMPORAIRE} dont la date de fin est passée sont déplacées, avec leurs
+ * compétences requises, vers les tables {@code demande_archive} et {@code competence_requise_archive},
+ * de même forme. Chaque lot est copié puis supprimé en une transaction, par quatre requêtes
+ * ensemblistes. Les recherches par défaut ne portent plus que sur les demandes courantes.
+ * <p>
+ * Un lot en échec est repris demande par demande : les demandes qui ne peuvent pas être déplacées
+ * restent en place et le lot suivant commence après elles, si bien qu'une demande fautive
+ * n'empêche pas l'archivage des autres.
+ */
+@Service
+public class DemandeArchivageService {
+
+    private final DemandeRepository demandeRepository;
+    private final DemandeArchiveRepository demandeArchiveRepository;
+    private final CompetenceRequiseRepository competenceRequiseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final IndexPeriodes indexPeriodes;
+    private final IndexCompetencesDemandes indexCompetencesDemandes;
+    private final CorrespondancesDemandes correspondancesDemandes;
+    private final int tailleLot;
+
+    @Autowired
+    public DemandeArchivageService(DemandeRepository demandeRepository,
+                                   DemandeArchiveRepository demandeArchiveRepository,
+                                   CompetenceRequiseRepository competenceRequiseRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   IndexPeriodes indexPeriodes,
+                                   IndexCompetencesDemandes indexCompetencesDemandes,
+                                   CorrespondancesDemandes correspondancesDemandes,
+                                   @Value("${matrice.archivage.taille-lot:500}") int tailleLot) {
+        this.demandeRepository = demandeRepository;
+        this.demandeArchiveRepository = demandeArchiveRepository;
+        this.competenceRequiseRepository = competenceRequiseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.indexPeriodes = indexPeriodes;
+        this.indexCompetencesDemandes = indexCompetencesDemandes;
+        this.correspondancesDemandes = correspondancesDemandes;
+        this.tailleLot = tailleLot;
+    }
+
+    /**
+     * Archive toutes les demandes temporaires terminées avant aujourd'hui
+     * @return Le nombre de demandes archivées
+     */
+    @Scheduled(cron = "${matrice.archivage.cron:0 0 2 * * *}")
+    public int archiverDemandesTerminees() {
+        return archiver(Date.from(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant()));
+    }
+
+    /**
+     * Archive, lot par lot, les demandes temporaires terminées avant une date
+     * @param date Les demandes dont la date de fin est strictement antérieure sont archivées
+     * @return Le nombre de demandes archivées
+     */
+    int archiver(Date date) {
+        int total = 0;
+        String apres = "";
+        while (true) {
+            List<String> ids = demandeRepository.findIdsTermineesAvant(Nature.TEMPORAIRE, date, apres, PageRequest.of(0, tailleLot));
+            if (ids.isEmpty()) {
+                return total;
+            }
+            List<String> archivees = archiverLot(ids);
+            total += archivees.size();
+
+            if (!archivees.isEmpty()) {
+                indexPeriodes.invaliderDemandes();
+                for (String id : archivees) {
+                    indexCompetencesDemandes.retirer(id);
+                    correspondancesDemandes.retirerDemande(id);
+                }
+            }
+            if (ids.size() < tailleLot) {
+                return total;
+            }
+            apres = ids.get(ids.size() - 1);
+        }
+    }
+
+    /**
+     * Déplace un lot de demandes vers les tables d'archive en une transaction ; en cas d'échec,
+     * le lot est repris demande par demande, chacune dans sa propre transaction
+     * @return Les identifiants des demandes archivées
+     */
+    private List<String> archiverLot(List<String> ids) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> deplacer(ids));
+            return ids;
+        } catch (DataAccessException e) {
+            List<String> archivees = new ArrayList<>();
+            for (String id : ids) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> deplacer(List.of(id)));
+                    archivees.add(id);
+                } catch (DataAccessException echec) {
+                    // La demande reste en place ; elle sera retentée au prochain archivage
+                }
+            }
+            return archivees;
+        }
+    }
+
+    /**
+     * Copie des demandes et de leurs compétences requises dans les tables d'archive, puis suppression ;
+     * doit être appelé dans une transaction
+     */
+    private void deplacer(List<String> ids) {
+        demandeArchiveRepository.copierDemandes(ids);
+        demandeArchiveRepository.copierCompetencesRequises(ids);
+        competenceRequiseRepository.supprimerParDemandes(ids);
+        demandeRepository.supprimer(ids);
+    }
+}
@@ -0,0 +1,420 @@
+package fr.pmu.matrix.competence.service;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.pmu.matrix.competence.domain.Competence;
+import fr.pmu.matrix.competence.domain.Demande;
+import fr.pmu.matrix.competence.domain.DestinationEquipe;
+import fr.pmu.matrix.competence.domain.DestinationGroupement;
+import fr.pmu.matrix.competence.domain.Equipe;
+import fr.pmu.matrix.competence.domain.Groupement;
+import fr.pmu.matrix.competence.domain.Nature;
+import fr.pmu.matrix.competence.domain.Note;
+import fr.pmu.matrix.competence.dto.CompetenceRequiseRequest;
+import fr.pmu.matrix.competence.dto.DemandeCreationRequest;
+import fr.pmu.matrix.competence.dto.DemandeImportLigne;
+import fr.pmu.matrix.competence.dto.DemandeImportLigne.Statut;
+import fr.pmu.matrix.competence.dto.DestinationRequest;
+import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
+import fr.pmu.matrix.competence.index.CorrespondancesDemandes;
+import fr.pmu.matrix.competence.index.IndexCompetencesDemandes;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.index.Referentiel;
+import fr.pmu.matrix.competence.repository.EquipeRepository;
+import fr.pmu.matrix.competence.repository.GroupementRepository;
+import fr.pmu.matrix.competence.repository.RequetesH2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Import en masse de demandes, depuis un flux NDJSON ou un export CSV de tableur.
+ * <p>
+ * Chaque demande est validée ({@link Demande#estValide()}), ses compétences et notes sont résolues
+ * sur le {@link Referentiel} et sa destination sur un cache des codes déjà vérifiés pendant l'import.
+ * Les demandes valides sont écrites par lots JDBC, chaque lot dans sa propre transaction ; les
+ * identifiants des compétences requises sont réservés par blocs sur leur séquence, sans aller-retour
+ * par ligne ({@link RequetesH2#RESERVER_COMPETENCES_REQUISES}). Le résultat de chaque demande est transmis dès que son lot est écrit.
+ * <p>
+ * Une fois un lot validé, les index en mémoire des demandes sont invalidés et seront reconstruits
+ * à la prochaine lecture. Les demandes importées n'alimentent pas le flux des correspondances.
+ */
+@Service
+public class DemandeImportService {
+
+    /**
+     * Nombre de demandes écrites par lot JDBC et par transaction
+     */
+    static final int TAILLE_LOT = 1000;
+
+    /**
+     * Colonnes attendues dans la ligne d'en-tête d'un import CSV. La colonne {@code competences}
+     * liste les compétences requises sous la forme {@code JAVA:4|SPRING:3}.
+     */
+    static final List<String> COLONNES_CSV = List.of("matriculeDemandeur", "description", "nature",
+            "dateDebut", "dateFin", "destinationType", "destinationCode", "competences");
+
+    private static final String INSERT_DEMANDE =
+            "INSERT INTO demande (id, matricule_demandeur, description, nature, date_debut, date_fin, " +
+            "est_groupement, destination_code, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String INSERT_COMPETENCE_REQUISE =
+            "INSERT INTO competence_requise (id, demande_id, competence_libelle, note_valeur) VALUES (?, ?, ?, ?)";
+
+    /**
+     * Format du flux importé
+     */
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    /**
+     * Flux de demandes à importer, ouvert par {@link #ouvrir(InputStream, Format)}
+     */
+    public interface Source {
+
+        /**
+         * Lit la demande suivante
+         * @return La demande, ou null en fin de flux
+         * @throws IllegalArgumentException Si l'enregistrement ne peut pas être converti en demande
+         * @throws IOException Si le flux est illisible
+         */
+        DemandeCreationRequest suivante() throws IOException;
+    }
+
+    /**
+     * Demande validée, prête à être écrite
+     */
+    private record DemandeValide(DemandeImportLigne ligne, DemandeCreationRequest request, boolean estGroupement) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Referentiel referentiel;
+    private final EquipeRepository equipeRepository;
+    private final GroupementRepository groupementRepository;
+    private final IndexPeriodes indexPeriodes;
+    private final IndexCompetencesDemandes indexCompetencesDemandes;
+    private final CorrespondancesDemandes correspondancesDemandes;
+
+    @Autowired
+    public DemandeImportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            Referentiel referentiel,
+            EquipeRepository equipeRepository,
+            GroupementRepository groupementRepository,
+            IndexPeriodes indexPeriodes,
+            IndexCompetencesDemandes indexCompetencesDemandes,
+            CorrespondancesDemandes correspondancesDemandes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.referentiel = referentiel;
+        this.equipeRepository = equipeRepository;
+        this.groupementRepository = groupementRepository;
+        this.indexPeriodes = indexPeriodes;
+        this.indexCompetencesDemandes = indexCompetencesDemandes;
+        this.correspondancesDemandes = correspondancesDemandes;
+    }
+
+    /**
+     * Ouvre un flux de demandes ; l'en-tête CSV est lu et vérifié immédiatement
+     * @param flux Le flux NDJSON (une {@link DemandeCreationRequest} par ligne) ou CSV (colonnes {@link #COLONNES_CSV})
+     * @param format Le format du flux
+     * @return La source des demandes
+     * @throws IOException Si le flux est illisible, ou si l'en-tête CSV est absent ou incomplet
+     */
+    public Source ouvrir(InputStream flux, Format format) throws IOException {
+        if (format == Format.NDJSON) {
+            MappingIterator<DemandeCreationRequest> demandes = objectMapper
+                    .readerFor(DemandeCreationRequest.class)
+                    .readValues(flux);
+            return () -> {
+                try {
+                    return demandes.hasNextValue() ? demandes.nextValue() : null;
+                } catch (JsonMappingException e) {
+                    throw new IllegalArgumentException("Demande illisible: " + e.getOriginalMessage(), e);
+                }
+            };
+        }
+
+        LecteurCsv lecteur = LecteurCsv.ouvrir(new InputStreamReader(flux, StandardCharsets.UTF_8));
+        Map<String, Integer> colonnes = new HashMap<>();
+        for (int i = 0; i < lecteur.entetes().size(); i++) {
+            colonnes.put(lecteur.entetes().get(i), i);
+        }
+        for (String colonne : COLONNES_CSV) {
+            if (!colonnes.containsKey(colonne)) {
+                throw new IOException("Colonne CSV manquante: " + colonne);
+            }
+        }
+        return () -> {
+            List<String> champs = lecteur.ligne();
+            return champs == null ? null : depuisCsv(champs, colonnes);
+        };
+    }
+
+    /**
+     * Importe toutes les demandes d'une source
+     * @param source La source ouverte par {@link #ouvrir(InputStream, Format)}
+     * @param resultats Reçoit le résultat de chaque demande, dans l'ordre du flux, une fois son lot écrit
+     * @throws IOException Si le flux devient illisible ; les lots déjà écrits restent acquis
+     */
+    public void importer(Source source, Consumer<DemandeImportLigne> resultats) throws IOException {
+        Map<String, Boolean> destinations = new HashMap<>();
+        List<DemandeImportLigne> lignes = new ArrayList<>(TAILLE_LOT);
+        List<DemandeValide> lot = new ArrayList<>(TAILLE_LOT);
+        int index = 0;
+        while (true) {
+            DemandeImportLigne ligne = new DemandeImportLigne(index++, null, null, null);
+            DemandeCreationRequest request;
+            try {
+                request = source.suivante();
+                if (request == null) {
+                    break;
+                }
+                lot.add(valider(ligne, request, destinations));
+            } catch (IllegalArgumentException e) {
+                rejeter(ligne, e.getMessage());
+            }
+            lignes.add(ligne);
+            if (lignes.size() == TAILLE_LOT) {
+                ecrireLot(lot);
+                publier(lignes, resultats);
+                lot.clear();
+            }
+        }
+        ecrireLot(lot);
+        publier(lignes, resultats);
+    }
+
+    /**
+     * Vérifie une demande et résout ses références, sans accès base pour les compétences et les notes
+     * @throws IllegalArgumentException Si la demande est invalide ou fait référence à une donnée inconnue
+     */
+    private DemandeValide valider(DemandeImportLigne ligne, DemandeCreationRequest request, Map<String, Boolean> destinations) {
+        Demande demande = new Demande();
+        demande.setMatriculeDemandeur(request.getMatriculeDemandeur());
+        demande.setNature(request.getNature());
+        demande.setDateDebut(request.getDateDebut());
+        demande.setDateFin(request.getDateFin());
+
+        DestinationRequest destination = request.getDestination();
+        if (destination == null || destination.getCode() == null || destination.getCode().isEmpty()) {
+            throw new IllegalArgumentException("La destination est requise");
+        }
+        boolean estGroupement;
+        if ("GROUPEMENT".equals(destination.getType())) {
+            estGroupement = true;
+            if (!destinations.computeIfAbsent("G" + destination.getCode(), c -> groupementRepository.existsById(destination.getCode()))) {
+                throw new IllegalArgumentException("Groupement non trouvé avec le code: " + destination.getCode());
+            }
+            demande.setDestination(new DestinationGroupement(new Groupement(destination.getCode(), null, null)));
+        } else if ("EQUIPE".equals(destination.getType())) {
+            estGroupement = false;
+            if (!destinations.computeIfAbsent("E" + destination.getCode(), c -> equipeRepository.existsById(destination.getCode()))) {
+                throw new IllegalArgumentException("Équipe non trouvée avec le code: " + destination.getCode());
+            }
+            Equipe equipe = new Equipe();
+            equipe.setCode(destination.getCode());
+            demande.setDestination(new DestinationEquipe(equipe));
+        } else {
+            throw new IllegalArgumentException("Type de destination non supporté: " + destination.getType());
+        }
+
+        if (request.getCompetencesRecherchees() != null) {
+            Set<String> vues = new HashSet<>();
+            for (CompetenceRequiseRequest competence : request.getCompetencesRecherchees()) {
+                if (!referentiel.contientCompetence(competence.getCompetenceLibelle())) {
+                    throw new IllegalArgumentException("Compétence non trouvée: " + competence.getCompetenceLibelle());
+                }
+                if (!referentiel.contientNote(competence.getNoteValeur())) {
+                    throw new IllegalArgumentException("Note non trouvée: " + competence.getNoteValeur());
+                }
+                if (!vues.add(competence.getCompetenceLibelle())) {
+                    throw new IllegalArgumentException("Compétence requise en double: " + competence.getCompetenceLibelle());
+                }
+                demande.ajouterCompetenceRequise(new Competence(competence.getCompetenceLibelle(), null),
+                        new Note(competence.getNoteValeur(), null));
+            }
+        }
+        if (!demande.estValide()) {
+            throw new IllegalArgumentException("La demande n'est pas valide");
+        }
+
+        ligne.setDemandeId(UUID.randomUUID().toString());
+        ligne.setStatut(Statut.CREEE);
+        return new DemandeValide(ligne, request, estGroupement);
+    }
+
+    /**
+     * Écrit un lot en une transaction puis invalide les index des demandes.
+     * En cas d'échec, toutes les demandes du lot sont rejetées.
+     */
+    private void ecrireLot(List<DemandeValide> lot) {
+        if (lot.isEmpty()) {
+            return;
+        }
+        List<Object[]> demandes = new ArrayList<>(lot.size());
+        List<Object[]> competences = new ArrayList<>();
+        for (DemandeValide demande : lot) {
+            DemandeCreationRequest request = demande.request();
+            String id = demande.ligne().getDemandeId();
+            demandes.add(new Object[] {id, request.getMatriculeDemandeur(), request.getDescription(),
+                    request.getNature().name(), dateSql(request.getDateDebut()), dateSql(request.getDateFin()),
+                    demande.estGroupement(), request.getDestination().getCode()});
+            for (CompetenceRequiseRequest competence : request.getCompetencesRecherchees()) {
+                competences.add(new Object[] {null, id, competence.getCompetenceLibelle(), competence.getNoteValeur()});
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                long[] identifiants = reserverIdentifiants(competences.size());
+                for (int i = 0; i < competences.size(); i++) {
+                    competences.get(i)[0] = identifiants[i];
+                }
+                jdbcTemplate.batchUpdate(INSERT_DEMANDE, demandes);
+                jdbcTemplate.batchUpdate(INSERT_COMPETENCE_REQUISE, competences);
+            });
+        } catch (DataAccessException e) {
+            for (DemandeValide demande : lot) {
+                demande.ligne().setDemandeId(null);
+                rejeter(demande.ligne(), "Erreur lors de l'écriture du lot: " + e.getMostSpecificCause().getMessage());
+            }
+            return;
+        }
+
+        indexPeriodes.invaliderDemandes();
+        indexCompetencesDemandes.invalider();
+        correspondancesDemandes.invalider();
+    }
+
+    /**
+     * Réserve des identifiants de compétences requises : chaque valeur {@code v} tirée de la séquence
+     * donne le bloc {@code ]v - TAILLE_ALLOCATION, v]}, comme l'optimiseur {@code pooled} d'Hibernate,
+     * si bien que les identifiants réservés ici et ceux attribués par Hibernate ne se chevauchent pas
+     */
+    private long[] reserverIdentifiants(int nombre) {
+        long[] identifiants = new long[nombre];
+        int n = 0;
+        while (n < nombre) {
+            int blocs = (nombre - n + CompetenceRequiseEntity.TAILLE_ALLOCATION - 1) / CompetenceRequiseEntity.TAILLE_ALLOCATION;
+            for (Long valeur : jdbcTemplate.queryForList(RequetesH2.RESERVER_COMPETENCES_REQUISES, Long.class, blocs)) {
+                for (long id = Math.max(1, valeur - CompetenceRequiseEntity.TAILLE_ALLOCATION + 1); id <= valeur && n < nombre; id++) {
+                    identifiants[n++] = id;
+                }
+            }
+        }
+        return identifiants;
+    }
+
+    private DemandeCreationRequest depuisCsv(List<String> champs, Map<String, Integer> colonnes) {
+        DemandeCreationRequest request = new DemandeCreationRequest();
+        request.setMatriculeDemandeur(champ(champs, colonnes, "matriculeDemandeur"));
+        request.setDescription(champ(champs, colonnes, "description"));
+        String nature = champ(champs, colonnes, "nature");
+        if (nature != null) {
+            try {
+                request.setNature(Nature.valueOf(nature));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Nature invalide: " + nature);
+            }
+        }
+        request.setDateDebut(date(champ(champs, colonnes, "dateDebut")));
+        request.setDateFin(date(champ(champs, colonnes, "dateFin")));
+
+        DestinationRequest destination = new DestinationRequest();
+        destination.setType(champ(champs, colonnes, "destinationType"));
+        destination.setCode(champ(champs, colonnes, "destinationCode"));
+        request.setDestination(destination);
+
+        List<CompetenceRequiseRequest> competences = new ArrayList<>();
+        String liste = champ(champs, colonnes, "competences");
+        if (liste != null) {
+            for (String element : liste.split("\\|")) {
+                int separateur = element.lastIndexOf(':');
+                if (separateur < 0) {
+                    throw new IllegalArgumentException("Compétence requise invalide: " + element + " (attendu COMPETENCE:NOTE)");
+                }
+                CompetenceRequiseRequest competence = new CompetenceRequiseRequest();
+                competence.setCompetenceLibelle(element.substring(0, separateur).trim());
+                try {
+                    competence.setNoteValeur(Integer.parseInt(element.substring(separateur + 1).trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Compétence requise invalide: " + element + " (attendu COMPETENCE:NOTE)");
+                }
+                competences.add(competence);
+            }
+        }
+        request.setCompetencesRecherchees(competences);
+        return request;
+    }
+
+    /**
+     * Valeur d'une colonne, ou null si elle est vide ou absente de la ligne
+     */
+    private static String champ(List<String> champs, Map<String, Integer> colonnes, String colonne) {
+        int i = colonnes.get(colonne);
+        if (i >= champs.size()) {
+            return null;
+        }
+        String valeur = champs.get(i).trim();
+        return valeur.isEmpty() ? null : valeur;
+    }
+
+    /**
+     * Date au format ISO ({@code 2024-06-01}), à minuit UTC comme les dates lues en JSON
+     */
+    private static Date date(String valeur) {
+        if (valeur == null) {
+            return null;
+        }
+        try {
+            return Date.from(LocalDate.parse(valeur).atStartOfDay(ZoneOffset.UTC).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Date invalide: " + valeur + " (attendu AAAA-MM-JJ)");
+        }
+    }
+
+    private static java.sql.Date dateSql(Date date) {
+        return date == null ? null : new java.sql.Date(date.getTime());
+    }
+
+    private static void publier(List<DemandeImportLigne> lignes, Consumer<DemandeImportLigne> resultats) {
+        for (DemandeImportLigne ligne : lignes) {
+            resultats.accept(ligne);
+        }
+        lignes.clear();
+    }
+
+    private static void rejeter(DemandeImportLigne ligne, String message) {
+        ligne.setStatut(Statut.REJETEE);
+        ligne.setMessage(message);
+    }
+}
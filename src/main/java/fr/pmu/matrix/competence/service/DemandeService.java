@@ -1,27 +1,52 @@
 package fr.pmu.matrix.competence.service;
 
 import fr.pmu.matrix.competence.domain.*;
+import fr.pmu.matrix.competence.dto.CritereRechercheDemande;
+import fr.pmu.matrix.competence.dto.PageCurseur;
+import fr.pmu.matrix.competence.dto.PageResultat;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
 import fr.pmu.matrix.competence.entity.CompetenceEntity;
 import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
+import fr.pmu.matrix.competence.entity.DemandeArchiveEntity;
 import fr.pmu.matrix.competence.entity.DemandeEntity;
 import fr.pmu.matrix.competence.entity.EquipeEntity;
 import fr.pmu.matrix.competence.entity.GroupementEntity;
 import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.index.CorrespondancesDemandes;
+import fr.pmu.matrix.competence.index.IndexCompetencesDemandes;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.index.Referentiel;
 import fr.pmu.matrix.competence.mapper.DemandeMapper;
-import fr.pmu.matrix.competence.repository.CompetenceRepository;
+import fr.pmu.matrix.competence.repository.CompetenceRequiseRepository;
+import fr.pmu.matrix.competence.repository.DemandeArchiveRepository;
 import fr.pmu.matrix.competence.repository.DemandeRepository;
+import fr.pmu.matrix.competence.repository.DemandeSpecifications;
 import fr.pmu.matrix.competence.repository.EquipeRepository;
 import fr.pmu.matrix.competence.repository.GroupementRepository;
-import fr.pmu.matrix.competence.repository.NoteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -30,26 +55,43 @@ import java.util.stream.Collectors;
 @Service
 public class DemandeService {
 
+    /**
+     * Attributs sur lesquels une recherche de demandes peut être triée
+     */
+    static final Set<String> TRIS = Set.of("id", "dateDebut", "dateFin", "nature", "matriculeDemandeur", "destinationCode");
+
     private final DemandeRepository demandeRepository;
-    private final CompetenceRepository competenceRepository;
-    private final NoteRepository noteRepository;
+    private final Referentiel referentiel;
     private final EquipeRepository equipeRepository;
     private final GroupementRepository groupementRepository;
     private final DemandeMapper demandeMapper;
+    private final IndexPeriodes indexPeriodes;
+    private final IndexCompetencesDemandes indexCompetencesDemandes;
+    private final CorrespondancesDemandes correspondancesDemandes;
+    private final CompetenceRequiseRepository competenceRequiseRepository;
+    private final DemandeArchiveRepository demandeArchiveRepository;
 
     @Autowired
     public DemandeService(DemandeRepository demandeRepository, 
-                         CompetenceRepository competenceRepository,
-                         NoteRepository noteRepository,
+                         Referentiel referentiel,
                          EquipeRepository equipeRepository,
                          GroupementRepository groupementRepository,
-                         DemandeMapper demandeMapper) {
+                         DemandeMapper demandeMapper,
+                         IndexPeriodes indexPeriodes,
+                         IndexCompetencesDemandes indexCompetencesDemandes,
+                         CorrespondancesDemandes correspondancesDemandes,
+                         CompetenceRequiseRepository competenceRequiseRepository,
+                         DemandeArchiveRepository demandeArchiveRepository) {
         this.demandeRepository = demandeRepository;
-        this.competenceRepository = competenceRepository;
-        this.noteRepository = noteRepository;
+        this.referentiel = referentiel;
         this.equipeRepository = equipeRepository;
         this.groupementRepository = groupementRepository;
         this.demandeMapper = demandeMapper;
+        this.indexPeriodes = indexPeriodes;
+        this.indexCompetencesDemandes = indexCompetencesDemandes;
+        this.correspondancesDemandes = correspondancesDemandes;
+        this.competenceRequiseRepository = competenceRequiseRepository;
+        this.demandeArchiveRepository = demandeArchiveRepository;
     }
 
     /**
@@ -57,12 +99,131 @@ public class DemandeService {
      * @return Liste des demandes
      */
     public List<Demande> getAllDemandes() {
-        return demandeRepository.findAll().stream()
-                .map(entity -> {
-                    Object destination = getDestinationEntity(entity);
-                    return demandeMapper.mapToDemandeDomain(entity, destination);
-                })
-                .collect(Collectors.toList());
+        return getAllDemandes(SelectionChamps.TOUS);
+    }
+
+    /**
+     * Récupère toutes les demandes avec les seuls champs demandés
+     * @param champs Champs demandés ; les destinations ne sont lues que si elles en font partie
+     * @return Liste des demandes
+     */
+    public List<Demande> getAllDemandes(SelectionChamps champs) {
+        return mapToDemandes(demandeRepository.findAll(), champs);
+    }
+
+    /**
+     * Récupère une page de demandes triées par identifiant (pagination par clé)
+     * @param curseur Curseur renvoyé avec la page précédente, ou null pour la première page
+     * @param taille Nombre maximal de demandes dans la page
+     * @return La page de demandes
+     * @throws IllegalArgumentException Si le curseur ou la taille est invalide
+     */
+    public PageCurseur<Demande> getDemandesPage(String curseur, int taille) {
+        String[] cle = PageCurseur.decoder(curseur, 1);
+        Slice<DemandeEntity> tranche = demandeRepository.findByIdGreaterThanOrderByIdAsc(
+                cle == null ? "" : cle[0], PageRequest.of(0, PageCurseur.verifierTaille(taille)));
+        return PageCurseur.depuis(tranche, conversion(tranche.getContent()), entity -> new String[] {entity.getId()});
+    }
+
+    /**
+     * Recherche les demandes satisfaisant tous les critères renseignés, triées par identifiant.
+     * Les demandes archivées sont ajoutées si {@link CritereRechercheDemande#isIncludeArchived()}.
+     * @param critere Les critères de recherche
+     * @return Liste des demandes correspondantes
+     */
+    public List<Demande> rechercherDemandes(CritereRechercheDemande critere) {
+        return rechercherDemandes(critere, SelectionChamps.TOUS);
+    }
+
+    /**
+     * Recherche les demandes satisfaisant tous les critères renseignés, avec les seuls champs demandés
+     * @param critere Les critères de recherche
+     * @param champs Champs demandés ; les destinations ne sont lues que si elles en font partie
+     * @return Liste des demandes correspondantes
+     */
+    public List<Demande> rechercherDemandes(CritereRechercheDemande critere, SelectionChamps champs) {
+        List<DemandeEntity> entities = demandeRepository.findAll(specification(critere), Sort.by("id"));
+        if (critere.isIncludeArchived()) {
+            entities = new ArrayList<>(entities);
+            entities.addAll(depuisArchives(demandeArchiveRepository.findAll(specification(critere), Sort.by("id"))));
+            entities.sort(Comparator.comparing(DemandeEntity::getId));
+        }
+        return mapToDemandes(entities, champs);
+    }
+
+    /**
+     * Recherche une page de demandes satisfaisant tous les critères renseignés
+     * @param critere Les critères de recherche
+     * @param page Numéro de page, à partir de 0
+     * @param taille Nombre maximal de demandes dans la page
+     * @param tri Attribut de tri, parmi {@link #TRIS}
+     * @param direction Sens du tri ; les ex aequo sont départagés par identifiant
+     * @return La page de demandes, avec le nombre total de demandes correspondantes
+     * @throws IllegalArgumentException Si la page, la taille ou le tri est invalide
+     */
+    public PageResultat<Demande> rechercherDemandes(CritereRechercheDemande critere, int page, int taille,
+                                                    String tri, Sort.Direction direction) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Numéro de page invalide: " + page);
+        }
+        if (!TRIS.contains(tri)) {
+            throw new IllegalArgumentException("Tri invalide: " + tri + " (parmi " + TRIS + ")");
+        }
+        Sort ordre = Sort.by(direction, tri);
+        if (!"id".equals(tri)) {
+            ordre = ordre.and(Sort.by("id"));
+        }
+        PageRequest pageRequest = PageRequest.of(page, PageCurseur.verifierTaille(taille), ordre);
+        if (!critere.isIncludeArchived()) {
+            return PageResultat.depuis(demandeRepository.findAll(specification(critere), pageRequest), this::mapToDemandes);
+        }
+
+        // Union des deux tables : chacune est lue dans l'ordre demandé jusqu'à la fin de la page,
+        // puis les deux débuts de liste sont fusionnés dans le même ordre
+        int fin = (int) Math.min((long) (page + 1) * pageRequest.getPageSize(), Integer.MAX_VALUE);
+        Page<DemandeEntity> courantes = demandeRepository.findAll(specification(critere), PageRequest.of(0, fin, ordre));
+        Page<DemandeArchiveEntity> archivees = demandeArchiveRepository.findAll(specification(critere), PageRequest.of(0, fin, ordre));
+        List<DemandeEntity> fusion = new ArrayList<>(courantes.getContent());
+        fusion.addAll(depuisArchives(archivees.getContent()));
+        fusion.sort(comparateur(ordre));
+        List<DemandeEntity> contenu = fusion.subList(Math.min((int) pageRequest.getOffset(), fusion.size()), Math.min(fin, fusion.size()));
+        return PageResultat.depuis(
+                new PageImpl<>(contenu, pageRequest, courantes.getTotalElements() + archivees.getTotalElements()),
+                this::mapToDemandes);
+    }
+
+    /**
+     * Ordre d'un tri de {@link #TRIS} sur les entités, identique à celui de la base
+     * (H2 place les valeurs nulles en premier dans l'ordre croissant)
+     */
+    private static Comparator<DemandeEntity> comparateur(Sort ordre) {
+        Comparator<DemandeEntity> comparateur = null;
+        for (Sort.Order critere : ordre) {
+            Comparator<DemandeEntity> parAttribut = switch (critere.getProperty()) {
+                case "dateDebut" -> Comparator.comparing(DemandeEntity::getDateDebut, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "dateFin" -> Comparator.comparing(DemandeEntity::getDateFin, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "nature" -> Comparator.comparing(entity -> entity.getNature().name());
+                case "matriculeDemandeur" -> Comparator.comparing(DemandeEntity::getMatriculeDemandeur);
+                case "destinationCode" -> Comparator.comparing(DemandeEntity::getDestinationCode);
+                default -> Comparator.comparing(DemandeEntity::getId);
+            };
+            if (critere.isDescending()) {
+                parAttribut = parAttribut.reversed();
+            }
+            comparateur = comparateur == null ? parAttribut : comparateur.thenComparing(parAttribut);
+        }
+        return comparateur;
+    }
+
+    private <T> Specification<T> specification(CritereRechercheDemande critere) {
+        return Specification.allOf(
+                DemandeSpecifications.activeLe(critere.getActiveLe()),
+                DemandeSpecifications.demandeur(critere.getMatricule()),
+                DemandeSpecifications.nature(critere.getNature()),
+                DemandeSpecifications.destination(critere.getDestinationCode(), critere.getEstGroupement()),
+                DemandeSpecifications.dateDebutEntre(critere.getDateDebutMin(), critere.getDateDebutMax()),
+                DemandeSpecifications.dateFinEntre(critere.getDateFinMin(), critere.getDateFinMax()),
+                DemandeSpecifications.competencesRequises(critere.getCompetences(), critere.getNotes()));
     }
 
     /**
@@ -72,10 +233,37 @@ public class DemandeService {
      * @throws RuntimeException Si la demande n'existe pas
      */
     public Demande getDemandeById(String id) {
-        DemandeEntity demandeEntity = demandeRepository.findById(id)
+        return getDemandeById(id, false);
+    }
+
+    /**
+     * Récupère une demande par son ID, en la cherchant aussi parmi les demandes archivées si demandé
+     * @param id L'identifiant de la demande
+     * @param includeArchived true pour chercher aussi parmi les demandes archivées
+     * @return La demande correspondante
+     * @throws RuntimeException Si la demande n'existe pas
+     */
+    public Demande getDemandeById(String id, boolean includeArchived) {
+        return getDemandeById(id, includeArchived, SelectionChamps.TOUS);
+    }
+
+    /**
+     * Récupère une demande par son ID avec les seuls champs demandés
+     * @param id L'identifiant de la demande
+     * @param includeArchived true pour chercher aussi parmi les demandes archivées
+     * @param champs Champs demandés ; la destination n'est lue que si elle en fait partie
+     * @return La demande correspondante
+     * @throws RuntimeException Si la demande n'existe pas
+     */
+    public Demande getDemandeById(String id, boolean includeArchived, SelectionChamps champs) {
+        Optional<DemandeEntity> trouvee = demandeRepository.findById(id);
+        if (trouvee.isEmpty() && includeArchived) {
+            trouvee = demandeArchiveRepository.findById(id).map(demandeMapper::mapFromArchive);
+        }
+        DemandeEntity demandeEntity = trouvee
                 .orElseThrow(() -> new RuntimeException("Demande non trouvée avec l'ID: " + id));
-        Object destination = getDestinationEntity(demandeEntity);
-        return demandeMapper.mapToDemandeDomain(demandeEntity, destination);
+        Object destination = champs.inclut("destination") ? getDestinationEntity(demandeEntity) : null;
+        return demandeMapper.mapToDemandeDomain(demandeEntity, destination, champs);
     }
 
     /**
@@ -92,7 +280,8 @@ public class DemandeService {
         // Génération d'un ID unique
         if (demande.getId() == null || demande.getId().isEmpty()) {
             demande.setId(UUID.randomUUID().toString());
-        } else if (demandeRepository.existsById(demande.getId())) {
+        } else if (demandeRepository.existsById(demande.getId()) || demandeArchiveRepository.existsById(demande.getId())) {
+            // Un identifiant archivé empêcherait l'archivage de la nouvelle demande
             throw new RuntimeException("Une demande avec cet ID existe déjà: " + demande.getId());
         }
 
@@ -134,11 +323,11 @@ public class DemandeService {
 
         // Ajout des compétences requises
         for (CompetenceRequise competenceRequise : demande.getCompetencesRecherchees()) {
-            CompetenceEntity competenceEntity = competenceRepository.findById(competenceRequise.getCompetence().getLibelle())
+            CompetenceEntity competenceEntity = referentiel.competence(competenceRequise.getCompetence().getLibelle())
                     .orElseThrow(() -> new RuntimeException("Compétence non trouvée: " 
                             + competenceRequise.getCompetence().getLibelle()));
             
-            NoteEntity noteEntity = noteRepository.findById(competenceRequise.getNoteRequise().getValeur())
+            NoteEntity noteEntity = referentiel.note(competenceRequise.getNoteRequise().getValeur())
                     .orElseThrow(() -> new RuntimeException("Note non trouvée: " 
                             + competenceRequise.getNoteRequise().getValeur()));
             
@@ -151,6 +340,7 @@ public class DemandeService {
 
         // Sauvegarde à nouveau pour persister les compétences requises
         demandeEntity = demandeRepository.save(demandeEntity);
+        indexerApresCommit(demandeEntity);
         Object destination = getDestinationEntity(demandeEntity);
         return demandeMapper.mapToDemandeDomain(demandeEntity, destination);
     }
@@ -161,6 +351,7 @@ public class DemandeService {
      * @param demande Nouvelles données de la demande
      * @return La demande mise à jour
      * @throws RuntimeException Si la demande n'existe pas
+     * @throws OptimisticLockingFailureException Si la version de la demande est renseignée et n'est plus la version courante
      */
     @Transactional
     public Demande updateDemande(String id, Demande demande) {
@@ -170,6 +361,9 @@ public class DemandeService {
 
         DemandeEntity demandeEntity = demandeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Demande non trouvée avec l'ID: " + id));
+        if (demande.getVersion() != null && !demande.getVersion().equals(demandeEntity.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(DemandeEntity.class, id);
+        }
 
         demandeEntity.setMatriculeDemandeur(demande.getMatriculeDemandeur());
         demandeEntity.setDescription(demande.getDescription());
@@ -207,11 +401,11 @@ public class DemandeService {
 
         // Ajouter les nouvelles compétences requises
         for (CompetenceRequise competenceRequise : demande.getCompetencesRecherchees()) {
-            CompetenceEntity competenceEntity = competenceRepository.findById(competenceRequise.getCompetence().getLibelle())
+            CompetenceEntity competenceEntity = referentiel.competence(competenceRequise.getCompetence().getLibelle())
                     .orElseThrow(() -> new RuntimeException("Compétence non trouvée: " 
                             + competenceRequise.getCompetence().getLibelle()));
             
-            NoteEntity noteEntity = noteRepository.findById(competenceRequise.getNoteRequise().getValeur())
+            NoteEntity noteEntity = referentiel.note(competenceRequise.getNoteRequise().getValeur())
                     .orElseThrow(() -> new RuntimeException("Note non trouvée: " 
                             + competenceRequise.getNoteRequise().getValeur()));
             
@@ -223,10 +417,116 @@ public class DemandeService {
         }
 
         demandeEntity = demandeRepository.save(demandeEntity);
+        indexerApresCommit(demandeEntity);
         Object destination = getDestinationEntity(demandeEntity);
         return demandeMapper.mapToDemandeDomain(demandeEntity, destination);
     }
 
+    /**
+     * Ajoute une compétence requise à une demande, sans recharger ni réécrire ses autres compétences requises
+     * @param demandeId ID de la demande
+     * @param competenceLibelle Libellé de la compétence
+     * @param noteValeur Valeur de la note requise
+     * @param version Version attendue de la demande, ou null pour ne pas la vérifier
+     * @return La compétence requise ajoutée
+     * @throws RuntimeException Si la demande, la compétence ou la note n'existe pas, ou si la compétence
+     *                          est déjà requise par la demande
+     * @throws OptimisticLockingFailureException Si la demande n'est plus à la version attendue
+     */
+    @Transactional
+    public CompetenceRequise ajouterCompetenceRequise(String demandeId, String competenceLibelle, int noteValeur, Long version) {
+        CompetenceEntity competenceEntity = referentiel.competence(competenceLibelle)
+                .orElseThrow(() -> new RuntimeException("Compétence non trouvée: " + competenceLibelle));
+        NoteEntity noteEntity = referentiel.note(noteValeur)
+                .orElseThrow(() -> new RuntimeException("Note non trouvée: " + noteValeur));
+        incrementerVersion(demandeId, version);
+        if (competenceRequiseRepository.existsByDemandeIdAndCompetenceLibelle(demandeId, competenceLibelle)) {
+            throw new RuntimeException("La compétence est déjà présente dans cette demande");
+        }
+
+        CompetenceRequiseEntity competenceRequiseEntity = new CompetenceRequiseEntity();
+        competenceRequiseEntity.setDemande(demandeRepository.getReferenceById(demandeId));
+        competenceRequiseEntity.setCompetence(competenceEntity);
+        competenceRequiseEntity.setNoteRequise(noteEntity);
+        competenceRequiseRepository.save(competenceRequiseEntity);
+
+        ApresCommit.executer(() -> {
+            indexCompetencesDemandes.indexerCompetence(demandeId, competenceLibelle, noteValeur);
+            correspondancesDemandes.demandeModifiee(demandeId);
+        });
+        return demandeMapper.mapToCompetenceRequiseDomain(competenceEntity, noteEntity);
+    }
+
+    /**
+     * Change la note requise d'une compétence d'une demande, sans recharger ni réécrire ses autres compétences requises
+     * @param demandeId ID de la demande
+     * @param competenceLibelle Libellé de la compétence
+     * @param noteValeur Valeur actuelle de la note requise
+     * @param nouvelleNoteValeur Valeur de la nouvelle note requise
+     * @param version Version attendue de la demande, ou null pour ne pas la vérifier
+     * @return La compétence requise modifiée
+     * @throws RuntimeException Si la demande, la compétence, la compétence requise ou la nouvelle note n'existe pas
+     * @throws OptimisticLockingFailureException Si la demande n'est plus à la version attendue
+     */
+    @Transactional
+    public CompetenceRequise modifierCompetenceRequise(String demandeId, String competenceLibelle, int noteValeur,
+                                                       int nouvelleNoteValeur, Long version) {
+        CompetenceEntity competenceEntity = referentiel.competence(competenceLibelle)
+                .orElseThrow(() -> new RuntimeException("Compétence non trouvée: " + competenceLibelle));
+        NoteEntity noteEntity = referentiel.note(nouvelleNoteValeur)
+                .orElseThrow(() -> new RuntimeException("Note non trouvée: " + nouvelleNoteValeur));
+        incrementerVersion(demandeId, version);
+        if (competenceRequiseRepository.modifierNoteRequise(demandeId, competenceLibelle, noteValeur, noteEntity) == 0) {
+            throw new RuntimeException("Compétence requise non trouvée dans la demande");
+        }
+
+        ApresCommit.executer(() -> {
+            indexCompetencesDemandes.indexerCompetence(demandeId, competenceLibelle, nouvelleNoteValeur);
+            correspondancesDemandes.demandeModifiee(demandeId);
+        });
+        return demandeMapper.mapToCompetenceRequiseDomain(competenceEntity, noteEntity);
+    }
+
+    /**
+     * Retire une compétence requise d'une demande, sans recharger ni réécrire ses autres compétences requises
+     * @param demandeId ID de la demande
+     * @param competenceLibelle Libellé de la compétence
+     * @param noteValeur Valeur de la note requise
+     * @param version Version attendue de la demande, ou null pour ne pas la vérifier
+     * @throws RuntimeException Si la demande ou la compétence requise n'existe pas
+     * @throws OptimisticLockingFailureException Si la demande n'est plus à la version attendue
+     */
+    @Transactional
+    public void supprimerCompetenceRequise(String demandeId, String competenceLibelle, int noteValeur, Long version) {
+        incrementerVersion(demandeId, version);
+        if (competenceRequiseRepository.supprimer(demandeId, competenceLibelle, noteValeur) == 0) {
+            throw new RuntimeException("Compétence requise non trouvée dans la demande");
+        }
+
+        ApresCommit.executer(() -> {
+            indexCompetencesDemandes.retirerCompetence(demandeId, competenceLibelle);
+            correspondancesDemandes.demandeModifiee(demandeId);
+        });
+    }
+
+    /**
+     * Incrémente la version d'une demande avant une modification de ses compétences requises.
+     * La mise à jour verrouille la ligne de la demande jusqu'à la fin de la transaction :
+     * deux modifications concurrentes d'une même demande sont sérialisées.
+     * @param demandeId ID de la demande
+     * @param version Version attendue, ou null pour ne pas la vérifier
+     * @throws RuntimeException Si la demande n'existe pas
+     * @throws OptimisticLockingFailureException Si la demande n'est plus à la version attendue
+     */
+    private void incrementerVersion(String demandeId, Long version) {
+        if (demandeRepository.incrementerVersion(demandeId, version) == 0) {
+            if (!demandeRepository.existsById(demandeId)) {
+                throw new RuntimeException("Demande non trouvée avec l'ID: " + demandeId);
+            }
+            throw new ObjectOptimisticLockingFailureException(DemandeEntity.class, demandeId);
+        }
+    }
+
     /**
      * Supprime une demande
      * @param id ID de la demande à supprimer
@@ -238,20 +538,26 @@ public class DemandeService {
             throw new RuntimeException("Demande non trouvée avec l'ID: " + id);
         }
         demandeRepository.deleteById(id);
+        ApresCommit.executer(() -> {
+            indexCompetencesDemandes.retirer(id);
+            correspondancesDemandes.retirerDemande(id);
+        });
     }
 
     /**
-     * Recherche les demandes actives à une date donnée
+     * Recherche les demandes actives à une date donnée.
+     * Les demandes actives sont trouvées dans l'{@link IndexPeriodes}, puis chargées par identifiant.
      * @param date La date de référence
-     * @return Liste des demandes actives à cette date
+     * @return Liste des demandes actives à cette date, triées par ID
      */
     public List<Demande> getDemandesActiveAtDate(Date date) {
-        return demandeRepository.findActiveAtDate(date).stream()
-                .map(entity -> {
-                    Object destination = getDestinationEntity(entity);
-                    return demandeMapper.mapToDemandeDomain(entity, destination);
-                })
-                .collect(Collectors.toList());
+        List<String> ids = indexPeriodes.demandesActives(date);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<DemandeEntity> entities = new ArrayList<>(demandeRepository.findAllById(ids));
+        entities.sort(Comparator.comparing(DemandeEntity::getId));
+        return mapToDemandes(entities);
     }
 
     /**
@@ -260,12 +566,22 @@ public class DemandeService {
      * @return Liste des demandes correspondantes
      */
     public List<Demande> getDemandesByDemandeur(String matricule) {
-        return demandeRepository.findByMatriculeDemandeur(matricule).stream()
-                .map(entity -> {
-                    Object destination = getDestinationEntity(entity);
-                    return demandeMapper.mapToDemandeDomain(entity, destination);
-                })
-                .collect(Collectors.toList());
+        return getDemandesByDemandeur(matricule, false);
+    }
+
+    /**
+     * Recherche les demandes par matricule du demandeur, archivées comprises si demandé
+     * @param matricule Le matricule du demandeur
+     * @param includeArchived true pour ajouter les demandes archivées
+     * @return Liste des demandes correspondantes
+     */
+    public List<Demande> getDemandesByDemandeur(String matricule, boolean includeArchived) {
+        List<DemandeEntity> entities = demandeRepository.findByMatriculeDemandeur(matricule);
+        if (includeArchived) {
+            entities = new ArrayList<>(entities);
+            entities.addAll(depuisArchives(demandeArchiveRepository.findByMatriculeDemandeur(matricule)));
+        }
+        return mapToDemandes(entities);
     }
 
     /**
@@ -274,12 +590,7 @@ public class DemandeService {
      * @return Liste des demandes qui requièrent cette compétence
      */
     public List<Demande> getDemandesByCompetence(String competenceLibelle) {
-        return demandeRepository.findByCompetenceRequise(competenceLibelle).stream()
-                .map(entity -> {
-                    Object destination = getDestinationEntity(entity);
-                    return demandeMapper.mapToDemandeDomain(entity, destination);
-                })
-                .collect(Collectors.toList());
+        return mapToDemandes(demandeRepository.findByCompetenceRequise(competenceLibelle));
     }
     
     /**
@@ -288,12 +599,7 @@ public class DemandeService {
      * @return Liste des demandes correspondantes
      */
     public List<Demande> getDemandesByCompetences(List<String> competenceLibelles) {
-        return demandeRepository.findByCompetencesRequises(competenceLibelles).stream()
-                .map(entity -> {
-                    Object destination = getDestinationEntity(entity);
-                    return demandeMapper.mapToDemandeDomain(entity, destination);
-                })
-                .collect(Collectors.toList());
+        return mapToDemandes(demandeRepository.findByCompetencesRequises(competenceLibelles));
     }
     
     /**
@@ -302,12 +608,7 @@ public class DemandeService {
      * @return Liste des demandes correspondantes
      */
     public List<Demande> getDemandesByNotes(List<Integer> noteValeurs) {
-        return demandeRepository.findByNotes(noteValeurs).stream()
-                .map(entity -> {
-                    Object destination = getDestinationEntity(entity);
-                    return demandeMapper.mapToDemandeDomain(entity, destination);
-                })
-                .collect(Collectors.toList());
+        return mapToDemandes(demandeRepository.findByNotes(noteValeurs));
     }
     
     /**
@@ -317,14 +618,129 @@ public class DemandeService {
      * @return Liste des demandes correspondantes
      */
     public List<Demande> getDemandesByCompetencesAndNotes(List<String> competenceLibelles, List<Integer> noteValeurs) {
-        return demandeRepository.findByCompetencesRequisesAndNotes(competenceLibelles, noteValeurs).stream()
-                .map(entity -> {
-                    Object destination = getDestinationEntity(entity);
-                    return demandeMapper.mapToDemandeDomain(entity, destination);
-                })
-                .collect(Collectors.toList());
+        return mapToDemandes(demandeRepository.findByCompetencesRequisesAndNotes(competenceLibelles, noteValeurs));
     }
     
+    /**
+     * Recherche les demandes par leurs compétences requises dans l'{@link IndexCompetencesDemandes}
+     * @param mode {@code all} pour les demandes qui requièrent toutes les compétences,
+     *             {@code any} pour celles qui en requièrent au moins une
+     * @param competenceLibelles Libellés des compétences recherchées
+     * @param notesMinimales Note requise minimale : aucune (toute note), une seule (pour toutes les compétences)
+     *                       ou une par compétence, dans le même ordre
+     * @param exclues Libellés des compétences que les demandes ne doivent pas requérir (peut être null)
+     * @return Liste des demandes correspondantes, triées par ID
+     * @throws IllegalArgumentException Si le mode est inconnu, si aucune compétence n'est donnée
+     *                                  ou si le nombre de notes ne correspond pas
+     */
+    public List<Demande> rechercherParCompetences(String mode, List<String> competenceLibelles,
+                                                  List<Integer> notesMinimales, List<String> exclues) {
+        if (competenceLibelles == null || competenceLibelles.isEmpty()) {
+            throw new IllegalArgumentException("Au moins une compétence est requise pour la recherche");
+        }
+        List<Integer> notes = notesMinimales == null ? List.of() : notesMinimales;
+        if (notes.size() > 1 && notes.size() != competenceLibelles.size()) {
+            throw new IllegalArgumentException("Nombre de notes minimales invalide: " + notes.size()
+                    + " (une seule, ou une par compétence)");
+        }
+        List<IndexCompetencesDemandes.Terme> termes = new ArrayList<>(competenceLibelles.size());
+        for (int i = 0; i < competenceLibelles.size(); i++) {
+            int noteMinimale = notes.isEmpty() ? 0 : notes.get(notes.size() == 1 ? 0 : i);
+            termes.add(new IndexCompetencesDemandes.Terme(competenceLibelles.get(i), noteMinimale));
+        }
+        List<String> competencesExclues = exclues == null ? List.of() : exclues;
+
+        List<String> ids = switch (mode == null ? "" : mode.toLowerCase()) {
+            case "all" -> indexCompetencesDemandes.toutes(termes, competencesExclues);
+            case "any" -> indexCompetencesDemandes.auMoinsUne(termes, competencesExclues);
+            default -> throw new IllegalArgumentException("Mode de recherche invalide: " + mode + " (all ou any)");
+        };
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<DemandeEntity> entities = new ArrayList<>(demandeRepository.findAllById(ids));
+        entities.sort(Comparator.comparing(DemandeEntity::getId));
+        return mapToDemandes(entities);
+    }
+
+    /**
+     * Met à jour l'index des compétences requises et les correspondances une fois la transaction validée
+     * @param demandeEntity La demande enregistrée
+     */
+    private void indexerApresCommit(DemandeEntity demandeEntity) {
+        String id = demandeEntity.getId();
+        Map<String, Integer> notesParCompetence = new HashMap<>();
+        for (CompetenceRequiseEntity competenceRequise : demandeEntity.getCompetencesRequises()) {
+            notesParCompetence.merge(competenceRequise.getCompetence().getLibelle(),
+                    competenceRequise.getNoteRequise().getValeur(), Math::max);
+        }
+        ApresCommit.executer(() -> {
+            indexCompetencesDemandes.indexer(id, notesParCompetence);
+            correspondancesDemandes.demandeModifiee(id);
+        });
+    }
+
+    /**
+     * Convertit des demandes archivées en entités détachées, converties ensuite comme les demandes courantes
+     * @param archives Les demandes archivées
+     * @return Les entités correspondantes, dans le même ordre
+     */
+    private List<DemandeEntity> depuisArchives(List<DemandeArchiveEntity> archives) {
+        return archives.stream()
+                .map(demandeMapper::mapFromArchive)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Convertit une liste de demandes en résolvant toutes leurs destinations d'un coup
+     * @param entities Les entités demande
+     * @return Les demandes, dans le même ordre
+     */
+    private List<Demande> mapToDemandes(List<DemandeEntity> entities) {
+        return mapToDemandes(entities, SelectionChamps.TOUS);
+    }
+
+    private List<Demande> mapToDemandes(List<DemandeEntity> entities, SelectionChamps champs) {
+        return entities.stream()
+                .map(conversion(entities, champs))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Prépare la conversion d'un lot de demandes : les destinations distinctes sont chargées
+     * en deux requêtes (groupements, équipes) au lieu d'une par demande
+     * @param entities Les entités demande du lot
+     * @return La conversion d'une entité du lot en objet domaine
+     */
+    private Function<DemandeEntity, Demande> conversion(Collection<DemandeEntity> entities) {
+        return conversion(entities, SelectionChamps.TOUS);
+    }
+
+    /**
+     * Prépare la conversion d'un lot de demandes limitée aux champs demandés : sans destination,
+     * aucune requête n'est faite sur les groupements et les équipes
+     * @param entities Les entités demande du lot
+     * @param champs Champs demandés
+     * @return La conversion d'une entité du lot en objet domaine
+     */
+    private Function<DemandeEntity, Demande> conversion(Collection<DemandeEntity> entities, SelectionChamps champs) {
+        Set<String> codesGroupements = new HashSet<>();
+        Set<String> codesEquipes = new HashSet<>();
+        for (DemandeEntity entity : champs.inclut("destination") ? entities : List.<DemandeEntity>of()) {
+            String code = entity.getDestinationCode();
+            if (code != null && !code.isEmpty()) {
+                (entity.getEstGroupement() ? codesGroupements : codesEquipes).add(code);
+            }
+        }
+        Map<String, GroupementEntity> groupements = codesGroupements.isEmpty() ? Map.of()
+                : groupementRepository.findAllById(codesGroupements).stream()
+                        .collect(Collectors.toMap(GroupementEntity::getCode, Function.identity()));
+        Map<String, EquipeEntity> equipes = codesEquipes.isEmpty() ? Map.of()
+                : equipeRepository.findAllById(codesEquipes).stream()
+                        .collect(Collectors.toMap(EquipeEntity::getCode, Function.identity()));
+        return entity -> demandeMapper.mapToDemandeDomain(entity, groupements, equipes, champs);
+    }
+
     /**
      * Récupère l'entité de destination (équipe ou groupement) pour une demande
      * @param demandeEntity L'entité demande
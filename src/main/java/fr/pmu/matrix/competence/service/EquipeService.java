@@ -4,24 +4,32 @@ import fr.pmu.matrix.competence.domain.Competence;
 import fr.pmu.matrix.competence.domain.CompetenceRequise;
 import fr.pmu.matrix.competence.domain.Equipe;
 import fr.pmu.matrix.competence.domain.Note;
+import fr.pmu.matrix.competence.dto.PageCurseur;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
 import fr.pmu.matrix.competence.entity.CompetenceEntity;
 import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
 import fr.pmu.matrix.competence.entity.EquipeEntity;
 import fr.pmu.matrix.competence.entity.GroupementEntity;
 import fr.pmu.matrix.competence.entity.NoteEntity;
 import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.index.HeatmapGroupements;
+import fr.pmu.matrix.competence.index.Referentiel;
 import fr.pmu.matrix.competence.mapper.EquipeMapper;
-import fr.pmu.matrix.competence.repository.CompetenceRepository;
 import fr.pmu.matrix.competence.repository.EquipeRepository;
 import fr.pmu.matrix.competence.repository.GroupementRepository;
-import fr.pmu.matrix.competence.repository.NoteRepository;
 import fr.pmu.matrix.competence.repository.PersonneRepository;
+import fr.pmu.matrix.competence.repository.projection.ProfilRechercheProjection;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -33,40 +41,101 @@ public class EquipeService {
     private final EquipeRepository equipeRepository;
     private final GroupementRepository groupementRepository;
     private final PersonneRepository personneRepository;
-    private final CompetenceRepository competenceRepository;
-    private final NoteRepository noteRepository;
+    private final Referentiel referentiel;
     private final EquipeMapper equipeMapper;
+    private final HeatmapGroupements heatmapGroupements;
 
     @Autowired
     public EquipeService(EquipeRepository equipeRepository, 
                         GroupementRepository groupementRepository,
                         PersonneRepository personneRepository,
-                        CompetenceRepository competenceRepository,
-                        NoteRepository noteRepository,
-                        EquipeMapper equipeMapper) {
+                        Referentiel referentiel,
+                        EquipeMapper equipeMapper,
+                        HeatmapGroupements heatmapGroupements) {
         this.equipeRepository = equipeRepository;
         this.groupementRepository = groupementRepository;
         this.personneRepository = personneRepository;
-        this.competenceRepository = competenceRepository;
-        this.noteRepository = noteRepository;
+        this.referentiel = referentiel;
         this.equipeMapper = equipeMapper;
+        this.heatmapGroupements = heatmapGroupements;
     }
 
     /**
-     * Récupère toutes les équipes
+     * Récupère toutes les équipes, triées par code
      * 
      * @return Liste des équipes
      */
     public List<Equipe> getAllEquipes() {
-        return equipeRepository.findAll()
-                .stream()
-                .map(entity -> {
-                    List<PersonneEntity> personneEntities = personneRepository.findByEquipeCode(entity.getCode());
-                    return equipeMapper.convertToEquipe(entity, personneEntities);
-                })
+        return getAllEquipes(SelectionChamps.TOUS);
+    }
+
+    /**
+     * Récupère toutes les équipes, triées par code, avec les seuls sous-objets demandés.
+     * Le nombre de requêtes ne dépend pas du nombre d'équipes : une pour les équipes (et leur
+     * groupement), une pour tous les membres, une pour toutes les lignes de profil de recherche ;
+     * les deux dernières ne sont exécutées que si les membres ou le profil sont demandés.
+     * 
+     * @param champs Champs demandés
+     * @return Liste des équipes
+     */
+    @Transactional(readOnly = true)
+    public List<Equipe> getAllEquipes(SelectionChamps champs) {
+        List<EquipeEntity> equipeEntities = champs.inclut("groupement")
+                ? equipeRepository.findAllAvecGroupement()
+                : equipeRepository.findAllByOrderByCodeAsc();
+
+        Map<String, List<PersonneEntity>> membresParEquipe = new HashMap<>();
+        if (champs.inclut("membres")) {
+            for (PersonneEntity personne : personneRepository.findAllMembres()) {
+                membresParEquipe.computeIfAbsent(personne.getEquipe().getCode(), code -> new ArrayList<>()).add(personne);
+            }
+        }
+        Map<String, List<CompetenceRequiseEntity>> profilsParEquipe = new HashMap<>();
+        if (champs.inclut("profilRecherche")) {
+            for (ProfilRechercheProjection ligne : equipeRepository.findAllProfilsRecherche()) {
+                profilsParEquipe.computeIfAbsent(ligne.equipeCode(), code -> new ArrayList<>()).add(ligne.competenceRequise());
+            }
+        }
+
+        return equipeEntities.stream()
+                .map(entity -> equipeMapper.convertToEquipe(entity,
+                        membresParEquipe.getOrDefault(entity.getCode(), Collections.emptyList()),
+                        profilsParEquipe.getOrDefault(entity.getCode(), Collections.emptyList()), champs))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Récupère une page d'équipes triées par code (pagination par clé) ; les membres et les
+     * profils de recherche de toutes les équipes de la page sont lus en une requête chacun
+     * 
+     * @param curseur Curseur renvoyé avec la page précédente, ou null pour la première page
+     * @param taille Nombre maximal d'équipes dans la page
+     * @return La page d'équipes
+     * @throws IllegalArgumentException Si le curseur ou la taille est invalide
+     */
+    public PageCurseur<Equipe> getEquipesPage(String curseur, int taille) {
+        String[] cle = PageCurseur.decoder(curseur, 1);
+        Slice<EquipeEntity> tranche = equipeRepository.findByCodeGreaterThanOrderByCodeAsc(
+                cle == null ? "" : cle[0], PageRequest.of(0, PageCurseur.verifierTaille(taille)));
+
+        Map<String, List<PersonneEntity>> membresParEquipe = new HashMap<>();
+        Map<String, List<CompetenceRequiseEntity>> profilsParEquipe = new HashMap<>();
+        if (tranche.hasContent()) {
+            List<String> codes = tranche.getContent().stream().map(EquipeEntity::getCode).toList();
+            for (PersonneEntity personne : personneRepository.findMembres(codes)) {
+                membresParEquipe.computeIfAbsent(personne.getEquipe().getCode(), code -> new ArrayList<>()).add(personne);
+            }
+            for (ProfilRechercheProjection ligne : equipeRepository.findProfilsRecherche(codes)) {
+                profilsParEquipe.computeIfAbsent(ligne.equipeCode(), code -> new ArrayList<>()).add(ligne.competenceRequise());
+            }
+        }
+        return PageCurseur.depuis(tranche,
+                entity -> equipeMapper.convertToEquipe(entity,
+                        membresParEquipe.getOrDefault(entity.getCode(), Collections.emptyList()),
+                        profilsParEquipe.getOrDefault(entity.getCode(), Collections.emptyList()), SelectionChamps.TOUS),
+                entity -> new String[] {entity.getCode()});
+    }
+
     /**
      * Récupère une équipe par son code
      * 
@@ -75,10 +144,24 @@ public class EquipeService {
      * @throws RuntimeException si l'équipe n'existe pas
      */
     public Equipe getEquipeByCode(String code) {
+        return getEquipeByCode(code, SelectionChamps.TOUS);
+    }
+
+    /**
+     * Récupère une équipe par son code, avec les seuls sous-objets demandés
+     * 
+     * @param code Code unique de l'équipe
+     * @param champs Champs demandés ; les membres ne sont lus que s'ils en font partie
+     * @return Équipe correspondante au code
+     * @throws RuntimeException si l'équipe n'existe pas
+     */
+    @Transactional(readOnly = true)
+    public Equipe getEquipeByCode(String code, SelectionChamps champs) {
         EquipeEntity equipeEntity = equipeRepository.findById(code)
                 .orElseThrow(() -> new RuntimeException("Équipe non trouvée avec le code: " + code));
-        List<PersonneEntity> personneEntities = personneRepository.findByEquipeCode(code);
-        return equipeMapper.convertToEquipe(equipeEntity, personneEntities);
+        List<PersonneEntity> personneEntities = champs.inclut("membres")
+                ? personneRepository.findByEquipeCode(code) : Collections.emptyList();
+        return equipeMapper.convertToEquipe(equipeEntity, personneEntities, equipeEntity.getProfilRecherche(), champs);
     }
 
     /**
@@ -111,10 +194,10 @@ public class EquipeService {
         if (equipe.getProfilRecherche() != null && !equipe.getProfilRecherche().isEmpty()) {
             List<CompetenceRequiseEntity> profilEntities = new ArrayList<>();
             for (CompetenceRequise competenceRequise : equipe.getProfilRecherche()) {
-                CompetenceEntity competenceEntity = competenceRepository.findById(competenceRequise.getCompetence().getLibelle())
+                CompetenceEntity competenceEntity = referentiel.competence(competenceRequise.getCompetence().getLibelle())
                         .orElseThrow(() -> new RuntimeException("Compétence non trouvée: " + competenceRequise.getCompetence().getLibelle()));
                 
-                NoteEntity noteEntity = noteRepository.findById(competenceRequise.getNoteRequise().getValeur())
+                NoteEntity noteEntity = referentiel.note(competenceRequise.getNoteRequise().getValeur())
                         .orElseThrow(() -> new RuntimeException("Note non trouvée: " + competenceRequise.getNoteRequise().getValeur()));
                 
                 CompetenceRequiseEntity competenceRequiseEntity = new CompetenceRequiseEntity();
@@ -128,6 +211,7 @@ public class EquipeService {
 
         // Sauvegarder l'équipe
         EquipeEntity savedEntity = equipeRepository.save(equipeEntity);
+        ApresCommit.executer(() -> heatmapGroupements.changerGroupement(equipe.getCode(), groupementCode));
         // Pour une nouvelle équipe, il n'y a pas encore de membres
         return equipeMapper.convertToEquipe(savedEntity, List.of());
     }
@@ -161,6 +245,7 @@ public class EquipeService {
             GroupementEntity groupementEntity = groupementRepository.findById(groupementCode)
                     .orElseThrow(() -> new RuntimeException("Groupement non trouvé avec le code: " + groupementCode));
             equipeEntity.setGroupement(groupementEntity);
+            ApresCommit.executer(() -> heatmapGroupements.changerGroupement(code, groupementCode));
         }
 
         // Mettre à jour le profil de recherche si fourni
@@ -170,10 +255,10 @@ public class EquipeService {
             
             // Ajouter les nouvelles compétences requises
             for (CompetenceRequise competenceRequise : equipe.getProfilRecherche()) {
-                CompetenceEntity competenceEntity = competenceRepository.findById(competenceRequise.getCompetence().getLibelle())
+                CompetenceEntity competenceEntity = referentiel.competence(competenceRequise.getCompetence().getLibelle())
                         .orElseThrow(() -> new RuntimeException("Compétence non trouvée: " + competenceRequise.getCompetence().getLibelle()));
                 
-                NoteEntity noteEntity = noteRepository.findById(competenceRequise.getNoteRequise().getValeur())
+                NoteEntity noteEntity = referentiel.note(competenceRequise.getNoteRequise().getValeur())
                         .orElseThrow(() -> new RuntimeException("Note non trouvée: " + competenceRequise.getNoteRequise().getValeur()));
                 
                 CompetenceRequiseEntity competenceRequiseEntity = new CompetenceRequiseEntity();
@@ -203,6 +288,7 @@ public class EquipeService {
         }
         
         equipeRepository.deleteById(code);
+        ApresCommit.executer(heatmapGroupements::invalider);
     }
 
     /**
@@ -250,10 +336,10 @@ public class EquipeService {
         
         // Ajouter les nouvelles compétences requises
         for (CompetenceRequise competenceRequise : competencesRequises) {
-            CompetenceEntity competenceEntity = competenceRepository.findById(competenceRequise.getCompetence().getLibelle())
+            CompetenceEntity competenceEntity = referentiel.competence(competenceRequise.getCompetence().getLibelle())
                     .orElseThrow(() -> new RuntimeException("Compétence non trouvée: " + competenceRequise.getCompetence().getLibelle()));
             
-            NoteEntity noteEntity = noteRepository.findById(competenceRequise.getNoteRequise().getValeur())
+            NoteEntity noteEntity = referentiel.note(competenceRequise.getNoteRequise().getValeur())
                     .orElseThrow(() -> new RuntimeException("Note non trouvée: " + competenceRequise.getNoteRequise().getValeur()));
             
             CompetenceRequiseEntity competenceRequiseEntity = new CompetenceRequiseEntity();
@@ -291,10 +377,10 @@ public class EquipeService {
         }
         
         // Récupérer les entités nécessaires
-        CompetenceEntity competenceEntity = competenceRepository.findById(competenceRequise.getCompetence().getLibelle())
+        CompetenceEntity competenceEntity = referentiel.competence(competenceRequise.getCompetence().getLibelle())
                 .orElseThrow(() -> new RuntimeException("Compétence non trouvée: " + competenceRequise.getCompetence().getLibelle()));
         
-        NoteEntity noteEntity = noteRepository.findById(competenceRequise.getNoteRequise().getValeur())
+        NoteEntity noteEntity = referentiel.note(competenceRequise.getNoteRequise().getValeur())
                 .orElseThrow(() -> new RuntimeException("Note non trouvée: " + competenceRequise.getNoteRequise().getValeur()));
         
         // Créer et ajouter la compétence requise
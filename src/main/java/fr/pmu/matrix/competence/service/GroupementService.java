@@ -1,14 +1,18 @@
 package fr.pmu.matrix.competence.service;
 
 import fr.pmu.matrix.competence.domain.Groupement;
+import fr.pmu.matrix.competence.dto.HeatmapGroupement;
 import fr.pmu.matrix.competence.entity.GroupementEntity;
+import fr.pmu.matrix.competence.index.HeatmapGroupements;
 import fr.pmu.matrix.competence.mapper.GroupementMapper;
 import fr.pmu.matrix.competence.repository.GroupementRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -16,11 +20,14 @@ public class GroupementService {
 
     private final GroupementRepository groupementRepository;
     private final GroupementMapper groupementMapper;
+    private final HeatmapGroupements heatmapGroupements;
 
     @Autowired
-    public GroupementService(GroupementRepository groupementRepository, GroupementMapper groupementMapper) {
+    public GroupementService(GroupementRepository groupementRepository, GroupementMapper groupementMapper,
+                             HeatmapGroupements heatmapGroupements) {
         this.groupementRepository = groupementRepository;
         this.groupementMapper = groupementMapper;
+        this.heatmapGroupements = heatmapGroupements;
     }
 
     /**
@@ -45,6 +52,24 @@ public class GroupementService {
                 .orElseThrow(() -> new RuntimeException("Groupement non trouvé avec le code: " + code));
     }
 
+    /**
+     * Récupère la répartition des notes par compétence pour toutes les personnes des équipes d'un groupement,
+     * depuis les agrégats maintenus en mémoire
+     * @param code Code unique du groupement
+     * @return La heatmap du groupement, compétences triées par libellé
+     * @throws RuntimeException Si le groupement n'existe pas
+     */
+    public HeatmapGroupement getHeatmap(String code) {
+        if (!groupementRepository.existsById(code)) {
+            throw new RuntimeException("Groupement non trouvé avec le code: " + code);
+        }
+        Map<String, Map<Integer, Integer>> repartitions = heatmapGroupements.repartition(code);
+        List<HeatmapGroupement.RepartitionCompetence> competences = new ArrayList<>(repartitions.size());
+        repartitions.forEach((competence, repartition) -> competences.add(new HeatmapGroupement.RepartitionCompetence(
+                competence, repartition, repartition.values().stream().mapToInt(Integer::intValue).sum())));
+        return new HeatmapGroupement(code, competences);
+    }
+
     /**
      * Crée un nouveau groupement
      * @param groupement Le groupement à créer
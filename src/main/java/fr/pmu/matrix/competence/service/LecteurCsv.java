@@ -0,0 +1,124 @@
+package fr.pmu.matrix.competence.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecteur CSV minimal (RFC 4180) pour les exports de tableur.
+ * <p>
+ * Les champs sont séparés par une virgule, ou par un point-virgule si c'est le séparateur
+ * de la ligne d'en-tête (exports Excel en français). Un champ entre guillemets peut contenir
+ * le séparateur, des retours à la ligne et des guillemets doublés. Les lignes vides sont ignorées.
+ */
+final class LecteurCsv {
+
+    private final Reader reader;
+    private final char separateur;
+    private final List<String> entetes;
+    private int suivant = -2;
+
+    private LecteurCsv(Reader reader, char separateur, List<String> entetes) {
+        this.reader = reader;
+        this.separateur = separateur;
+        this.entetes = entetes;
+    }
+
+    /**
+     * Ouvre un flux CSV et lit sa ligne d'en-tête
+     * @param reader Le flux
+     * @return Le lecteur, positionné sur la première ligne de données
+     * @throws IOException Si le flux est vide ou illisible
+     */
+    static LecteurCsv ouvrir(Reader reader) throws IOException {
+        BufferedReader tampon = reader instanceof BufferedReader b ? b : new BufferedReader(reader);
+        String entete = tampon.readLine();
+        if (entete == null) {
+            throw new IOException("Flux CSV vide : la ligne d'en-tête est requise");
+        }
+        if (entete.startsWith("\uFEFF")) {
+            entete = entete.substring(1);
+        }
+        char separateur = entete.indexOf(';') >= 0 && entete.indexOf(',') < 0 ? ';' : ',';
+        List<String> entetes = new LecteurCsv(new StringReader(entete), separateur, null).ligne();
+        List<String> nettoyes = new ArrayList<>(entetes.size());
+        for (String nom : entetes) {
+            nettoyes.add(nom.trim());
+        }
+        return new LecteurCsv(tampon, separateur, nettoyes);
+    }
+
+    /**
+     * Noms des colonnes, dans l'ordre de la ligne d'en-tête
+     * @return Les noms des colonnes
+     */
+    List<String> entetes() {
+        return entetes;
+    }
+
+    /**
+     * Lit la ligne suivante
+     * @return Les champs de la ligne, ou null en fin de flux
+     * @throws IOException Si le flux est illisible ou se termine dans un champ entre guillemets
+     */
+    List<String> ligne() throws IOException {
+        while (true) {
+            int c = lire();
+            if (c == -1) {
+                return null;
+            }
+            if (c == '\r' || c == '\n') {
+                continue;
+            }
+            suivant = c;
+            return champs();
+        }
+    }
+
+    private List<String> champs() throws IOException {
+        List<String> champs = new ArrayList<>();
+        StringBuilder champ = new StringBuilder();
+        boolean entreGuillemets = false;
+        while (true) {
+            int c = lire();
+            if (entreGuillemets) {
+                if (c == -1) {
+                    throw new IOException("Flux CSV terminé dans un champ entre guillemets");
+                }
+                if (c == '"') {
+                    int apres = lire();
+                    if (apres == '"') {
+                        champ.append('"');
+                    } else {
+                        entreGuillemets = false;
+                        suivant = apres;
+                    }
+                } else {
+                    champ.append((char) c);
+                }
+            } else if (c == '"' && champ.isEmpty()) {
+                entreGuillemets = true;
+            } else if (c == separateur) {
+                champs.add(champ.toString());
+                champ.setLength(0);
+            } else if (c == -1 || c == '\n' || c == '\r') {
+                champs.add(champ.toString());
+                return champs;
+            } else {
+                champ.append((char) c);
+            }
+        }
+    }
+
+    private int lire() throws IOException {
+        if (suivant != -2) {
+            int c = suivant;
+            suivant = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
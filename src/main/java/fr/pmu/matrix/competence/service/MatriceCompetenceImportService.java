@@ -0,0 +1,181 @@
+package fr.pmu.matrix.competence.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.pmu.matrix.competence.dto.CreateMatriceCompetenceRequest;
+import fr.pmu.matrix.competence.dto.MatriceCompetenceImportLigne;
+import fr.pmu.matrix.competence.dto.MatriceCompetenceImportLigne.Statut;
+import fr.pmu.matrix.competence.dto.MatriceCompetenceImportResultat;
+import fr.pmu.matrix.competence.index.CorrespondancesDemandes;
+import fr.pmu.matrix.competence.index.HeatmapGroupements;
+import fr.pmu.matrix.competence.index.MatriceCompetenceIndex;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.MatriceCompetenceStore;
+import fr.pmu.matrix.competence.index.Referentiel;
+import fr.pmu.matrix.competence.repository.RequetesH2;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Import en masse de la matrice de compétences (campagnes d'évaluation).
+ * <p>
+ * Les personnes et compétences sont résolues sur la photographie de la matrice prise
+ * au début de l'import et les notes sur le {@link Referentiel}, puis les lignes valides
+ * sont écrites par lots JDBC ({@link RequetesH2#UPSERT_MATRICE}), chaque lot dans sa propre transaction. Après chaque lot validé,
+ * l'index, la matrice en mémoire, les agrégats par groupement et les correspondances avec les demandes
+ * sont mis à jour.
+ */
+@Service
+public class MatriceCompetenceImportService {
+
+    /**
+     * Nombre de lignes écrites par lot JDBC et par transaction
+     */
+    static final int TAILLE_LOT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Referentiel referentiel;
+    private final MatriceCompetenceStore matriceCompetenceStore;
+    private final MatriceCompetenceIndex matriceCompetenceIndex;
+    private final HeatmapGroupements heatmapGroupements;
+    private final CorrespondancesDemandes correspondancesDemandes;
+
+    @Autowired
+    public MatriceCompetenceImportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            Referentiel referentiel,
+            MatriceCompetenceStore matriceCompetenceStore,
+            MatriceCompetenceIndex matriceCompetenceIndex,
+            HeatmapGroupements heatmapGroupements,
+            CorrespondancesDemandes correspondancesDemandes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.referentiel = referentiel;
+        this.matriceCompetenceStore = matriceCompetenceStore;
+        this.matriceCompetenceIndex = matriceCompetenceIndex;
+        this.heatmapGroupements = heatmapGroupements;
+        this.correspondancesDemandes = correspondancesDemandes;
+    }
+
+    /**
+     * Importe des évaluations en créant ou mettant à jour les matrices de compétences
+     * @param flux Tableau JSON ou flux NDJSON de {@link CreateMatriceCompetenceRequest}
+     * @return Le compte rendu de l'import, ligne par ligne
+     * @throws IOException Si le flux n'est pas du JSON valide ; les lots déjà validés restent acquis
+     */
+    public MatriceCompetenceImportResultat importer(InputStream flux) throws IOException {
+        long debut = System.nanoTime();
+        MatriceCompetenceSnapshot snapshot = matriceCompetenceStore.getSnapshot();
+        // Couples (personne, compétence) écrits par les lots validés de cet import, et par le lot en cours
+        Set<Long> couplesImportes = new HashSet<>();
+        Set<Long> couplesDuLot = new HashSet<>();
+
+        MatriceCompetenceImportResultat resultat = new MatriceCompetenceImportResultat();
+        List<MatriceCompetenceImportLigne> lot = new ArrayList<>(TAILLE_LOT);
+
+        try (MappingIterator<CreateMatriceCompetenceRequest> lignes = objectMapper
+                .readerFor(CreateMatriceCompetenceRequest.class)
+                .readValues(flux)) {
+            int index = 0;
+            while (lignes.hasNextValue()) {
+                CreateMatriceCompetenceRequest request = lignes.nextValue();
+                MatriceCompetenceImportLigne ligne = new MatriceCompetenceImportLigne(
+                        index++, request.getPersonneId(), request.getCompetenceId(), request.getNoteValeur(), null, null);
+                resultat.getLignes().add(ligne);
+
+                int p = snapshot.ordinalPersonne(request.getPersonneId());
+                int c = snapshot.ordinalCompetence(request.getCompetenceId());
+                if (p < 0) {
+                    rejeter(ligne, "Personne non trouvée avec l'identifiant: " + request.getPersonneId());
+                } else if (c < 0) {
+                    rejeter(ligne, "Compétence non trouvée avec l'identifiant: " + request.getCompetenceId());
+                } else if (!referentiel.contientNote(request.getNoteValeur())) {
+                    rejeter(ligne, "Note non trouvée avec la valeur: " + request.getNoteValeur());
+                } else {
+                    long couple = (long) p * snapshot.nbCompetences() + c;
+                    boolean existe = snapshot.note(p, c) != MatriceCompetenceSnapshot.AUCUNE_NOTE
+                            || couplesImportes.contains(couple)
+                            || !couplesDuLot.add(couple);
+                    ligne.setStatut(existe ? Statut.MISE_A_JOUR : Statut.CREEE);
+                    lot.add(ligne);
+                    if (lot.size() == TAILLE_LOT) {
+                        ecrireLot(lot, couplesDuLot, couplesImportes);
+                        lot.clear();
+                    }
+                }
+            }
+        }
+        ecrireLot(lot, couplesDuLot, couplesImportes);
+
+        for (MatriceCompetenceImportLigne ligne : resultat.getLignes()) {
+            switch (ligne.getStatut()) {
+                case CREEE -> resultat.setCreees(resultat.getCreees() + 1);
+                case MISE_A_JOUR -> resultat.setMisesAJour(resultat.getMisesAJour() + 1);
+                case REJETEE -> resultat.setRejetees(resultat.getRejetees() + 1);
+            }
+        }
+        long dureeNanos = Math.max(System.nanoTime() - debut, 1);
+        resultat.setTotal(resultat.getLignes().size());
+        resultat.setDureeMs(dureeNanos / 1_000_000);
+        resultat.setLignesParSeconde(resultat.getTotal() * 1_000_000_000d / dureeNanos);
+        return resultat;
+    }
+
+    /**
+     * Écrit un lot en une transaction puis le publie dans les structures en mémoire.
+     * Ses couples ne sont comptés comme importés qu'une fois le lot validé ; en cas d'échec,
+     * toutes les lignes du lot sont rejetées et une ligne ultérieure du même couple reste une création.
+     */
+    private void ecrireLot(List<MatriceCompetenceImportLigne> lot, Set<Long> couplesDuLot, Set<Long> couplesImportes) {
+        if (lot.isEmpty()) {
+            return;
+        }
+        List<Object[]> parametres = new ArrayList<>(lot.size());
+        List<NoteMatriceProjection> notes = new ArrayList<>(lot.size());
+        for (MatriceCompetenceImportLigne ligne : lot) {
+            parametres.add(new Object[] {ligne.getPersonneId(), ligne.getCompetenceId(), ligne.getNoteValeur()});
+            notes.add(new NoteMatriceProjection(ligne.getPersonneId(), ligne.getCompetenceId(), ligne.getNoteValeur()));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(RequetesH2.UPSERT_MATRICE, parametres));
+        } catch (DataAccessException e) {
+            for (MatriceCompetenceImportLigne ligne : lot) {
+                rejeter(ligne, "Erreur lors de l'écriture du lot: " + e.getMostSpecificCause().getMessage());
+            }
+            couplesDuLot.clear();
+            return;
+        }
+        couplesImportes.addAll(couplesDuLot);
+        couplesDuLot.clear();
+
+        for (NoteMatriceProjection note : notes) {
+            matriceCompetenceIndex.indexer(note.personneId(), note.competenceLibelle(), note.noteValeur());
+        }
+        matriceCompetenceStore.publierNotes(notes);
+        heatmapGroupements.noter(notes);
+        correspondancesDemandes.notesModifiees(notes);
+    }
+
+    private void rejeter(MatriceCompetenceImportLigne ligne, String message) {
+        ligne.setStatut(Statut.REJETEE);
+        ligne.setMessage(message);
+    }
+}
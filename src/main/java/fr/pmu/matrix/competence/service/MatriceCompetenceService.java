@@ -4,50 +4,124 @@ import fr.pmu.matrix.competence.domain.Competence;
 import fr.pmu.matrix.competence.domain.MatriceCompetence;
 import fr.pmu.matrix.competence.domain.Note;
 import fr.pmu.matrix.competence.domain.Personne;
+import fr.pmu.matrix.competence.dto.PageCurseur;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
 import fr.pmu.matrix.competence.entity.CompetenceEntity;
 import fr.pmu.matrix.competence.entity.MatriceCompetenceEntity;
 import fr.pmu.matrix.competence.entity.NoteEntity;
 import fr.pmu.matrix.competence.entity.PersonneEntity;
-import fr.pmu.matrix.competence.repository.CompetenceRepository;
+import fr.pmu.matrix.competence.index.CorrespondancesDemandes;
+import fr.pmu.matrix.competence.index.HeatmapGroupements;
+import fr.pmu.matrix.competence.index.MatriceCompetenceIndex;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.MatriceCompetenceStore;
+import fr.pmu.matrix.competence.index.Referentiel;
 import fr.pmu.matrix.competence.repository.MatriceCompetenceRepository;
-import fr.pmu.matrix.competence.repository.NoteRepository;
 import fr.pmu.matrix.competence.repository.PersonneRepository;
+import fr.pmu.matrix.competence.repository.projection.MatriceCompetenceVue;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class MatriceCompetenceService {
 
+    /**
+     * Nombre de lignes exportées entre deux vidages du contexte de persistance
+     */
+    static final int TAILLE_LOT_EXPORT = 1000;
+
     private final MatriceCompetenceRepository matriceCompetenceRepository;
     private final PersonneRepository personneRepository;
-    private final CompetenceRepository competenceRepository;
-    private final NoteRepository noteRepository;
+    private final Referentiel referentiel;
+    private final MatriceCompetenceIndex matriceCompetenceIndex;
+    private final MatriceCompetenceStore matriceCompetenceStore;
+    private final HeatmapGroupements heatmapGroupements;
+    private final CorrespondancesDemandes correspondancesDemandes;
+    private final EntityManager entityManager;
 
     @Autowired
     public MatriceCompetenceService(
             MatriceCompetenceRepository matriceCompetenceRepository,
             PersonneRepository personneRepository,
-            CompetenceRepository competenceRepository,
-            NoteRepository noteRepository) {
+            Referentiel referentiel,
+            MatriceCompetenceIndex matriceCompetenceIndex,
+            MatriceCompetenceStore matriceCompetenceStore,
+            HeatmapGroupements heatmapGroupements,
+            CorrespondancesDemandes correspondancesDemandes,
+            EntityManager entityManager) {
         this.matriceCompetenceRepository = matriceCompetenceRepository;
         this.personneRepository = personneRepository;
-        this.competenceRepository = competenceRepository;
-        this.noteRepository = noteRepository;
+        this.referentiel = referentiel;
+        this.matriceCompetenceIndex = matriceCompetenceIndex;
+        this.matriceCompetenceStore = matriceCompetenceStore;
+        this.heatmapGroupements = heatmapGroupements;
+        this.correspondancesDemandes = correspondancesDemandes;
+        this.entityManager = entityManager;
     }
 
     /**
-     * Récupère toutes les matrices de compétences
+     * Récupère toutes les matrices de compétences, depuis la matrice en mémoire
      * @return Liste des matrices de compétences
      */
     public List<MatriceCompetence> getAllMatricesCompetences() {
-        return matriceCompetenceRepository.findAll().stream()
-                .map(this::mapToMatriceCompetenceDomain)
-                .collect(Collectors.toList());
+        return getAllMatricesCompetences(SelectionChamps.TOUS);
+    }
+
+    /**
+     * Récupère toutes les matrices de compétences, depuis la matrice en mémoire, avec les seuls champs demandés
+     * @param champs Champs demandés ; les sous-objets non demandés ne sont pas construits
+     * @return Liste des matrices de compétences
+     */
+    public List<MatriceCompetence> getAllMatricesCompetences(SelectionChamps champs) {
+        return matriceCompetenceStore.getSnapshot().toutesLesLignes(champs);
+    }
+
+    /**
+     * Récupère une page de matrices de compétences triées par personne puis compétence (pagination par clé)
+     * @param curseur Curseur renvoyé avec la page précédente, ou null pour la première page
+     * @param taille Nombre maximal de lignes dans la page
+     * @return La page de matrices de compétences
+     * @throws IllegalArgumentException Si le curseur ou la taille est invalide
+     */
+    public PageCurseur<MatriceCompetence> getMatricesCompetencesPage(String curseur, int taille) {
+        String[] cle = PageCurseur.decoder(curseur, 2);
+        return PageCurseur.depuis(
+                matriceCompetenceRepository.findPageApres(
+                        cle == null ? "" : cle[0],
+                        cle == null ? "" : cle[1],
+                        PageRequest.of(0, PageCurseur.verifierTaille(taille))),
+                this::mapToMatriceCompetenceDomain,
+                vue -> new String[] {vue.personneIdentifiant(), vue.competenceLibelle()});
+    }
+
+    /**
+     * Exporte toute la matrice de compétences ligne par ligne, sans la charger en mémoire.
+     * Le contexte de persistance est vidé régulièrement pour garder une empreinte mémoire constante.
+     * @param consommateur Reçoit chaque matrice de compétence, dans l'ordre de lecture
+     * @return Le nombre de lignes exportées
+     */
+    @Transactional(readOnly = true)
+    public long exporterMatricesCompetences(Consumer<MatriceCompetence> consommateur) {
+        long nbLignes = 0;
+        try (Stream<MatriceCompetenceEntity> lignes = matriceCompetenceRepository.streamAll()) {
+            Iterator<MatriceCompetenceEntity> iterateur = lignes.iterator();
+            while (iterateur.hasNext()) {
+                consommateur.accept(mapToMatriceCompetenceDomain(iterateur.next()));
+                if (++nbLignes % TAILLE_LOT_EXPORT == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return nbLignes;
     }
 
     /**
@@ -58,17 +132,19 @@ public class MatriceCompetenceService {
      * @throws RuntimeException Si la matrice n'existe pas
      */
     public MatriceCompetence getMatriceCompetence(String personneId, String competenceId) {
-        PersonneEntity personneEntity = personneRepository.findById(personneId)
-                .orElseThrow(() -> new RuntimeException("Personne non trouvée avec l'identifiant: " + personneId));
-                
-        CompetenceEntity competenceEntity = competenceRepository.findById(competenceId)
-                .orElseThrow(() -> new RuntimeException("Compétence non trouvée avec l'identifiant: " + competenceId));
-        
-        MatriceCompetenceEntity matriceEntity = matriceCompetenceRepository
-                .findByPersonneAndCompetence(personneEntity, competenceEntity)
-                .orElseThrow(() -> new RuntimeException("Matrice de compétence non trouvée pour cette personne et cette compétence"));
+        Optional<MatriceCompetenceVue> vue = matriceCompetenceRepository.findVue(personneId, competenceId);
+        if (vue.isPresent()) {
+            return mapToMatriceCompetenceDomain(vue.get());
+        }
         
-        return mapToMatriceCompetenceDomain(matriceEntity);
+        // Ligne absente : déterminer ce qui manque pour conserver les messages d'erreur
+        if (!personneRepository.existsById(personneId)) {
+            throw new RuntimeException("Personne non trouvée avec l'identifiant: " + personneId);
+        }
+        if (!referentiel.contientCompetence(competenceId)) {
+            throw new RuntimeException("Compétence non trouvée avec l'identifiant: " + competenceId);
+        }
+        throw new RuntimeException("Matrice de compétence non trouvée pour cette personne et cette compétence");
     }
 
     /**
@@ -84,10 +160,10 @@ public class MatriceCompetenceService {
         PersonneEntity personneEntity = personneRepository.findById(personneId)
                 .orElseThrow(() -> new RuntimeException("Personne non trouvée avec l'identifiant: " + personneId));
                 
-        CompetenceEntity competenceEntity = competenceRepository.findById(competenceId)
+        CompetenceEntity competenceEntity = referentiel.competence(competenceId)
                 .orElseThrow(() -> new RuntimeException("Compétence non trouvée avec l'identifiant: " + competenceId));
                 
-        NoteEntity noteEntity = noteRepository.findById(noteValeur)
+        NoteEntity noteEntity = referentiel.note(noteValeur)
                 .orElseThrow(() -> new RuntimeException("Note non trouvée avec la valeur: " + noteValeur));
         
         // Vérifier si une matrice existe déjà
@@ -104,6 +180,12 @@ public class MatriceCompetenceService {
         matriceEntity.setNote(noteEntity);
         
         matriceEntity = matriceCompetenceRepository.save(matriceEntity);
+        ApresCommit.executer(() -> {
+            matriceCompetenceIndex.indexer(personneId, competenceId, noteValeur);
+            matriceCompetenceStore.publierNote(personneId, competenceId, noteValeur);
+            heatmapGroupements.noter(personneId, competenceId, noteValeur);
+            correspondancesDemandes.noteModifiee(personneId, competenceId);
+        });
         return mapToMatriceCompetenceDomain(matriceEntity);
     }
 
@@ -120,10 +202,10 @@ public class MatriceCompetenceService {
         PersonneEntity personneEntity = personneRepository.findById(personneId)
                 .orElseThrow(() -> new RuntimeException("Personne non trouvée avec l'identifiant: " + personneId));
                 
-        CompetenceEntity competenceEntity = competenceRepository.findById(competenceId)
+        CompetenceEntity competenceEntity = referentiel.competence(competenceId)
                 .orElseThrow(() -> new RuntimeException("Compétence non trouvée avec l'identifiant: " + competenceId));
                 
-        NoteEntity noteEntity = noteRepository.findById(noteValeur)
+        NoteEntity noteEntity = referentiel.note(noteValeur)
                 .orElseThrow(() -> new RuntimeException("Note non trouvée avec la valeur: " + noteValeur));
         
         MatriceCompetenceEntity matriceEntity = matriceCompetenceRepository
@@ -132,6 +214,12 @@ public class MatriceCompetenceService {
         
         matriceEntity.setNote(noteEntity);
         matriceEntity = matriceCompetenceRepository.save(matriceEntity);
+        ApresCommit.executer(() -> {
+            matriceCompetenceIndex.indexer(personneId, competenceId, noteValeur);
+            matriceCompetenceStore.publierNote(personneId, competenceId, noteValeur);
+            heatmapGroupements.noter(personneId, competenceId, noteValeur);
+            correspondancesDemandes.noteModifiee(personneId, competenceId);
+        });
         
         return mapToMatriceCompetenceDomain(matriceEntity);
     }
@@ -147,7 +235,7 @@ public class MatriceCompetenceService {
         PersonneEntity personneEntity = personneRepository.findById(personneId)
                 .orElseThrow(() -> new RuntimeException("Personne non trouvée avec l'identifiant: " + personneId));
                 
-        CompetenceEntity competenceEntity = competenceRepository.findById(competenceId)
+        CompetenceEntity competenceEntity = referentiel.competence(competenceId)
                 .orElseThrow(() -> new RuntimeException("Compétence non trouvée avec l'identifiant: " + competenceId));
         
         MatriceCompetenceEntity matriceEntity = matriceCompetenceRepository
@@ -155,40 +243,53 @@ public class MatriceCompetenceService {
                 .orElseThrow(() -> new RuntimeException("Matrice de compétence non trouvée pour cette personne et cette compétence"));
         
         matriceCompetenceRepository.delete(matriceEntity);
+        ApresCommit.executer(() -> {
+            matriceCompetenceIndex.retirer(personneId, competenceId);
+            matriceCompetenceStore.retirerNote(personneId, competenceId);
+            heatmapGroupements.retirer(personneId, competenceId);
+            correspondancesDemandes.noteModifiee(personneId, competenceId);
+        });
     }
 
     /**
-     * Récupère toutes les compétences d'une personne
+     * Récupère toutes les compétences d'une personne, depuis la matrice en mémoire
      * @param personneId Identifiant de la personne
      * @return Liste des matrices de compétences pour cette personne
      * @throws RuntimeException Si la personne n'existe pas
      */
     public List<MatriceCompetence> getCompetencesByPersonne(String personneId) {
-        PersonneEntity personneEntity = personneRepository.findById(personneId)
-                .orElseThrow(() -> new RuntimeException("Personne non trouvée avec l'identifiant: " + personneId));
-        
-        List<MatriceCompetenceEntity> matricesEntities = matriceCompetenceRepository.findByPersonne(personneEntity);
-        
-        return matricesEntities.stream()
-                .map(this::mapToMatriceCompetenceDomain)
-                .collect(Collectors.toList());
+        return getCompetencesByPersonne(personneId, SelectionChamps.TOUS);
+    }
+
+    /**
+     * Récupère toutes les compétences d'une personne, depuis la matrice en mémoire, avec les seuls champs demandés
+     * @param personneId Identifiant de la personne
+     * @param champs Champs demandés ; les sous-objets non demandés ne sont pas construits
+     * @return Liste des matrices de compétences pour cette personne
+     * @throws RuntimeException Si la personne n'existe pas
+     */
+    public List<MatriceCompetence> getCompetencesByPersonne(String personneId, SelectionChamps champs) {
+        MatriceCompetenceSnapshot snapshot = matriceCompetenceStore.getSnapshot();
+        int ordinal = snapshot.ordinalPersonne(personneId);
+        if (ordinal < 0) {
+            throw new RuntimeException("Personne non trouvée avec l'identifiant: " + personneId);
+        }
+        return snapshot.ligne(ordinal, champs);
     }
 
     /**
-     * Récupère toutes les personnes possédant une compétence donnée
+     * Récupère toutes les personnes possédant une compétence donnée, depuis la matrice en mémoire
      * @param competenceId Identifiant de la compétence
      * @return Liste des matrices de compétences pour cette compétence
      * @throws RuntimeException Si la compétence n'existe pas
      */
     public List<MatriceCompetence> getPersonnesByCompetence(String competenceId) {
-        CompetenceEntity competenceEntity = competenceRepository.findById(competenceId)
-                .orElseThrow(() -> new RuntimeException("Compétence non trouvée avec l'identifiant: " + competenceId));
-        
-        List<MatriceCompetenceEntity> matricesEntities = matriceCompetenceRepository.findByCompetence(competenceEntity);
-        
-        return matricesEntities.stream()
-                .map(this::mapToMatriceCompetenceDomain)
-                .collect(Collectors.toList());
+        MatriceCompetenceSnapshot snapshot = matriceCompetenceStore.getSnapshot();
+        int ordinal = snapshot.ordinalCompetence(competenceId);
+        if (ordinal < 0) {
+            throw new RuntimeException("Compétence non trouvée avec l'identifiant: " + competenceId);
+        }
+        return snapshot.colonne(ordinal);
     }
 
     /**
@@ -223,6 +324,31 @@ public class MatriceCompetenceService {
         return new MatriceCompetence(personne, competence, note);
     }
     
+    /**
+     * Convertit une projection plate en objet domain, sans accès aux associations
+     * @param vue La projection à convertir
+     * @return L'objet domain correspondant
+     */
+    private MatriceCompetence mapToMatriceCompetenceDomain(MatriceCompetenceVue vue) {
+        Personne personne = new Personne();
+        personne.setIdentifiant(vue.personneIdentifiant());
+        personne.setNom(vue.personneNom());
+        personne.setPrenom(vue.personnePrenom());
+        personne.setPoste(vue.personnePoste());
+        if (vue.equipeCode() != null) {
+            fr.pmu.matrix.competence.domain.Equipe equipe = new fr.pmu.matrix.competence.domain.Equipe();
+            equipe.setCode(vue.equipeCode());
+            equipe.setNom(vue.equipeNom());
+            equipe.setDescription(vue.equipeDescription());
+            personne.setEquipe(equipe);
+        }
+        
+        Competence competence = new Competence(vue.competenceLibelle(), vue.competenceDescription());
+        Note note = new Note(vue.noteValeur(), vue.noteLibelle());
+        
+        return new MatriceCompetence(personne, competence, note);
+    }
+    
     /**
      * Méthode utilitaire pour convertir une entité Equipe en objet domain
      * @param equipeEntity L'entité à convertir
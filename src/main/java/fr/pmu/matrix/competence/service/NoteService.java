@@ -2,6 +2,8 @@ package fr.pmu.matrix.competence.service;
 
 import fr.pmu.matrix.competence.domain.Note;
 import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.Referentiel;
 import fr.pmu.matrix.competence.mapper.NoteMapper;
 import fr.pmu.matrix.competence.repository.NoteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,11 +21,13 @@ public class NoteService {
 
     private final NoteRepository noteRepository;
     private final NoteMapper noteMapper;
+    private final Referentiel referentiel;
 
     @Autowired
-    public NoteService(NoteRepository noteRepository, NoteMapper noteMapper) {
+    public NoteService(NoteRepository noteRepository, NoteMapper noteMapper, Referentiel referentiel) {
         this.noteRepository = noteRepository;
         this.noteMapper = noteMapper;
+        this.referentiel = referentiel;
     }
 
     /**
@@ -56,16 +60,22 @@ public class NoteService {
      *
      * @param note Note à créer
      * @return Note créée
+     * @throws IllegalArgumentException si la valeur est hors de la plage de la matrice en mémoire
      * @throws RuntimeException si une note avec la même valeur existe déjà
      */
     @Transactional
     public Note createNote(Note note) {
+        if (!MatriceCompetenceSnapshot.representable(note.getValeur())) {
+            throw new IllegalArgumentException("Valeur de note invalide: " + note.getValeur()
+                    + " (entre 0 et " + MatriceCompetenceSnapshot.NOTE_MAX + ")");
+        }
         if (noteRepository.existsById(note.getValeur())) {
             throw new RuntimeException("Une note avec la valeur " + note.getValeur() + " existe déjà");
         }
 
         NoteEntity noteEntity = noteMapper.mapToNoteEntity(note);
         NoteEntity savedEntity = noteRepository.save(noteEntity);
+        ApresCommit.executer(() -> referentiel.publierNote(savedEntity));
         return noteMapper.mapToNoteDomain(savedEntity);
     }
 
@@ -88,6 +98,7 @@ public class NoteService {
         }
 
         NoteEntity updatedEntity = noteRepository.save(noteEntity);
+        ApresCommit.executer(() -> referentiel.publierNote(updatedEntity));
         return noteMapper.mapToNoteDomain(updatedEntity);
     }
 
@@ -103,5 +114,6 @@ public class NoteService {
             throw new RuntimeException("Note non trouvée avec la valeur: " + valeur);
         }
         noteRepository.deleteById(valeur);
+        ApresCommit.executer(() -> referentiel.retirerNote(valeur));
     }
 }
\ No newline at end of file
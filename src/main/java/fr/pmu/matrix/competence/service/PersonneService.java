@@ -1,12 +1,16 @@
 package fr.pmu.matrix.competence.service;
 
 import fr.pmu.matrix.competence.domain.Personne;
+import fr.pmu.matrix.competence.dto.PageCurseur;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
 import fr.pmu.matrix.competence.entity.EquipeEntity;
 import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.index.HeatmapGroupements;
 import fr.pmu.matrix.competence.mapper.PersonneMapper;
 import fr.pmu.matrix.competence.repository.EquipeRepository;
 import fr.pmu.matrix.competence.repository.PersonneRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,14 +23,17 @@ public class PersonneService {
     private final PersonneRepository personneRepository;
     private final EquipeRepository equipeRepository;
     private final PersonneMapper personneMapper;
+    private final HeatmapGroupements heatmapGroupements;
 
     @Autowired
     public PersonneService(PersonneRepository personneRepository, 
                           EquipeRepository equipeRepository,
-                          PersonneMapper personneMapper) {
+                          PersonneMapper personneMapper,
+                          HeatmapGroupements heatmapGroupements) {
         this.personneRepository = personneRepository;
         this.equipeRepository = equipeRepository;
         this.personneMapper = personneMapper;
+        this.heatmapGroupements = heatmapGroupements;
     }
 
     /**
@@ -34,20 +41,57 @@ public class PersonneService {
      * @return Liste des personnes
      */
     public List<Personne> getAllPersonnes() {
-        return personneRepository.findAll()
-                .stream()
-                .map(personneMapper::mapToPersonneDomain)
+        return getAllPersonnes(SelectionChamps.TOUS);
+    }
+
+    /**
+     * Récupère toutes les personnes avec les seuls champs demandés : les équipes ne sont lues,
+     * en une seule requête avec les personnes, que si elles sont demandées
+     * @param champs Champs demandés
+     * @return Liste des personnes
+     */
+    public List<Personne> getAllPersonnes(SelectionChamps champs) {
+        List<PersonneEntity> personneEntities = champs.inclut("equipe")
+                ? personneRepository.findAllAvecEquipe()
+                : personneRepository.findAll();
+        return personneEntities.stream()
+                .map(entity -> personneMapper.mapToPersonneDomain(entity, champs))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Récupère une page de personnes triées par identifiant (pagination par clé)
+     * @param curseur Curseur renvoyé avec la page précédente, ou null pour la première page
+     * @param taille Nombre maximal de personnes dans la page
+     * @return La page de personnes
+     * @throws IllegalArgumentException Si le curseur ou la taille est invalide
+     */
+    public PageCurseur<Personne> getPersonnesPage(String curseur, int taille) {
+        String[] cle = PageCurseur.decoder(curseur, 1);
+        return PageCurseur.depuis(
+                personneRepository.findPageApres(cle == null ? "" : cle[0], PageRequest.of(0, PageCurseur.verifierTaille(taille))),
+                personneMapper::mapToPersonneDomain,
+                entity -> new String[] {entity.getIdentifiant()});
+    }
+
     /**
      * Récupère une personne par son identifiant
      * @param identifiant Identifiant unique de la personne
      * @return La personne correspondante
      */
     public Personne getPersonneByIdentifiant(String identifiant) {
+        return getPersonneByIdentifiant(identifiant, SelectionChamps.TOUS);
+    }
+
+    /**
+     * Récupère une personne par son identifiant, avec les seuls champs demandés
+     * @param identifiant Identifiant unique de la personne
+     * @param champs Champs demandés ; l'équipe n'est lue que si elle en fait partie
+     * @return La personne correspondante
+     */
+    public Personne getPersonneByIdentifiant(String identifiant, SelectionChamps champs) {
         return personneRepository.findById(identifiant)
-                .map(personneMapper::mapToPersonneDomain)
+                .map(entity -> personneMapper.mapToPersonneDomain(entity, champs))
                 .orElseThrow(() -> new RuntimeException("Personne non trouvée avec l'identifiant: " + identifiant));
     }
 
@@ -74,6 +118,9 @@ public class PersonneService {
         }
         
         personneEntity = personneRepository.save(personneEntity);
+        String identifiant = personneEntity.getIdentifiant();
+        String equipeCode = personneEntity.getEquipe() == null ? null : personneEntity.getEquipe().getCode();
+        ApresCommit.executer(() -> heatmapGroupements.changerEquipe(identifiant, equipeCode));
         return personneMapper.mapToPersonneDomain(personneEntity);
     }
 
@@ -112,6 +159,10 @@ public class PersonneService {
         }
         
         personneEntity = personneRepository.save(personneEntity);
+        if (equipeId != null) {
+            String equipeCode = equipeId.isEmpty() ? null : equipeId;
+            ApresCommit.executer(() -> heatmapGroupements.changerEquipe(identifiant, equipeCode));
+        }
         return personneMapper.mapToPersonneDomain(personneEntity);
     }
 
@@ -125,5 +176,6 @@ public class PersonneService {
             throw new RuntimeException("Personne non trouvée avec l'identifiant: " + identifiant);
         }
         personneRepository.deleteById(identifiant);
+        ApresCommit.executer(heatmapGroupements::invalider);
     }
 }
\ No newline at end of file
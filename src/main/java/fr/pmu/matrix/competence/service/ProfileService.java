@@ -4,16 +4,20 @@ import fr.pmu.matrix.competence.domain.Competence;
 import fr.pmu.matrix.competence.domain.MatriceCompetence;
 import fr.pmu.matrix.competence.domain.Personne;
 import fr.pmu.matrix.competence.domain.Profil;
-import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.dto.PageCurseur;
 import fr.pmu.matrix.competence.entity.ProfilEntity;
-import fr.pmu.matrix.competence.repository.MatriceCompetenceRepository;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.index.MatriceCompetenceIndex;
+import fr.pmu.matrix.competence.mapper.PersonneMapper;
 import fr.pmu.matrix.competence.repository.ProfilRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,19 +25,22 @@ public class ProfileService {
 
     private final ProfilRepository profilRepository;
     private final MatriceCompetenceService matriceCompetenceService;
-    private final PersonneService personneService;
-    private final MatriceCompetenceRepository matriceCompetenceRepository;
+    private final PersonneMapper personneMapper;
+    private final MatriceCompetenceIndex matriceCompetenceIndex;
+    private final IndexPeriodes indexPeriodes;
 
     @Autowired
     public ProfileService(
             ProfilRepository profilRepository,
             MatriceCompetenceService matriceCompetenceService,
-            PersonneService personneService,
-            MatriceCompetenceRepository matriceCompetenceRepository) {
+            PersonneMapper personneMapper,
+            MatriceCompetenceIndex matriceCompetenceIndex,
+            IndexPeriodes indexPeriodes) {
         this.profilRepository = profilRepository;
         this.matriceCompetenceService = matriceCompetenceService;
-        this.personneService = personneService;
-        this.matriceCompetenceRepository = matriceCompetenceRepository;
+        this.personneMapper = personneMapper;
+        this.matriceCompetenceIndex = matriceCompetenceIndex;
+        this.indexPeriodes = indexPeriodes;
     }
 
     /**
@@ -41,19 +48,38 @@ public class ProfileService {
      * @return Liste des personnes disponibles avec leurs profils
      */
     public List<Profil> getPersonnesDisponibles() {
-        Date now = new Date();
-        // Récupération des profils dont la période de disponibilité inclut la date actuelle
-        List<ProfilEntity> profilsEntities = profilRepository.findAll().stream()
-                .filter(profil -> 
-                    (profil.getDateDebutDisponibilite() == null || profil.getDateDebutDisponibilite().before(now)) &&
-                    (profil.getDateFinDisponibilite() == null || profil.getDateFinDisponibilite().after(now)))
-                .collect(Collectors.toList());
-        
-        return profilsEntities.stream()
+        // Profils dont la période de disponibilité inclut la date actuelle, trouvés dans l'index des périodes
+        List<Long> ids = indexPeriodes.profilsDisponibles(new Date());
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // Profils, personnes et équipes lus en une seule requête
+        return profilRepository.findAllAvecPersonneById(ids).stream()
                 .map(this::mapToProfilDomain)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Récupère une page de personnes disponibles, triées par id de profil (pagination par clé)
+     * @param curseur Curseur renvoyé avec la page précédente, ou null pour la première page
+     * @param taille Nombre maximal de profils dans la page
+     * @return La page de profils disponibles
+     * @throws IllegalArgumentException Si le curseur ou la taille est invalide
+     */
+    public PageCurseur<Profil> getPersonnesDisponiblesPage(String curseur, int taille) {
+        String[] cle = PageCurseur.decoder(curseur, 1);
+        long apresId;
+        try {
+            apresId = cle == null ? 0L : Long.parseLong(cle[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide: " + curseur, e);
+        }
+        return PageCurseur.depuis(
+                profilRepository.findDisponiblesApres(new Date(), apresId, PageRequest.of(0, PageCurseur.verifierTaille(taille))),
+                this::mapToProfilDomain,
+                entity -> new String[] {String.valueOf(entity.getId())});
+    }
+
     /**
      * Récupère la matrice de compétence complète pour une personne sur le marché
      * @param personneId Identifiant de la personne
@@ -83,32 +109,14 @@ public class ProfileService {
      * @return Liste des personnes répondant aux critères
      */
     public List<Personne> filtrerPersonnesParNotes(List<String> competences, int noteMinimale) {
-        List<Personne> personnesFiltered = new ArrayList<>();
         List<Profil> personnesDisponibles = getPersonnesDisponibles();
-        
-        for (Profil profil : personnesDisponibles) {
-            Personne personne = profil.getPersonne();
-            List<MatriceCompetence> matrices = matriceCompetenceService.getCompetencesByPersonne(personne.getIdentifiant());
-            
-            // Vérifier si la personne possède toutes les compétences avec la note minimale requise
-            boolean matchAllCriteria = true;
-            for (String competenceLibelle : competences) {
-                boolean hasCompetenceWithMinNote = matrices.stream()
-                    .anyMatch(mc -> mc.getCompetence().getLibelle().equals(competenceLibelle) 
-                        && mc.getNote().getValeur() >= noteMinimale);
-                
-                if (!hasCompetenceWithMinNote) {
-                    matchAllCriteria = false;
-                    break;
-                }
-            }
-            
-            if (matchAllCriteria) {
-                personnesFiltered.add(personne);
-            }
+        if (competences == null || competences.isEmpty()) {
+            return extrairePersonnes(personnesDisponibles);
         }
         
-        return personnesFiltered;
+        // Intersection des bitmaps "note >= noteMinimale" de chaque compétence
+        Set<String> identifiants = matriceCompetenceIndex.personnesAvecNoteMinimale(competences, noteMinimale);
+        return filtrerParIdentifiants(personnesDisponibles, identifiants);
     }
 
     /**
@@ -117,30 +125,47 @@ public class ProfileService {
      * @return Liste des personnes ayant ces compétences
      */
     public List<Personne> filtrerPersonnesParCompetences(List<String> competencesRecherchees) {
-        List<Personne> personnesFiltered = new ArrayList<>();
         List<Profil> personnesDisponibles = getPersonnesDisponibles();
+        if (competencesRecherchees == null || competencesRecherchees.isEmpty()) {
+            return extrairePersonnes(personnesDisponibles);
+        }
         
-        for (Profil profil : personnesDisponibles) {
+        // Intersection des bitmaps de possession de chaque compétence
+        Set<String> identifiants = matriceCompetenceIndex.personnesAvecCompetences(competencesRecherchees);
+        return filtrerParIdentifiants(personnesDisponibles, identifiants);
+    }
+    
+    /**
+     * Conserve les personnes des profils dont l'identifiant fait partie de l'ensemble donné
+     * @param profils Profils disponibles
+     * @param identifiants Identifiants des personnes à conserver
+     * @return Liste des personnes correspondantes
+     */
+    private List<Personne> filtrerParIdentifiants(List<Profil> profils, Set<String> identifiants) {
+        List<Personne> personnesFiltered = new ArrayList<>();
+        if (identifiants.isEmpty()) {
+            return personnesFiltered;
+        }
+        for (Profil profil : profils) {
             Personne personne = profil.getPersonne();
-            List<MatriceCompetence> matrices = matriceCompetenceService.getCompetencesByPersonne(personne.getIdentifiant());
-            
-            // Extraire les libellés de compétences de la personne
-            List<String> competencesPersonne = matrices.stream()
-                .map(mc -> mc.getCompetence().getLibelle())
-                .collect(Collectors.toList());
-            
-            // Vérifier si la personne possède toutes les compétences recherchées
-            boolean hasAllCompetences = competencesRecherchees.stream()
-                .allMatch(competencesPersonne::contains);
-            
-            if (hasAllCompetences) {
+            if (identifiants.contains(personne.getIdentifiant())) {
                 personnesFiltered.add(personne);
             }
         }
-        
         return personnesFiltered;
     }
     
+    /**
+     * Extrait les personnes d'une liste de profils
+     * @param profils Profils disponibles
+     * @return Liste des personnes
+     */
+    private List<Personne> extrairePersonnes(List<Profil> profils) {
+        return profils.stream()
+                .map(Profil::getPersonne)
+                .collect(Collectors.toList());
+    }
+    
     /**
      * Convertit une entité Profil en objet domain
      * @param entity L'entité à convertir
@@ -152,9 +177,8 @@ public class ProfileService {
         profil.setDateDebutDisponibilite(entity.getDateDebutDisponibilite());
         profil.setDateFinDisponibilite(entity.getDateFinDisponibilite());
         
-        // Convertir l'entité personne en objet domain
-        Personne personne = personneService.getPersonneByIdentifiant(entity.getPersonne().getIdentifiant());
-        profil.setPersonne(personne);
+        // La personne et son équipe ont été chargées avec le profil
+        profil.setPersonne(personneMapper.mapToPersonneDomain(entity.getPersonne()));
         
         return profil;
     }
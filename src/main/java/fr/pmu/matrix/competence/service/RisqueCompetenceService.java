@@ -0,0 +1,152 @@
+package fr.pmu.matrix.competence.service;
+
+import fr.pmu.matrix.competence.dto.RapportRisques;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.MatriceCompetenceStore;
+import fr.pmu.matrix.competence.repository.EquipeRepository;
+import fr.pmu.matrix.competence.repository.projection.RattachementProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Service de détection des compétences à risque (« bus factor »).
+ * <p>
+ * Une compétence est à risque dans une équipe ou un groupement lorsqu'au moins une personne
+ * la détient au niveau expert mais que moins de {@code seuil} experts sont disponibles :
+ * les personnes absentes aujourd'hui ou dont un profil est ouvert (en partance) ne comptent pas.
+ * <p>
+ * Le rapport est calculé en un seul parcours de la matrice en mémoire, conservé en cache
+ * et recalculé périodiquement, de sorte que sa lecture ne coûte rien.
+ */
+@Service
+public class RisqueCompetenceService {
+
+    private final MatriceCompetenceStore matriceCompetenceStore;
+    private final EquipeRepository equipeRepository;
+    private final IndexPeriodes indexPeriodes;
+    private final int noteExpert;
+    private final int seuil;
+
+    private volatile RapportRisques rapport;
+
+    @Autowired
+    public RisqueCompetenceService(MatriceCompetenceStore matriceCompetenceStore,
+                                   EquipeRepository equipeRepository,
+                                   IndexPeriodes indexPeriodes,
+                                   @Value("${matrice.risques.note-expert:4}") int noteExpert,
+                                   @Value("${matrice.risques.seuil:2}") int seuil) {
+        this.matriceCompetenceStore = matriceCompetenceStore;
+        this.equipeRepository = equipeRepository;
+        this.indexPeriodes = indexPeriodes;
+        this.noteExpert = noteExpert;
+        this.seuil = seuil;
+    }
+
+    /**
+     * Retourne le dernier rapport calculé, en le calculant s'il n'existe pas encore
+     * @return Le rapport des compétences à risque
+     */
+    public RapportRisques getRapport() {
+        RapportRisques courant = rapport;
+        return courant != null ? courant : rafraichir();
+    }
+
+    /**
+     * Recalcule le rapport et remplace celui en cache
+     * @return Le nouveau rapport
+     */
+    @Scheduled(fixedDelayString = "${matrice.risques.rafraichissement-ms:60000}")
+    public RapportRisques rafraichir() {
+        RapportRisques nouveau = calculer(new Date());
+        rapport = nouveau;
+        return nouveau;
+    }
+
+    /**
+     * Calcule le rapport à une date donnée
+     * @param date Date de référence pour les absences et les disponibilités
+     * @return Le rapport des compétences à risque
+     */
+    RapportRisques calculer(Date date) {
+        MatriceCompetenceSnapshot snapshot = matriceCompetenceStore.getSnapshot();
+        boolean[] indisponibles = new boolean[snapshot.nbPersonnes()];
+        marquer(snapshot, indisponibles, indexPeriodes.personnesAbsentes(date));
+        marquer(snapshot, indisponibles, indexPeriodes.personnesDisponibles(date));
+        Map<String, String> groupementParEquipe = new HashMap<>();
+        for (RattachementProjection rattachement : equipeRepository.findAllRattachements()) {
+            groupementParEquipe.put(rattachement.code(), rattachement.parentCode());
+        }
+
+        // Experts par périmètre puis par ordinal de compétence
+        Map<String, Map<Integer, Experts>> parEquipe = new TreeMap<>();
+        Map<String, Map<Integer, Experts>> parGroupement = new TreeMap<>();
+        for (int p = 0; p < snapshot.nbPersonnes(); p++) {
+            String equipeCode = snapshot.equipeCode(p);
+            if (equipeCode == null) {
+                continue;
+            }
+            String groupementCode = groupementParEquipe.get(equipeCode);
+            for (int c = 0; c < snapshot.nbCompetences(); c++) {
+                if (snapshot.note(p, c) >= noteExpert) {
+                    ajouter(parEquipe, equipeCode, c, snapshot.identifiantPersonne(p), indisponibles[p]);
+                    if (groupementCode != null) {
+                        ajouter(parGroupement, groupementCode, c, snapshot.identifiantPersonne(p), indisponibles[p]);
+                    }
+                }
+            }
+        }
+        return new RapportRisques(date, noteExpert, seuil,
+                perimetresARisque(snapshot, parEquipe), perimetresARisque(snapshot, parGroupement));
+    }
+
+    private void marquer(MatriceCompetenceSnapshot snapshot, boolean[] indisponibles, Collection<String> identifiants) {
+        for (String identifiant : identifiants) {
+            int p = snapshot.ordinalPersonne(identifiant);
+            if (p >= 0) {
+                indisponibles[p] = true;
+            }
+        }
+    }
+
+    private void ajouter(Map<String, Map<Integer, Experts>> perimetres, String code, int competence,
+                         String identifiant, boolean indisponible) {
+        Experts experts = perimetres.computeIfAbsent(code, k -> new TreeMap<>())
+                .computeIfAbsent(competence, k -> new Experts());
+        (indisponible ? experts.indisponibles : experts.disponibles).add(identifiant);
+    }
+
+    private List<RapportRisques.Perimetre> perimetresARisque(MatriceCompetenceSnapshot snapshot,
+                                                             Map<String, Map<Integer, Experts>> perimetres) {
+        List<RapportRisques.Perimetre> resultat = new ArrayList<>();
+        perimetres.forEach((code, competences) -> {
+            List<RapportRisques.CompetenceARisque> aRisque = new ArrayList<>();
+            // Les ordinaux suivent l'ordre des libellés
+            competences.forEach((c, experts) -> {
+                if (experts.disponibles.size() < seuil) {
+                    aRisque.add(new RapportRisques.CompetenceARisque(snapshot.libelleCompetence(c),
+                            experts.disponibles.size(), experts.disponibles, experts.indisponibles));
+                }
+            });
+            if (!aRisque.isEmpty()) {
+                resultat.add(new RapportRisques.Perimetre(code, aRisque));
+            }
+        });
+        return resultat;
+    }
+
+    private static final class Experts {
+        private final List<String> disponibles = new ArrayList<>();
+        private final List<String> indisponibles = new ArrayList<>();
+    }
+}
@@ -0,0 +1,280 @@
+package fr.pmu.matrix.competence.service;
+
+import fr.pmu.matrix.competence.domain.Evenement;
+import fr.pmu.matrix.competence.dto.CompetenceRequiseRequest;
+import fr.pmu.matrix.competence.dto.StaffingEvenement;
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.EvenementCompetenceRequiseEntity;
+import fr.pmu.matrix.competence.entity.EvenementEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.index.ArbreIntervalles;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.MatriceCompetenceStore;
+import fr.pmu.matrix.competence.index.Referentiel;
+import fr.pmu.matrix.competence.repository.EvenementRepository;
+import fr.pmu.matrix.competence.repository.projection.PeriodePersonneProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Service de vérification de l'armement des événements critiques.
+ * <p>
+ * Les participants d'un événement sont ses participants directs et les membres de ses équipes
+ * participantes. Un participant absent pendant l'événement, ou mobilisé au même moment par un
+ * autre événement, n'est pas disponible. Chaque compétence requise est couverte si au moins un
+ * participant disponible la détient à la note requise, lue dans la matrice en mémoire.
+ * <p>
+ * Les doubles affectations sont détectées par balayage : les participations de chaque personne
+ * sont triées par date de début et chacune n'est comparée qu'aux participations encore en cours,
+ * sans comparer toutes les paires d'événements.
+ */
+@Service
+public class StaffingEvenementService {
+
+    /**
+     * Criticités des événements vérifiés par le contrôle global
+     */
+    static final Set<EvenementEntity.Criticite> CRITICITES_VERIFIEES =
+            EnumSet.of(EvenementEntity.Criticite.CRITICAL, EvenementEntity.Criticite.MAJOR);
+
+    private final EvenementRepository evenementRepository;
+    private final IndexPeriodes indexPeriodes;
+    private final MatriceCompetenceStore matriceCompetenceStore;
+    private final Referentiel referentiel;
+
+    @Autowired
+    public StaffingEvenementService(EvenementRepository evenementRepository,
+                                    IndexPeriodes indexPeriodes,
+                                    MatriceCompetenceStore matriceCompetenceStore,
+                                    Referentiel referentiel) {
+        this.evenementRepository = evenementRepository;
+        this.indexPeriodes = indexPeriodes;
+        this.matriceCompetenceStore = matriceCompetenceStore;
+        this.referentiel = referentiel;
+    }
+
+    /**
+     * Vérifie l'armement d'un événement
+     * @param id Identifiant de l'événement
+     * @return La couverture des compétences requises, les absences et les conflits
+     * @throws RuntimeException Si l'événement n'existe pas
+     * @throws IllegalArgumentException Si l'événement n'a pas de dates
+     */
+    @Transactional(readOnly = true)
+    public StaffingEvenement getStaffing(Long id) {
+        return verifier(List.of(trouver(id))).get(0);
+    }
+
+    /**
+     * Vérifie l'armement de tous les événements critiques ou majeurs qui ne sont pas terminés
+     * @return Une vérification par événement, par date de début
+     */
+    @Transactional(readOnly = true)
+    public List<StaffingEvenement> getStaffingEvenementsAVenir() {
+        return verifier(evenementRepository.findNonTermines(CRITICITES_VERIFIEES, new Date()));
+    }
+
+    /**
+     * Remplace les compétences requises d'un événement
+     * @param id Identifiant de l'événement
+     * @param competences Compétences requises ; pour une même compétence, la dernière note l'emporte
+     * @return La vérification de l'événement avec ses nouvelles compétences requises
+     * @throws RuntimeException Si l'événement, une compétence ou une note n'existe pas
+     */
+    @Transactional
+    public StaffingEvenement definirCompetencesRequises(Long id, List<CompetenceRequiseRequest> competences) {
+        EvenementEntity evenement = trouver(id);
+        Map<String, EvenementCompetenceRequiseEntity> parLibelle = new LinkedHashMap<>();
+        for (CompetenceRequiseRequest request : competences) {
+            CompetenceEntity competence = referentiel.competence(request.getCompetenceLibelle())
+                    .orElseThrow(() -> new RuntimeException("Compétence non trouvée: " + request.getCompetenceLibelle()));
+            NoteEntity note = referentiel.note(request.getNoteValeur())
+                    .orElseThrow(() -> new RuntimeException("Note non trouvée: " + request.getNoteValeur()));
+            parLibelle.put(competence.getLibelle(), new EvenementCompetenceRequiseEntity(null, evenement, competence, note));
+        }
+        evenement.getCompetencesRequises().clear();
+        evenement.getCompetencesRequises().addAll(parLibelle.values());
+        return verifier(List.of(evenementRepository.save(evenement))).get(0);
+    }
+
+    private EvenementEntity trouver(Long id) {
+        EvenementEntity evenement = evenementRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Événement non trouvé avec l'identifiant: " + id));
+        if (evenement.getDateDebut() == null || evenement.getDateFin() == null) {
+            throw new IllegalArgumentException("Événement sans dates: " + id);
+        }
+        return evenement;
+    }
+
+    /**
+     * Vérifie un ensemble d'événements avec une requête de participations par type de participant,
+     * sur la fenêtre qui les contient tous
+     */
+    List<StaffingEvenement> verifier(List<EvenementEntity> evenements) {
+        if (evenements.isEmpty()) {
+            return List.of();
+        }
+        Date debut = evenements.stream().map(EvenementEntity::getDateDebut).min(Date::compareTo).get();
+        Date fin = evenements.stream().map(EvenementEntity::getDateFin).max(Date::compareTo).get();
+
+        // Participations de tous les événements de la fenêtre, y compris ceux qui ne sont pas vérifiés
+        List<PeriodePersonneProjection> participations = new ArrayList<>(evenementRepository.findParticipationsPersonnes(debut, fin));
+        participations.addAll(evenementRepository.findParticipationsEquipes(debut, fin));
+        Map<Long, Set<String>> participants = new HashMap<>();
+        for (PeriodePersonneProjection participation : participations) {
+            participants.computeIfAbsent(participation.id(), id -> new TreeSet<>()).add(participation.personneIdentifiant());
+        }
+        Map<Long, Map<String, Set<Long>>> conflits = detecterConflits(participations);
+
+        // Les absences sont datées au jour : la veille du début peut encore couvrir l'événement
+        Map<String, List<PeriodePersonneProjection>> absences = new HashMap<>();
+        for (PeriodePersonneProjection absence : indexPeriodes.absencesChevauchant(debutDeJournee(debut), fin)) {
+            absences.computeIfAbsent(absence.personneIdentifiant(), p -> new ArrayList<>()).add(absence);
+        }
+
+        MatriceCompetenceSnapshot snapshot = matriceCompetenceStore.getSnapshot();
+        List<StaffingEvenement> resultats = new ArrayList<>(evenements.size());
+        for (EvenementEntity evenement : evenements) {
+            resultats.add(verifier(evenement, participants.getOrDefault(evenement.getId(), Set.of()),
+                    conflits.getOrDefault(evenement.getId(), Map.of()), absences, snapshot));
+        }
+        return resultats;
+    }
+
+    private StaffingEvenement verifier(EvenementEntity evenement, Set<String> participants,
+                                       Map<String, Set<Long>> conflits,
+                                       Map<String, List<PeriodePersonneProjection>> absences,
+                                       MatriceCompetenceSnapshot snapshot) {
+        List<String> absentes = new ArrayList<>();
+        List<String> disponibles = new ArrayList<>();
+        for (String personne : participants) {
+            if (estAbsente(absences.getOrDefault(personne, List.of()), evenement)) {
+                absentes.add(personne);
+            } else if (!conflits.containsKey(personne)) {
+                disponibles.add(personne);
+            }
+        }
+
+        List<StaffingEvenement.BesoinCompetence> besoins = new ArrayList<>();
+        boolean couvert = true;
+        for (EvenementCompetenceRequiseEntity requise : evenement.getCompetencesRequises()) {
+            String libelle = requise.getCompetence().getLibelle();
+            int noteRequise = requise.getNoteRequise().getValeur();
+            int c = snapshot.ordinalCompetence(libelle);
+            List<String> qualifiees = new ArrayList<>();
+            for (String personne : disponibles) {
+                int p = snapshot.ordinalPersonne(personne);
+                if (c >= 0 && p >= 0) {
+                    int note = snapshot.note(p, c);
+                    if (note != MatriceCompetenceSnapshot.AUCUNE_NOTE && note >= noteRequise) {
+                        qualifiees.add(personne);
+                    }
+                }
+            }
+            besoins.add(new StaffingEvenement.BesoinCompetence(libelle, noteRequise, qualifiees, !qualifiees.isEmpty()));
+            couvert &= !qualifiees.isEmpty();
+        }
+
+        List<StaffingEvenement.Conflit> listeConflits = new ArrayList<>();
+        new TreeMap<>(conflits).forEach((personne, autres) ->
+                listeConflits.add(new StaffingEvenement.Conflit(personne, new ArrayList<>(new TreeSet<>(autres)))));
+
+        Evenement.Criticite criticite = evenement.getCriticite() == null ? null
+                : Evenement.Criticite.valueOf(evenement.getCriticite().name());
+        return new StaffingEvenement(evenement.getId(), evenement.getType(), criticite,
+                evenement.getDateDebut(), evenement.getDateFin(), participants.size(),
+                absentes, listeConflits, besoins, couvert);
+    }
+
+    /**
+     * Détecte les doubles affectations : pour chaque personne, les participations sont triées par
+     * début puis balayées en tenant la file, par date de fin, de celles qui sont en cours. Une
+     * participation n'est comparée qu'aux participations encore en cours à son début ; deux
+     * événements qui se touchent sans se chevaucher ne sont pas en conflit.
+     * @param participations Participations, éventuellement en double pour un même événement
+     * @return Pour chaque événement, les personnes en conflit et les autres événements concernés
+     */
+    static Map<Long, Map<String, Set<Long>>> detecterConflits(List<PeriodePersonneProjection> participations) {
+        Map<String, List<PeriodePersonneProjection>> parPersonne = new HashMap<>();
+        for (PeriodePersonneProjection participation : participations) {
+            parPersonne.computeIfAbsent(participation.personneIdentifiant(), p -> new ArrayList<>()).add(participation);
+        }
+
+        Map<Long, Map<String, Set<Long>>> conflits = new HashMap<>();
+        for (Map.Entry<String, List<PeriodePersonneProjection>> entree : parPersonne.entrySet()) {
+            String personne = entree.getKey();
+            List<PeriodePersonneProjection> liste = entree.getValue();
+            liste.sort(Comparator.comparing(PeriodePersonneProjection::dateDebut));
+            PriorityQueue<PeriodePersonneProjection> enCours =
+                    new PriorityQueue<>(Comparator.comparing(PeriodePersonneProjection::dateFin));
+            Set<Long> vus = new HashSet<>();
+            for (PeriodePersonneProjection participation : liste) {
+                // Participation directe et par l'équipe au même événement
+                if (!vus.add(participation.id())) {
+                    continue;
+                }
+                while (!enCours.isEmpty() && !enCours.peek().dateFin().after(participation.dateDebut())) {
+                    enCours.poll();
+                }
+                for (PeriodePersonneProjection autre : enCours) {
+                    ajouterConflit(conflits, participation.id(), personne, autre.id());
+                    ajouterConflit(conflits, autre.id(), personne, participation.id());
+                }
+                enCours.add(participation);
+            }
+        }
+        return conflits;
+    }
+
+    private static void ajouterConflit(Map<Long, Map<String, Set<Long>>> conflits, Long evenementId,
+                                       String personne, Long autreId) {
+        conflits.computeIfAbsent(evenementId, id -> new HashMap<>())
+                .computeIfAbsent(personne, p -> new HashSet<>())
+                .add(autreId);
+    }
+
+    /**
+     * Indique si une des absences, dont le dernier jour est couvert en entier, chevauche l'événement
+     */
+    private static boolean estAbsente(List<PeriodePersonneProjection> absences, EvenementEntity evenement) {
+        long debut = evenement.getDateDebut().getTime();
+        long fin = evenement.getDateFin().getTime();
+        for (PeriodePersonneProjection absence : absences) {
+            long debutAbsence = absence.dateDebut() == null ? ArbreIntervalles.DEBUT_OUVERT : absence.dateDebut().getTime();
+            long finAbsence = absence.dateFin() == null ? ArbreIntervalles.FIN_OUVERTE : finDeJournee(absence.dateFin());
+            if (debutAbsence <= fin && finAbsence >= debut) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Date debutDeJournee(Date date) {
+        ZoneId fuseau = ZoneId.systemDefault();
+        return Date.from(Instant.ofEpochMilli(date.getTime()).atZone(fuseau).toLocalDate().atStartOfDay(fuseau).toInstant());
+    }
+
+    private static long finDeJournee(Date date) {
+        ZoneId fuseau = ZoneId.systemDefault();
+        return Instant.ofEpochMilli(date.getTime()).atZone(fuseau).toLocalDate().plusDays(1)
+                .atStartOfDay(fuseau).toInstant().toEpochMilli() - 1;
+    }
+}
@@ -0,0 +1,82 @@
+package fr.pmu.matrix.competence.config;
+
+import fr.pmu.matrix.competence.domain.Nature;
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
+import fr.pmu.matrix.competence.entity.DemandeEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Simule une base existante dont les compétences requises ont été numérotées par l'ancienne
+ * colonne IDENTITY, avec une séquence neuve créée par la mise à jour du schéma.
+ */
+@DataJpaTest
+@Import(RecalageSequenceCompetenceRequise.class)
+class RecalageSequenceCompetenceRequiseTest {
+
+    private static final int NB_LIGNES = 120;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecalageSequenceCompetenceRequise recalage;
+
+    @Test
+    void testRecaler_TableDejaRemplie() {
+        // Given
+        CompetenceEntity java = entityManager.persist(new CompetenceEntity("JAVA", "Java"));
+        NoteEntity note = entityManager.persist(new NoteEntity(3, "Intermédiaire"));
+        DemandeEntity demande = new DemandeEntity();
+        demande.setId("D1");
+        demande.setMatriculeDemandeur("M1");
+        demande.setNature(Nature.PERMANENT);
+        demande.setEstGroupement(false);
+        demande.setDestinationCode("EQ1");
+        demande.setDateDebut(Date.valueOf("2024-01-01"));
+        entityManager.persist(demande);
+        entityManager.flush();
+
+        List<Object[]> lignes = new ArrayList<>();
+        for (long id = 1; id <= NB_LIGNES; id++) {
+            lignes.add(new Object[] {id, "D1", "JAVA", 3});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO competence_requise (id, demande_id, competence_libelle, note_valeur) VALUES (?, ?, ?, ?)", lignes);
+        jdbcTemplate.execute("ALTER SEQUENCE " + CompetenceRequiseEntity.SEQUENCE + " RESTART WITH 1");
+
+        // When
+        recalage.recaler();
+
+        // Then : les insertions JPA suivantes prennent des identifiants libres
+        List<Long> identifiants = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            CompetenceRequiseEntity competenceRequise = entityManager.persist(new CompetenceRequiseEntity(null, demande, java, note));
+            identifiants.add(competenceRequise.getId());
+        }
+        entityManager.flush();
+        assertTrue(identifiants.stream().allMatch(id -> id > NB_LIGNES), "Identifiants: " + identifiants);
+        assertEquals(NB_LIGNES + 3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM competence_requise", Long.class));
+
+        // Un second recalage ne redémarre plus la séquence en arrière
+        recalage.recaler();
+        CompetenceRequiseEntity suivante = entityManager.persist(new CompetenceRequiseEntity(null, demande, java, note));
+        entityManager.flush();
+        assertFalse(identifiants.contains(suivante.getId()));
+    }
+}
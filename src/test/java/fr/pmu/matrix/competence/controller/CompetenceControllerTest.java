@@ -3,8 +3,10 @@ package fr.pmu.matrix.competence.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.pmu.matrix.competence.domain.Competence;
 import fr.pmu.matrix.competence.dto.CreateCompetenceRequest;
+import fr.pmu.matrix.competence.dto.RapportRisques;
 import fr.pmu.matrix.competence.dto.UpdateCompetenceRequest;
 import fr.pmu.matrix.competence.service.CompetenceService;
+import fr.pmu.matrix.competence.service.RisqueCompetenceService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -13,6 +15,8 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -33,6 +37,9 @@ class CompetenceControllerTest {
     @MockBean
     private CompetenceService competenceService;
 
+    @MockBean
+    private RisqueCompetenceService risqueCompetenceService;
+
     @Test
     void testGetAllCompetences() throws Exception {
         // Given
@@ -53,6 +60,39 @@ class CompetenceControllerTest {
         verify(competenceService, times(1)).getAllCompetences();
     }
 
+    @Test
+    void testGetRapportRisques() throws Exception {
+        // Given
+        RapportRisques.CompetenceARisque risque = new RapportRisques.CompetenceARisque(
+                "JAVA", 1, Collections.singletonList("P001"), Collections.singletonList("P002"));
+        RapportRisques rapport = new RapportRisques(new Date(), 4, 2,
+                Collections.singletonList(new RapportRisques.Perimetre("EQ1", Collections.singletonList(risque))),
+                Collections.emptyList());
+        when(risqueCompetenceService.getRapport()).thenReturn(rapport);
+
+        // When & Then
+        mockMvc.perform(get("/competences/risques")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.seuil").value(2))
+                .andExpect(jsonPath("$.equipes[0].code").value("EQ1"))
+                .andExpect(jsonPath("$.equipes[0].competences[0].competenceLibelle").value("JAVA"))
+                .andExpect(jsonPath("$.equipes[0].competences[0].expertsIndisponibles[0]").value("P002"));
+
+        verify(risqueCompetenceService, times(1)).getRapport();
+    }
+
+    @Test
+    void testGetRapportRisques_ServerError() throws Exception {
+        // Given
+        when(risqueCompetenceService.getRapport()).thenThrow(new RuntimeException("Erreur"));
+
+        // When & Then
+        mockMvc.perform(get("/competences/risques")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isInternalServerError());
+    }
+
     @Test
     void testCreateCompetence() throws Exception {
         // Given
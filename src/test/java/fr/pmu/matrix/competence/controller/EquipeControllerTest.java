@@ -3,10 +3,16 @@ package fr.pmu.matrix.competence.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.pmu.matrix.competence.domain.Equipe;
 import fr.pmu.matrix.competence.domain.Groupement;
+import fr.pmu.matrix.competence.dto.CapacitePerimetre;
 import fr.pmu.matrix.competence.dto.CompetenceRequiseDto;
+import fr.pmu.matrix.competence.dto.CouvertureEquipe;
 import fr.pmu.matrix.competence.dto.CreateEquipeRequest;
+import fr.pmu.matrix.competence.dto.PageCurseur;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
 import fr.pmu.matrix.competence.dto.UpdateEquipeRequest;
+import fr.pmu.matrix.competence.service.CapaciteService;
 import fr.pmu.matrix.competence.service.CompetenceService;
+import fr.pmu.matrix.competence.service.CouvertureEquipeService;
 import fr.pmu.matrix.competence.service.EquipeService;
 import fr.pmu.matrix.competence.service.NoteService;
 import org.junit.jupiter.api.Test;
@@ -16,6 +22,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -43,6 +50,12 @@ class EquipeControllerTest {
     @MockBean
     private NoteService noteService;
 
+    @MockBean
+    private CouvertureEquipeService couvertureEquipeService;
+
+    @MockBean
+    private CapaciteService capaciteService;
+
     @Test
     void testGetAllEquipes() throws Exception {
         // Given
@@ -66,7 +79,7 @@ class EquipeControllerTest {
 
         List<Equipe> equipes = Arrays.asList(equipe1, equipe2);
 
-        when(equipeService.getAllEquipes()).thenReturn(equipes);
+        when(equipeService.getAllEquipes(SelectionChamps.TOUS)).thenReturn(equipes);
 
         // When & Then
         mockMvc.perform(get("/equipes")
@@ -76,7 +89,79 @@ class EquipeControllerTest {
                 .andExpect(jsonPath("$[0].code").value("EQ001"))
                 .andExpect(jsonPath("$[1].code").value("EQ002"));
 
-        verify(equipeService, times(1)).getAllEquipes();
+        verify(equipeService, times(1)).getAllEquipes(SelectionChamps.TOUS);
+    }
+
+    @Test
+    void testGetAllEquipes_Fields() throws Exception {
+        // Given
+        Groupement groupement = new Groupement();
+        groupement.setCode("G001");
+        groupement.setLibelle("Groupement IT");
+
+        Equipe equipe = new Equipe();
+        equipe.setCode("EQ001");
+        equipe.setNom("Équipe Dev");
+        equipe.setGroupement(groupement);
+
+        when(equipeService.getAllEquipes(any(SelectionChamps.class))).thenReturn(List.of(equipe));
+
+        // When & Then
+        mockMvc.perform(get("/equipes")
+                .param("fields", "code,groupement.libelle"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].code").value("EQ001"))
+                .andExpect(jsonPath("$[0].groupement.libelle").value("Groupement IT"))
+                .andExpect(jsonPath("$[0].groupement.code").doesNotExist())
+                .andExpect(jsonPath("$[0].nom").doesNotExist())
+                .andExpect(jsonPath("$[0].membres").doesNotExist())
+                .andExpect(jsonPath("$[0].profilRecherche").doesNotExist());
+
+        verify(equipeService, times(1)).getAllEquipes(argThat(champs -> champs.inclut("groupement")
+                && !champs.inclut("membres") && !champs.inclut("profilRecherche")));
+    }
+
+    @Test
+    void testGetAllEquipes_FieldsInvalide() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/equipes")
+                .param("fields", "code,,nom"))
+                .andExpect(status().isBadRequest());
+
+        verify(equipeService, never()).getAllEquipes(any(SelectionChamps.class));
+    }
+
+    @Test
+    void testGetEquipesPage() throws Exception {
+        // Given
+        Equipe equipe = new Equipe();
+        equipe.setCode("EQ001");
+        equipe.setNom("Équipe Dev");
+        equipe.setMembres(Collections.emptyList());
+
+        when(equipeService.getEquipesPage(null, 1))
+                .thenReturn(new PageCurseur<>(List.of(equipe), 1, PageCurseur.encoder("EQ001")));
+
+        // When & Then
+        mockMvc.perform(get("/equipes")
+                .param("taille", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.elements[0].code").value("EQ001"))
+                .andExpect(jsonPath("$.curseurSuivant").value(PageCurseur.encoder("EQ001")));
+
+        verify(equipeService, never()).getAllEquipes(any(SelectionChamps.class));
+    }
+
+    @Test
+    void testGetEquipesPage_TailleInvalide() throws Exception {
+        // Given
+        when(equipeService.getEquipesPage(null, 5000))
+                .thenThrow(new IllegalArgumentException("Taille de page invalide: 5000 (entre 1 et 1000)"));
+
+        // When & Then
+        mockMvc.perform(get("/equipes")
+                .param("taille", "5000"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -93,7 +178,7 @@ class EquipeControllerTest {
         equipe.setGroupement(groupement);
         equipe.setMembres(Collections.emptyList());
 
-        when(equipeService.getEquipeByCode("EQ001")).thenReturn(equipe);
+        when(equipeService.getEquipeByCode("EQ001", SelectionChamps.TOUS)).thenReturn(equipe);
 
         // When & Then
         mockMvc.perform(get("/equipes/EQ001")
@@ -104,20 +189,20 @@ class EquipeControllerTest {
                 .andExpect(jsonPath("$.description").value("Équipe de développement"))
                 .andExpect(jsonPath("$.groupement.code").value("G001"));
 
-        verify(equipeService, times(1)).getEquipeByCode("EQ001");
+        verify(equipeService, times(1)).getEquipeByCode("EQ001", SelectionChamps.TOUS);
     }
 
     @Test
     void testGetEquipeByCode_NotFound() throws Exception {
         // Given
-        when(equipeService.getEquipeByCode("EQ999")).thenThrow(new RuntimeException("Équipe non trouvée"));
+        when(equipeService.getEquipeByCode("EQ999", SelectionChamps.TOUS)).thenThrow(new RuntimeException("Équipe non trouvée"));
 
         // When & Then
         mockMvc.perform(get("/equipes/EQ999")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(equipeService, times(1)).getEquipeByCode("EQ999");
+        verify(equipeService, times(1)).getEquipeByCode("EQ999", SelectionChamps.TOUS);
     }
 
     @Test
@@ -259,7 +344,7 @@ class EquipeControllerTest {
     @Test
     void testServerError_GetAllEquipes() throws Exception {
         // Given
-        when(equipeService.getAllEquipes()).thenThrow(new RuntimeException("Erreur serveur"));
+        when(equipeService.getAllEquipes(SelectionChamps.TOUS)).thenThrow(new RuntimeException("Erreur serveur"));
 
         // When & Then
         mockMvc.perform(get("/equipes")
@@ -300,6 +385,107 @@ class EquipeControllerTest {
         verify(equipeService, times(1)).getProfilRecherche("EQ001");
     }
     
+    @Test
+    void testGetCouverture() throws Exception {
+        // Given
+        CouvertureEquipe couverture = new CouvertureEquipe("EQ001", "Équipe Dev", 2, Collections.singletonList(
+                new CouvertureEquipe.CouvertureCompetence("JAVA", 3, 1, 4, 1)));
+        when(couvertureEquipeService.getCouverture("EQ001")).thenReturn(couverture);
+
+        // When & Then
+        mockMvc.perform(get("/equipes/EQ001/couverture")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nbMembres").value(2))
+                .andExpect(jsonPath("$.competences[0].competenceLibelle").value("JAVA"))
+                .andExpect(jsonPath("$.competences[0].membresAuNiveau").value(1))
+                .andExpect(jsonPath("$.competences[0].ecart").value(1));
+
+        verify(couvertureEquipeService, times(1)).getCouverture("EQ001");
+    }
+
+    @Test
+    void testGetCouverture_NotFound() throws Exception {
+        // Given
+        when(couvertureEquipeService.getCouverture("EQ999"))
+                .thenThrow(new RuntimeException("Équipe non trouvée avec le code: EQ999"));
+
+        // When & Then
+        mockMvc.perform(get("/equipes/EQ999/couverture")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetCapacite() throws Exception {
+        // Given
+        LocalDate du = LocalDate.of(2024, 3, 1);
+        CapacitePerimetre capacite = new CapacitePerimetre("EQ001", "JAVA", 3, 2, 1, Arrays.asList(
+                new CapacitePerimetre.CapaciteJour(du, 2, 0, 0, 0),
+                new CapacitePerimetre.CapaciteJour(du.plusDays(1), 1, 1, 0, 0)));
+        when(capaciteService.getCapaciteEquipe("EQ001", du, du.plusDays(1), "JAVA", 3)).thenReturn(capacite);
+
+        // When & Then
+        mockMvc.perform(get("/equipes/EQ001/capacite")
+                .param("from", "2024-03-01")
+                .param("to", "2024-03-02")
+                .param("competence", "JAVA")
+                .param("noteMin", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.effectif").value(2))
+                .andExpect(jsonPath("$.minimumDisponibles").value(1))
+                .andExpect(jsonPath("$.jours[1].date").value("2024-03-02"))
+                .andExpect(jsonPath("$.jours[1].absentes").value(1));
+    }
+
+    @Test
+    void testGetCapacite_PeriodeInvalide() throws Exception {
+        // Given
+        when(capaciteService.getCapaciteEquipe(eq("EQ001"), any(), any(), eq("JAVA"), eq(3)))
+                .thenThrow(new IllegalArgumentException("Période invalide: la date de fin doit suivre la date de début"));
+
+        // When & Then
+        mockMvc.perform(get("/equipes/EQ001/capacite")
+                .param("from", "2024-03-02")
+                .param("to", "2024-03-01")
+                .param("competence", "JAVA")
+                .param("noteMin", "3"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetCapacite_NotFound() throws Exception {
+        // Given
+        when(capaciteService.getCapaciteEquipe(eq("EQ999"), any(), any(), eq("JAVA"), eq(3)))
+                .thenThrow(new RuntimeException("Équipe non trouvée avec le code: EQ999"));
+
+        // When & Then
+        mockMvc.perform(get("/equipes/EQ999/capacite")
+                .param("from", "2024-03-01")
+                .param("to", "2024-03-02")
+                .param("competence", "JAVA")
+                .param("noteMin", "3"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetCouvertures() throws Exception {
+        // Given
+        when(couvertureEquipeService.getCouvertures()).thenReturn(Arrays.asList(
+                new CouvertureEquipe("EQ001", "Équipe Dev", 2, Collections.emptyList()),
+                new CouvertureEquipe("EQ002", "Équipe QA", 0, Collections.emptyList())));
+
+        // When & Then
+        mockMvc.perform(get("/equipes/couverture")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].equipeCode").value("EQ002"));
+
+        verify(couvertureEquipeService, times(1)).getCouvertures();
+        verify(equipeService, never()).getEquipeByCode(anyString(), any(SelectionChamps.class));
+    }
+
     @Test
     void testUpdateProfilRecherche() throws Exception {
         // Given
@@ -0,0 +1,119 @@
+package fr.pmu.matrix.competence.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.pmu.matrix.competence.domain.Evenement;
+import fr.pmu.matrix.competence.dto.CompetenceRequiseRequest;
+import fr.pmu.matrix.competence.dto.StaffingEvenement;
+import fr.pmu.matrix.competence.service.StaffingEvenementService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EvenementController.class)
+class EvenementControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private StaffingEvenementService staffingEvenementService;
+
+    @Test
+    void testGetStaffing() throws Exception {
+        // Given
+        when(staffingEvenementService.getStaffing(10L)).thenReturn(createStaffing(10L));
+
+        // When & Then
+        mockMvc.perform(get("/evenements/10/staffing")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.evenementId").value(10))
+                .andExpect(jsonPath("$.criticite").value("CRITICAL"))
+                .andExpect(jsonPath("$.absentes[0]").value("P002"))
+                .andExpect(jsonPath("$.conflits[0].personneIdentifiant").value("P003"))
+                .andExpect(jsonPath("$.conflits[0].evenements[0]").value(11))
+                .andExpect(jsonPath("$.competences[0].competenceLibelle").value("SQL"))
+                .andExpect(jsonPath("$.competences[0].couverte").value(false))
+                .andExpect(jsonPath("$.couvert").value(false));
+    }
+
+    @Test
+    void testGetStaffing_NotFound() throws Exception {
+        // Given
+        when(staffingEvenementService.getStaffing(99L))
+                .thenThrow(new RuntimeException("Événement non trouvé avec l'identifiant: 99"));
+
+        // When & Then
+        mockMvc.perform(get("/evenements/99/staffing")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetStaffingEvenementsAVenir() throws Exception {
+        // Given
+        when(staffingEvenementService.getStaffingEvenementsAVenir()).thenReturn(List.of(createStaffing(10L), createStaffing(20L)));
+
+        // When & Then
+        mockMvc.perform(get("/evenements/staffing")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].evenementId").value(20));
+    }
+
+    @Test
+    void testDefinirCompetencesRequises() throws Exception {
+        // Given
+        CompetenceRequiseRequest request = new CompetenceRequiseRequest();
+        request.setCompetenceLibelle("SQL");
+        request.setNoteValeur(3);
+        when(staffingEvenementService.definirCompetencesRequises(eq(10L), anyList())).thenReturn(createStaffing(10L));
+
+        // When & Then
+        mockMvc.perform(put("/evenements/10/competences-requises")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(request))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.competences[0].noteRequise").value(3));
+
+        verify(staffingEvenementService, times(1)).definirCompetencesRequises(eq(10L),
+                argThat(competences -> competences.size() == 1 && "SQL".equals(competences.get(0).getCompetenceLibelle())));
+    }
+
+    @Test
+    void testDefinirCompetencesRequises_CompetenceNotFound() throws Exception {
+        // Given
+        when(staffingEvenementService.definirCompetencesRequises(eq(10L), anyList()))
+                .thenThrow(new RuntimeException("Compétence non trouvée: COBOL"));
+
+        // When & Then
+        mockMvc.perform(put("/evenements/10/competences-requises")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"competenceLibelle\":\"COBOL\",\"noteValeur\":3}]"))
+                .andExpect(status().isNotFound());
+    }
+
+    private StaffingEvenement createStaffing(Long id) {
+        return new StaffingEvenement(id, "MEP", Evenement.Criticite.CRITICAL, new Date(), new Date(), 3,
+                List.of("P002"),
+                List.of(new StaffingEvenement.Conflit("P003", List.of(11L))),
+                List.of(new StaffingEvenement.BesoinCompetence("SQL", 3, Collections.emptyList(), false)),
+                false);
+    }
+}
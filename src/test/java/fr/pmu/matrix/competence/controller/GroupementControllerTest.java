@@ -2,8 +2,11 @@ package fr.pmu.matrix.competence.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.pmu.matrix.competence.domain.Groupement;
+import fr.pmu.matrix.competence.dto.CapacitePerimetre;
 import fr.pmu.matrix.competence.dto.CreateGroupementRequest;
+import fr.pmu.matrix.competence.dto.HeatmapGroupement;
 import fr.pmu.matrix.competence.dto.UpdateGroupementRequest;
+import fr.pmu.matrix.competence.service.CapaciteService;
 import fr.pmu.matrix.competence.service.GroupementService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,8 +15,10 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -32,6 +37,9 @@ class GroupementControllerTest {
     @MockBean
     private GroupementService groupementService;
 
+    @MockBean
+    private CapaciteService capaciteService;
+
     @Test
     void testGetAllGroupements() throws Exception {
         // Given
@@ -94,6 +102,54 @@ class GroupementControllerTest {
         verify(groupementService, times(1)).getGroupementByCode("G999");
     }
 
+    @Test
+    void testGetHeatmap() throws Exception {
+        // Given
+        HeatmapGroupement heatmap = new HeatmapGroupement("G001", List.of(
+                new HeatmapGroupement.RepartitionCompetence("JAVA", Map.of(3, 2), 2)));
+        when(groupementService.getHeatmap("G001")).thenReturn(heatmap);
+
+        // When & Then
+        mockMvc.perform(get("/groupements/G001/heatmap")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.groupementCode").value("G001"))
+                .andExpect(jsonPath("$.competences[0].competenceLibelle").value("JAVA"))
+                .andExpect(jsonPath("$.competences[0].repartition.3").value(2));
+
+        verify(groupementService, times(1)).getHeatmap("G001");
+    }
+
+    @Test
+    void testGetHeatmap_NotFound() throws Exception {
+        // Given
+        when(groupementService.getHeatmap("G999")).thenThrow(new RuntimeException("Groupement non trouvé avec le code: G999"));
+
+        // When & Then
+        mockMvc.perform(get("/groupements/G999/heatmap")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetCapacite() throws Exception {
+        // Given
+        LocalDate du = LocalDate.of(2024, 3, 1);
+        CapacitePerimetre capacite = new CapacitePerimetre("G001", "JAVA", 3, 5, 4, List.of(
+                new CapacitePerimetre.CapaciteJour(du, 4, 0, 0, 1)));
+        when(capaciteService.getCapaciteGroupement("G001", du, du, "JAVA", 3)).thenReturn(capacite);
+
+        // When & Then
+        mockMvc.perform(get("/groupements/G001/capacite")
+                .param("from", "2024-03-01")
+                .param("to", "2024-03-01")
+                .param("competence", "JAVA")
+                .param("noteMin", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.perimetreCode").value("G001"))
+                .andExpect(jsonPath("$.jours[0].mobilisees").value(1));
+    }
+
     @Test
     void testCreateGroupement() throws Exception {
         // Given
@@ -7,7 +7,11 @@ import fr.pmu.matrix.competence.domain.MatriceCompetence;
 import fr.pmu.matrix.competence.domain.Note;
 import fr.pmu.matrix.competence.domain.Personne;
 import fr.pmu.matrix.competence.dto.CreateMatriceCompetenceRequest;
+import fr.pmu.matrix.competence.dto.MatriceCompetenceImportResultat;
+import fr.pmu.matrix.competence.dto.PageCurseur;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
 import fr.pmu.matrix.competence.dto.UpdateMatriceCompetenceRequest;
+import fr.pmu.matrix.competence.service.MatriceCompetenceImportService;
 import fr.pmu.matrix.competence.service.MatriceCompetenceService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,10 +19,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -36,6 +45,9 @@ class MatriceCompetenceControllerTest {
     @MockBean
     private MatriceCompetenceService matriceCompetenceService;
 
+    @MockBean
+    private MatriceCompetenceImportService matriceCompetenceImportService;
+
     @Test
     void testGetAllMatricesCompetences() throws Exception {
         // Given
@@ -44,7 +56,7 @@ class MatriceCompetenceControllerTest {
             createMatriceCompetence("P123", "Dupont", "Jean", "SPRING", "Spring Framework", 4, "Avancé")
         );
 
-        when(matriceCompetenceService.getAllMatricesCompetences()).thenReturn(matrices);
+        when(matriceCompetenceService.getAllMatricesCompetences(SelectionChamps.TOUS)).thenReturn(matrices);
 
         // When & Then
         mockMvc.perform(get("/matrices-competences")
@@ -54,7 +66,68 @@ class MatriceCompetenceControllerTest {
                 .andExpect(jsonPath("$[0].competence.libelle").value("JAVA"))
                 .andExpect(jsonPath("$[1].competence.libelle").value("SPRING"));
 
-        verify(matriceCompetenceService, times(1)).getAllMatricesCompetences();
+        verify(matriceCompetenceService, times(1)).getAllMatricesCompetences(SelectionChamps.TOUS);
+    }
+
+    @Test
+    void testGetAllMatricesCompetences_FieldsInvalide() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/matrices-competences")
+                .param("fields", "personne,,note"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Champ invalide dans fields: ''"));
+
+        verify(matriceCompetenceService, never()).getAllMatricesCompetences(any(SelectionChamps.class));
+    }
+
+    @Test
+    void testGetMatricesCompetencesPage() throws Exception {
+        // Given
+        MatriceCompetence matrice = createMatriceCompetence("P123", "Dupont", "Jean", "SPRING", "Spring Framework", 4, "Avancé");
+        String curseur = PageCurseur.encoder("P123", "JAVA");
+        when(matriceCompetenceService.getMatricesCompetencesPage(curseur, 1))
+                .thenReturn(new PageCurseur<>(List.of(matrice), 1, null));
+
+        // When & Then
+        mockMvc.perform(get("/matrices-competences")
+                .param("taille", "1")
+                .param("curseur", curseur))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.elements[0].competence.libelle").value("SPRING"))
+                .andExpect(jsonPath("$.curseurSuivant").doesNotExist());
+
+        verify(matriceCompetenceService, never()).getAllMatricesCompetences(any(SelectionChamps.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExporterMatricesCompetences_Ndjson() throws Exception {
+        // Given
+        MatriceCompetence matrice1 = createMatriceCompetence("P123", "Dupont", "Jean", "JAVA", "Java Programming", 3, "Intermédiaire");
+        MatriceCompetence matrice2 = createMatriceCompetence("P124", "Martin", "Sophie", "JAVA", "Java Programming", 4, "Avancé");
+        doAnswer(invocation -> {
+            Consumer<MatriceCompetence> consommateur = invocation.getArgument(0);
+            consommateur.accept(matrice1);
+            consommateur.accept(matrice2);
+            return 2L;
+        }).when(matriceCompetenceService).exporterMatricesCompetences(any(Consumer.class));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/matrices-competences")
+                .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String contenu = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lignes = contenu.split("\n");
+        assertEquals(2, lignes.length);
+        assertEquals("P123", objectMapper.readTree(lignes[0]).at("/personne/identifiant").asText());
+        assertEquals("P124", objectMapper.readTree(lignes[1]).at("/personne/identifiant").asText());
+        verify(matriceCompetenceService, never()).getAllMatricesCompetences(any(SelectionChamps.class));
     }
 
     @Test
@@ -103,6 +176,38 @@ class MatriceCompetenceControllerTest {
         verify(matriceCompetenceService, times(1)).createMatriceCompetence("P123", "JAVA", 3);
     }
 
+    @Test
+    void testImporterMatricesCompetences() throws Exception {
+        // Given
+        MatriceCompetenceImportResultat resultat = new MatriceCompetenceImportResultat();
+        resultat.setTotal(2);
+        resultat.setCreees(2);
+        when(matriceCompetenceImportService.importer(any(InputStream.class))).thenReturn(resultat);
+
+        // When & Then
+        mockMvc.perform(post("/matrices-competences/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"personneId\":\"P123\",\"competenceId\":\"JAVA\",\"noteValeur\":3}\n"
+                        + "{\"personneId\":\"P124\",\"competenceId\":\"JAVA\",\"noteValeur\":4}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.creees").value(2));
+
+        verify(matriceCompetenceImportService, times(1)).importer(any(InputStream.class));
+    }
+
+    @Test
+    void testImporterMatricesCompetences_JsonInvalide() throws Exception {
+        // Given
+        when(matriceCompetenceImportService.importer(any(InputStream.class))).thenThrow(new IOException("JSON invalide"));
+
+        // When & Then
+        mockMvc.perform(post("/matrices-competences/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetMatriceCompetence() throws Exception {
         // Given
@@ -234,7 +339,7 @@ class MatriceCompetenceControllerTest {
             createMatriceCompetence(personneId, "Dupont", "Jean", "SPRING", "Spring Framework", 4, "Avancé")
         );
 
-        when(matriceCompetenceService.getCompetencesByPersonne(personneId)).thenReturn(matrices);
+        when(matriceCompetenceService.getCompetencesByPersonne(personneId, SelectionChamps.TOUS)).thenReturn(matrices);
 
         // When & Then
         mockMvc.perform(get("/matrices-competences/personnes/{personneId}", personneId)
@@ -244,7 +349,7 @@ class MatriceCompetenceControllerTest {
                 .andExpect(jsonPath("$[0].competence.libelle").value("JAVA"))
                 .andExpect(jsonPath("$[1].competence.libelle").value("SPRING"));
 
-        verify(matriceCompetenceService, times(1)).getCompetencesByPersonne(personneId);
+        verify(matriceCompetenceService, times(1)).getCompetencesByPersonne(personneId, SelectionChamps.TOUS);
     }
 
     @Test
@@ -252,7 +357,7 @@ class MatriceCompetenceControllerTest {
         // Given
         String personneId = "P999";
 
-        when(matriceCompetenceService.getCompetencesByPersonne(personneId))
+        when(matriceCompetenceService.getCompetencesByPersonne(personneId, SelectionChamps.TOUS))
                 .thenThrow(new RuntimeException("Personne non trouvée avec l'identifiant: " + personneId));
 
         // When & Then
@@ -260,7 +365,7 @@ class MatriceCompetenceControllerTest {
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(matriceCompetenceService, times(1)).getCompetencesByPersonne(personneId);
+        verify(matriceCompetenceService, times(1)).getCompetencesByPersonne(personneId, SelectionChamps.TOUS);
     }
 
     @Test
@@ -133,6 +133,23 @@ class NoteControllerTest {
         verify(noteService, times(1)).createNote(any(Note.class));
     }
 
+    @Test
+    void testCreateNote_ValeurHorsPlage() throws Exception {
+        // Given
+        NoteController.CreateNoteRequest request = new NoteController.CreateNoteRequest();
+        request.setValeur(200);
+        request.setLibelle("Hors plage");
+
+        when(noteService.createNote(any(Note.class)))
+                .thenThrow(new IllegalArgumentException("Valeur de note invalide: 200 (entre 0 et 126)"));
+
+        // When & Then
+        mockMvc.perform(post("/notes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testUpdateNote() throws Exception {
         // Given
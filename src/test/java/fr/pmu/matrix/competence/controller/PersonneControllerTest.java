@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.pmu.matrix.competence.domain.Equipe;
 import fr.pmu.matrix.competence.domain.Personne;
 import fr.pmu.matrix.competence.dto.CreatePersonneRequest;
+import fr.pmu.matrix.competence.dto.PageCurseur;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
 import fr.pmu.matrix.competence.dto.UpdatePersonneRequest;
 import fr.pmu.matrix.competence.service.PersonneService;
 import org.junit.jupiter.api.Test;
@@ -50,7 +52,7 @@ class PersonneControllerTest {
 
         List<Personne> personnes = Arrays.asList(personne1, personne2);
 
-        when(personneService.getAllPersonnes()).thenReturn(personnes);
+        when(personneService.getAllPersonnes(SelectionChamps.TOUS)).thenReturn(personnes);
 
         // When & Then
         mockMvc.perform(get("/personnes")
@@ -60,7 +62,56 @@ class PersonneControllerTest {
                 .andExpect(jsonPath("$[0].identifiant").value("P123"))
                 .andExpect(jsonPath("$[1].identifiant").value("P124"));
 
-        verify(personneService, times(1)).getAllPersonnes();
+        verify(personneService, times(1)).getAllPersonnes(SelectionChamps.TOUS);
+    }
+
+    @Test
+    void testGetAllPersonnes_FieldsInvalide() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/personnes")
+                .param("fields", "identifiant,,nom"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Champ invalide dans fields: ''"));
+
+        verify(personneService, never()).getAllPersonnes(any(SelectionChamps.class));
+    }
+
+    @Test
+    void testGetPersonnesPage() throws Exception {
+        // Given
+        Personne personne = new Personne();
+        personne.setIdentifiant("P124");
+        personne.setNom("Martin");
+        personne.setPrenom("Sophie");
+
+        String curseur = PageCurseur.encoder("P123");
+        String curseurSuivant = PageCurseur.encoder("P124");
+        when(personneService.getPersonnesPage(curseur, 1))
+                .thenReturn(new PageCurseur<>(List.of(personne), 1, curseurSuivant));
+
+        // When & Then
+        mockMvc.perform(get("/personnes")
+                .param("taille", "1")
+                .param("curseur", curseur))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.elements[0].identifiant").value("P124"))
+                .andExpect(jsonPath("$.taille").value(1))
+                .andExpect(jsonPath("$.curseurSuivant").value(curseurSuivant));
+
+        verify(personneService, never()).getAllPersonnes(any(SelectionChamps.class));
+    }
+
+    @Test
+    void testGetPersonnesPage_CurseurInvalide() throws Exception {
+        // Given
+        when(personneService.getPersonnesPage("invalide", 10))
+                .thenThrow(new IllegalArgumentException("Curseur de pagination invalide: invalide"));
+
+        // When & Then
+        mockMvc.perform(get("/personnes")
+                .param("taille", "10")
+                .param("curseur", "invalide"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -78,7 +129,7 @@ class PersonneControllerTest {
         equipe.setDescription("Équipe responsable du développement backend");
         personne.setEquipe(equipe);
 
-        when(personneService.getPersonneByIdentifiant("P123")).thenReturn(personne);
+        when(personneService.getPersonneByIdentifiant("P123", SelectionChamps.TOUS)).thenReturn(personne);
 
         // When & Then
         mockMvc.perform(get("/personnes/P123")
@@ -87,20 +138,20 @@ class PersonneControllerTest {
                 .andExpect(jsonPath("$.identifiant").value("P123"))
                 .andExpect(jsonPath("$.equipe.code").value("E001"));
 
-        verify(personneService, times(1)).getPersonneByIdentifiant("P123");
+        verify(personneService, times(1)).getPersonneByIdentifiant("P123", SelectionChamps.TOUS);
     }
 
     @Test
     void testGetPersonneByIdentifiant_NotFound() throws Exception {
         // Given
-        when(personneService.getPersonneByIdentifiant("P999")).thenThrow(new RuntimeException("Personne non trouvée"));
+        when(personneService.getPersonneByIdentifiant("P999", SelectionChamps.TOUS)).thenThrow(new RuntimeException("Personne non trouvée"));
 
         // When & Then
         mockMvc.perform(get("/personnes/P999")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(personneService, times(1)).getPersonneByIdentifiant("P999");
+        verify(personneService, times(1)).getPersonneByIdentifiant("P999", SelectionChamps.TOUS);
     }
 
     @Test
@@ -5,6 +5,7 @@ import fr.pmu.matrix.competence.domain.MatriceCompetence;
 import fr.pmu.matrix.competence.domain.Note;
 import fr.pmu.matrix.competence.domain.Personne;
 import fr.pmu.matrix.competence.domain.Profil;
+import fr.pmu.matrix.competence.dto.PageCurseur;
 import fr.pmu.matrix.competence.service.ProfileService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -164,4 +165,26 @@ public class ProfileControllerTest {
                 .andExpect(jsonPath("$[0].identifiant", is("P001")))
                 .andExpect(jsonPath("$[1].identifiant", is("P002")));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetPersonnesDisponiblesPage() throws Exception {
+        // Préparation des données de test
+        Personne personne = new Personne();
+        personne.setIdentifiant("P001");
+
+        Profil profil = new Profil();
+        profil.setPersonne(personne);
+        profil.setRapporteur("Manager1");
+
+        when(profileService.getPersonnesDisponiblesPage(null, 1))
+                .thenReturn(new PageCurseur<>(List.of(profil), 1, PageCurseur.encoder("1")));
+
+        // Exécution et vérification
+        mockMvc.perform(get("/profiles/personnes-disponibles")
+                .param("taille", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.elements", hasSize(1)))
+                .andExpect(jsonPath("$.elements[0].personne.identifiant", is("P001")))
+                .andExpect(jsonPath("$.curseurSuivant", is(PageCurseur.encoder("1"))));
+    }
+}
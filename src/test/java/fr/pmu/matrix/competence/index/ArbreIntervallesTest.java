@@ -0,0 +1,101 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.index.ArbreIntervalles.Intervalle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArbreIntervallesTest {
+
+    @Test
+    void testContenant_BornesIncluses() {
+        // Given
+        ArbreIntervalles<String> arbre = ArbreIntervalles.construire(Arrays.asList(
+                new Intervalle<>(10, 20, "A"),
+                new Intervalle<>(15, ArbreIntervalles.FIN_OUVERTE, "B"),
+                new Intervalle<>(ArbreIntervalles.DEBUT_OUVERT, 5, "C"),
+                new Intervalle<>(30, 25, "VIDE")));
+
+        // When & Then
+        assertEquals(3, arbre.taille());
+        assertEquals(Collections.singletonList("A"), trier(arbre.contenant(10)));
+        assertEquals(Arrays.asList("A", "B"), trier(arbre.contenant(20)));
+        assertEquals(Collections.singletonList("B"), trier(arbre.contenant(Long.MAX_VALUE)));
+        assertEquals(Collections.singletonList("C"), trier(arbre.contenant(Long.MIN_VALUE)));
+        assertTrue(arbre.contenant(7).isEmpty());
+    }
+
+    @Test
+    void testChevauchant() {
+        // Given
+        ArbreIntervalles<String> arbre = ArbreIntervalles.construire(Arrays.asList(
+                new Intervalle<>(10, 20, "A"),
+                new Intervalle<>(21, 30, "B"),
+                new Intervalle<>(40, 50, "C")));
+
+        // When & Then
+        assertEquals(Arrays.asList("A", "B"), trier(arbre.chevauchant(20, 21)));
+        assertEquals(Collections.singletonList("C"), trier(arbre.chevauchant(35, 40)));
+        assertTrue(arbre.chevauchant(31, 39).isEmpty());
+        assertTrue(arbre.chevauchant(30, 10).isEmpty());
+    }
+
+    @Test
+    void testArbreVide() {
+        // Given
+        ArbreIntervalles<String> arbre = ArbreIntervalles.construire(Collections.emptyList());
+
+        // When & Then
+        assertEquals(0, arbre.taille());
+        assertTrue(arbre.contenant(0).isEmpty());
+        assertTrue(arbre.chevauchant(Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void testRequetes_IdentiquesAuParcoursComplet() {
+        // Given
+        Random random = new Random(42);
+        List<Intervalle<Integer>> intervalles = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long debut = random.nextInt(10_000);
+            long fin = random.nextInt(10) == 0 ? ArbreIntervalles.FIN_OUVERTE : debut + random.nextInt(500);
+            intervalles.add(new Intervalle<>(debut, fin, i));
+        }
+        ArbreIntervalles<Integer> arbre = ArbreIntervalles.construire(intervalles);
+
+        for (int i = 0; i < 500; i++) {
+            long a = random.nextInt(11_000) - 500;
+            long b = a + random.nextInt(300);
+
+            // When
+            List<Integer> contenant = trier(arbre.contenant(a));
+            List<Integer> chevauchant = trier(arbre.chevauchant(a, b));
+
+            // Then
+            List<Integer> attenduContenant = new ArrayList<>();
+            List<Integer> attenduChevauchant = new ArrayList<>();
+            for (Intervalle<Integer> intervalle : intervalles) {
+                if (intervalle.debut() <= a && a <= intervalle.fin()) {
+                    attenduContenant.add(intervalle.valeur());
+                }
+                if (intervalle.debut() <= b && a <= intervalle.fin()) {
+                    attenduChevauchant.add(intervalle.valeur());
+                }
+            }
+            assertEquals(attenduContenant, contenant);
+            assertEquals(attenduChevauchant, chevauchant);
+        }
+    }
+
+    private static <T extends Comparable<T>> List<T> trier(List<T> valeurs) {
+        List<T> triees = new ArrayList<>(valeurs);
+        Collections.sort(triees);
+        return triees;
+    }
+}
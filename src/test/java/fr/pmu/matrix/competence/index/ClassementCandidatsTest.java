@@ -0,0 +1,137 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.index.ClassementCandidats.Candidat;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassementCandidatsTest {
+
+    @Test
+    void testClasser_ScoreEtOrdre() {
+        // Given
+        MatriceCompetenceSnapshot snapshot = MatriceCompetenceSnapshot.construire(
+                Arrays.asList(personne("P001"), personne("P002"), personne("P003"), personne("P004")),
+                Arrays.asList(new CompetenceEntity("JAVA", "Java"), new CompetenceEntity("SQL", "SQL")),
+                List.of(),
+                Arrays.asList(
+                        // P001 : couvre JAVA, moitié du niveau en SQL
+                        new NoteMatriceProjection("P001", "JAVA", 4),
+                        new NoteMatriceProjection("P001", "SQL", 1),
+                        // P002 : couvre tout
+                        new NoteMatriceProjection("P002", "JAVA", 3),
+                        new NoteMatriceProjection("P002", "SQL", 2),
+                        // P003 : même profil que P001
+                        new NoteMatriceProjection("P003", "JAVA", 4),
+                        new NoteMatriceProjection("P003", "SQL", 1)));
+        int[] competences = {snapshot.ordinalCompetence("JAVA"), snapshot.ordinalCompetence("SQL")};
+
+        // When
+        List<Candidat> candidats = ClassementCandidats.classer(snapshot, competences, new int[] {3, 2}, null, 3);
+
+        // Then
+        assertEquals(3, candidats.size());
+        assertEquals("P002", snapshot.identifiantPersonne(candidats.get(0).personne()));
+        assertEquals(1.0, candidats.get(0).score(), 1e-9);
+        assertEquals(2, candidats.get(0).competencesCouvertes());
+        // À score égal, l'ordre des identifiants départage
+        assertEquals("P001", snapshot.identifiantPersonne(candidats.get(1).personne()));
+        assertEquals("P003", snapshot.identifiantPersonne(candidats.get(2).personne()));
+        assertEquals(0.6 * 1 / 2 + 0.4 * 1.5 / 2, candidats.get(1).score(), 1e-9);
+        assertEquals(1, candidats.get(1).competencesCouvertes());
+    }
+
+    @Test
+    void testClasser_EligiblesEtCompetenceInconnue() {
+        // Given
+        MatriceCompetenceSnapshot snapshot = MatriceCompetenceSnapshot.construire(
+                Arrays.asList(personne("P001"), personne("P002")),
+                List.of(new CompetenceEntity("JAVA", "Java")),
+                List.of(),
+                Arrays.asList(
+                        new NoteMatriceProjection("P001", "JAVA", 4),
+                        new NoteMatriceProjection("P002", "JAVA", 2)));
+        BitSet eligibles = new BitSet();
+        eligibles.set(snapshot.ordinalPersonne("P002"));
+
+        // When
+        List<Candidat> candidats = ClassementCandidats.classer(snapshot,
+                new int[] {snapshot.ordinalCompetence("JAVA"), -1}, new int[] {4, 3}, eligibles, 10);
+
+        // Then
+        assertEquals(1, candidats.size());
+        assertEquals("P002", snapshot.identifiantPersonne(candidats.get(0).personne()));
+        assertEquals(0.4 * 0.5 / 2, candidats.get(0).score(), 1e-9);
+        assertEquals(0, candidats.get(0).competencesCouvertes());
+    }
+
+    @Test
+    void testClasser_SansCompetenceRequise() {
+        // Given
+        MatriceCompetenceSnapshot snapshot = MatriceCompetenceSnapshot.construire(
+                List.of(personne("P001")), List.of(), List.of(), List.of());
+
+        // When & Then
+        assertTrue(ClassementCandidats.classer(snapshot, new int[0], new int[0], null, 5).isEmpty());
+    }
+
+    @Test
+    void testClasser_GrandeMatrice() {
+        // Given : 50 000 personnes × 500 compétences, 10 compétences requises
+        int nbPersonnes = 50_000;
+        int nbCompetences = 500;
+        List<PersonneEntity> personnes = new ArrayList<>(nbPersonnes);
+        for (int p = 0; p < nbPersonnes; p++) {
+            personnes.add(personne("P" + (100_000 + p)));
+        }
+        List<CompetenceEntity> competences = new ArrayList<>(nbCompetences);
+        for (int c = 0; c < nbCompetences; c++) {
+            competences.add(new CompetenceEntity("C" + (1_000 + c), null));
+        }
+        List<NoteMatriceProjection> lignes = new ArrayList<>();
+        for (int p = 0; p < nbPersonnes; p++) {
+            for (int c = p % 7; c < 70; c += 7) {
+                lignes.add(new NoteMatriceProjection("P" + (100_000 + p), "C" + (1_000 + c), (p + c) % 5));
+            }
+        }
+        MatriceCompetenceSnapshot snapshot = MatriceCompetenceSnapshot.construire(
+                personnes, competences, List.of(new NoteEntity(0, "Aucune")), lignes);
+        int[] requises = {0, 7, 14, 21, 28, 35, 42, 49, 56, 63};
+        int[] notes = {3, 3, 3, 3, 3, 3, 3, 3, 3, 3};
+        ClassementCandidats.classer(snapshot, requises, notes, null, 20);
+
+        // When
+        long debut = System.nanoTime();
+        List<Candidat> candidats = ClassementCandidats.classer(snapshot, requises, notes, null, 20);
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+
+        // Then
+        assertEquals(20, candidats.size());
+        for (int i = 1; i < candidats.size(); i++) {
+            assertTrue(candidats.get(i - 1).score() >= candidats.get(i).score());
+        }
+        // Seules les personnes p ≡ 0 (mod 7) sont évaluées sur les compétences requises
+        for (Candidat candidat : candidats) {
+            assertEquals(0, candidat.personne() % 7);
+        }
+        // Marge large pour les machines d'intégration, la cible est bien en dessous de 100 ms
+        assertTrue(dureeMs < 1000, "Classement trop lent: " + dureeMs + " ms");
+    }
+
+    private PersonneEntity personne(String identifiant) {
+        PersonneEntity entity = new PersonneEntity();
+        entity.setIdentifiant(identifiant);
+        entity.setNom("Nom " + identifiant);
+        entity.setPrenom("Prénom " + identifiant);
+        return entity;
+    }
+}
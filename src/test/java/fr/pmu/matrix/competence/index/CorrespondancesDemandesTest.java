@@ -0,0 +1,234 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.index.CorrespondancesDemandes.Evenement;
+import fr.pmu.matrix.competence.index.CorrespondancesDemandes.TypeEvenement;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CorrespondancesDemandesTest {
+
+    private static final int JAVA = 0;
+    private static final int SQL = 1;
+
+    @Mock
+    private IndexCompetencesDemandes indexCompetencesDemandes;
+
+    @Mock
+    private IndexPeriodes indexPeriodes;
+
+    @Mock
+    private MatriceCompetenceStore matriceCompetenceStore;
+
+    private CorrespondancesDemandes correspondances;
+    private MatriceCompetenceSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        correspondances = new CorrespondancesDemandes(indexCompetencesDemandes, indexPeriodes, matriceCompetenceStore, 100);
+        // D1 : JAVA >= 3 et SQL >= 2 ; D2 : JAVA >= 4 ; D3 (inactive) : JAVA >= 1
+        lenient().when(indexCompetencesDemandes.competencesRequises("D1")).thenReturn(Map.of("JAVA", 3, "SQL", 2));
+        lenient().when(indexCompetencesDemandes.competencesRequises("D2")).thenReturn(Map.of("JAVA", 4));
+        lenient().when(indexCompetencesDemandes.demandesRequerant("JAVA")).thenReturn(Arrays.asList("D1", "D2", "D3"));
+        lenient().when(indexCompetencesDemandes.demandesRequerant("SQL")).thenReturn(Collections.singletonList("D1"));
+        lenient().when(indexPeriodes.demandesActives(any(Date.class))).thenReturn(Arrays.asList("D1", "D2"));
+        lenient().when(indexPeriodes.demandeActive(anyString(), any(Date.class)))
+                .thenAnswer(invocation -> !"D3".equals(invocation.getArgument(0)));
+
+        snapshot = MatriceCompetenceSnapshot.construire(
+                Arrays.asList(createPersonneEntity("P001"), createPersonneEntity("P002"), createPersonneEntity("P003")),
+                Arrays.asList(new CompetenceEntity("JAVA", "Java"), new CompetenceEntity("SQL", "SQL")),
+                List.of(),
+                Arrays.asList(
+                        new NoteMatriceProjection("P001", "JAVA", 3),
+                        new NoteMatriceProjection("P002", "JAVA", 4),
+                        new NoteMatriceProjection("P002", "SQL", 2)));
+        lenient().when(matriceCompetenceStore.getSnapshot()).thenAnswer(invocation -> snapshot);
+    }
+
+    @Test
+    void testNoteModifiee_MiseAJourIncrementale() {
+        // Given
+        assertEquals(List.of("P002"), correspondances.personnes("D1"));
+        assertEquals(List.of("P002"), correspondances.personnes("D2"));
+        assertTrue(correspondances.personnes("D3").isEmpty());
+
+        // When : P001 atteint SQL 2, P002 redescend à JAVA 3
+        snapshot = snapshot.avecNote(0, SQL, 2);
+        correspondances.noteModifiee("P001", "SQL");
+        snapshot = snapshot.avecNote(1, JAVA, 3);
+        correspondances.noteModifiee("P002", "JAVA");
+
+        // Then
+        assertEquals(Arrays.asList("P001", "P002"), correspondances.personnes("D1"));
+        assertTrue(correspondances.personnes("D2").isEmpty());
+        assertEquals(2, correspondances.derniereSequence());
+        List<Evenement> d1 = correspondances.evenements("D1", 0);
+        assertEquals(1, d1.size());
+        assertEquals("P001", d1.get(0).personneId());
+        assertEquals(TypeEvenement.SATISFAITE, d1.get(0).type());
+        List<Evenement> d2 = correspondances.evenements("D2", 0);
+        assertEquals(1, d2.size());
+        assertEquals(2, d2.get(0).sequence());
+        assertEquals(TypeEvenement.PERDUE, d2.get(0).type());
+        assertTrue(correspondances.evenements("D1", 1).isEmpty());
+        // La demande inactive D3 n'est jamais évaluée
+        verify(indexCompetencesDemandes, never()).competencesRequises("D3");
+    }
+
+    @Test
+    void testNotesModifiees_UneEvaluationParDemande() {
+        // Given
+        correspondances.personnes("D1");
+
+        // When : un lot de trois notes touchant D1 par ses deux compétences
+        snapshot = snapshot.avecNotes(List.of(new int[] {0, SQL, 2}, new int[] {2, JAVA, 5}, new int[] {2, SQL, 2}));
+        correspondances.notesModifiees(List.of(
+                new NoteMatriceProjection("P001", "SQL", 2),
+                new NoteMatriceProjection("P003", "JAVA", 5),
+                new NoteMatriceProjection("P003", "SQL", 2)));
+
+        // Then
+        assertEquals(Arrays.asList("P001", "P002", "P003"), correspondances.personnes("D1"));
+        assertEquals(Arrays.asList("P002", "P003"), correspondances.personnes("D2"));
+        assertEquals(2, correspondances.evenements("D1", 0).size());
+        // Les demandes actives ne sont listées qu'au chargement, pas à chaque note du lot
+        verify(indexPeriodes, times(1)).demandesActives(any(Date.class));
+        verify(indexPeriodes, times(1)).demandeActive(eq("D3"), any(Date.class));
+    }
+
+    @Test
+    void testPersonnes_DemandeExpireeApresChargement() {
+        // Given
+        assertEquals(List.of("P002"), correspondances.personnes("D2"));
+
+        // When : D2 arrive à échéance
+        when(indexPeriodes.demandeActive(eq("D2"), any(Date.class))).thenReturn(false);
+
+        // Then
+        assertTrue(correspondances.personnes("D2").isEmpty());
+        List<Evenement> evenements = correspondances.evenements("D2", 0);
+        assertEquals(1, evenements.size());
+        assertEquals("P002", evenements.get(0).personneId());
+        assertEquals(TypeEvenement.PERDUE, evenements.get(0).type());
+
+        // Une note sur JAVA ne la réévalue plus
+        snapshot = snapshot.avecNote(0, JAVA, 5);
+        correspondances.noteModifiee("P001", "JAVA");
+        assertTrue(correspondances.personnes("D2").isEmpty());
+        assertEquals(1, correspondances.evenements("D2", 0).size());
+    }
+
+    @Test
+    void testPersonnes_DemandeCommenceeApresChargement() {
+        // Given : D4 (JAVA >= 4) n'était pas active au chargement
+        when(indexCompetencesDemandes.competencesRequises("D4")).thenReturn(Map.of("JAVA", 4));
+        correspondances.personnes("D1");
+
+        // When : sa période a commencé depuis
+        List<String> personnes = correspondances.personnes("D4");
+
+        // Then
+        assertEquals(List.of("P002"), personnes);
+        List<Evenement> evenements = correspondances.evenements("D4", 0);
+        assertEquals(1, evenements.size());
+        assertEquals("P002", evenements.get(0).personneId());
+        assertEquals(TypeEvenement.SATISFAITE, evenements.get(0).type());
+        // Une seconde lecture ne republie rien
+        assertEquals(List.of("P002"), correspondances.personnes("D4"));
+        assertEquals(1, correspondances.evenements("D4", 0).size());
+    }
+
+    @Test
+    void testNoteModifiee_DemandeCommenceeApresChargement() {
+        // Given : D4 (JAVA >= 4) n'était pas active au chargement
+        when(indexCompetencesDemandes.competencesRequises("D4")).thenReturn(Map.of("JAVA", 4));
+        when(indexCompetencesDemandes.demandesRequerant("JAVA")).thenReturn(Arrays.asList("D1", "D2", "D4"));
+        correspondances.personnes("D1");
+
+        // When : P001 atteint JAVA 4
+        snapshot = snapshot.avecNote(0, JAVA, 4);
+        correspondances.noteModifiee("P001", "JAVA");
+
+        // Then : toutes ses correspondances sont publiées, pas seulement celle de P001
+        List<Evenement> evenements = correspondances.evenements("D4", 0);
+        assertEquals(Arrays.asList("P001", "P002"), evenements.stream().map(Evenement::personneId).toList());
+        assertTrue(evenements.stream().allMatch(evenement -> evenement.type() == TypeEvenement.SATISFAITE));
+        assertEquals(Arrays.asList("P001", "P002"), correspondances.personnes("D4"));
+    }
+
+    @Test
+    void testNoteModifiee_AvantChargement() {
+        // When
+        correspondances.noteModifiee("P001", "SQL");
+
+        // Then
+        assertEquals(0, correspondances.derniereSequence());
+        verifyNoInteractions(indexCompetencesDemandes);
+    }
+
+    @Test
+    void testDemandeModifiee_PublieLesDifferences() {
+        // Given
+        correspondances.personnes("D1");
+        when(indexCompetencesDemandes.competencesRequises("D1")).thenReturn(Map.of("JAVA", 3));
+
+        // When
+        correspondances.demandeModifiee("D1");
+
+        // Then
+        assertEquals(Arrays.asList("P001", "P002"), correspondances.personnes("D1"));
+        List<Evenement> evenements = correspondances.evenements("D1", 0);
+        assertEquals(1, evenements.size());
+        assertEquals("P001", evenements.get(0).personneId());
+    }
+
+    @Test
+    void testEvenements_TamponCirculaire() {
+        // Given
+        correspondances = new CorrespondancesDemandes(indexCompetencesDemandes, indexPeriodes, matriceCompetenceStore, 2);
+        correspondances.personnes("D2");
+
+        // When : trois changements successifs pour P001 sur D2
+        snapshot = snapshot.avecNote(0, JAVA, 4);
+        correspondances.noteModifiee("P001", "JAVA");
+        snapshot = snapshot.avecNote(0, JAVA, 3);
+        correspondances.noteModifiee("P001", "JAVA");
+        snapshot = snapshot.avecNote(0, JAVA, 5);
+        correspondances.noteModifiee("P001", "JAVA");
+
+        // Then : seuls les deux derniers événements sont conservés
+        List<Evenement> evenements = correspondances.evenements("D2", 0);
+        assertEquals(2, evenements.size());
+        assertEquals(2, evenements.get(0).sequence());
+        assertEquals(TypeEvenement.PERDUE, evenements.get(0).type());
+        assertEquals(3, evenements.get(1).sequence());
+        assertEquals(TypeEvenement.SATISFAITE, evenements.get(1).type());
+    }
+
+    private PersonneEntity createPersonneEntity(String id) {
+        PersonneEntity entity = new PersonneEntity();
+        entity.setIdentifiant(id);
+        entity.setNom("Nom " + id);
+        entity.setPrenom("Prénom " + id);
+        return entity;
+    }
+}
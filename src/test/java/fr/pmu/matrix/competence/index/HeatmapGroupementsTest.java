@@ -0,0 +1,132 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.repository.EquipeRepository;
+import fr.pmu.matrix.competence.repository.MatriceCompetenceRepository;
+import fr.pmu.matrix.competence.repository.PersonneRepository;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import fr.pmu.matrix.competence.repository.projection.RattachementProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HeatmapGroupementsTest {
+
+    @Mock
+    private PersonneRepository personneRepository;
+
+    @Mock
+    private EquipeRepository equipeRepository;
+
+    @Mock
+    private MatriceCompetenceRepository matriceCompetenceRepository;
+
+    private HeatmapGroupements heatmap;
+
+    @BeforeEach
+    void setUp() {
+        heatmap = new HeatmapGroupements(personneRepository, equipeRepository, matriceCompetenceRepository);
+        // G1 : EQ1 (P001, P002) et EQ2 (P003) ; G2 : EQ3 (sans membre) ; P004 sans équipe
+        when(equipeRepository.findAllRattachements()).thenReturn(Arrays.asList(
+                new RattachementProjection("EQ1", "G1"),
+                new RattachementProjection("EQ2", "G1"),
+                new RattachementProjection("EQ3", "G2")));
+        when(personneRepository.findAllRattachements()).thenReturn(Arrays.asList(
+                new RattachementProjection("P001", "EQ1"),
+                new RattachementProjection("P002", "EQ1"),
+                new RattachementProjection("P003", "EQ2"),
+                new RattachementProjection("P004", null)));
+        when(matriceCompetenceRepository.findAllNotes()).thenReturn(Arrays.asList(
+                new NoteMatriceProjection("P001", "JAVA", 3),
+                new NoteMatriceProjection("P002", "JAVA", 3),
+                new NoteMatriceProjection("P003", "JAVA", 1),
+                new NoteMatriceProjection("P003", "SQL", 2),
+                new NoteMatriceProjection("P004", "JAVA", 4)));
+    }
+
+    @Test
+    void testRepartition_Chargement() {
+        // When
+        Map<String, Map<Integer, Integer>> repartition = heatmap.repartition("G1");
+
+        // Then
+        assertEquals(List.of("JAVA", "SQL"), List.copyOf(repartition.keySet()));
+        assertEquals(Map.of(1, 1, 3, 2), repartition.get("JAVA"));
+        assertEquals(Map.of(2, 1), repartition.get("SQL"));
+        assertTrue(heatmap.repartition("G2").isEmpty());
+        assertTrue(heatmap.repartition("INCONNU").isEmpty());
+    }
+
+    @Test
+    void testNoterEtRetirer() {
+        // When
+        heatmap.noter("P001", "JAVA", 4);
+        heatmap.noter("P002", "SQL", 2);
+        heatmap.retirer("P003", "JAVA");
+        heatmap.noter("P004", "SQL", 1);
+
+        // Then
+        Map<String, Map<Integer, Integer>> repartition = heatmap.repartition("G1");
+        assertEquals(Map.of(3, 1, 4, 1), repartition.get("JAVA"));
+        assertEquals(Map.of(2, 2), repartition.get("SQL"));
+        verify(matriceCompetenceRepository, times(1)).findAllNotes();
+    }
+
+    @Test
+    void testChangerEquipe_DeplaceLesNotes() {
+        // When
+        heatmap.changerEquipe("P003", "EQ3");
+        heatmap.changerEquipe("P004", "EQ1");
+
+        // Then
+        assertEquals(Map.of(3, 2, 4, 1), heatmap.repartition("G1").get("JAVA"));
+        assertNull(heatmap.repartition("G1").get("SQL"));
+        assertEquals(Map.of(1, 1), heatmap.repartition("G2").get("JAVA"));
+        assertEquals(Map.of(2, 1), heatmap.repartition("G2").get("SQL"));
+        verify(matriceCompetenceRepository, times(1)).findAllNotes();
+    }
+
+    @Test
+    void testChangerGroupement_DeplaceLesHistogrammes() {
+        // When
+        heatmap.changerGroupement("EQ1", "G2");
+
+        // Then
+        assertEquals(Map.of(1, 1), heatmap.repartition("G1").get("JAVA"));
+        assertEquals(Map.of(3, 2), heatmap.repartition("G2").get("JAVA"));
+    }
+
+    @Test
+    void testNouvellesPersonneEtEquipe_SansRechargement() {
+        // When
+        heatmap.changerGroupement("EQ4", "G2");
+        heatmap.changerEquipe("P005", "EQ4");
+        heatmap.noter("P005", "JAVA", 2);
+
+        // Then
+        assertEquals(Map.of(2, 1), heatmap.repartition("G2").get("JAVA"));
+        verify(matriceCompetenceRepository, times(1)).findAllNotes();
+    }
+
+    @Test
+    void testPersonneInconnue_Recharge() {
+        // Given
+        heatmap.repartition("G1");
+
+        // When
+        heatmap.noter("P999", "JAVA", 2);
+        heatmap.repartition("G1");
+
+        // Then
+        verify(matriceCompetenceRepository, times(2)).findAllNotes();
+    }
+}
@@ -0,0 +1,168 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.index.IndexCompetencesDemandes.Terme;
+import fr.pmu.matrix.competence.repository.DemandeRepository;
+import fr.pmu.matrix.competence.repository.projection.CompetenceRequiseProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndexCompetencesDemandesTest {
+
+    @Mock
+    private DemandeRepository demandeRepository;
+
+    private IndexCompetencesDemandes index;
+
+    @BeforeEach
+    void setUp() {
+        index = new IndexCompetencesDemandes(demandeRepository);
+    }
+
+    @Test
+    void testToutesEtAuMoinsUne() {
+        // Given
+        when(demandeRepository.findAllCompetencesRequises()).thenReturn(Arrays.asList(
+                new CompetenceRequiseProjection("D1", "JAVA", 4),
+                new CompetenceRequiseProjection("D1", "SPRING", 2),
+                new CompetenceRequiseProjection("D2", "JAVA", 2),
+                new CompetenceRequiseProjection("D3", "SPRING", 5),
+                new CompetenceRequiseProjection("D3", "JAVA", 5),
+                new CompetenceRequiseProjection("D3", "COBOL", 1)));
+        List<Terme> javaEtSpring = Arrays.asList(new Terme("JAVA", 0), new Terme("SPRING", 0));
+
+        // When & Then
+        assertEquals(Arrays.asList("D1", "D3"), index.toutes(javaEtSpring, Collections.emptyList()));
+        assertEquals(Arrays.asList("D1", "D2", "D3"), index.auMoinsUne(javaEtSpring, Collections.emptyList()));
+        assertEquals(Collections.singletonList("D3"),
+                index.toutes(Arrays.asList(new Terme("JAVA", 4), new Terme("SPRING", 3)), Collections.emptyList()));
+        assertEquals(Collections.singletonList("D1"), index.toutes(javaEtSpring, Collections.singletonList("COBOL")));
+        assertEquals(Collections.singletonList("D2"),
+                index.auMoinsUne(Collections.singletonList(new Terme("JAVA", 0)), Arrays.asList("SPRING", "COBOL")));
+        assertTrue(index.toutes(Arrays.asList(new Terme("JAVA", 0), new Terme("INCONNUE", 0)), Collections.emptyList()).isEmpty());
+        verify(demandeRepository, times(1)).findAllCompetencesRequises();
+    }
+
+    @Test
+    void testIndexerEtRetirer() {
+        // Given
+        when(demandeRepository.findAllCompetencesRequises()).thenReturn(new ArrayList<>(Arrays.asList(
+                new CompetenceRequiseProjection("D1", "JAVA", 4),
+                new CompetenceRequiseProjection("D2", "JAVA", 2))));
+
+        // When : D2 ne requiert plus JAVA mais SQL, D0 est créée
+        index.indexer("D2", Map.of("SQL", 3));
+        index.indexer("D0", Map.of("JAVA", 5, "SQL", 1));
+        index.retirer("D1");
+
+        // Then
+        List<Terme> java = Collections.singletonList(new Terme("JAVA", 0));
+        assertEquals(Collections.singletonList("D0"), index.auMoinsUne(java, Collections.emptyList()));
+        assertEquals(Arrays.asList("D0", "D2"),
+                index.auMoinsUne(Collections.singletonList(new Terme("SQL", 0)), Collections.emptyList()));
+        assertEquals(Collections.singletonList("D2"),
+                index.toutes(Collections.singletonList(new Terme("SQL", 2)), Collections.emptyList()));
+    }
+
+    @Test
+    void testIndexerEtRetirerUneCompetence() {
+        // Given
+        when(demandeRepository.findAllCompetencesRequises()).thenReturn(Arrays.asList(
+                new CompetenceRequiseProjection("D1", "JAVA", 4),
+                new CompetenceRequiseProjection("D1", "SPRING", 2),
+                new CompetenceRequiseProjection("D2", "JAVA", 2)));
+
+        // When : la note JAVA de D1 baisse, D2 ne requiert plus JAVA mais SQL
+        index.indexerCompetence("D1", "JAVA", 3);
+        index.indexerCompetence("D2", "SQL", 3);
+        index.retirerCompetence("D2", "JAVA");
+        index.retirerCompetence("D2", "INCONNUE");
+
+        // Then
+        assertEquals(Map.of("JAVA", 3, "SPRING", 2), index.competencesRequises("D1"));
+        assertEquals(Map.of("SQL", 3), index.competencesRequises("D2"));
+        assertEquals(Collections.singletonList("D1"), index.demandesRequerant("JAVA"));
+        assertTrue(index.toutes(Collections.singletonList(new Terme("JAVA", 4)), Collections.emptyList()).isEmpty());
+
+        // When : D2 ne requiert plus aucune compétence
+        index.retirerCompetence("D2", "SQL");
+
+        // Then
+        assertTrue(index.competencesRequises("D2").isEmpty());
+        assertTrue(index.demandesRequerant("SQL").isEmpty());
+    }
+
+    @Test
+    void testRecherches_IdentiquesAuParcoursComplet() {
+        // Given
+        Random random = new Random(7);
+        String[] competences = {"C0", "C1", "C2", "C3", "C4"};
+        List<CompetenceRequiseProjection> lignes = new ArrayList<>();
+        Map<String, Map<String, Integer>> attendu = new HashMap<>();
+        for (int d = 0; d < 500; d++) {
+            String demande = String.format("D%04d", random.nextInt(10_000));
+            for (String competence : competences) {
+                if (random.nextInt(3) == 0) {
+                    int note = random.nextInt(6);
+                    lignes.add(new CompetenceRequiseProjection(demande, competence, note));
+                    attendu.computeIfAbsent(demande, k -> new HashMap<>()).merge(competence, note, Math::max);
+                }
+            }
+        }
+        when(demandeRepository.findAllCompetencesRequises()).thenReturn(lignes);
+
+        for (int i = 0; i < 100; i++) {
+            List<Terme> termes = new ArrayList<>();
+            Set<String> choisies = new HashSet<>();
+            for (int t = 0; t < 1 + random.nextInt(3); t++) {
+                String competence = competences[random.nextInt(competences.length)];
+                if (choisies.add(competence)) {
+                    termes.add(new Terme(competence, random.nextInt(6)));
+                }
+            }
+            List<String> exclues = random.nextBoolean() ? Collections.emptyList()
+                    : Collections.singletonList(competences[random.nextInt(competences.length)]);
+
+            // When
+            List<String> toutes = index.toutes(termes, exclues);
+            List<String> auMoinsUne = index.auMoinsUne(termes, exclues);
+
+            // Then
+            TreeSet<String> attenduToutes = new TreeSet<>();
+            TreeSet<String> attenduAuMoinsUne = new TreeSet<>();
+            for (Map.Entry<String, Map<String, Integer>> demande : attendu.entrySet()) {
+                Map<String, Integer> notes = demande.getValue();
+                if (exclues.stream().anyMatch(notes::containsKey)) {
+                    continue;
+                }
+                boolean tout = termes.stream().allMatch(terme -> notes.getOrDefault(terme.competence(), -1) >= terme.noteMinimale());
+                boolean une = termes.stream().anyMatch(terme -> notes.getOrDefault(terme.competence(), -1) >= terme.noteMinimale());
+                if (tout) {
+                    attenduToutes.add(demande.getKey());
+                }
+                if (une) {
+                    attenduAuMoinsUne.add(demande.getKey());
+                }
+            }
+            assertEquals(new ArrayList<>(attenduToutes), toutes);
+            assertEquals(new ArrayList<>(attenduAuMoinsUne), auMoinsUne);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.repository.AbsenceRepository;
+import fr.pmu.matrix.competence.repository.DemandeRepository;
+import fr.pmu.matrix.competence.repository.ProfilRepository;
+import fr.pmu.matrix.competence.repository.projection.PeriodeDemandeProjection;
+import fr.pmu.matrix.competence.repository.projection.PeriodePersonneProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndexPeriodesTest {
+
+    private static final long JOUR = 24L * 60 * 60 * 1000;
+
+    @Mock
+    private DemandeRepository demandeRepository;
+
+    @Mock
+    private ProfilRepository profilRepository;
+
+    @Mock
+    private AbsenceRepository absenceRepository;
+
+    private IndexPeriodes indexPeriodes;
+
+    @BeforeEach
+    void setUp() {
+        indexPeriodes = new IndexPeriodes(demandeRepository, profilRepository, absenceRepository);
+    }
+
+    @Test
+    void testDemandesActives_BornesInclusesEtFinOuverte() {
+        // Given
+        when(demandeRepository.findAllPeriodes()).thenReturn(Arrays.asList(
+                new PeriodeDemandeProjection("D1", jour(1), jour(10)),
+                new PeriodeDemandeProjection("D2", jour(5), null),
+                new PeriodeDemandeProjection("D3", jour(20), jour(30))));
+
+        // When & Then
+        assertEquals(Arrays.asList("D1", "D2"), trier(indexPeriodes.demandesActives(jour(10))));
+        assertEquals(Collections.singletonList("D1"), trier(indexPeriodes.demandesActives(jour(1))));
+        assertEquals(Arrays.asList("D2", "D3"), trier(indexPeriodes.demandesActives(jour(25))));
+        assertTrue(indexPeriodes.demandesActives(jour(0)).isEmpty());
+        assertEquals(Arrays.asList("D1", "D2", "D3"), trier(indexPeriodes.demandesChevauchant(jour(8), jour(20))));
+        assertTrue(indexPeriodes.demandeActive("D1", jour(10)));
+        assertFalse(indexPeriodes.demandeActive("D1", new Date(jour(10).getTime() + 1)));
+        assertTrue(indexPeriodes.demandeActive("D2", jour(1000)));
+        assertFalse(indexPeriodes.demandeActive("D3", jour(19)));
+        assertFalse(indexPeriodes.demandeActive("D4", jour(10)));
+        verify(demandeRepository, times(1)).findAllPeriodes();
+    }
+
+    @Test
+    void testProfilsDisponibles_BornesExclues() {
+        // Given
+        when(profilRepository.findAllPeriodes()).thenReturn(Arrays.asList(
+                new PeriodePersonneProjection(1L, "P001", jour(1), jour(10)),
+                new PeriodePersonneProjection(2L, "P002", null, null),
+                new PeriodePersonneProjection(3L, "P001", jour(5), null)));
+
+        // When & Then
+        assertEquals(Collections.singletonList(2L), trier(indexPeriodes.profilsDisponibles(jour(1))));
+        assertEquals(Arrays.asList(1L, 2L), trier(indexPeriodes.profilsDisponibles(jour(2))));
+        assertEquals(Arrays.asList(2L, 3L), trier(indexPeriodes.profilsDisponibles(jour(10))));
+        assertEquals(Set.of("P001", "P002"), indexPeriodes.personnesDisponibles(jour(6)));
+    }
+
+    @Test
+    void testPersonnesAbsentes() {
+        // Given
+        when(absenceRepository.findAllPeriodes()).thenReturn(Arrays.asList(
+                new PeriodePersonneProjection(1L, "P001", jour(1), jour(3)),
+                new PeriodePersonneProjection(2L, "P001", jour(3), jour(5)),
+                new PeriodePersonneProjection(3L, "P002", jour(10), jour(12))));
+
+        // When & Then
+        assertEquals(Set.of("P001"), indexPeriodes.personnesAbsentes(jour(3)));
+        assertTrue(indexPeriodes.personnesAbsentes(jour(7)).isEmpty());
+        assertEquals(Set.of("P001", "P002"), indexPeriodes.personnesAbsentesEntre(jour(5), jour(10)));
+    }
+
+    @Test
+    void testInvalider_ReconstruitSeulementLArbreConcerne() {
+        // Given
+        when(demandeRepository.findAllPeriodes())
+                .thenReturn(Collections.singletonList(new PeriodeDemandeProjection("D1", jour(1), null)))
+                .thenReturn(Arrays.asList(
+                        new PeriodeDemandeProjection("D1", jour(1), null),
+                        new PeriodeDemandeProjection("D2", jour(2), null)));
+        when(absenceRepository.findAllPeriodes()).thenReturn(Collections.emptyList());
+        indexPeriodes.demandesActives(jour(3));
+        indexPeriodes.personnesAbsentes(jour(3));
+
+        // When
+        indexPeriodes.invaliderDemandes();
+
+        // Then
+        assertEquals(Arrays.asList("D1", "D2"), trier(indexPeriodes.demandesActives(jour(3))));
+        indexPeriodes.personnesAbsentes(jour(3));
+        verify(demandeRepository, times(2)).findAllPeriodes();
+        verify(absenceRepository, times(1)).findAllPeriodes();
+        verifyNoInteractions(profilRepository);
+    }
+
+    private static Date jour(int n) {
+        return new Date(n * JOUR);
+    }
+
+    private static <T extends Comparable<T>> List<T> trier(List<T> valeurs) {
+        List<T> triees = new ArrayList<>(valeurs);
+        Collections.sort(triees);
+        return triees;
+    }
+}
@@ -0,0 +1,118 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.repository.MatriceCompetenceRepository;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MatriceCompetenceIndexTest {
+
+    @Mock
+    private MatriceCompetenceRepository matriceCompetenceRepository;
+
+    private MatriceCompetenceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MatriceCompetenceIndex(matriceCompetenceRepository);
+    }
+
+    @Test
+    void testPersonnesAvecNoteMinimale_IntersectionCumulative() {
+        // Given
+        when(matriceCompetenceRepository.findAllNotes()).thenReturn(Arrays.asList(
+                new NoteMatriceProjection("P001", "JAVA", 4),
+                new NoteMatriceProjection("P001", "SPRING", 3),
+                new NoteMatriceProjection("P002", "JAVA", 3),
+                new NoteMatriceProjection("P002", "SPRING", 5),
+                new NoteMatriceProjection("P003", "JAVA", 5)
+        ));
+
+        // When & Then
+        assertEquals(Set.of("P001", "P003"), index.personnesAvecNoteMinimale(List.of("JAVA"), 4));
+        assertEquals(Set.of("P001", "P002", "P003"), index.personnesAvecNoteMinimale(List.of("JAVA"), 1));
+        assertEquals(Set.of("P001", "P002"), index.personnesAvecNoteMinimale(List.of("JAVA", "SPRING"), 3));
+        assertEquals(Set.of(), index.personnesAvecNoteMinimale(List.of("JAVA", "SPRING"), 5));
+        assertEquals(Set.of(), index.personnesAvecNoteMinimale(List.of("JAVA"), 6));
+        verify(matriceCompetenceRepository, times(1)).findAllNotes();
+    }
+
+    @Test
+    void testPersonnesAvecCompetences() {
+        // Given
+        when(matriceCompetenceRepository.findAllNotes()).thenReturn(Arrays.asList(
+                new NoteMatriceProjection("P001", "JAVA", 0),
+                new NoteMatriceProjection("P001", "ANGULAR", 2),
+                new NoteMatriceProjection("P002", "JAVA", 3)
+        ));
+
+        // When & Then
+        assertEquals(Set.of("P001", "P002"), index.personnesAvecCompetences(List.of("JAVA")));
+        assertEquals(Set.of("P001"), index.personnesAvecCompetences(List.of("JAVA", "ANGULAR")));
+        assertEquals(Set.of(), index.personnesAvecCompetences(List.of("INCONNUE")));
+    }
+
+    @Test
+    void testIndexer_MiseAJourBaisseEtHausseDeNote() {
+        // Given
+        when(matriceCompetenceRepository.findAllNotes()).thenReturn(Collections.singletonList(
+                new NoteMatriceProjection("P001", "JAVA", 4)
+        ));
+
+        // When - baisse de la note
+        index.indexer("P001", "JAVA", 2);
+
+        // Then
+        assertEquals(Set.of(), index.personnesAvecNoteMinimale(List.of("JAVA"), 3));
+        assertEquals(Set.of("P001"), index.personnesAvecNoteMinimale(List.of("JAVA"), 2));
+
+        // When - hausse au-delà du niveau maximal connu
+        index.indexer("P001", "JAVA", 7);
+
+        // Then
+        assertEquals(Set.of("P001"), index.personnesAvecNoteMinimale(List.of("JAVA"), 7));
+    }
+
+    @Test
+    void testRetirer() {
+        // Given
+        when(matriceCompetenceRepository.findAllNotes()).thenReturn(Arrays.asList(
+                new NoteMatriceProjection("P001", "JAVA", 4),
+                new NoteMatriceProjection("P002", "JAVA", 4)
+        ));
+
+        // When
+        index.retirer("P001", "JAVA");
+
+        // Then
+        assertEquals(Set.of("P002"), index.personnesAvecCompetences(List.of("JAVA")));
+    }
+
+    @Test
+    void testInvalider_RechargeDepuisLaBase() {
+        // Given
+        when(matriceCompetenceRepository.findAllNotes())
+                .thenReturn(Collections.singletonList(new NoteMatriceProjection("P001", "JAVA", 4)))
+                .thenReturn(Collections.singletonList(new NoteMatriceProjection("P002", "JAVA", 4)));
+        assertEquals(Set.of("P001"), index.personnesAvecCompetences(List.of("JAVA")));
+
+        // When
+        index.invalider();
+
+        // Then
+        assertEquals(Set.of("P002"), index.personnesAvecCompetences(List.of("JAVA")));
+        verify(matriceCompetenceRepository, times(2)).findAllNotes();
+    }
+}
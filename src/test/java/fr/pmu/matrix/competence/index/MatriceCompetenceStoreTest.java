@@ -0,0 +1,218 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.domain.MatriceCompetence;
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.EquipeEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.repository.CompetenceRepository;
+import fr.pmu.matrix.competence.repository.MatriceCompetenceRepository;
+import fr.pmu.matrix.competence.repository.NoteRepository;
+import fr.pmu.matrix.competence.repository.PersonneRepository;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MatriceCompetenceStoreTest {
+
+    @Mock
+    private PersonneRepository personneRepository;
+
+    @Mock
+    private CompetenceRepository competenceRepository;
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    @Mock
+    private MatriceCompetenceRepository matriceCompetenceRepository;
+
+    private MatriceCompetenceStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new MatriceCompetenceStore(personneRepository, competenceRepository, noteRepository, matriceCompetenceRepository);
+    }
+
+    @Test
+    void testGetSnapshot_ChargementUnique() {
+        // Given
+        donneesDeBase();
+
+        // When
+        MatriceCompetenceSnapshot snapshot = store.getSnapshot();
+        store.getSnapshot();
+
+        // Then
+        assertEquals(2, snapshot.nbPersonnes());
+        assertEquals(2, snapshot.nbCompetences());
+        assertEquals(4, snapshot.note(snapshot.ordinalPersonne("P001"), snapshot.ordinalCompetence("JAVA")));
+        assertEquals(MatriceCompetenceSnapshot.AUCUNE_NOTE,
+                snapshot.note(snapshot.ordinalPersonne("P002"), snapshot.ordinalCompetence("JAVA")));
+        assertEquals(-1, snapshot.ordinalPersonne("INCONNUE"));
+        verify(personneRepository, times(1)).findAllAvecEquipe();
+        verify(matriceCompetenceRepository, times(1)).findAllNotes();
+    }
+
+    @Test
+    void testSnapshot_LignesEtColonnes() {
+        // Given
+        donneesDeBase();
+        MatriceCompetenceSnapshot snapshot = store.getSnapshot();
+
+        // When
+        List<MatriceCompetence> toutes = snapshot.toutesLesLignes();
+        List<MatriceCompetence> ligne = snapshot.ligne(snapshot.ordinalPersonne("P001"));
+        List<MatriceCompetence> colonne = snapshot.colonne(snapshot.ordinalCompetence("SPRING"));
+
+        // Then
+        assertEquals(3, toutes.size());
+        assertEquals(2, ligne.size());
+        assertEquals("JAVA", ligne.get(0).getCompetence().getLibelle());
+        assertEquals("Avancé", ligne.get(0).getNote().getLibelle());
+        assertEquals("EQ1", ligne.get(0).getPersonne().getEquipe().getCode());
+        assertEquals(2, colonne.size());
+        assertEquals("P001", colonne.get(0).getPersonne().getIdentifiant());
+        assertEquals("P002", colonne.get(1).getPersonne().getIdentifiant());
+        assertNull(colonne.get(1).getPersonne().getEquipe());
+    }
+
+    @Test
+    void testPublierNote_CopieSurEcriture() {
+        // Given
+        donneesDeBase();
+        MatriceCompetenceSnapshot avant = store.getSnapshot();
+
+        // When
+        store.publierNote("P002", "JAVA", 3);
+        MatriceCompetenceSnapshot apres = store.getSnapshot();
+
+        // Then
+        assertNotSame(avant, apres);
+        assertEquals(MatriceCompetenceSnapshot.AUCUNE_NOTE,
+                avant.note(avant.ordinalPersonne("P002"), avant.ordinalCompetence("JAVA")));
+        assertEquals(3, apres.note(apres.ordinalPersonne("P002"), apres.ordinalCompetence("JAVA")));
+        // Seule la ligne de la personne modifiée est copiée
+        assertNotSame(avant.grille()[avant.ordinalPersonne("P002")], apres.grille()[apres.ordinalPersonne("P002")]);
+        assertSame(avant.grille()[avant.ordinalPersonne("P001")], apres.grille()[apres.ordinalPersonne("P001")]);
+        verify(matriceCompetenceRepository, times(1)).findAllNotes();
+    }
+
+    @Test
+    void testAvecNotes_UneCopieParLigneModifiee() {
+        // Given
+        donneesDeBase();
+        MatriceCompetenceSnapshot avant = store.getSnapshot();
+        int p2 = avant.ordinalPersonne("P002");
+        int java = avant.ordinalCompetence("JAVA");
+        int spring = avant.ordinalCompetence("SPRING");
+
+        // When
+        MatriceCompetenceSnapshot apres = avant.avecNotes(List.of(
+                new int[] {p2, java, 3},
+                new int[] {p2, spring, MatriceCompetenceSnapshot.AUCUNE_NOTE}));
+
+        // Then
+        assertEquals(3, apres.note(p2, java));
+        assertEquals(MatriceCompetenceSnapshot.AUCUNE_NOTE, apres.note(p2, spring));
+        assertEquals(4, avant.note(p2, spring));
+        assertSame(avant.grille()[avant.ordinalPersonne("P001")], apres.grille()[apres.ordinalPersonne("P001")]);
+    }
+
+    @Test
+    void testConstruire_NoteHorsPlageIgnoree() {
+        // Given : une note antérieure à la validation des valeurs
+        MatriceCompetenceSnapshot snapshot = MatriceCompetenceSnapshot.construire(
+                List.of(createPersonneEntity("P001", "Dupont", "Jean")),
+                List.of(new CompetenceEntity("JAVA", "Java"), new CompetenceEntity("SQL", "SQL")),
+                List.of(new NoteEntity(3, "Intermédiaire"), new NoteEntity(200, "Hors plage")),
+                List.of(new NoteMatriceProjection("P001", "JAVA", 200), new NoteMatriceProjection("P001", "SQL", 3)));
+
+        // Then : le reste de la matrice reste lisible
+        assertEquals(MatriceCompetenceSnapshot.AUCUNE_NOTE, snapshot.note(0, snapshot.ordinalCompetence("JAVA")));
+        assertEquals(3, snapshot.note(0, snapshot.ordinalCompetence("SQL")));
+    }
+
+    @Test
+    void testRetirerNote() {
+        // Given
+        donneesDeBase();
+        store.getSnapshot();
+
+        // When
+        store.retirerNote("P001", "JAVA");
+
+        // Then
+        MatriceCompetenceSnapshot snapshot = store.getSnapshot();
+        assertEquals(1, snapshot.ligne(snapshot.ordinalPersonne("P001")).size());
+    }
+
+    @Test
+    void testPublierNote_PersonneInconnueInvalide() {
+        // Given
+        donneesDeBase();
+        store.getSnapshot();
+
+        // When
+        store.publierNote("P003", "JAVA", 2);
+        store.getSnapshot();
+
+        // Then
+        verify(matriceCompetenceRepository, times(2)).findAllNotes();
+    }
+
+    @Test
+    void testInvalider_RechargeDepuisLaBase() {
+        // Given
+        donneesDeBase();
+        store.getSnapshot();
+
+        // When
+        store.invalider();
+        store.getSnapshot();
+
+        // Then
+        verify(personneRepository, times(2)).findAllAvecEquipe();
+    }
+
+    private void donneesDeBase() {
+        EquipeEntity equipe = new EquipeEntity();
+        equipe.setCode("EQ1");
+        equipe.setNom("Equipe 1");
+
+        PersonneEntity personne1 = createPersonneEntity("P001", "Dupont", "Jean");
+        personne1.setEquipe(equipe);
+        PersonneEntity personne2 = createPersonneEntity("P002", "Martin", "Sophie");
+
+        // Ordre volontairement inversé : la photographie trie par identifiant
+        when(personneRepository.findAllAvecEquipe()).thenReturn(Arrays.asList(personne2, personne1));
+        when(competenceRepository.findAll()).thenReturn(Arrays.asList(
+                new CompetenceEntity("SPRING", "Spring Framework"),
+                new CompetenceEntity("JAVA", "Java Programming")));
+        when(noteRepository.findAll()).thenReturn(Arrays.asList(
+                new NoteEntity(3, "Intermédiaire"),
+                new NoteEntity(4, "Avancé")));
+        when(matriceCompetenceRepository.findAllNotes()).thenReturn(Arrays.asList(
+                new NoteMatriceProjection("P001", "JAVA", 4),
+                new NoteMatriceProjection("P001", "SPRING", 3),
+                new NoteMatriceProjection("P002", "SPRING", 4)));
+    }
+
+    private PersonneEntity createPersonneEntity(String id, String nom, String prenom) {
+        PersonneEntity entity = new PersonneEntity();
+        entity.setIdentifiant(id);
+        entity.setNom(nom);
+        entity.setPrenom(prenom);
+        return entity;
+    }
+}
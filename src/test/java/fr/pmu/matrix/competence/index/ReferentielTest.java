@@ -0,0 +1,110 @@
+package fr.pmu.matrix.competence.index;
+
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.repository.CompetenceRepository;
+import fr.pmu.matrix.competence.repository.NoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferentielTest {
+
+    @Mock
+    private CompetenceRepository competenceRepository;
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    private Referentiel referentiel;
+
+    @BeforeEach
+    void setUp() {
+        referentiel = new Referentiel(competenceRepository, noteRepository);
+        when(competenceRepository.findAll()).thenReturn(Arrays.asList(
+                new CompetenceEntity("JAVA", "Java Programming"),
+                new CompetenceEntity("SPRING", "Spring Framework")));
+        when(noteRepository.findAll()).thenReturn(Arrays.asList(
+                new NoteEntity(1, "Notions"),
+                new NoteEntity(4, "Avancé")));
+    }
+
+    @Test
+    void testResolution_ChargementUnique() {
+        // When
+        referentiel.charger();
+        for (int i = 0; i < 30; i++) {
+            referentiel.competence("JAVA");
+            referentiel.note(4);
+        }
+
+        // Then
+        assertEquals("Java Programming", referentiel.competence("JAVA").orElseThrow().getDescription());
+        assertTrue(referentiel.competence("COBOL").isEmpty());
+        assertEquals("Avancé", referentiel.note(4).orElseThrow().getLibelle());
+        assertTrue(referentiel.contientNote(1));
+        assertFalse(referentiel.contientNote(2));
+        assertFalse(referentiel.contientNote(0));
+        assertFalse(referentiel.contientNote(5));
+        verify(competenceRepository, times(1)).findAll();
+        verify(noteRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testPublierCompetence_CopieSurEcriture() {
+        // Given
+        CompetenceEntity avant = referentiel.competence("JAVA").orElseThrow();
+        CompetenceEntity modifiee = new CompetenceEntity("JAVA", "Java 21");
+
+        // When
+        referentiel.publierCompetence(modifiee);
+        referentiel.publierCompetence(new CompetenceEntity("KOTLIN", "Kotlin"));
+        referentiel.retirerCompetence("SPRING");
+
+        // Then
+        assertEquals("Java Programming", avant.getDescription());
+        assertEquals("Java 21", referentiel.competence("JAVA").orElseThrow().getDescription());
+        assertNotSame(modifiee, referentiel.competence("JAVA").orElseThrow());
+        assertTrue(referentiel.contientCompetence("KOTLIN"));
+        assertFalse(referentiel.contientCompetence("SPRING"));
+        verify(competenceRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testPublierNote() {
+        // Given
+        referentiel.charger();
+
+        // When
+        referentiel.publierNote(new NoteEntity(0, "Aucune"));
+        referentiel.publierNote(new NoteEntity(4, "Confirmé"));
+        referentiel.retirerNote(1);
+
+        // Then
+        assertEquals("Aucune", referentiel.note(0).orElseThrow().getLibelle());
+        assertEquals("Confirmé", referentiel.note(4).orElseThrow().getLibelle());
+        assertFalse(referentiel.contientNote(1));
+        verify(noteRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testInvalider_RechargeDepuisLaBase() {
+        // Given
+        referentiel.charger();
+
+        // When
+        referentiel.invalider();
+        referentiel.contientCompetence("JAVA");
+
+        // Then
+        verify(competenceRepository, times(2)).findAll();
+    }
+}
@@ -0,0 +1,226 @@
+package fr.pmu.matrix.competence.repository;
+
+import fr.pmu.matrix.competence.domain.Nature;
+import fr.pmu.matrix.competence.dto.StatistiquesCache;
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
+import fr.pmu.matrix.competence.entity.DemandeEntity;
+import fr.pmu.matrix.competence.entity.EquipeEntity;
+import fr.pmu.matrix.competence.entity.HabilitationEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.entity.UtilisateurEntity;
+import fr.pmu.matrix.competence.service.CacheService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vérifie que les entités de référence, leurs collections et les finders marqués cacheables
+ * sont servis par le cache de second niveau une fois lus.
+ * <p>
+ * Le cache n'est alimenté qu'à la validation des transactions : chaque lecture s'exécute donc
+ * dans sa propre transaction, et les données sont supprimées après chaque test.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CacheSecondNiveauTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CompetenceRepository competenceRepository;
+
+    @Autowired
+    private HabilitationRepository habilitationRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private DemandeRepository demandeRepository;
+
+    @Autowired
+    private EquipeRepository equipeRepository;
+
+    @Autowired
+    private CompetenceRequiseRepository competenceRequiseRepository;
+
+    private Statistics statistics;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        competenceRepository.save(new CompetenceEntity("JAVA", "Java"));
+        competenceRepository.save(new CompetenceEntity("SPRING", "Spring"));
+        HabilitationEntity admin = habilitationRepository.save(new HabilitationEntity("ADMIN", "Administrateur", new ArrayList<>()));
+        utilisateurRepository.save(new UtilisateurEntity("M001", new ArrayList<>(List.of(admin))));
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        equipeRepository.deleteAll();
+        competenceRequiseRepository.deleteAll();
+        demandeRepository.deleteAll();
+        noteRepository.deleteAll();
+        utilisateurRepository.deleteAll();
+        habilitationRepository.deleteAll();
+        competenceRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void testEntite_LueUneSeuleFoisEnBase() {
+        // When
+        competenceRepository.findById("JAVA");
+        competenceRepository.findById("JAVA");
+
+        // Then
+        assertEquals(1, statistics.getDomainDataRegionStatistics("competence").getMissCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("competence").getHitCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindAll_CacheDeRequetes() {
+        // When
+        competenceRepository.findAll();
+        List<CompetenceEntity> competences = competenceRepository.findAll();
+
+        // Then
+        assertEquals(2, competences.size());
+        assertEquals(1, statistics.getQueryCacheMissCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindAll_InvalideParUneEcriture() {
+        // Given
+        competenceRepository.findAll();
+        competenceRepository.save(new CompetenceEntity("COBOL", "Cobol"));
+
+        // When
+        List<CompetenceEntity> competences = competenceRepository.findAll();
+
+        // Then
+        assertEquals(3, competences.size());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void testCollection_HabilitationsDunUtilisateur() {
+        // Given
+        lireHabilitations("M001");
+        statistics.clear();
+
+        // When
+        List<String> habilitations = lireHabilitations("M001");
+
+        // Then
+        assertEquals(List.of("ADMIN"), habilitations);
+        assertEquals(1, statistics.getDomainDataRegionStatistics("utilisateur.habilitations").getHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("habilitation").getHitCount());
+        // Seul l'utilisateur, qui n'est pas en cache, est lu en base
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testStatistiquesParRegion() {
+        // Given
+        competenceRepository.findById("JAVA");
+        competenceRepository.findById("JAVA");
+
+        // When
+        List<StatistiquesCache> regions = new CacheService(entityManagerFactory).getStatistiques();
+
+        // Then
+        StatistiquesCache competence = regions.stream()
+                .filter(region -> region.getRegion().equals("competence"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1, competence.getSucces());
+        assertEquals(1, competence.getEchecs());
+        assertEquals(0.5, competence.getTauxSucces());
+        assertTrue(regions.stream().anyMatch(region -> region.getRegion().equals("default-query-results-region")));
+    }
+
+    @Test
+    void testEquipe_CacheConserveApresModificationDeCompetenceRequise() {
+        // Given
+        CompetenceEntity java = competenceRepository.findById("JAVA").orElseThrow();
+        NoteEntity intermediaire = noteRepository.save(new NoteEntity(3, "Intermédiaire"));
+        NoteEntity avance = noteRepository.save(new NoteEntity(4, "Avancé"));
+        DemandeEntity demande = new DemandeEntity();
+        demande.setId("D1");
+        demande.setMatriculeDemandeur("M001");
+        demande.setNature(Nature.PERMANENT);
+        demande.setEstGroupement(false);
+        demande.setDestinationCode("EQ1");
+        demande.setDateDebut(Date.valueOf("2024-01-01"));
+        demandeRepository.save(demande);
+        EquipeEntity equipe = new EquipeEntity();
+        equipe.setCode("EQ1");
+        equipe.setNom("Équipe 1");
+        equipe.getProfilRecherche().add(new CompetenceRequiseEntity(null, demande, java, intermediaire));
+        equipeRepository.save(equipe);
+        entityManagerFactory.getCache().evictAll();
+
+        transactionTemplate.executeWithoutResult(status -> equipeRepository.findById("EQ1"));
+        equipeRepository.findAllByOrderByCodeAsc();
+        transactionTemplate.executeWithoutResult(status ->
+                competenceRequiseRepository.modifierNoteRequise("D1", "JAVA", 3, avance));
+        statistics.clear();
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> equipeRepository.findById("EQ1"));
+        List<EquipeEntity> equipes = equipeRepository.findAllByOrderByCodeAsc();
+
+        // Then : ni l'entité ni le résultat de requête n'ont été invalidés
+        assertEquals(1, equipes.size());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("equipe").getHitCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        // Le profil, lu en base, reflète la modification
+        List<Integer> notes = transactionTemplate.execute(status -> equipeRepository.findById("EQ1").orElseThrow()
+                .getProfilRecherche().stream()
+                .map(competenceRequise -> competenceRequise.getNoteRequise().getValeur())
+                .toList());
+        assertEquals(List.of(4), notes);
+    }
+
+    private List<String> lireHabilitations(String matricule) {
+        return transactionTemplate.execute(status -> utilisateurRepository.findById(matricule).orElseThrow()
+                .getHabilitations().stream()
+                .map(HabilitationEntity::getCode)
+                .toList());
+    }
+}
@@ -0,0 +1,120 @@
+package fr.pmu.matrix.competence.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.pmu.matrix.competence.dto.DemandeImportLigne.Statut;
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.EquipeEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.index.CorrespondancesDemandes;
+import fr.pmu.matrix.competence.index.IndexCompetencesDemandes;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.index.Referentiel;
+import fr.pmu.matrix.competence.service.DemandeImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Mesure l'import de 100 000 demandes de 10 compétences requises chacune (un million de lignes
+ * {@code competence_requise}), en NDJSON, contre l'objectif d'une minute.
+ * <p>
+ * Chaque lot est validé dans sa propre transaction, comme en production : les données
+ * sont supprimées après le test. Test de volume (une trentaine de secondes), exclu du build
+ * par défaut : {@code mvn test -Pperformance}.
+ */
+@Tag("performance")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DemandeImportVolumeTest {
+
+    private static final int NB_DEMANDES = 100_000;
+    private static final int NB_COMPETENCES = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CompetenceRepository competenceRepository;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private EquipeRepository equipeRepository;
+
+    @Autowired
+    private GroupementRepository groupementRepository;
+
+    private DemandeImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        for (int c = 0; c < NB_COMPETENCES; c++) {
+            competenceRepository.save(new CompetenceEntity("C" + c, "Compétence " + c));
+        }
+        noteRepository.save(new NoteEntity(3, "Intermédiaire"));
+        EquipeEntity equipe = new EquipeEntity();
+        equipe.setCode("EQ1");
+        equipe.setNom("Équipe 1");
+        equipeRepository.save(equipe);
+
+        importService = new DemandeImportService(jdbcTemplate, transactionManager, new ObjectMapper(),
+                new Referentiel(competenceRepository, noteRepository), equipeRepository, groupementRepository,
+                mock(IndexPeriodes.class), mock(IndexCompetencesDemandes.class), mock(CorrespondancesDemandes.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM competence_requise");
+        jdbcTemplate.update("DELETE FROM demande");
+        equipeRepository.deleteAll();
+        noteRepository.deleteAll();
+        competenceRepository.deleteAll();
+    }
+
+    @Test
+    void testImporter_CentMilleDemandesEnMoinsDUneMinute() throws Exception {
+        // Given
+        StringBuilder competences = new StringBuilder();
+        for (int c = 0; c < NB_COMPETENCES; c++) {
+            competences.append(c == 0 ? "" : ",").append("{\"competenceLibelle\":\"C").append(c).append("\",\"noteValeur\":3}");
+        }
+        String ligne = "{\"matriculeDemandeur\":\"M001\",\"nature\":\"PERMANENT\",\"dateDebut\":\"2024-01-01\","
+                + "\"destination\":{\"type\":\"EQUIPE\",\"code\":\"EQ1\"},\"competencesRecherchees\":[" + competences + "]}\n";
+        byte[] ndjson = ligne.repeat(NB_DEMANDES).getBytes(StandardCharsets.UTF_8);
+        AtomicInteger creees = new AtomicInteger();
+
+        // When
+        long debut = System.nanoTime();
+        importService.importer(importService.ouvrir(new ByteArrayInputStream(ndjson), DemandeImportService.Format.NDJSON),
+                resultat -> {
+                    if (resultat.getStatut() == Statut.CREEE) {
+                        creees.incrementAndGet();
+                    }
+                });
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+
+        // Then
+        assertEquals(NB_DEMANDES, creees.get());
+        assertEquals(NB_DEMANDES * NB_COMPETENCES,
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM competence_requise", Long.class));
+        assertTrue(dureeMs < 60_000, "Import de " + NB_DEMANDES + " demandes en " + dureeMs + " ms");
+    }
+}
@@ -0,0 +1,242 @@
+package fr.pmu.matrix.competence.repository;
+
+import fr.pmu.matrix.competence.domain.Nature;
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
+import fr.pmu.matrix.competence.entity.DemandeArchiveEntity;
+import fr.pmu.matrix.competence.entity.DemandeEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.repository.projection.PeriodeDemandeProjection;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.sql.Date;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vérifie la combinaison des critères de {@link DemandeSpecifications} et que la recherche
+ * s'exécute entièrement en base (une requête, plus le comptage si paginée).
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class DemandeRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DemandeRepository demandeRepository;
+
+    @Autowired
+    private CompetenceRequiseRepository competenceRequiseRepository;
+
+    @Autowired
+    private DemandeArchiveRepository demandeArchiveRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        CompetenceEntity java = entityManager.persist(new CompetenceEntity("JAVA", "Java"));
+        CompetenceEntity spring = entityManager.persist(new CompetenceEntity("SPRING", "Spring"));
+        NoteEntity debutant = entityManager.persist(new NoteEntity(2, "Débutant"));
+        NoteEntity avance = entityManager.persist(new NoteEntity(4, "Avancé"));
+
+        DemandeEntity d1 = createDemandeEntity("D1", "M1", Nature.TEMPORAIRE, false, "EQ1", "2024-01-01", "2024-12-31");
+        ajouter(d1, java, avance);
+        ajouter(d1, spring, debutant);
+        DemandeEntity d2 = createDemandeEntity("D2", "M1", Nature.PERMANENT, true, "GRP1", "2024-06-01", null);
+        ajouter(d2, java, debutant);
+        DemandeEntity d3 = createDemandeEntity("D3", "M2", Nature.TEMPORAIRE, false, "EQ1", "2025-01-01", "2025-03-01");
+        ajouter(d3, spring, avance);
+        entityManager.persist(d1);
+        entityManager.persist(d2);
+        entityManager.persist(d3);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testFindAllPeriodes() {
+        // When
+        List<PeriodeDemandeProjection> periodes = demandeRepository.findAllPeriodes().stream()
+                .sorted(Comparator.comparing(PeriodeDemandeProjection::id))
+                .collect(Collectors.toList());
+
+        // Then
+        assertEquals(3, periodes.size());
+        assertEquals("D2", periodes.get(1).id());
+        assertEquals(Date.valueOf("2024-06-01").getTime(), periodes.get(1).dateDebut().getTime());
+        assertNull(periodes.get(1).dateFin());
+    }
+
+    @Test
+    void testFindAllCompetencesRequises() {
+        // When
+        List<String> lignes = demandeRepository.findAllCompetencesRequises().stream()
+                .map(ligne -> ligne.demandeId() + ":" + ligne.competenceLibelle() + ":" + ligne.noteValeur())
+                .sorted()
+                .collect(Collectors.toList());
+
+        // Then
+        assertEquals(List.of("D1:JAVA:4", "D1:SPRING:2", "D2:JAVA:2", "D3:SPRING:4"), lignes);
+    }
+
+    @Test
+    void testModificationsUnitaires_UneRequeteChacune() {
+        // When
+        statistics.clear();
+        int versionIncrementee = demandeRepository.incrementerVersion("D1", 0L);
+        int modifiees = competenceRequiseRepository.modifierNoteRequise("D1", "SPRING", 2, new NoteEntity(4, "Avancé"));
+        int supprimees = competenceRequiseRepository.supprimer("D1", "JAVA", 4);
+
+        // Then
+        assertEquals(1, versionIncrementee);
+        assertEquals(1, modifiees);
+        assertEquals(1, supprimees);
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, demandeRepository.incrementerVersion("D1", 0L));
+        assertEquals(0, competenceRequiseRepository.supprimer("D1", "JAVA", 4));
+
+        entityManager.clear();
+        DemandeEntity d1 = demandeRepository.findById("D1").orElseThrow();
+        assertEquals(1L, d1.getVersion());
+        assertEquals(1, d1.getCompetencesRequises().size());
+        assertEquals(4, d1.getCompetencesRequises().get(0).getNoteRequise().getValeur());
+        assertEquals(0L, demandeRepository.findById("D2").orElseThrow().getVersion());
+    }
+
+    @Test
+    void testArchivage_QuatreRequetesEnsemblistes() {
+        // Given
+        List<String> ids = demandeRepository.findIdsTermineesAvant(Nature.TEMPORAIRE, Date.valueOf("2025-01-01"), "", PageRequest.of(0, 10));
+
+        // When
+        statistics.clear();
+        int demandesCopiees = demandeArchiveRepository.copierDemandes(ids);
+        int competencesCopiees = demandeArchiveRepository.copierCompetencesRequises(ids);
+        int competencesSupprimees = competenceRequiseRepository.supprimerParDemandes(ids);
+        int demandesSupprimees = demandeRepository.supprimer(ids);
+
+        // Then
+        assertEquals(List.of("D1"), ids);
+        assertEquals(1, demandesCopiees);
+        assertEquals(2, competencesCopiees);
+        assertEquals(2, competencesSupprimees);
+        assertEquals(1, demandesSupprimees);
+        assertEquals(4, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        assertEquals(List.of("D2", "D3"), rechercher(DemandeSpecifications.demandeur(null)));
+        List<DemandeArchiveEntity> archivees = demandeArchiveRepository.findAll(DemandeSpecifications.demandeur("M1"));
+        assertEquals(1, archivees.size());
+        DemandeArchiveEntity d1 = archivees.get(0);
+        assertEquals("D1", d1.getId());
+        assertEquals(Date.valueOf("2024-12-31").getTime(), d1.getDateFin().getTime());
+        assertEquals(List.of("JAVA:4", "SPRING:2"), d1.getCompetencesRequises().stream()
+                .map(cr -> cr.getCompetence().getLibelle() + ":" + cr.getNoteRequise().getValeur())
+                .sorted()
+                .collect(Collectors.toList()));
+        assertEquals(1, demandeArchiveRepository.findAll(DemandeSpecifications.competencesRequises(List.of("JAVA"), List.of(4))).size());
+    }
+
+    @Test
+    void testCompetenceEtNote_SurLaMemeCompetenceRequise() {
+        // When
+        List<String> ids = rechercher(DemandeSpecifications.competencesRequises(List.of("JAVA"), List.of(4)));
+
+        // Then
+        assertEquals(List.of("D1"), ids);
+    }
+
+    @Test
+    void testCriteresCombinesEnEt() {
+        // When & Then
+        assertEquals(List.of("D1"), rechercher(Specification.allOf(
+                DemandeSpecifications.demandeur("M1"),
+                DemandeSpecifications.nature(Nature.TEMPORAIRE))));
+        assertEquals(List.of("D1", "D2"), rechercher(DemandeSpecifications.activeLe(Date.valueOf("2024-07-01"))));
+        assertEquals(List.of("D3"), rechercher(Specification.allOf(
+                DemandeSpecifications.destination("EQ1", false),
+                DemandeSpecifications.dateDebutEntre(Date.valueOf("2024-12-01"), null))));
+        assertEquals(List.of("D1"), rechercher(DemandeSpecifications.dateFinEntre(null, Date.valueOf("2024-12-31"))));
+    }
+
+    @Test
+    void testCriteresNonRenseignes_Neutres() {
+        // When
+        List<String> ids = rechercher(Specification.allOf(
+                DemandeSpecifications.demandeur(""),
+                DemandeSpecifications.nature(null),
+                DemandeSpecifications.destination(null, true),
+                DemandeSpecifications.competencesRequises(List.of(), null)));
+
+        // Then
+        assertEquals(List.of("D1", "D2", "D3"), ids);
+    }
+
+    @Test
+    void testPagination_DistinctEtComptageEnBase() {
+        // Given
+        Specification<DemandeEntity> specification = DemandeSpecifications.competencesRequises(List.of("JAVA", "SPRING"), null);
+
+        // When
+        statistics.clear();
+        Page<DemandeEntity> page = demandeRepository.findAll(specification,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "dateDebut").and(Sort.by("id"))));
+
+        // Then
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of("D3", "D2"), page.getContent().stream().map(DemandeEntity::getId).collect(Collectors.toList()));
+        // Une requête pour la page, une pour le comptage
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private List<String> rechercher(Specification<DemandeEntity> specification) {
+        statistics.clear();
+        List<String> ids = demandeRepository.findAll(specification, Sort.by("id")).stream()
+                .map(DemandeEntity::getId)
+                .collect(Collectors.toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        return ids;
+    }
+
+    private void ajouter(DemandeEntity demande, CompetenceEntity competence, NoteEntity note) {
+        CompetenceRequiseEntity competenceRequise = new CompetenceRequiseEntity();
+        competenceRequise.setDemande(demande);
+        competenceRequise.setCompetence(competence);
+        competenceRequise.setNoteRequise(note);
+        demande.getCompetencesRequises().add(competenceRequise);
+    }
+
+    private DemandeEntity createDemandeEntity(String id, String matricule, Nature nature, boolean estGroupement,
+                                              String destinationCode, String dateDebut, String dateFin) {
+        DemandeEntity entity = new DemandeEntity();
+        entity.setId(id);
+        entity.setMatriculeDemandeur(matricule);
+        entity.setNature(nature);
+        entity.setEstGroupement(estGroupement);
+        entity.setDestinationCode(destinationCode);
+        entity.setDateDebut(Date.valueOf(dateDebut));
+        entity.setDateFin(dateFin == null ? null : Date.valueOf(dateFin));
+        return entity;
+    }
+}
@@ -0,0 +1,125 @@
+package fr.pmu.matrix.competence.repository;
+
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.EquipeEntity;
+import fr.pmu.matrix.competence.entity.MatriceCompetenceEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.repository.projection.MatriceCompetenceVue;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vérifie que les lectures de la matrice se font en une seule requête SQL,
+ * quel que soit le nombre de lignes retournées (pas de N+1).
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class MatriceCompetenceRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MatriceCompetenceRepository matriceCompetenceRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testFindVue_UneSeuleRequete() {
+        // Given
+        persister(3, 2);
+
+        // When
+        statistics.clear();
+        Optional<MatriceCompetenceVue> vue = matriceCompetenceRepository.findVue("T001", "C01");
+
+        // Then
+        assertTrue(vue.isPresent());
+        assertEquals("Nom T001", vue.get().personneNom());
+        assertEquals("EQ1", vue.get().equipeCode());
+        assertEquals("Compétence C01", vue.get().competenceDescription());
+        assertEquals(2, vue.get().noteValeur());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testFindPageApres_NombreDeRequetesConstant() {
+        // Given
+        persister(40, 5);
+
+        // When
+        statistics.clear();
+        Slice<MatriceCompetenceVue> petitePage = matriceCompetenceRepository.findPageApres("", "", PageRequest.of(0, 2));
+        long requetesPetitePage = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        Slice<MatriceCompetenceVue> grandePage = matriceCompetenceRepository.findPageApres("", "", PageRequest.of(0, 150));
+        long requetesGrandePage = statistics.getPrepareStatementCount();
+
+        // Then
+        assertEquals(2, petitePage.getContent().size());
+        assertEquals(150, grandePage.getContent().size());
+        assertEquals(1, requetesPetitePage);
+        assertEquals(1, requetesGrandePage);
+        assertEquals(0, statistics.getEntityLoadCount());
+        // Les personnes sans équipe sont conservées (jointure externe)
+        assertTrue(grandePage.getContent().stream().anyMatch(vue -> vue.equipeCode() == null));
+    }
+
+    /**
+     * Persiste des personnes (une sur deux rattachée à une équipe), des compétences
+     * et une évaluation par couple, puis vide le contexte de persistance
+     */
+    private void persister(int nbPersonnes, int nbCompetences) {
+        EquipeEntity equipe = new EquipeEntity();
+        equipe.setCode("EQ1");
+        equipe.setNom("Equipe 1");
+        entityManager.persist(equipe);
+
+        NoteEntity note = entityManager.persist(new NoteEntity(2, "Débutant"));
+
+        List<CompetenceEntity> competences = new ArrayList<>();
+        for (int c = 1; c <= nbCompetences; c++) {
+            String libelle = String.format("C%02d", c);
+            competences.add(entityManager.persist(new CompetenceEntity(libelle, "Compétence " + libelle)));
+        }
+        for (int p = 1; p <= nbPersonnes; p++) {
+            PersonneEntity personne = new PersonneEntity();
+            personne.setIdentifiant(String.format("T%03d", p));
+            personne.setNom("Nom " + personne.getIdentifiant());
+            personne.setPrenom("Prénom " + personne.getIdentifiant());
+            if (p % 2 == 1) {
+                personne.setEquipe(equipe);
+            }
+            entityManager.persist(personne);
+            for (CompetenceEntity competence : competences) {
+                entityManager.persist(new MatriceCompetenceEntity(personne, competence, note));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,119 @@
+package fr.pmu.matrix.competence.repository;
+
+import fr.pmu.matrix.competence.entity.EquipeEntity;
+import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.entity.ProfilEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vérifie que les profils disponibles sont lus avec leur personne et son équipe
+ * en une seule requête SQL, quel que soit le nombre de profils (pas de N+1).
+ */
+@DataJpaTest
+class ProfilRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProfilRepository profilRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testFindAllAvecPersonneById_UneSeuleRequete() {
+        // Given
+        List<Long> ids = persister(30);
+
+        // When
+        statistics.clear();
+        List<ProfilEntity> profils = profilRepository.findAllAvecPersonneById(ids.subList(0, 20));
+        List<String> equipes = new ArrayList<>();
+        for (ProfilEntity profil : profils) {
+            EquipeEntity equipe = profil.getPersonne().getEquipe();
+            equipes.add(equipe == null ? null : equipe.getNom());
+        }
+
+        // Then
+        assertEquals(20, profils.size());
+        assertEquals(ids.get(0), profils.get(0).getId());
+        assertEquals("Nom T001", profils.get(0).getPersonne().getNom());
+        assertEquals("Equipe 1", equipes.get(0));
+        // Les personnes sans équipe sont conservées (jointure externe)
+        assertNull(equipes.get(1));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindDisponiblesApres_UneSeuleRequete() {
+        // Given
+        List<Long> ids = persister(10);
+
+        // When
+        statistics.clear();
+        Slice<ProfilEntity> page = profilRepository.findDisponiblesApres(new Date(), ids.get(2), PageRequest.of(0, 5));
+        page.forEach(profil -> profil.getPersonne().getNom());
+
+        // Then
+        assertEquals(5, page.getNumberOfElements());
+        assertEquals(ids.get(3), page.getContent().get(0).getId());
+        assertTrue(page.hasNext());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Persiste des personnes disponibles (une sur deux rattachée à une équipe) et leur profil,
+     * puis vide le contexte de persistance
+     * @return Les ids des profils, dans l'ordre de création
+     */
+    private List<Long> persister(int nbPersonnes) {
+        EquipeEntity equipe = new EquipeEntity();
+        equipe.setCode("EQ1");
+        equipe.setNom("Equipe 1");
+        entityManager.persist(equipe);
+
+        List<Long> ids = new ArrayList<>();
+        for (int p = 1; p <= nbPersonnes; p++) {
+            PersonneEntity personne = new PersonneEntity();
+            personne.setIdentifiant(String.format("T%03d", p));
+            personne.setNom("Nom " + personne.getIdentifiant());
+            personne.setPrenom("Prénom " + personne.getIdentifiant());
+            if (p % 2 == 1) {
+                personne.setEquipe(equipe);
+            }
+            entityManager.persist(personne);
+
+            ProfilEntity profil = new ProfilEntity();
+            profil.setPersonne(personne);
+            profil.setRapporteur("Manager");
+            ids.add(entityManager.persistAndGetId(profil, Long.class));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+        return ids;
+    }
+}
@@ -0,0 +1,70 @@
+package fr.pmu.matrix.competence.service;
+
+import fr.pmu.matrix.competence.dto.StatistiquesCache;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheServiceTest {
+
+    @Mock
+    private Statistics statistics;
+
+    @Mock
+    private CacheRegionStatistics statistiquesCompetence;
+
+    @Mock
+    private CacheRegionStatistics statistiquesNote;
+
+    private CacheService cacheService;
+
+    @BeforeEach
+    void setUp() {
+        cacheService = new CacheService(statistics);
+    }
+
+    @Test
+    void testGetStatistiques() {
+        // Given
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{"note", "competence", "inconnue"});
+        when(statistics.getCacheRegionStatistics("competence")).thenReturn(statistiquesCompetence);
+        when(statistics.getCacheRegionStatistics("note")).thenReturn(statistiquesNote);
+        when(statistics.getCacheRegionStatistics("inconnue")).thenReturn(null);
+        when(statistiquesCompetence.getHitCount()).thenReturn(3L);
+        when(statistiquesCompetence.getMissCount()).thenReturn(1L);
+        when(statistiquesCompetence.getPutCount()).thenReturn(1L);
+
+        // When
+        List<StatistiquesCache> result = cacheService.getStatistiques();
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals("competence", result.get(0).getRegion());
+        assertEquals(3, result.get(0).getSucces());
+        assertEquals(1, result.get(0).getEchecs());
+        assertEquals(1, result.get(0).getAjouts());
+        assertEquals(0.75, result.get(0).getTauxSucces());
+        // Une région jamais lue a un taux de succès nul
+        assertEquals("note", result.get(1).getRegion());
+        assertEquals(0, result.get(1).getTauxSucces());
+    }
+
+    @Test
+    void testReinitialiserStatistiques() {
+        // When
+        cacheService.reinitialiserStatistiques();
+
+        // Then
+        verify(statistics, times(1)).clear();
+    }
+}
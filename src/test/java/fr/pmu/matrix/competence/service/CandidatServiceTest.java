@@ -0,0 +1,177 @@
+package fr.pmu.matrix.competence.service;
+
+import fr.pmu.matrix.competence.dto.CandidatDemande;
+import fr.pmu.matrix.competence.dto.CorrespondancesDemande;
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
+import fr.pmu.matrix.competence.entity.DemandeEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.index.CorrespondancesDemandes;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.MatriceCompetenceStore;
+import fr.pmu.matrix.competence.repository.DemandeRepository;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CandidatServiceTest {
+
+    @Mock
+    private DemandeRepository demandeRepository;
+
+    @Mock
+    private IndexPeriodes indexPeriodes;
+
+    @Mock
+    private MatriceCompetenceStore matriceCompetenceStore;
+
+    @Mock
+    private CorrespondancesDemandes correspondancesDemandes;
+
+    @InjectMocks
+    private CandidatService candidatService;
+
+    @Test
+    void testGetCandidats() {
+        // Given
+        when(demandeRepository.findById("D1")).thenReturn(Optional.of(createDemande()));
+        when(matriceCompetenceStore.getSnapshot()).thenReturn(createSnapshot());
+
+        // When
+        List<CandidatDemande> candidats = candidatService.getCandidats("D1", 10, false);
+
+        // Then : P003, sans aucune évaluation utile, n'est pas classée
+        assertEquals(2, candidats.size());
+        CandidatDemande premier = candidats.get(0);
+        assertEquals(1, premier.getRang());
+        assertEquals("P002", premier.getPersonne().getIdentifiant());
+        assertEquals(2, premier.getCompetencesCouvertes());
+        assertEquals(2, premier.getEcarts().size());
+        assertEquals("JAVA", premier.getEcarts().get(0).getCompetenceLibelle());
+        assertEquals(4, premier.getEcarts().get(0).getNoteActuelle());
+        assertEquals(1, premier.getEcarts().get(0).getEcart());
+
+        CandidatDemande second = candidats.get(1);
+        assertEquals(2, second.getRang());
+        assertEquals("P001", second.getPersonne().getIdentifiant());
+        assertNull(second.getEcarts().get(1).getNoteActuelle());
+        assertEquals(-2, second.getEcarts().get(1).getEcart());
+        verifyNoInteractions(indexPeriodes);
+    }
+
+    @Test
+    void testGetCandidats_DisponiblesSeulement() {
+        // Given
+        when(demandeRepository.findById("D1")).thenReturn(Optional.of(createDemande()));
+        when(matriceCompetenceStore.getSnapshot()).thenReturn(createSnapshot());
+        when(indexPeriodes.personnesDisponibles(any(Date.class)))
+                .thenReturn(Set.of("P001", "INCONNUE"));
+
+        // When
+        List<CandidatDemande> candidats = candidatService.getCandidats("D1", 10, true);
+
+        // Then
+        assertEquals(1, candidats.size());
+        assertEquals("P001", candidats.get(0).getPersonne().getIdentifiant());
+    }
+
+    @Test
+    void testGetCandidats_DemandeNotFound() {
+        // Given
+        when(demandeRepository.findById("D9")).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                candidatService.getCandidats("D9", 10, false));
+        assertEquals("Demande non trouvée avec l'ID: D9", exception.getMessage());
+        verifyNoInteractions(matriceCompetenceStore);
+    }
+
+    @Test
+    void testGetCorrespondances() {
+        // Given
+        Date date = new Date();
+        when(demandeRepository.existsById("D1")).thenReturn(true);
+        when(correspondancesDemandes.derniereSequence()).thenReturn(4L);
+        when(correspondancesDemandes.evenements("D1", 1L)).thenReturn(Arrays.asList(
+                new CorrespondancesDemandes.Evenement(2, "D1", "P001", CorrespondancesDemandes.TypeEvenement.SATISFAITE, date),
+                new CorrespondancesDemandes.Evenement(4, "D1", "P002", CorrespondancesDemandes.TypeEvenement.PERDUE, date),
+                new CorrespondancesDemandes.Evenement(5, "D1", "P003", CorrespondancesDemandes.TypeEvenement.SATISFAITE, date)));
+        when(correspondancesDemandes.personnes("D1")).thenReturn(Arrays.asList("P001", "P003"));
+
+        // When
+        CorrespondancesDemande correspondances = candidatService.getCorrespondances("D1", 1L);
+
+        // Then : l'événement 5, publié après la lecture du numéro, sera relu au prochain appel
+        assertEquals("D1", correspondances.getDemandeId());
+        assertEquals(Arrays.asList("P001", "P003"), correspondances.getPersonnes());
+        assertEquals(4L, correspondances.getSequence());
+        assertEquals(2, correspondances.getEvenements().size());
+        assertEquals("SATISFAITE", correspondances.getEvenements().get(0).getType());
+        assertEquals("P002", correspondances.getEvenements().get(1).getPersonneId());
+    }
+
+    @Test
+    void testGetCorrespondances_DemandeNotFound() {
+        // Given
+        when(demandeRepository.existsById("D9")).thenReturn(false);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                candidatService.getCorrespondances("D9", 0L));
+        assertEquals("Demande non trouvée avec l'ID: D9", exception.getMessage());
+        verifyNoInteractions(correspondancesDemandes);
+    }
+
+    @Test
+    void testGetCandidats_TopInvalide() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> candidatService.getCandidats("D1", 0, false));
+        verifyNoInteractions(demandeRepository);
+    }
+
+    private DemandeEntity createDemande() {
+        DemandeEntity demande = new DemandeEntity();
+        demande.setId("D1");
+        demande.getCompetencesRequises().add(new CompetenceRequiseEntity(1L, demande,
+                new CompetenceEntity("JAVA", "Java"), new NoteEntity(3, "Intermédiaire")));
+        demande.getCompetencesRequises().add(new CompetenceRequiseEntity(2L, demande,
+                new CompetenceEntity("SQL", "SQL"), new NoteEntity(2, "Débutant")));
+        return demande;
+    }
+
+    private MatriceCompetenceSnapshot createSnapshot() {
+        return MatriceCompetenceSnapshot.construire(
+                Arrays.asList(createPersonneEntity("P001"), createPersonneEntity("P002"), createPersonneEntity("P003")),
+                Arrays.asList(new CompetenceEntity("JAVA", "Java"), new CompetenceEntity("SQL", "SQL")),
+                List.of(),
+                Arrays.asList(
+                        new NoteMatriceProjection("P001", "JAVA", 3),
+                        new NoteMatriceProjection("P002", "JAVA", 4),
+                        new NoteMatriceProjection("P002", "SQL", 2)));
+    }
+
+    private PersonneEntity createPersonneEntity(String id) {
+        PersonneEntity entity = new PersonneEntity();
+        entity.setIdentifiant(id);
+        entity.setNom("Nom " + id);
+        entity.setPrenom("Prénom " + id);
+        return entity;
+    }
+}
@@ -0,0 +1,261 @@
+package fr.pmu.matrix.competence.service;
+
+import fr.pmu.matrix.competence.dto.CapacitePerimetre;
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.EquipeEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.MatriceCompetenceStore;
+import fr.pmu.matrix.competence.index.Referentiel;
+import fr.pmu.matrix.competence.repository.EquipeRepository;
+import fr.pmu.matrix.competence.repository.EvenementRepository;
+import fr.pmu.matrix.competence.repository.GroupementRepository;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import fr.pmu.matrix.competence.repository.projection.PeriodePersonneProjection;
+import fr.pmu.matrix.competence.repository.projection.RattachementProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CapaciteServiceTest {
+
+    @Mock
+    private MatriceCompetenceStore matriceCompetenceStore;
+
+    @Mock
+    private Referentiel referentiel;
+
+    @Mock
+    private IndexPeriodes indexPeriodes;
+
+    @Mock
+    private EvenementRepository evenementRepository;
+
+    @Mock
+    private EquipeRepository equipeRepository;
+
+    @Mock
+    private GroupementRepository groupementRepository;
+
+    private CapaciteService capaciteService;
+
+    private final LocalDate du = LocalDate.of(2024, 3, 1);
+    private final LocalDate au = LocalDate.of(2024, 3, 10);
+
+    @BeforeEach
+    void setUp() {
+        capaciteService = new CapaciteService(matriceCompetenceStore, referentiel, indexPeriodes,
+                evenementRepository, equipeRepository, groupementRepository);
+    }
+
+    @Test
+    void testGetCapaciteEquipe() {
+        // Given
+        snapshotDeReference();
+        when(equipeRepository.existsById("EQ1")).thenReturn(true);
+        when(indexPeriodes.absencesChevauchant(any(Date.class), any(Date.class))).thenReturn(Arrays.asList(
+                new PeriodePersonneProjection(1L, "P001", date(3, 3, 0), date(3, 4, 0)),
+                new PeriodePersonneProjection(2L, "P002", date(2, 20, 0), date(3, 1, 0)),
+                // P003 n'atteint pas la note minimale
+                new PeriodePersonneProjection(3L, "P003", date(3, 1, 0), date(3, 10, 0))));
+        when(indexPeriodes.profilsChevauchant(any(Date.class), any(Date.class))).thenReturn(Collections.singletonList(
+                new PeriodePersonneProjection(4L, "P002", date(3, 7, 0), null)));
+        // P001 participe à un événement qui chevauche son absence
+        when(evenementRepository.findParticipationsPersonnes(any(Date.class), any(Date.class))).thenReturn(Collections.singletonList(
+                new PeriodePersonneProjection(5L, "P001", date(3, 4, 10), date(3, 5, 18))));
+        when(evenementRepository.findParticipationsEquipes(any(Date.class), any(Date.class))).thenReturn(Collections.emptyList());
+
+        // When
+        CapacitePerimetre capacite = capaciteService.getCapaciteEquipe("EQ1", du, au, "JAVA", 3);
+
+        // Then
+        assertEquals(2, capacite.getEffectif());
+        assertEquals(1, capacite.getMinimumDisponibles());
+        assertEquals(10, capacite.getJours().size());
+        assertEquals(LocalDate.of(2024, 3, 10), capacite.getJours().get(9).getDate());
+        assertArrayEquals(new int[]{1, 2, 1, 1, 1, 2, 1, 1, 1, 1}, disponibles(capacite));
+        assertEquals(1, capacite.getJours().get(0).getAbsentes());
+        // Le 4 mars, P001 est à la fois absente et mobilisée mais n'est retirée qu'une fois
+        assertEquals(1, capacite.getJours().get(3).getAbsentes());
+        assertEquals(1, capacite.getJours().get(3).getMobilisees());
+        assertEquals(0, capacite.getJours().get(5).getMobilisees());
+        // Le profil de P002 est ouvert après le début du 7 mars
+        assertEquals(0, capacite.getJours().get(5).getEnPartance());
+        assertEquals(1, capacite.getJours().get(6).getEnPartance());
+    }
+
+    @Test
+    void testGetCapaciteGroupement_MembresDesEquipesParticipantes() {
+        // Given
+        snapshotDeReference();
+        when(groupementRepository.existsById("GRP1")).thenReturn(true);
+        when(equipeRepository.findAllRattachements()).thenReturn(Arrays.asList(
+                new RattachementProjection("EQ1", "GRP1"),
+                new RattachementProjection("EQ2", "GRP1"),
+                new RattachementProjection("EQ3", null)));
+        when(indexPeriodes.absencesChevauchant(any(Date.class), any(Date.class))).thenReturn(Collections.emptyList());
+        when(indexPeriodes.profilsChevauchant(any(Date.class), any(Date.class))).thenReturn(Collections.emptyList());
+        when(evenementRepository.findParticipationsPersonnes(any(Date.class), any(Date.class))).thenReturn(Collections.emptyList());
+        when(evenementRepository.findParticipationsEquipes(any(Date.class), any(Date.class))).thenReturn(Arrays.asList(
+                new PeriodePersonneProjection(6L, "P004", date(2, 1, 0), date(3, 2, 12)),
+                new PeriodePersonneProjection(7L, "P004", date(3, 2, 8), date(3, 2, 9))));
+
+        // When
+        CapacitePerimetre capacite = capaciteService.getCapaciteGroupement("GRP1", du, au, "JAVA", 3);
+
+        // Then
+        assertEquals(3, capacite.getEffectif());
+        assertArrayEquals(new int[]{2, 2, 3, 3, 3, 3, 3, 3, 3, 3}, disponibles(capacite));
+        assertEquals(1, capacite.getJours().get(1).getMobilisees());
+    }
+
+    @Test
+    void testCalculer_GrandVolume() {
+        // Given : 5000 personnes, une année, des périodes aléatoires qui se chevauchent
+        LocalDate debutAnnee = LocalDate.of(2024, 1, 1);
+        LocalDate finAnnee = LocalDate.of(2024, 12, 31);
+        int nbJours = 366;
+        EquipeEntity equipe = createEquipeEntity("EQ1");
+        List<PersonneEntity> personnes = new ArrayList<>();
+        List<NoteMatriceProjection> notes = new ArrayList<>();
+        for (int p = 0; p < 5000; p++) {
+            String identifiant = String.format("P%05d", p);
+            personnes.add(createPersonneEntity(identifiant, equipe));
+            notes.add(new NoteMatriceProjection(identifiant, "JAVA", 4));
+        }
+        when(matriceCompetenceStore.getSnapshot()).thenReturn(MatriceCompetenceSnapshot.construire(personnes,
+                Collections.singletonList(new CompetenceEntity("JAVA", "Java")),
+                Collections.singletonList(new NoteEntity(4, "Avancé")), notes));
+        when(referentiel.contientCompetence("JAVA")).thenReturn(true);
+
+        Random random = new Random(42);
+        boolean[][] indisponible = new boolean[5000][nbJours];
+        List<PeriodePersonneProjection> absences = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            int p = random.nextInt(5000);
+            int debut = random.nextInt(nbJours);
+            int fin = Math.min(nbJours - 1, debut + random.nextInt(15));
+            absences.add(new PeriodePersonneProjection((long) i, String.format("P%05d", p),
+                    jour(debutAnnee.plusDays(debut)), jour(debutAnnee.plusDays(fin))));
+            for (int j = debut; j <= fin; j++) {
+                indisponible[p][j] = true;
+            }
+        }
+        when(indexPeriodes.absencesChevauchant(any(Date.class), any(Date.class))).thenReturn(absences);
+        when(indexPeriodes.profilsChevauchant(any(Date.class), any(Date.class))).thenReturn(Collections.emptyList());
+        when(evenementRepository.findParticipationsPersonnes(any(Date.class), any(Date.class))).thenReturn(Collections.emptyList());
+        when(evenementRepository.findParticipationsEquipes(any(Date.class), any(Date.class))).thenReturn(Collections.emptyList());
+
+        // When
+        CapacitePerimetre capacite = capaciteService.calculer("EQ1", Set.of("EQ1"), debutAnnee, finAnnee, "JAVA", 3);
+
+        // Then : même résultat qu'un décompte jour par jour
+        assertEquals(nbJours, capacite.getJours().size());
+        for (int j = 0; j < nbJours; j++) {
+            int attendu = 0;
+            for (int p = 0; p < 5000; p++) {
+                if (!indisponible[p][j]) {
+                    attendu++;
+                }
+            }
+            assertEquals(attendu, capacite.getJours().get(j).getDisponibles(), "jour " + j);
+        }
+    }
+
+    @Test
+    void testGetCapaciteEquipe_PeriodeInvalide() {
+        // Given
+        when(equipeRepository.existsById("EQ1")).thenReturn(true);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> capaciteService.getCapaciteEquipe("EQ1", au, du, "JAVA", 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> capaciteService.getCapaciteEquipe("EQ1", du, du.plusDays(CapaciteService.JOURS_MAX), "JAVA", 3));
+        verifyNoInteractions(indexPeriodes, evenementRepository);
+    }
+
+    @Test
+    void testGetCapaciteEquipe_NonTrouvees() {
+        // Given
+        when(equipeRepository.existsById("EQ1")).thenReturn(true);
+        when(equipeRepository.existsById("EQ9")).thenReturn(false);
+        when(referentiel.contientCompetence("COBOL")).thenReturn(false);
+
+        // When & Then
+        RuntimeException equipe = assertThrows(RuntimeException.class,
+                () -> capaciteService.getCapaciteEquipe("EQ9", du, au, "JAVA", 3));
+        assertEquals("Équipe non trouvée avec le code: EQ9", equipe.getMessage());
+        RuntimeException competence = assertThrows(RuntimeException.class,
+                () -> capaciteService.getCapaciteEquipe("EQ1", du, au, "COBOL", 3));
+        assertEquals("Compétence non trouvée: COBOL", competence.getMessage());
+    }
+
+    /**
+     * EQ1 : P001 (JAVA 4), P002 (JAVA 3), P003 (JAVA 2) ; EQ2 : P004 (JAVA 5) ; P005 sans équipe (JAVA 5)
+     */
+    private void snapshotDeReference() {
+        EquipeEntity equipe1 = createEquipeEntity("EQ1");
+        EquipeEntity equipe2 = createEquipeEntity("EQ2");
+        when(matriceCompetenceStore.getSnapshot()).thenReturn(MatriceCompetenceSnapshot.construire(
+                Arrays.asList(createPersonneEntity("P001", equipe1), createPersonneEntity("P002", equipe1),
+                        createPersonneEntity("P003", equipe1), createPersonneEntity("P004", equipe2),
+                        createPersonneEntity("P005", null)),
+                Collections.singletonList(new CompetenceEntity("JAVA", "Java")),
+                Arrays.asList(new NoteEntity(2, "Débutant"), new NoteEntity(3, "Intermédiaire"),
+                        new NoteEntity(4, "Avancé"), new NoteEntity(5, "Expert")),
+                Arrays.asList(
+                        new NoteMatriceProjection("P001", "JAVA", 4),
+                        new NoteMatriceProjection("P002", "JAVA", 3),
+                        new NoteMatriceProjection("P003", "JAVA", 2),
+                        new NoteMatriceProjection("P004", "JAVA", 5),
+                        new NoteMatriceProjection("P005", "JAVA", 5))));
+        when(referentiel.contientCompetence("JAVA")).thenReturn(true);
+    }
+
+    private int[] disponibles(CapacitePerimetre capacite) {
+        return capacite.getJours().stream().mapToInt(CapacitePerimetre.CapaciteJour::getDisponibles).toArray();
+    }
+
+    private Date date(int mois, int jour, int heure) {
+        return Date.from(LocalDate.of(2024, mois, jour).atTime(heure, 0).atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private Date jour(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private EquipeEntity createEquipeEntity(String code) {
+        EquipeEntity equipe = new EquipeEntity();
+        equipe.setCode(code);
+        equipe.setNom("Equipe " + code);
+        return equipe;
+    }
+
+    private PersonneEntity createPersonneEntity(String identifiant, EquipeEntity equipe) {
+        PersonneEntity personne = new PersonneEntity();
+        personne.setIdentifiant(identifiant);
+        personne.setNom("Nom " + identifiant);
+        personne.setPrenom("Prénom " + identifiant);
+        personne.setEquipe(equipe);
+        return personne;
+    }
+}
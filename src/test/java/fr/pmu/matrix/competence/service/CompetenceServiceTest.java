@@ -2,6 +2,7 @@ package fr.pmu.matrix.competence.service;
 
 import fr.pmu.matrix.competence.domain.Competence;
 import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.index.Referentiel;
 import fr.pmu.matrix.competence.mapper.CompetenceMapper;
 import fr.pmu.matrix.competence.repository.CompetenceRepository;
 import org.junit.jupiter.api.Test;
@@ -29,6 +30,9 @@ class CompetenceServiceTest {
     @Spy
     private CompetenceMapper competenceMapper = new CompetenceMapper();
 
+    @Mock
+    private Referentiel referentiel;
+
     @InjectMocks
     private CompetenceService competenceService;
 
@@ -113,6 +117,7 @@ class CompetenceServiceTest {
         verify(competenceMapper, times(1)).mapToCompetenceEntity(competence);
         verify(competenceRepository, times(1)).save(entityToSave);
         verify(competenceMapper, times(1)).mapToCompetenceDomain(savedEntity);
+        verify(referentiel, times(1)).publierCompetence(savedEntity);
     }
 
     @Test
@@ -194,6 +199,7 @@ class CompetenceServiceTest {
         // Then
         verify(competenceRepository, times(1)).existsById(libelle);
         verify(competenceRepository, times(1)).deleteById(libelle);
+        verify(referentiel, times(1)).retirerCompetence(libelle);
     }
 
     @Test
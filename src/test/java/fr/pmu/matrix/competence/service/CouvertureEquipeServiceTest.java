@@ -0,0 +1,150 @@
+package fr.pmu.matrix.competence.service;
+
+import fr.pmu.matrix.competence.dto.CouvertureEquipe;
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
+import fr.pmu.matrix.competence.entity.EquipeEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.MatriceCompetenceStore;
+import fr.pmu.matrix.competence.repository.EquipeRepository;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouvertureEquipeServiceTest {
+
+    @Mock
+    private EquipeRepository equipeRepository;
+
+    @Mock
+    private MatriceCompetenceStore matriceCompetenceStore;
+
+    @InjectMocks
+    private CouvertureEquipeService couvertureEquipeService;
+
+    @Test
+    void testGetCouverture() {
+        // Given
+        EquipeEntity dev = createEquipeEntity("EQ1", "JAVA", 3, "SQL", 2, "COBOL", 1);
+        when(equipeRepository.findById("EQ1")).thenReturn(Optional.of(dev));
+        when(matriceCompetenceStore.getSnapshot()).thenReturn(createSnapshot(dev, createEquipeEntity("EQ2")));
+
+        // When
+        CouvertureEquipe couverture = couvertureEquipeService.getCouverture("EQ1");
+
+        // Then
+        assertEquals("EQ1", couverture.getEquipeCode());
+        assertEquals(2, couverture.getNbMembres());
+        assertEquals(3, couverture.getCompetences().size());
+
+        CouvertureEquipe.CouvertureCompetence java = couverture.getCompetences().get(0);
+        assertEquals("JAVA", java.getCompetenceLibelle());
+        assertEquals(1, java.getMembresAuNiveau());
+        assertEquals(4, java.getMeilleureNote());
+        assertEquals(1, java.getEcart());
+
+        // La note de P003 (autre équipe) n'est pas prise en compte
+        CouvertureEquipe.CouvertureCompetence sql = couverture.getCompetences().get(1);
+        assertEquals(0, sql.getMembresAuNiveau());
+        assertEquals(1, sql.getMeilleureNote());
+        assertEquals(-1, sql.getEcart());
+
+        // Compétence absente de la matrice
+        CouvertureEquipe.CouvertureCompetence cobol = couverture.getCompetences().get(2);
+        assertNull(cobol.getMeilleureNote());
+        assertEquals(-1, cobol.getEcart());
+    }
+
+    @Test
+    void testGetCouverture_EquipeNotFound() {
+        // Given
+        when(equipeRepository.findById("EQ9")).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                couvertureEquipeService.getCouverture("EQ9"));
+        assertEquals("Équipe non trouvée avec le code: EQ9", exception.getMessage());
+        verifyNoInteractions(matriceCompetenceStore);
+    }
+
+    @Test
+    void testGetCouvertures() {
+        // Given
+        EquipeEntity dev = createEquipeEntity("EQ1", "JAVA", 3);
+        EquipeEntity qa = createEquipeEntity("EQ2", "SQL", 2);
+        EquipeEntity vide = createEquipeEntity("EQ0", "JAVA", 1);
+        when(equipeRepository.findAllAvecProfilRecherche()).thenReturn(Arrays.asList(qa, dev, vide));
+        when(matriceCompetenceStore.getSnapshot()).thenReturn(createSnapshot(dev, qa));
+
+        // When
+        List<CouvertureEquipe> couvertures = couvertureEquipeService.getCouvertures();
+
+        // Then
+        assertEquals(3, couvertures.size());
+        assertEquals("EQ0", couvertures.get(0).getEquipeCode());
+        assertEquals(0, couvertures.get(0).getNbMembres());
+        assertEquals(0, couvertures.get(0).getCompetences().get(0).getMembresAuNiveau());
+        assertEquals(1, couvertures.get(1).getCompetences().get(0).getMembresAuNiveau());
+        assertEquals(1, couvertures.get(2).getNbMembres());
+        assertEquals(1, couvertures.get(2).getCompetences().get(0).getMembresAuNiveau());
+        verify(equipeRepository, never()).findById(anyString());
+        verify(matriceCompetenceStore, times(1)).getSnapshot();
+    }
+
+    /**
+     * P001 et P002 dans la première équipe, P003 dans la seconde, P004 sans équipe
+     */
+    private MatriceCompetenceSnapshot createSnapshot(EquipeEntity premiere, EquipeEntity seconde) {
+        PersonneEntity p1 = createPersonneEntity("P001", premiere);
+        PersonneEntity p2 = createPersonneEntity("P002", premiere);
+        PersonneEntity p3 = createPersonneEntity("P003", seconde);
+        PersonneEntity p4 = createPersonneEntity("P004", null);
+        return MatriceCompetenceSnapshot.construire(
+                Arrays.asList(p1, p2, p3, p4),
+                Arrays.asList(new CompetenceEntity("JAVA", "Java"), new CompetenceEntity("SQL", "SQL")),
+                List.of(),
+                Arrays.asList(
+                        new NoteMatriceProjection("P001", "JAVA", 4),
+                        new NoteMatriceProjection("P002", "JAVA", 2),
+                        new NoteMatriceProjection("P002", "SQL", 1),
+                        new NoteMatriceProjection("P003", "SQL", 4),
+                        new NoteMatriceProjection("P004", "JAVA", 5)));
+    }
+
+    /**
+     * @param profil Couples (libellé de compétence, note requise)
+     */
+    private EquipeEntity createEquipeEntity(String code, Object... profil) {
+        EquipeEntity equipe = new EquipeEntity();
+        equipe.setCode(code);
+        equipe.setNom("Equipe " + code);
+        for (int i = 0; i < profil.length; i += 2) {
+            equipe.getProfilRecherche().add(new CompetenceRequiseEntity(null, null,
+                    new CompetenceEntity((String) profil[i], null), new NoteEntity((Integer) profil[i + 1], null)));
+        }
+        return equipe;
+    }
+
+    private PersonneEntity createPersonneEntity(String id, EquipeEntity equipe) {
+        PersonneEntity entity = new PersonneEntity();
+        entity.setIdentifiant(id);
+        entity.setNom("Nom " + id);
+        entity.setPrenom("Prénom " + id);
+        entity.setEquipe(equipe);
+        return entity;
+    }
+}
@@ -0,0 +1,152 @@
+package fr.pmu.matrix.competence.service;
+
+import fr.pmu.matrix.competence.domain.Nature;
+import fr.pmu.matrix.competence.index.CorrespondancesDemandes;
+import fr.pmu.matrix.competence.index.IndexCompetencesDemandes;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.repository.CompetenceRequiseRepository;
+import fr.pmu.matrix.competence.repository.DemandeArchiveRepository;
+import fr.pmu.matrix.competence.repository.DemandeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DemandeArchivageServiceTest {
+
+    @Mock
+    private DemandeRepository demandeRepository;
+
+    @Mock
+    private DemandeArchiveRepository demandeArchiveRepository;
+
+    @Mock
+    private CompetenceRequiseRepository competenceRequiseRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IndexPeriodes indexPeriodes;
+
+    @Mock
+    private IndexCompetencesDemandes indexCompetencesDemandes;
+
+    @Mock
+    private CorrespondancesDemandes correspondancesDemandes;
+
+    private DemandeArchivageService archivageService;
+
+    private final Date date = new Date();
+
+    @BeforeEach
+    void setUp() {
+        archivageService = new DemandeArchivageService(demandeRepository, demandeArchiveRepository,
+                competenceRequiseRepository, transactionManager, indexPeriodes, indexCompetencesDemandes,
+                correspondancesDemandes, 2);
+    }
+
+    @Test
+    void testArchiver_ParLots() {
+        // Given
+        List<String> premierLot = Arrays.asList("D1", "D2");
+        List<String> secondLot = Collections.singletonList("D3");
+        when(demandeRepository.findIdsTermineesAvant(Nature.TEMPORAIRE, date, "", PageRequest.of(0, 2))).thenReturn(premierLot);
+        when(demandeRepository.findIdsTermineesAvant(Nature.TEMPORAIRE, date, "D2", PageRequest.of(0, 2))).thenReturn(secondLot);
+
+        // When
+        int archivees = archivageService.archiver(date);
+
+        // Then
+        assertEquals(3, archivees);
+        // Copie avant suppression, les compétences requises avant leur demande
+        InOrder ordre = inOrder(demandeArchiveRepository, competenceRequiseRepository, demandeRepository);
+        ordre.verify(demandeArchiveRepository).copierDemandes(premierLot);
+        ordre.verify(demandeArchiveRepository).copierCompetencesRequises(premierLot);
+        ordre.verify(competenceRequiseRepository).supprimerParDemandes(premierLot);
+        ordre.verify(demandeRepository).supprimer(premierLot);
+        verify(demandeRepository, times(1)).supprimer(secondLot);
+        verify(transactionManager, times(2)).commit(any());
+        verify(indexPeriodes, times(2)).invaliderDemandes();
+        verify(indexCompetencesDemandes, times(1)).retirer("D3");
+        verify(correspondancesDemandes, times(1)).retirerDemande("D1");
+    }
+
+    @Test
+    void testArchiver_LotCompletPuisVide() {
+        // Given
+        when(demandeRepository.findIdsTermineesAvant(Nature.TEMPORAIRE, date, "", PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList("D1", "D2"));
+        when(demandeRepository.findIdsTermineesAvant(Nature.TEMPORAIRE, date, "D2", PageRequest.of(0, 2)))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        int archivees = archivageService.archiver(date);
+
+        // Then
+        assertEquals(2, archivees);
+        verify(demandeRepository, times(2)).findIdsTermineesAvant(any(), any(), anyString(), any());
+        verify(demandeArchiveRepository, times(1)).copierDemandes(anyCollection());
+        verify(indexPeriodes, times(1)).invaliderDemandes();
+    }
+
+    @Test
+    void testArchiver_EchecDuLot() {
+        // Given
+        when(demandeRepository.findIdsTermineesAvant(Nature.TEMPORAIRE, date, "", PageRequest.of(0, 2)))
+                .thenReturn(Collections.singletonList("D1"));
+        when(competenceRequiseRepository.supprimerParDemandes(anyCollection()))
+                .thenThrow(new DataIntegrityViolationException("contrainte"));
+
+        // When
+        int archivees = archivageService.archiver(date);
+
+        // Then : le lot puis la demande seule sont annulés, sans exception
+        assertEquals(0, archivees);
+        verify(transactionManager, times(2)).rollback(any());
+        verify(demandeRepository, never()).supprimer(anyCollection());
+        verifyNoInteractions(indexPeriodes, indexCompetencesDemandes, correspondancesDemandes);
+    }
+
+    @Test
+    void testArchiver_DemandeDejaArchiveeIgnoree() {
+        // Given : D2 a déjà une copie archivée, le lot suivant commence après elle
+        when(demandeRepository.findIdsTermineesAvant(Nature.TEMPORAIRE, date, "", PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList("D1", "D2"));
+        when(demandeRepository.findIdsTermineesAvant(Nature.TEMPORAIRE, date, "D2", PageRequest.of(0, 2)))
+                .thenReturn(Collections.singletonList("D3"));
+        when(demandeArchiveRepository.copierDemandes(anyCollection())).thenAnswer(invocation -> {
+            if (invocation.<List<String>>getArgument(0).contains("D2")) {
+                throw new DataIntegrityViolationException("demande_archive: clé primaire D2");
+            }
+            return 1;
+        });
+
+        // When
+        int archivees = archivageService.archiver(date);
+
+        // Then
+        assertEquals(2, archivees);
+        verify(demandeRepository, times(1)).supprimer(List.of("D1"));
+        verify(demandeRepository, times(1)).supprimer(Collections.singletonList("D3"));
+        verify(demandeRepository, never()).supprimer(List.of("D2"));
+        verify(correspondancesDemandes, times(1)).retirerDemande("D1");
+        verify(correspondancesDemandes, never()).retirerDemande("D2");
+        verify(indexPeriodes, times(2)).invaliderDemandes();
+    }
+}
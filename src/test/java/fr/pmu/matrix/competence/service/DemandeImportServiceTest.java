@@ -0,0 +1,194 @@
+package fr.pmu.matrix.competence.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.pmu.matrix.competence.dto.DemandeImportLigne;
+import fr.pmu.matrix.competence.dto.DemandeImportLigne.Statut;
+import fr.pmu.matrix.competence.index.CorrespondancesDemandes;
+import fr.pmu.matrix.competence.index.IndexCompetencesDemandes;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.index.Referentiel;
+import fr.pmu.matrix.competence.repository.EquipeRepository;
+import fr.pmu.matrix.competence.repository.GroupementRepository;
+import fr.pmu.matrix.competence.service.DemandeImportService.Format;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DemandeImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Referentiel referentiel;
+
+    @Mock
+    private EquipeRepository equipeRepository;
+
+    @Mock
+    private GroupementRepository groupementRepository;
+
+    @Mock
+    private IndexPeriodes indexPeriodes;
+
+    @Mock
+    private IndexCompetencesDemandes indexCompetencesDemandes;
+
+    @Mock
+    private CorrespondancesDemandes correspondancesDemandes;
+
+    private DemandeImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new DemandeImportService(jdbcTemplate, transactionManager, new ObjectMapper(), referentiel,
+                equipeRepository, groupementRepository, indexPeriodes, indexCompetencesDemandes, correspondancesDemandes);
+    }
+
+    @Test
+    void testImporter_Ndjson() throws IOException {
+        // Given
+        String ndjson = demandeJson("PERMANENT", "EQUIPE", "EQ1", "JAVA", 4) + "\n"
+                + demandeJson("PERMANENT", "EQUIPE", "EQ1", "COBOL", 4) + "\n"
+                + demandeJson("TEMPORAIRE", "EQUIPE", "EQ1", "JAVA", 4) + "\n"
+                + demandeJson("INCONNUE", "EQUIPE", "EQ1", "JAVA", 4) + "\n"
+                + demandeJson("EXPERTISE", "GROUPEMENT", "GRP1", "JAVA", 3) + "\n";
+        referentielDeReference();
+        when(equipeRepository.existsById("EQ1")).thenReturn(true);
+        when(groupementRepository.existsById("GRP1")).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1))).thenReturn(Collections.singletonList(100L));
+
+        // When
+        List<DemandeImportLigne> resultats = importer(ndjson, Format.NDJSON);
+
+        // Then
+        assertEquals(5, resultats.size());
+        assertEquals(Statut.CREEE, resultats.get(0).getStatut());
+        assertNotNull(resultats.get(0).getDemandeId());
+        assertEquals("Compétence non trouvée: COBOL", resultats.get(1).getMessage());
+        assertEquals("La demande n'est pas valide", resultats.get(2).getMessage());
+        assertTrue(resultats.get(3).getMessage().startsWith("Demande illisible"));
+        assertEquals(Statut.CREEE, resultats.get(4).getStatut());
+        assertEquals(4, resultats.get(4).getIndex());
+
+        // Un seul lot : deux demandes, deux compétences requises aux identifiants réservés sur la séquence
+        verify(equipeRepository, times(1)).existsById("EQ1");
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT INTO demande"), argThat((List<Object[]> lot) -> lot.size() == 2));
+        ArgumentCaptor<List<Object[]>> competences = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT INTO competence_requise"), competences.capture());
+        assertEquals(51L, competences.getValue().get(0)[0]);
+        assertEquals(52L, competences.getValue().get(1)[0]);
+        assertEquals(resultats.get(4).getDemandeId(), competences.getValue().get(1)[1]);
+        verify(transactionManager, times(1)).commit(any());
+        verify(indexPeriodes, times(1)).invaliderDemandes();
+        verify(indexCompetencesDemandes, times(1)).invalider();
+        verify(correspondancesDemandes, times(1)).invalider();
+    }
+
+    @Test
+    void testImporter_CsvPointVirgule() throws IOException {
+        // Given
+        String csv = "\uFEFFmatriculeDemandeur;description;nature;dateDebut;dateFin;destinationType;destinationCode;competences\r\n"
+                + "M001;\"Renfort; équipe \"\"Matrix\"\"\nurgent\";TEMPORAIRE;2024-01-01;2024-06-30;EQUIPE;EQ1;JAVA:4|SPRING:3\r\n"
+                + "\r\n"
+                + "M002;;PERMANENT;01/01/2024;;EQUIPE;EQ1;JAVA:4\r\n"
+                + "M003;;PERMANENT;2024-01-01;;EQUIPE;EQ1;JAVA\r\n";
+        referentielDeReference();
+        when(equipeRepository.existsById("EQ1")).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1))).thenReturn(Collections.singletonList(1L), Collections.singletonList(51L));
+
+        // When
+        List<DemandeImportLigne> resultats = importer(csv, Format.CSV);
+
+        // Then
+        assertEquals(3, resultats.size());
+        assertEquals(Statut.CREEE, resultats.get(0).getStatut());
+        assertEquals("Date invalide: 01/01/2024 (attendu AAAA-MM-JJ)", resultats.get(1).getMessage());
+        assertEquals("Compétence requise invalide: JAVA (attendu COMPETENCE:NOTE)", resultats.get(2).getMessage());
+
+        ArgumentCaptor<List<Object[]>> demandes = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT INTO demande"), demandes.capture());
+        assertEquals("Renfort; équipe \"Matrix\"\nurgent", demandes.getValue().get(0)[2]);
+        assertEquals("TEMPORAIRE", demandes.getValue().get(0)[3]);
+        // La première valeur de la séquence ne couvre que l'identifiant 1, la suivante le bloc 2..51
+        ArgumentCaptor<List<Object[]>> competences = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT INTO competence_requise"), competences.capture());
+        assertEquals(1L, competences.getValue().get(0)[0]);
+        assertEquals(2L, competences.getValue().get(1)[0]);
+    }
+
+    @Test
+    void testOuvrir_ColonneCsvManquante() {
+        // When & Then
+        IOException exception = assertThrows(IOException.class, () -> importService.ouvrir(
+                flux("matriculeDemandeur,nature\nM001,PERMANENT\n"), Format.CSV));
+        assertEquals("Colonne CSV manquante: description", exception.getMessage());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testImporter_EchecDuLot() throws IOException {
+        // Given
+        referentielDeReference();
+        when(equipeRepository.existsById("EQ1")).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1))).thenReturn(Collections.singletonList(100L));
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO demande"), anyList()))
+                .thenThrow(new DataIntegrityViolationException("contrainte"));
+
+        // When
+        List<DemandeImportLigne> resultats = importer(demandeJson("PERMANENT", "EQUIPE", "EQ1", "JAVA", 4), Format.NDJSON);
+
+        // Then
+        assertEquals(Statut.REJETEE, resultats.get(0).getStatut());
+        assertNull(resultats.get(0).getDemandeId());
+        assertTrue(resultats.get(0).getMessage().startsWith("Erreur lors de l'écriture du lot"));
+        verify(transactionManager, times(1)).rollback(any());
+        verifyNoInteractions(indexPeriodes, indexCompetencesDemandes, correspondancesDemandes);
+    }
+
+    private List<DemandeImportLigne> importer(String contenu, Format format) throws IOException {
+        List<DemandeImportLigne> resultats = new ArrayList<>();
+        importService.importer(importService.ouvrir(flux(contenu), format), resultats::add);
+        return resultats;
+    }
+
+    private void referentielDeReference() {
+        lenient().when(referentiel.contientCompetence(anyString())).thenAnswer(invocation -> {
+            String libelle = invocation.getArgument(0);
+            return libelle.equals("JAVA") || libelle.equals("SPRING");
+        });
+        lenient().when(referentiel.contientNote(anyInt())).thenReturn(true);
+    }
+
+    private String demandeJson(String nature, String destinationType, String destinationCode, String competence, int note) {
+        return "{\"matriculeDemandeur\":\"M001\",\"nature\":\"" + nature + "\",\"dateDebut\":\"2024-01-01\","
+                + "\"destination\":{\"type\":\"" + destinationType + "\",\"code\":\"" + destinationCode + "\"},"
+                + "\"competencesRecherchees\":[{\"competenceLibelle\":\"" + competence + "\",\"noteValeur\":" + note + "}]}";
+    }
+
+    private InputStream flux(String contenu) {
+        return new ByteArrayInputStream(contenu.getBytes(StandardCharsets.UTF_8));
+    }
+}
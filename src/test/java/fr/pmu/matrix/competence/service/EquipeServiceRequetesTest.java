@@ -0,0 +1,186 @@
+package fr.pmu.matrix.competence.service;
+
+import fr.pmu.matrix.competence.domain.Equipe;
+import fr.pmu.matrix.competence.domain.Nature;
+import fr.pmu.matrix.competence.dto.PageCurseur;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
+import fr.pmu.matrix.competence.entity.DemandeEntity;
+import fr.pmu.matrix.competence.entity.EquipeEntity;
+import fr.pmu.matrix.competence.entity.GroupementEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.index.HeatmapGroupements;
+import fr.pmu.matrix.competence.index.Referentiel;
+import fr.pmu.matrix.competence.mapper.EquipeMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.sql.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vérifie que la liste et les pages d'équipes de {@link EquipeService} sont construites avec
+ * un nombre fixe de requêtes SQL, quel que soit le nombre d'équipes (pas de requête par équipe).
+ */
+@DataJpaTest
+@Import({EquipeService.class, EquipeMapper.class})
+class EquipeServiceRequetesTest {
+
+    private static final int NB_EQUIPES = 1000;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EquipeService equipeService;
+
+    @MockBean
+    private Referentiel referentiel;
+
+    @MockBean
+    private HeatmapGroupements heatmapGroupements;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testGetAllEquipes_TroisRequetesPourMilleEquipes() {
+        // Given
+        persister();
+
+        // When
+        statistics.clear();
+        long debut = System.nanoTime();
+        List<Equipe> equipes = equipeService.getAllEquipes();
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+
+        // Then
+        assertEquals(NB_EQUIPES, equipes.size());
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "Requêtes: " + statistics.getPrepareStatementCount() + " en " + dureeMs + " ms");
+
+        Equipe premiere = equipes.get(0);
+        assertEquals("EQ0000", premiere.getCode());
+        assertEquals("GRP0", premiere.getGroupement().getCode());
+        assertEquals(List.of("P0000-0", "P0000-1", "P0000-2"),
+                premiere.getMembres().stream().map(membre -> membre.getIdentifiant()).toList());
+        assertEquals(2, premiere.getProfilRecherche().size());
+        assertEquals("JAVA", premiere.getProfilRecherche().get(0).getCompetence().getLibelle());
+        assertEquals(3, premiere.getProfilRecherche().get(0).getNoteRequise().getValeur());
+
+        // Une équipe sur dix n'a ni membre, ni profil, ni groupement
+        Equipe sansRattachement = equipes.get(9);
+        assertNull(sansRattachement.getGroupement());
+        assertTrue(sansRattachement.getMembres().isEmpty());
+        assertTrue(sansRattachement.getProfilRecherche().isEmpty());
+    }
+
+    @Test
+    void testGetAllEquipes_FieldsCode_UneRequete() {
+        // Given
+        persister();
+
+        // When
+        statistics.clear();
+        List<Equipe> equipes = equipeService.getAllEquipes(SelectionChamps.depuis("code,nom"));
+
+        // Then
+        assertEquals(NB_EQUIPES, equipes.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals("EQ0000", equipes.get(0).getCode());
+        assertNull(equipes.get(0).getGroupement());
+        assertTrue(equipes.get(0).getMembres().isEmpty());
+        assertTrue(equipes.get(0).getProfilRecherche().isEmpty());
+    }
+
+    @Test
+    void testGetEquipesPage_NombreDeRequetesFixe() {
+        // Given
+        persister();
+
+        // When
+        statistics.clear();
+        PageCurseur<Equipe> page = equipeService.getEquipesPage(null, 100);
+
+        // Then : la page avec ses groupements, ses membres et ses profils, rien par équipe
+        assertEquals(100, page.getTaille());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        Equipe premiere = page.getElements().get(0);
+        assertEquals(List.of("P0000-0", "P0000-1", "P0000-2"),
+                premiere.getMembres().stream().map(membre -> membre.getIdentifiant()).toList());
+        assertEquals(2, premiere.getProfilRecherche().size());
+        assertEquals("GRP0", premiere.getGroupement().getCode());
+        assertTrue(page.getElements().get(9).getMembres().isEmpty());
+    }
+
+    /**
+     * Persiste les équipes avec trois membres et deux lignes de profil de recherche chacune,
+     * sauf une sur dix, puis vide le contexte de persistance et le cache de second niveau
+     */
+    private void persister() {
+        CompetenceEntity java = entityManager.persist(new CompetenceEntity("JAVA", "Java"));
+        CompetenceEntity sql = entityManager.persist(new CompetenceEntity("SQL", "SQL"));
+        NoteEntity note = entityManager.persist(new NoteEntity(3, "Intermédiaire"));
+
+        DemandeEntity demande = new DemandeEntity();
+        demande.setId("D1");
+        demande.setMatriculeDemandeur("M1");
+        demande.setNature(Nature.PERMANENT);
+        demande.setEstGroupement(false);
+        demande.setDestinationCode("EQ0000");
+        demande.setDateDebut(Date.valueOf("2024-01-01"));
+        entityManager.persist(demande);
+
+        GroupementEntity[] groupements = new GroupementEntity[10];
+        for (int g = 0; g < groupements.length; g++) {
+            groupements[g] = new GroupementEntity();
+            groupements[g].setCode("GRP" + g);
+            groupements[g].setLibelle("Groupement " + g);
+            groupements[g].setDirection("Direction");
+            entityManager.persist(groupements[g]);
+        }
+
+        for (int e = 0; e < NB_EQUIPES; e++) {
+            EquipeEntity equipe = new EquipeEntity();
+            equipe.setCode(String.format("EQ%04d", e));
+            equipe.setNom("Equipe " + e);
+            if (e % 10 != 9) {
+                equipe.setGroupement(groupements[e % groupements.length]);
+                equipe.getProfilRecherche().add(new CompetenceRequiseEntity(null, demande, java, note));
+                equipe.getProfilRecherche().add(new CompetenceRequiseEntity(null, demande, sql, note));
+            }
+            entityManager.persist(equipe);
+
+            for (int m = 0; e % 10 != 9 && m < 3; m++) {
+                PersonneEntity personne = new PersonneEntity();
+                personne.setIdentifiant(String.format("P%04d-%d", e, m));
+                personne.setNom("Nom " + personne.getIdentifiant());
+                personne.setPrenom("Prénom " + personne.getIdentifiant());
+                personne.setEquipe(equipe);
+                entityManager.persist(personne);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+    }
+}
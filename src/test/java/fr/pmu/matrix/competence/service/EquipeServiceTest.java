@@ -1,19 +1,28 @@
 package fr.pmu.matrix.competence.service;
 
 import fr.pmu.matrix.competence.domain.Equipe;
+import fr.pmu.matrix.competence.dto.PageCurseur;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.CompetenceRequiseEntity;
 import fr.pmu.matrix.competence.entity.EquipeEntity;
 import fr.pmu.matrix.competence.entity.GroupementEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
 import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.index.HeatmapGroupements;
 import fr.pmu.matrix.competence.mapper.EquipeMapper;
 import fr.pmu.matrix.competence.repository.EquipeRepository;
 import fr.pmu.matrix.competence.repository.GroupementRepository;
 import fr.pmu.matrix.competence.repository.PersonneRepository;
+import fr.pmu.matrix.competence.repository.projection.ProfilRechercheProjection;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -36,6 +45,9 @@ class EquipeServiceTest {
 
     @Mock
     private PersonneRepository personneRepository;
+
+    @Mock
+    private HeatmapGroupements heatmapGroupements;
     
     @Spy
     private EquipeMapper equipeMapper = new EquipeMapper();
@@ -63,8 +75,18 @@ class EquipeServiceTest {
         entity2.setDescription("Équipe de test");
         entity2.setGroupement(groupementEntity);
 
-        when(equipeRepository.findAll()).thenReturn(Arrays.asList(entity1, entity2));
-        when(personneRepository.findByEquipeCode(anyString())).thenReturn(Collections.emptyList());
+        PersonneEntity membre = new PersonneEntity();
+        membre.setIdentifiant("P001");
+        membre.setEquipe(entity2);
+
+        CompetenceRequiseEntity profil = new CompetenceRequiseEntity();
+        profil.setCompetence(new CompetenceEntity("JAVA", "Java"));
+        profil.setNoteRequise(new NoteEntity(3, "Intermédiaire"));
+
+        when(equipeRepository.findAllAvecGroupement()).thenReturn(Arrays.asList(entity1, entity2));
+        when(personneRepository.findAllMembres()).thenReturn(Collections.singletonList(membre));
+        when(equipeRepository.findAllProfilsRecherche()).thenReturn(
+                Collections.singletonList(new ProfilRechercheProjection("EQ001", profil)));
 
         // When
         List<Equipe> result = equipeService.getAllEquipes();
@@ -74,9 +96,48 @@ class EquipeServiceTest {
         assertEquals(2, result.size());
         assertEquals("EQ001", result.get(0).getCode());
         assertEquals("EQ002", result.get(1).getCode());
-        verify(equipeRepository, times(1)).findAll();
-        verify(personneRepository, times(2)).findByEquipeCode(anyString());
-        verify(equipeMapper, times(2)).convertToEquipe(any(EquipeEntity.class), anyList());
+        assertEquals("JAVA", result.get(0).getProfilRecherche().get(0).getCompetence().getLibelle());
+        assertEquals("P001", result.get(1).getMembres().get(0).getIdentifiant());
+        // Une requête par nature de données, aucune par équipe
+        verify(personneRepository, never()).findByEquipeCode(anyString());
+        verify(equipeMapper, times(1)).convertToEquipe(entity1, Collections.emptyList(), Collections.singletonList(profil), SelectionChamps.TOUS);
+        verify(equipeMapper, times(1)).convertToEquipe(entity2, Collections.singletonList(membre), Collections.emptyList(), SelectionChamps.TOUS);
+    }
+
+    @Test
+    void testGetEquipesPage() {
+        // Given
+        EquipeEntity entity1 = new EquipeEntity();
+        entity1.setCode("EQ001");
+        entity1.setNom("Équipe Dev");
+
+        EquipeEntity entity2 = new EquipeEntity();
+        entity2.setCode("EQ002");
+        entity2.setNom("Équipe QA");
+
+        PersonneEntity membre = new PersonneEntity();
+        membre.setIdentifiant("P001");
+        membre.setEquipe(entity2);
+
+        when(equipeRepository.findByCodeGreaterThanOrderByCodeAsc("", PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(entity1, entity2), PageRequest.of(0, 2), true));
+        when(personneRepository.findMembres(List.of("EQ001", "EQ002"))).thenReturn(List.of(membre));
+        when(equipeRepository.findProfilsRecherche(List.of("EQ001", "EQ002"))).thenReturn(Collections.emptyList());
+
+        // When
+        PageCurseur<Equipe> result = equipeService.getEquipesPage(null, 2);
+
+        // Then
+        assertEquals(2, result.getTaille());
+        assertEquals("EQ001", result.getElements().get(0).getCode());
+        assertEquals("EQ002", PageCurseur.decoder(result.getCurseurSuivant(), 1)[0]);
+        assertEquals("P001", result.getElements().get(1).getMembres().get(0).getIdentifiant());
+        // Une seule requête pour les membres de toute la page
+        verify(personneRepository, times(1)).findMembres(List.of("EQ001", "EQ002"));
+        verify(personneRepository, never()).findByEquipeCode(anyString());
+        verify(equipeMapper, times(1)).convertToEquipe(entity1, Collections.emptyList(), Collections.emptyList(), SelectionChamps.TOUS);
+        verify(equipeMapper, times(1)).convertToEquipe(entity2, List.of(membre), Collections.emptyList(), SelectionChamps.TOUS);
+        verify(equipeRepository, never()).findAll();
     }
 
     @Test
@@ -118,7 +179,7 @@ class EquipeServiceTest {
         assertEquals("P001", result.getMembres().get(0).getIdentifiant());
         verify(equipeRepository, times(1)).findById("EQ001");
         verify(personneRepository, times(1)).findByEquipeCode("EQ001");
-        verify(equipeMapper, times(1)).convertToEquipe(entity, personneEntities);
+        verify(equipeMapper, times(1)).convertToEquipe(entity, personneEntities, entity.getProfilRecherche(), SelectionChamps.TOUS);
     }
 
     @Test
@@ -262,6 +323,7 @@ class EquipeServiceTest {
         verify(equipeRepository, times(1)).save(existingEntity);
         verify(personneRepository, times(1)).findByEquipeCode("EQ001");
         verify(equipeMapper, times(1)).convertToEquipe(updatedEntity, personneEntities);
+        verify(heatmapGroupements, times(1)).changerGroupement("EQ001", "G002");
     }
 
     @Test
@@ -425,7 +487,7 @@ class EquipeServiceTest {
         assertEquals("Dupont", result.getMembres().get(0).getNom());
         assertEquals("P002", result.getMembres().get(1).getIdentifiant());
         assertEquals("Martin", result.getMembres().get(1).getNom());
-        verify(equipeMapper, times(1)).convertToEquipe(equipeEntity, personneEntities);
+        verify(equipeMapper, times(1)).convertToEquipe(equipeEntity, personneEntities, equipeEntity.getProfilRecherche(), SelectionChamps.TOUS);
     }
 
     @Test
@@ -452,6 +514,6 @@ class EquipeServiceTest {
         assertEquals("Équipe de développement", result.getDescription());
         assertNull(result.getGroupement());
         assertTrue(result.getMembres().isEmpty());
-        verify(equipeMapper, times(1)).convertToEquipe(equipeEntity, personneEntities);
+        verify(equipeMapper, times(1)).convertToEquipe(equipeEntity, personneEntities, equipeEntity.getProfilRecherche(), SelectionChamps.TOUS);
     }
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package fr.pmu.matrix.competence.service;
 
 import fr.pmu.matrix.competence.domain.Groupement;
+import fr.pmu.matrix.competence.dto.HeatmapGroupement;
 import fr.pmu.matrix.competence.entity.GroupementEntity;
+import fr.pmu.matrix.competence.index.HeatmapGroupements;
 import fr.pmu.matrix.competence.mapper.GroupementMapper;
 import fr.pmu.matrix.competence.repository.GroupementRepository;
 import org.junit.jupiter.api.Test;
@@ -13,6 +15,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,6 +29,9 @@ class GroupementServiceTest {
 
     @Mock
     private GroupementRepository groupementRepository;
+
+    @Mock
+    private HeatmapGroupements heatmapGroupements;
     
     @Spy
     private GroupementMapper groupementMapper = new GroupementMapper();
@@ -229,6 +236,37 @@ class GroupementServiceTest {
         verify(groupementMapper, never()).mapToGroupementDomainSansEquipes(any(GroupementEntity.class));
     }
 
+    @Test
+    void testGetHeatmap() {
+        // Given
+        Map<String, Map<Integer, Integer>> repartitions = new TreeMap<>();
+        repartitions.put("JAVA", new TreeMap<>(Map.of(2, 3, 4, 1)));
+        repartitions.put("SQL", new TreeMap<>(Map.of(1, 2)));
+        when(groupementRepository.existsById("G001")).thenReturn(true);
+        when(heatmapGroupements.repartition("G001")).thenReturn(repartitions);
+
+        // When
+        HeatmapGroupement heatmap = groupementService.getHeatmap("G001");
+
+        // Then
+        assertEquals("G001", heatmap.getGroupementCode());
+        assertEquals(2, heatmap.getCompetences().size());
+        assertEquals("JAVA", heatmap.getCompetences().get(0).getCompetenceLibelle());
+        assertEquals(3, heatmap.getCompetences().get(0).getRepartition().get(2));
+        assertEquals(4, heatmap.getCompetences().get(0).getTotal());
+        assertEquals(2, heatmap.getCompetences().get(1).getTotal());
+    }
+
+    @Test
+    void testGetHeatmap_NotFound() {
+        // Given
+        when(groupementRepository.existsById("G999")).thenReturn(false);
+
+        // When / Then
+        assertThrows(RuntimeException.class, () -> groupementService.getHeatmap("G999"));
+        verifyNoInteractions(heatmapGroupements);
+    }
+
     @Test
     void testDeleteGroupement() {
         // Given
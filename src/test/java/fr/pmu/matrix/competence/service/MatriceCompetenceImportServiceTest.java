@@ -0,0 +1,195 @@
+package fr.pmu.matrix.competence.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.pmu.matrix.competence.dto.MatriceCompetenceImportLigne.Statut;
+import fr.pmu.matrix.competence.dto.MatriceCompetenceImportResultat;
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.index.CorrespondancesDemandes;
+import fr.pmu.matrix.competence.index.HeatmapGroupements;
+import fr.pmu.matrix.competence.index.MatriceCompetenceIndex;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.MatriceCompetenceStore;
+import fr.pmu.matrix.competence.index.Referentiel;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MatriceCompetenceImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Referentiel referentiel;
+
+    @Mock
+    private MatriceCompetenceStore matriceCompetenceStore;
+
+    @Mock
+    private MatriceCompetenceIndex matriceCompetenceIndex;
+
+    @Mock
+    private HeatmapGroupements heatmapGroupements;
+
+    @Mock
+    private CorrespondancesDemandes correspondancesDemandes;
+
+    private MatriceCompetenceImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new MatriceCompetenceImportService(jdbcTemplate, transactionManager, new ObjectMapper(),
+                referentiel, matriceCompetenceStore, matriceCompetenceIndex, heatmapGroupements, correspondancesDemandes);
+
+        PersonneEntity personne1 = createPersonneEntity("P001");
+        PersonneEntity personne2 = createPersonneEntity("P002");
+        when(matriceCompetenceStore.getSnapshot()).thenReturn(MatriceCompetenceSnapshot.construire(
+                Arrays.asList(personne1, personne2),
+                Collections.singletonList(new CompetenceEntity("JAVA", "Java Programming")),
+                Collections.emptyList(),
+                Collections.singletonList(new NoteMatriceProjection("P001", "JAVA", 2))));
+    }
+
+    @Test
+    void testImporter_TableauJson() throws IOException {
+        // Given
+        String json = "["
+                + "{\"personneId\":\"P001\",\"competenceId\":\"JAVA\",\"noteValeur\":3},"
+                + "{\"personneId\":\"P002\",\"competenceId\":\"JAVA\",\"noteValeur\":2},"
+                + "{\"personneId\":\"P002\",\"competenceId\":\"JAVA\",\"noteValeur\":3},"
+                + "{\"personneId\":\"P999\",\"competenceId\":\"JAVA\",\"noteValeur\":3},"
+                + "{\"personneId\":\"P001\",\"competenceId\":\"COBOL\",\"noteValeur\":3},"
+                + "{\"personneId\":\"P001\",\"competenceId\":\"JAVA\",\"noteValeur\":9}"
+                + "]";
+        notesDeReference();
+
+        // When
+        MatriceCompetenceImportResultat resultat = importService.importer(flux(json));
+
+        // Then
+        assertEquals(6, resultat.getTotal());
+        assertEquals(1, resultat.getCreees());
+        assertEquals(2, resultat.getMisesAJour());
+        assertEquals(3, resultat.getRejetees());
+        assertEquals(Statut.MISE_A_JOUR, resultat.getLignes().get(0).getStatut());
+        assertEquals(Statut.CREEE, resultat.getLignes().get(1).getStatut());
+        assertEquals(Statut.MISE_A_JOUR, resultat.getLignes().get(2).getStatut());
+        assertEquals("Personne non trouvée avec l'identifiant: P999", resultat.getLignes().get(3).getMessage());
+        assertEquals("Compétence non trouvée avec l'identifiant: COBOL", resultat.getLignes().get(4).getMessage());
+        assertEquals("Note non trouvée avec la valeur: 9", resultat.getLignes().get(5).getMessage());
+        assertTrue(resultat.getLignesParSeconde() > 0);
+
+        // Un seul lot JDBC pour les trois lignes valides
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), argThat((List<Object[]> lot) -> lot.size() == 3));
+        verify(transactionManager, times(1)).commit(any());
+        verify(matriceCompetenceIndex, times(1)).indexer("P002", "JAVA", 3);
+        verify(matriceCompetenceStore, times(1)).publierNotes(argThat((Collection<NoteMatriceProjection> notes) -> notes.size() == 3));
+        verify(heatmapGroupements, times(1)).noter(argThat((Collection<NoteMatriceProjection> notes) -> notes.size() == 3));
+        verify(correspondancesDemandes, times(1)).notesModifiees(argThat((Collection<NoteMatriceProjection> notes) -> notes.size() == 3));
+        verify(correspondancesDemandes, never()).noteModifiee(anyString(), anyString());
+    }
+
+    @Test
+    void testImporter_Ndjson() throws IOException {
+        // Given
+        String ndjson = "{\"personneId\":\"P001\",\"competenceId\":\"JAVA\",\"noteValeur\":3}\n"
+                + "{\"personneId\":\"P002\",\"competenceId\":\"JAVA\",\"noteValeur\":2}\n";
+        notesDeReference();
+
+        // When
+        MatriceCompetenceImportResultat resultat = importService.importer(flux(ndjson));
+
+        // Then
+        assertEquals(2, resultat.getTotal());
+        assertEquals(0, resultat.getRejetees());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void testImporter_EchecDuLot() throws IOException {
+        // Given
+        notesDeReference();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataIntegrityViolationException("contrainte"));
+
+        // When
+        MatriceCompetenceImportResultat resultat = importService.importer(
+                flux("[{\"personneId\":\"P002\",\"competenceId\":\"JAVA\",\"noteValeur\":2}]"));
+
+        // Then
+        assertEquals(1, resultat.getRejetees());
+        assertTrue(resultat.getLignes().get(0).getMessage().startsWith("Erreur lors de l'écriture du lot"));
+        verify(transactionManager, times(1)).rollback(any());
+        verifyNoInteractions(matriceCompetenceIndex);
+        verify(matriceCompetenceStore, never()).publierNotes(any());
+    }
+
+    @Test
+    void testImporter_CoupleDUnLotEchoueResteUneCreation() throws IOException {
+        // Given : un premier lot complet sur P002/JAVA qui échoue, puis une ligne du même couple
+        notesDeReference();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("contrainte"))
+                .thenReturn(new int[] {1});
+        String ligne = "{\"personneId\":\"P002\",\"competenceId\":\"JAVA\",\"noteValeur\":2}\n";
+
+        // When
+        MatriceCompetenceImportResultat resultat = importService.importer(
+                flux(ligne.repeat(MatriceCompetenceImportService.TAILLE_LOT + 1)));
+
+        // Then
+        assertEquals(MatriceCompetenceImportService.TAILLE_LOT, resultat.getRejetees());
+        assertEquals(1, resultat.getCreees());
+        assertEquals(0, resultat.getMisesAJour());
+        assertEquals(Statut.CREEE, resultat.getLignes().get(MatriceCompetenceImportService.TAILLE_LOT).getStatut());
+    }
+
+    @Test
+    void testImporter_JsonInvalide() {
+        // When & Then
+        assertThrows(IOException.class, () -> importService.importer(flux("[{\"personneId\":")));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private void notesDeReference() {
+        when(referentiel.contientNote(anyInt())).thenAnswer(invocation -> {
+            int valeur = invocation.getArgument(0);
+            return valeur == 2 || valeur == 3;
+        });
+    }
+
+    private InputStream flux(String contenu) {
+        return new ByteArrayInputStream(contenu.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private PersonneEntity createPersonneEntity(String id) {
+        PersonneEntity entity = new PersonneEntity();
+        entity.setIdentifiant(id);
+        entity.setNom("Nom " + id);
+        entity.setPrenom("Prénom " + id);
+        return entity;
+    }
+}
@@ -1,27 +1,40 @@
 package fr.pmu.matrix.competence.service;
 
 import fr.pmu.matrix.competence.domain.MatriceCompetence;
+import fr.pmu.matrix.competence.dto.PageCurseur;
 import fr.pmu.matrix.competence.entity.CompetenceEntity;
 import fr.pmu.matrix.competence.entity.EquipeEntity;
 import fr.pmu.matrix.competence.entity.MatriceCompetenceEntity;
 import fr.pmu.matrix.competence.entity.NoteEntity;
 import fr.pmu.matrix.competence.entity.PersonneEntity;
-import fr.pmu.matrix.competence.repository.CompetenceRepository;
+import fr.pmu.matrix.competence.index.CorrespondancesDemandes;
+import fr.pmu.matrix.competence.index.HeatmapGroupements;
+import fr.pmu.matrix.competence.index.MatriceCompetenceIndex;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.MatriceCompetenceStore;
+import fr.pmu.matrix.competence.index.Referentiel;
 import fr.pmu.matrix.competence.repository.MatriceCompetenceRepository;
-import fr.pmu.matrix.competence.repository.NoteRepository;
 import fr.pmu.matrix.competence.repository.PersonneRepository;
+import fr.pmu.matrix.competence.repository.projection.MatriceCompetenceVue;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,10 +47,22 @@ class MatriceCompetenceServiceTest {
     private PersonneRepository personneRepository;
 
     @Mock
-    private CompetenceRepository competenceRepository;
+    private Referentiel referentiel;
 
     @Mock
-    private NoteRepository noteRepository;
+    private MatriceCompetenceIndex matriceCompetenceIndex;
+
+    @Mock
+    private MatriceCompetenceStore matriceCompetenceStore;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private HeatmapGroupements heatmapGroupements;
+
+    @Mock
+    private CorrespondancesDemandes correspondancesDemandes;
 
     @InjectMocks
     private MatriceCompetenceService matriceCompetenceService;
@@ -61,7 +86,7 @@ class MatriceCompetenceServiceTest {
         matriceEntity2.setCompetence(competenceEntity2);
         matriceEntity2.setNote(noteEntity);
 
-        when(matriceCompetenceRepository.findAll()).thenReturn(Arrays.asList(matriceEntity1, matriceEntity2));
+        when(matriceCompetenceStore.getSnapshot()).thenReturn(snapshot(matriceEntity1, matriceEntity2));
 
         // When
         List<MatriceCompetence> result = matriceCompetenceService.getAllMatricesCompetences();
@@ -72,7 +97,60 @@ class MatriceCompetenceServiceTest {
         assertEquals("P123", result.get(0).getPersonne().getIdentifiant());
         assertEquals("JAVA", result.get(0).getCompetence().getLibelle());
         assertEquals("SPRING", result.get(1).getCompetence().getLibelle());
-        verify(matriceCompetenceRepository, times(1)).findAll();
+        verifyNoInteractions(matriceCompetenceRepository);
+    }
+
+    @Test
+    void testGetMatricesCompetencesPage() {
+        // Given
+        MatriceCompetenceVue vue = createVue("P123", null, "SPRING", 4, "Avancé");
+
+        when(matriceCompetenceRepository.findPageApres("P123", "JAVA", PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(vue), PageRequest.of(0, 1), true));
+
+        // When
+        PageCurseur<MatriceCompetence> result = matriceCompetenceService.getMatricesCompetencesPage(
+                PageCurseur.encoder("P123", "JAVA"), 1);
+
+        // Then
+        assertEquals(1, result.getTaille());
+        assertEquals("SPRING", result.getElements().get(0).getCompetence().getLibelle());
+        assertNull(result.getElements().get(0).getPersonne().getEquipe());
+        assertArrayEquals(new String[] {"P123", "SPRING"}, PageCurseur.decoder(result.getCurseurSuivant(), 2));
+    }
+
+    @Test
+    void testGetMatricesCompetencesPage_CurseurInvalide() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () ->
+            matriceCompetenceService.getMatricesCompetencesPage(PageCurseur.encoder("P123"), 10)
+        );
+        verifyNoInteractions(matriceCompetenceRepository);
+    }
+
+    @Test
+    void testExporterMatricesCompetences() {
+        // Given
+        PersonneEntity personneEntity = createPersonneEntity("P123", "Dupont", "Jean", "Développeur");
+        personneEntity.setEquipe(createEquipeEntity("EQ1", "Equipe 1", "Description"));
+        NoteEntity noteEntity = createNoteEntity(3, "Intermédiaire");
+        int nbLignes = MatriceCompetenceService.TAILLE_LOT_EXPORT * 2 + 1;
+        List<MatriceCompetenceEntity> entites = IntStream.range(0, nbLignes)
+                .mapToObj(i -> new MatriceCompetenceEntity(personneEntity, createCompetenceEntity("C" + i, "Compétence " + i), noteEntity))
+                .toList();
+        when(matriceCompetenceRepository.streamAll()).thenReturn(entites.stream());
+        List<MatriceCompetence> exportees = new ArrayList<>();
+
+        // When
+        long result = matriceCompetenceService.exporterMatricesCompetences(exportees::add);
+
+        // Then
+        assertEquals(nbLignes, result);
+        assertEquals(nbLignes, exportees.size());
+        assertEquals("C0", exportees.get(0).getCompetence().getLibelle());
+        assertEquals("EQ1", exportees.get(0).getPersonne().getEquipe().getCode());
+        verify(entityManager, times(2)).clear();
+        verify(matriceCompetenceRepository, never()).findAll();
     }
 
     @Test
@@ -80,20 +158,9 @@ class MatriceCompetenceServiceTest {
         // Given
         String personneId = "P123";
         String competenceId = "JAVA";
-        
-        PersonneEntity personneEntity = createPersonneEntity(personneId, "Dupont", "Jean", "Développeur");
-        CompetenceEntity competenceEntity = createCompetenceEntity(competenceId, "Java Programming");
-        NoteEntity noteEntity = createNoteEntity(3, "Intermédiaire");
-        
-        MatriceCompetenceEntity matriceEntity = new MatriceCompetenceEntity();
-        matriceEntity.setPersonne(personneEntity);
-        matriceEntity.setCompetence(competenceEntity);
-        matriceEntity.setNote(noteEntity);
 
-        when(personneRepository.findById(personneId)).thenReturn(Optional.of(personneEntity));
-        when(competenceRepository.findById(competenceId)).thenReturn(Optional.of(competenceEntity));
-        when(matriceCompetenceRepository.findByPersonneAndCompetence(personneEntity, competenceEntity))
-                .thenReturn(Optional.of(matriceEntity));
+        when(matriceCompetenceRepository.findVue(personneId, competenceId)).thenReturn(Optional.of(
+                createVue(personneId, "EQ1", competenceId, 3, "Intermédiaire")));
 
         // When
         MatriceCompetence result = matriceCompetenceService.getMatriceCompetence(personneId, competenceId);
@@ -101,11 +168,11 @@ class MatriceCompetenceServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(personneId, result.getPersonne().getIdentifiant());
+        assertEquals("EQ1", result.getPersonne().getEquipe().getCode());
         assertEquals(competenceId, result.getCompetence().getLibelle());
         assertEquals(3, result.getNote().getValeur());
-        verify(personneRepository, times(1)).findById(personneId);
-        verify(competenceRepository, times(1)).findById(competenceId);
-        verify(matriceCompetenceRepository, times(1)).findByPersonneAndCompetence(personneEntity, competenceEntity);
+        verify(matriceCompetenceRepository, times(1)).findVue(personneId, competenceId);
+        verifyNoInteractions(personneRepository, referentiel);
     }
 
     @Test
@@ -114,7 +181,8 @@ class MatriceCompetenceServiceTest {
         String personneId = "P999";
         String competenceId = "JAVA";
 
-        when(personneRepository.findById(personneId)).thenReturn(Optional.empty());
+        when(matriceCompetenceRepository.findVue(personneId, competenceId)).thenReturn(Optional.empty());
+        when(personneRepository.existsById(personneId)).thenReturn(false);
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> 
@@ -122,9 +190,8 @@ class MatriceCompetenceServiceTest {
         );
         
         assertEquals("Personne non trouvée avec l'identifiant: P999", exception.getMessage());
-        verify(personneRepository, times(1)).findById(personneId);
-        verify(competenceRepository, never()).findById(anyString());
-        verify(matriceCompetenceRepository, never()).findByPersonneAndCompetence(any(), any());
+        verify(personneRepository, times(1)).existsById(personneId);
+        verify(referentiel, never()).contientCompetence(anyString());
     }
 
     @Test
@@ -132,11 +199,10 @@ class MatriceCompetenceServiceTest {
         // Given
         String personneId = "P123";
         String competenceId = "UNKNOWN";
-        
-        PersonneEntity personneEntity = createPersonneEntity(personneId, "Dupont", "Jean", "Développeur");
 
-        when(personneRepository.findById(personneId)).thenReturn(Optional.of(personneEntity));
-        when(competenceRepository.findById(competenceId)).thenReturn(Optional.empty());
+        when(matriceCompetenceRepository.findVue(personneId, competenceId)).thenReturn(Optional.empty());
+        when(personneRepository.existsById(personneId)).thenReturn(true);
+        when(referentiel.contientCompetence(competenceId)).thenReturn(false);
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> 
@@ -144,9 +210,8 @@ class MatriceCompetenceServiceTest {
         );
         
         assertEquals("Compétence non trouvée avec l'identifiant: UNKNOWN", exception.getMessage());
-        verify(personneRepository, times(1)).findById(personneId);
-        verify(competenceRepository, times(1)).findById(competenceId);
-        verify(matriceCompetenceRepository, never()).findByPersonneAndCompetence(any(), any());
+        verify(personneRepository, times(1)).existsById(personneId);
+        verify(referentiel, times(1)).contientCompetence(competenceId);
     }
 
     @Test
@@ -154,14 +219,10 @@ class MatriceCompetenceServiceTest {
         // Given
         String personneId = "P123";
         String competenceId = "JAVA";
-        
-        PersonneEntity personneEntity = createPersonneEntity(personneId, "Dupont", "Jean", "Développeur");
-        CompetenceEntity competenceEntity = createCompetenceEntity(competenceId, "Java Programming");
 
-        when(personneRepository.findById(personneId)).thenReturn(Optional.of(personneEntity));
-        when(competenceRepository.findById(competenceId)).thenReturn(Optional.of(competenceEntity));
-        when(matriceCompetenceRepository.findByPersonneAndCompetence(personneEntity, competenceEntity))
-                .thenReturn(Optional.empty());
+        when(matriceCompetenceRepository.findVue(personneId, competenceId)).thenReturn(Optional.empty());
+        when(personneRepository.existsById(personneId)).thenReturn(true);
+        when(referentiel.contientCompetence(competenceId)).thenReturn(true);
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> 
@@ -169,9 +230,7 @@ class MatriceCompetenceServiceTest {
         );
         
         assertEquals("Matrice de compétence non trouvée pour cette personne et cette compétence", exception.getMessage());
-        verify(personneRepository, times(1)).findById(personneId);
-        verify(competenceRepository, times(1)).findById(competenceId);
-        verify(matriceCompetenceRepository, times(1)).findByPersonneAndCompetence(personneEntity, competenceEntity);
+        verify(matriceCompetenceRepository, times(1)).findVue(personneId, competenceId);
     }
 
     @Test
@@ -191,8 +250,8 @@ class MatriceCompetenceServiceTest {
         savedEntity.setNote(noteEntity);
 
         when(personneRepository.findById(personneId)).thenReturn(Optional.of(personneEntity));
-        when(competenceRepository.findById(competenceId)).thenReturn(Optional.of(competenceEntity));
-        when(noteRepository.findById(noteValeur)).thenReturn(Optional.of(noteEntity));
+        when(referentiel.competence(competenceId)).thenReturn(Optional.of(competenceEntity));
+        when(referentiel.note(noteValeur)).thenReturn(Optional.of(noteEntity));
         when(matriceCompetenceRepository.findByPersonneAndCompetence(personneEntity, competenceEntity))
                 .thenReturn(Optional.empty());
         when(matriceCompetenceRepository.save(any(MatriceCompetenceEntity.class))).thenReturn(savedEntity);
@@ -206,10 +265,12 @@ class MatriceCompetenceServiceTest {
         assertEquals(competenceId, result.getCompetence().getLibelle());
         assertEquals(noteValeur, result.getNote().getValeur());
         verify(personneRepository, times(1)).findById(personneId);
-        verify(competenceRepository, times(1)).findById(competenceId);
-        verify(noteRepository, times(1)).findById(noteValeur);
+        verify(referentiel, times(1)).competence(competenceId);
+        verify(referentiel, times(1)).note(noteValeur);
         verify(matriceCompetenceRepository, times(1)).findByPersonneAndCompetence(personneEntity, competenceEntity);
         verify(matriceCompetenceRepository, times(1)).save(any(MatriceCompetenceEntity.class));
+        verify(matriceCompetenceIndex, times(1)).indexer(personneId, competenceId, noteValeur);
+        verify(matriceCompetenceStore, times(1)).publierNote(personneId, competenceId, noteValeur);
     }
 
     @Test
@@ -229,8 +290,8 @@ class MatriceCompetenceServiceTest {
         existingEntity.setNote(noteEntity);
 
         when(personneRepository.findById(personneId)).thenReturn(Optional.of(personneEntity));
-        when(competenceRepository.findById(competenceId)).thenReturn(Optional.of(competenceEntity));
-        when(noteRepository.findById(noteValeur)).thenReturn(Optional.of(noteEntity));
+        when(referentiel.competence(competenceId)).thenReturn(Optional.of(competenceEntity));
+        when(referentiel.note(noteValeur)).thenReturn(Optional.of(noteEntity));
         when(matriceCompetenceRepository.findByPersonneAndCompetence(personneEntity, competenceEntity))
                 .thenReturn(Optional.of(existingEntity));
 
@@ -241,10 +302,11 @@ class MatriceCompetenceServiceTest {
         
         assertEquals("Une matrice de compétence existe déjà pour cette personne et cette compétence", exception.getMessage());
         verify(personneRepository, times(1)).findById(personneId);
-        verify(competenceRepository, times(1)).findById(competenceId);
-        verify(noteRepository, times(1)).findById(noteValeur);
+        verify(referentiel, times(1)).competence(competenceId);
+        verify(referentiel, times(1)).note(noteValeur);
         verify(matriceCompetenceRepository, times(1)).findByPersonneAndCompetence(personneEntity, competenceEntity);
         verify(matriceCompetenceRepository, never()).save(any(MatriceCompetenceEntity.class));
+        verifyNoInteractions(matriceCompetenceIndex, matriceCompetenceStore);
     }
 
     @Test
@@ -270,8 +332,8 @@ class MatriceCompetenceServiceTest {
         updatedEntity.setNote(newNoteEntity);
 
         when(personneRepository.findById(personneId)).thenReturn(Optional.of(personneEntity));
-        when(competenceRepository.findById(competenceId)).thenReturn(Optional.of(competenceEntity));
-        when(noteRepository.findById(newNoteValeur)).thenReturn(Optional.of(newNoteEntity));
+        when(referentiel.competence(competenceId)).thenReturn(Optional.of(competenceEntity));
+        when(referentiel.note(newNoteValeur)).thenReturn(Optional.of(newNoteEntity));
         when(matriceCompetenceRepository.findByPersonneAndCompetence(personneEntity, competenceEntity))
                 .thenReturn(Optional.of(existingEntity));
         when(matriceCompetenceRepository.save(any(MatriceCompetenceEntity.class))).thenReturn(updatedEntity);
@@ -286,10 +348,13 @@ class MatriceCompetenceServiceTest {
         assertEquals(newNoteValeur, result.getNote().getValeur());
         assertEquals("Avancé", result.getNote().getLibelle());
         verify(personneRepository, times(1)).findById(personneId);
-        verify(competenceRepository, times(1)).findById(competenceId);
-        verify(noteRepository, times(1)).findById(newNoteValeur);
+        verify(referentiel, times(1)).competence(competenceId);
+        verify(referentiel, times(1)).note(newNoteValeur);
         verify(matriceCompetenceRepository, times(1)).findByPersonneAndCompetence(personneEntity, competenceEntity);
         verify(matriceCompetenceRepository, times(1)).save(any(MatriceCompetenceEntity.class));
+        verify(matriceCompetenceIndex, times(1)).indexer(personneId, competenceId, newNoteValeur);
+        verify(matriceCompetenceStore, times(1)).publierNote(personneId, competenceId, newNoteValeur);
+        verify(correspondancesDemandes, times(1)).noteModifiee(personneId, competenceId);
     }
 
     @Test
@@ -308,7 +373,7 @@ class MatriceCompetenceServiceTest {
         matriceEntity.setNote(noteEntity);
 
         when(personneRepository.findById(personneId)).thenReturn(Optional.of(personneEntity));
-        when(competenceRepository.findById(competenceId)).thenReturn(Optional.of(competenceEntity));
+        when(referentiel.competence(competenceId)).thenReturn(Optional.of(competenceEntity));
         when(matriceCompetenceRepository.findByPersonneAndCompetence(personneEntity, competenceEntity))
                 .thenReturn(Optional.of(matriceEntity));
 
@@ -317,9 +382,11 @@ class MatriceCompetenceServiceTest {
 
         // Then
         verify(personneRepository, times(1)).findById(personneId);
-        verify(competenceRepository, times(1)).findById(competenceId);
+        verify(referentiel, times(1)).competence(competenceId);
         verify(matriceCompetenceRepository, times(1)).findByPersonneAndCompetence(personneEntity, competenceEntity);
         verify(matriceCompetenceRepository, times(1)).delete(matriceEntity);
+        verify(matriceCompetenceIndex, times(1)).retirer(personneId, competenceId);
+        verify(matriceCompetenceStore, times(1)).retirerNote(personneId, competenceId);
     }
 
     @Test
@@ -345,10 +412,7 @@ class MatriceCompetenceServiceTest {
         matriceEntity2.setCompetence(competenceEntity2);
         matriceEntity2.setNote(noteEntity2);
         
-        List<MatriceCompetenceEntity> matricesList = Arrays.asList(matriceEntity1, matriceEntity2);
-
-        when(personneRepository.findById(personneId)).thenReturn(Optional.of(personneEntity));
-        when(matriceCompetenceRepository.findByPersonne(personneEntity)).thenReturn(matricesList);
+        when(matriceCompetenceStore.getSnapshot()).thenReturn(snapshot(matriceEntity1, matriceEntity2));
 
         // When
         List<MatriceCompetence> result = matriceCompetenceService.getCompetencesByPersonne(personneId);
@@ -359,8 +423,22 @@ class MatriceCompetenceServiceTest {
         assertEquals(personneId, result.get(0).getPersonne().getIdentifiant());
         assertEquals("JAVA", result.get(0).getCompetence().getLibelle());
         assertEquals("SPRING", result.get(1).getCompetence().getLibelle());
-        verify(personneRepository, times(1)).findById(personneId);
-        verify(matriceCompetenceRepository, times(1)).findByPersonne(personneEntity);
+        assertEquals(4, result.get(1).getNote().getValeur());
+        assertEquals("Avancé", result.get(1).getNote().getLibelle());
+        verifyNoInteractions(personneRepository, matriceCompetenceRepository);
+    }
+
+    @Test
+    void testGetCompetencesByPersonne_PersonneNotFound() {
+        // Given
+        when(matriceCompetenceStore.getSnapshot()).thenReturn(snapshot());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+            matriceCompetenceService.getCompetencesByPersonne("INCONNUE")
+        );
+
+        assertEquals("Personne non trouvée avec l'identifiant: INCONNUE", exception.getMessage());
     }
 
     @Test
@@ -386,10 +464,7 @@ class MatriceCompetenceServiceTest {
         matriceEntity2.setCompetence(competenceEntity);
         matriceEntity2.setNote(noteEntity2);
         
-        List<MatriceCompetenceEntity> matricesList = Arrays.asList(matriceEntity1, matriceEntity2);
-
-        when(competenceRepository.findById(competenceId)).thenReturn(Optional.of(competenceEntity));
-        when(matriceCompetenceRepository.findByCompetence(competenceEntity)).thenReturn(matricesList);
+        when(matriceCompetenceStore.getSnapshot()).thenReturn(snapshot(matriceEntity1, matriceEntity2));
 
         // When
         List<MatriceCompetence> result = matriceCompetenceService.getPersonnesByCompetence(competenceId);
@@ -400,8 +475,39 @@ class MatriceCompetenceServiceTest {
         assertEquals(competenceId, result.get(0).getCompetence().getLibelle());
         assertEquals("P123", result.get(0).getPersonne().getIdentifiant());
         assertEquals("P124", result.get(1).getPersonne().getIdentifiant());
-        verify(competenceRepository, times(1)).findById(competenceId);
-        verify(matriceCompetenceRepository, times(1)).findByCompetence(competenceEntity);
+        verifyNoInteractions(referentiel, matriceCompetenceRepository);
+    }
+
+    @Test
+    void testGetPersonnesByCompetence_CompetenceNotFound() {
+        // Given
+        when(matriceCompetenceStore.getSnapshot()).thenReturn(snapshot());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+            matriceCompetenceService.getPersonnesByCompetence("INCONNUE")
+        );
+
+        assertEquals("Compétence non trouvée avec l'identifiant: INCONNUE", exception.getMessage());
+    }
+
+    // Construit la matrice en mémoire correspondant aux lignes données
+    private MatriceCompetenceSnapshot snapshot(MatriceCompetenceEntity... lignes) {
+        List<MatriceCompetenceEntity> entites = Arrays.asList(lignes);
+        return MatriceCompetenceSnapshot.construire(
+                entites.stream().map(MatriceCompetenceEntity::getPersonne).distinct().toList(),
+                entites.stream().map(MatriceCompetenceEntity::getCompetence).distinct().toList(),
+                entites.stream().map(MatriceCompetenceEntity::getNote).distinct().toList(),
+                entites.stream()
+                        .map(m -> new NoteMatriceProjection(m.getPersonne().getIdentifiant(),
+                                m.getCompetence().getLibelle(), m.getNote().getValeur()))
+                        .toList());
+    }
+
+    private MatriceCompetenceVue createVue(String personneId, String equipeCode, String competenceId, int noteValeur, String noteLibelle) {
+        return new MatriceCompetenceVue(personneId, "Dupont", "Jean", "Développeur",
+                equipeCode, equipeCode == null ? null : "Equipe " + equipeCode, null,
+                competenceId, competenceId + " description", noteValeur, noteLibelle);
     }
 
     // Méthodes utilitaires pour créer des entités
@@ -2,6 +2,8 @@ package fr.pmu.matrix.competence.service;
 
 import fr.pmu.matrix.competence.domain.Note;
 import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.Referentiel;
 import fr.pmu.matrix.competence.mapper.NoteMapper;
 import fr.pmu.matrix.competence.repository.NoteRepository;
 import org.junit.jupiter.api.Test;
@@ -29,6 +31,9 @@ class NoteServiceTest {
     @Spy
     private NoteMapper noteMapper = new NoteMapper();
 
+    @Mock
+    private Referentiel referentiel;
+
     @InjectMocks
     private NoteService noteService;
 
@@ -120,6 +125,7 @@ class NoteServiceTest {
         verify(noteMapper, times(1)).mapToNoteEntity(note);
         verify(noteRepository, times(1)).save(noteEntity);
         verify(noteMapper, times(1)).mapToNoteDomain(savedEntity);
+        verify(referentiel, times(1)).publierNote(savedEntity);
     }
 
     @Test
@@ -139,6 +145,18 @@ class NoteServiceTest {
         verify(noteMapper, never()).mapToNoteDomain(any(NoteEntity.class));
     }
 
+    @Test
+    void testCreateNote_ValeurHorsPlage() {
+        // Given
+        Note note = new Note();
+        note.setValeur(MatriceCompetenceSnapshot.NOTE_MAX + 1);
+        note.setLibelle("Hors plage");
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> noteService.createNote(note));
+        verify(noteRepository, never()).save(any(NoteEntity.class));
+    }
+
     @Test
     void testUpdateNote() {
         // Given
@@ -223,6 +241,7 @@ class NoteServiceTest {
         // Then
         verify(noteRepository, times(1)).existsById(5);
         verify(noteRepository, times(1)).deleteById(5);
+        verify(referentiel, times(1)).retirerNote(5);
     }
 
     @Test
@@ -1,8 +1,11 @@
 package fr.pmu.matrix.competence.service;
 
 import fr.pmu.matrix.competence.domain.Personne;
+import fr.pmu.matrix.competence.dto.PageCurseur;
+import fr.pmu.matrix.competence.dto.SelectionChamps;
 import fr.pmu.matrix.competence.entity.EquipeEntity;
 import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.index.HeatmapGroupements;
 import fr.pmu.matrix.competence.mapper.PersonneMapper;
 import fr.pmu.matrix.competence.repository.EquipeRepository;
 import fr.pmu.matrix.competence.repository.PersonneRepository;
@@ -12,6 +15,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.Arrays;
 import java.util.List;
@@ -20,6 +25,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +36,9 @@ class PersonneServiceTest {
 
     @Mock
     private EquipeRepository equipeRepository;
+
+    @Mock
+    private HeatmapGroupements heatmapGroupements;
     
     @Spy
     private PersonneMapper personneMapper = new PersonneMapper();
@@ -52,7 +61,7 @@ class PersonneServiceTest {
         personneEntity2.setPrenom("Sophie");
         personneEntity2.setPoste("Designer");
 
-        when(personneRepository.findAll()).thenReturn(Arrays.asList(personneEntity1, personneEntity2));
+        when(personneRepository.findAllAvecEquipe()).thenReturn(Arrays.asList(personneEntity1, personneEntity2));
 
         // When
         List<Personne> result = personneService.getAllPersonnes();
@@ -62,8 +71,44 @@ class PersonneServiceTest {
         assertEquals(2, result.size());
         assertEquals("P123", result.get(0).getIdentifiant());
         assertEquals("P124", result.get(1).getIdentifiant());
-        verify(personneRepository, times(1)).findAll();
-        verify(personneMapper, times(2)).mapToPersonneDomain(any(PersonneEntity.class));
+        verify(personneRepository, times(1)).findAllAvecEquipe();
+        verify(personneMapper, times(2)).mapToPersonneDomain(any(PersonneEntity.class), eq(SelectionChamps.TOUS));
+    }
+
+    @Test
+    void testGetPersonnesPage() {
+        // Given
+        PersonneEntity personneEntity = new PersonneEntity();
+        personneEntity.setIdentifiant("P124");
+        personneEntity.setNom("Martin");
+        personneEntity.setPrenom("Sophie");
+
+        when(personneRepository.findPageApres(eq("P123"), any()))
+                .thenReturn(new SliceImpl<>(List.of(personneEntity), PageRequest.of(0, 1), true));
+
+        // When
+        PageCurseur<Personne> result = personneService.getPersonnesPage(PageCurseur.encoder("P123"), 1);
+
+        // Then
+        assertEquals(1, result.getTaille());
+        assertEquals("P124", result.getElements().get(0).getIdentifiant());
+        assertArrayEquals(new String[] {"P124"}, PageCurseur.decoder(result.getCurseurSuivant(), 1));
+        verify(personneRepository, times(1)).findPageApres("P123", PageRequest.of(0, 1));
+    }
+
+    @Test
+    void testGetPersonnesPage_DernierePageEtParametresInvalides() {
+        // Given
+        when(personneRepository.findPageApres(eq(""), any()))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+
+        // When
+        PageCurseur<Personne> result = personneService.getPersonnesPage(null, 10);
+
+        // Then
+        assertNull(result.getCurseurSuivant());
+        assertThrows(IllegalArgumentException.class, () -> personneService.getPersonnesPage(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> personneService.getPersonnesPage("%%%", 10));
     }
 
     @Test
@@ -95,7 +140,7 @@ class PersonneServiceTest {
         assertNotNull(result.getEquipe());
         assertEquals("E001", result.getEquipe().getCode());
         verify(personneRepository, times(1)).findById("P123");
-        verify(personneMapper, times(1)).mapToPersonneDomain(personneEntity);
+        verify(personneMapper, times(1)).mapToPersonneDomain(personneEntity, SelectionChamps.TOUS);
     }
 
     @Test
@@ -106,7 +151,7 @@ class PersonneServiceTest {
         // When / Then
         assertThrows(RuntimeException.class, () -> personneService.getPersonneByIdentifiant("P999"));
         verify(personneRepository, times(1)).findById("P999");
-        verify(personneMapper, never()).mapToPersonneDomain(any(PersonneEntity.class));
+        verify(personneMapper, never()).mapToPersonneDomain(any(PersonneEntity.class), any(SelectionChamps.class));
     }
 
     @Test
@@ -272,6 +317,7 @@ class PersonneServiceTest {
         verify(personneRepository, times(1)).findById("P123");
         verify(personneRepository, times(1)).save(existingEntity);
         verify(personneMapper, times(1)).mapToPersonneDomain(updatedEntity);
+        verifyNoInteractions(heatmapGroupements);
     }
 
     @Test
@@ -311,6 +357,7 @@ class PersonneServiceTest {
         verify(equipeRepository, times(1)).findById("E002");
         verify(personneRepository, times(1)).save(existingEntity);
         verify(personneMapper, times(1)).mapToPersonneDomain(updatedEntity);
+        verify(heatmapGroupements, times(1)).changerEquipe("P123", "E002");
     }
 
     @Test
@@ -349,6 +396,7 @@ class PersonneServiceTest {
         verify(personneRepository, times(1)).findById("P123");
         verify(personneRepository, times(1)).save(existingEntity);
         verify(personneMapper, times(1)).mapToPersonneDomain(updatedEntity);
+        verify(heatmapGroupements, times(1)).changerEquipe("P123", null);
     }
 
     @Test
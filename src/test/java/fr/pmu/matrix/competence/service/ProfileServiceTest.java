@@ -5,9 +5,12 @@ import fr.pmu.matrix.competence.domain.MatriceCompetence;
 import fr.pmu.matrix.competence.domain.Note;
 import fr.pmu.matrix.competence.domain.Personne;
 import fr.pmu.matrix.competence.domain.Profil;
+import fr.pmu.matrix.competence.dto.PageCurseur;
 import fr.pmu.matrix.competence.entity.PersonneEntity;
 import fr.pmu.matrix.competence.entity.ProfilEntity;
-import fr.pmu.matrix.competence.repository.MatriceCompetenceRepository;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.index.MatriceCompetenceIndex;
+import fr.pmu.matrix.competence.mapper.PersonneMapper;
 import fr.pmu.matrix.competence.repository.ProfilRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,15 +18,20 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class ProfileServiceTest {
@@ -34,11 +42,14 @@ public class ProfileServiceTest {
     @Mock
     private MatriceCompetenceService matriceCompetenceService;
 
+    @Spy
+    private PersonneMapper personneMapper;
+
     @Mock
-    private PersonneService personneService;
+    private MatriceCompetenceIndex matriceCompetenceIndex;
 
     @Mock
-    private MatriceCompetenceRepository matriceCompetenceRepository;
+    private IndexPeriodes indexPeriodes;
 
     @InjectMocks
     private ProfileService profileService;
@@ -68,11 +79,6 @@ public class ProfileServiceTest {
         personneEntity1.setNom("Dupont");
         personneEntity1.setPrenom("Jean");
 
-        PersonneEntity personneEntity2 = new PersonneEntity();
-        personneEntity2.setIdentifiant("P002");
-        personneEntity2.setNom("Martin");
-        personneEntity2.setPrenom("Sophie");
-
         ProfilEntity profilEntity1 = new ProfilEntity();
         profilEntity1.setId(1L);
         profilEntity1.setPersonne(personneEntity1);
@@ -80,24 +86,9 @@ public class ProfileServiceTest {
         profilEntity1.setDateDebutDisponibilite(pastDate);
         profilEntity1.setDateFinDisponibilite(futureDate);
 
-        ProfilEntity profilEntity2 = new ProfilEntity();
-        profilEntity2.setId(2L);
-        profilEntity2.setPersonne(personneEntity2);
-        profilEntity2.setRapporteur("Manager2");
-        profilEntity2.setDateDebutDisponibilite(futureDate);  // Pas encore disponible
-        profilEntity2.setDateFinDisponibilite(null);
-
-        List<ProfilEntity> profilEntities = Arrays.asList(profilEntity1, profilEntity2);
-
-        // Configuration des mocks
-        when(profilRepository.findAll()).thenReturn(profilEntities);
-        
-        Personne personne1 = new Personne();
-        personne1.setIdentifiant("P001");
-        personne1.setNom("Dupont");
-        personne1.setPrenom("Jean");
-        
-        when(personneService.getPersonneByIdentifiant("P001")).thenReturn(personne1);
+        // Configuration des mocks : seul le profil 1 est disponible selon l'index des périodes
+        when(indexPeriodes.profilsDisponibles(any(Date.class))).thenReturn(List.of(1L));
+        when(profilRepository.findAllAvecPersonneById(List.of(1L))).thenReturn(List.of(profilEntity1));
 
         // Exécution de la méthode testée
         List<Profil> result = profileService.getPersonnesDisponibles();
@@ -105,7 +96,23 @@ public class ProfileServiceTest {
         // Vérification des résultats
         assertEquals(1, result.size());
         assertEquals("P001", result.get(0).getPersonne().getIdentifiant());
+        assertEquals("Dupont", result.get(0).getPersonne().getNom());
         assertEquals("Manager1", result.get(0).getRapporteur());
+        verify(profilRepository, never()).findAll();
+        verify(profilRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testGetPersonnesDisponibles_AucunProfil() {
+        // Given
+        when(indexPeriodes.profilsDisponibles(any(Date.class))).thenReturn(new ArrayList<>());
+
+        // When
+        List<Profil> result = profileService.getPersonnesDisponibles();
+
+        // Then
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(profilRepository);
     }
 
     @Test
@@ -151,10 +158,9 @@ public class ProfileServiceTest {
         ProfileService spyProfileService = spy(profileService);
         doReturn(profils).when(spyProfileService).getPersonnesDisponibles();
         
-        when(matriceCompetenceService.getCompetencesByPersonne("P001"))
-            .thenReturn(Arrays.asList(mc1Java, mc1Spring));
-        when(matriceCompetenceService.getCompetencesByPersonne("P002"))
-            .thenReturn(Arrays.asList(mc2Java, mc2Spring));
+        // Seule la personne1 a Java avec une note >= 4 (mc1Java)
+        when(matriceCompetenceIndex.personnesAvecNoteMinimale(Arrays.asList("Java"), 4))
+            .thenReturn(Set.of("P001"));
 
         // Test avec filtrage pour compétence Java avec note minimale 4
         List<Personne> result = spyProfileService.filtrerPersonnesParNotes(Arrays.asList("Java"), 4);
@@ -206,10 +212,9 @@ public class ProfileServiceTest {
         ProfileService spyProfileService = spy(profileService);
         doReturn(profils).when(spyProfileService).getPersonnesDisponibles();
         
-        when(matriceCompetenceService.getCompetencesByPersonne("P001"))
-            .thenReturn(Arrays.asList(mc1Java, mc1Spring, mc1Angular));
-        when(matriceCompetenceService.getCompetencesByPersonne("P002"))
-            .thenReturn(Arrays.asList(mc2Java, mc2Spring));
+        // Seule la personne1 possède Java et Angular (mc1Java, mc1Angular)
+        when(matriceCompetenceIndex.personnesAvecCompetences(Arrays.asList("Java", "Angular")))
+            .thenReturn(Set.of("P001"));
 
         // Test avec filtrage pour compétences Java et Angular
         List<Personne> result = spyProfileService.filtrerPersonnesParCompetences(Arrays.asList("Java", "Angular"));
@@ -218,4 +223,29 @@ public class ProfileServiceTest {
         assertEquals(1, result.size());
         assertEquals("P001", result.get(0).getIdentifiant());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetPersonnesDisponiblesPage() {
+        // Préparation des données de test
+        PersonneEntity personneEntity = new PersonneEntity();
+        personneEntity.setIdentifiant("P002");
+
+        ProfilEntity profilEntity = new ProfilEntity();
+        profilEntity.setId(42L);
+        profilEntity.setPersonne(personneEntity);
+        profilEntity.setRapporteur("Manager2");
+
+        when(profilRepository.findDisponiblesApres(any(Date.class), eq(41L), eq(PageRequest.of(0, 1))))
+                .thenReturn(new SliceImpl<>(List.of(profilEntity), PageRequest.of(0, 1), true));
+
+        // Appel de la méthode à tester
+        PageCurseur<Profil> result = profileService.getPersonnesDisponiblesPage(PageCurseur.encoder("41"), 1);
+
+        // Vérifications
+        assertEquals(1, result.getTaille());
+        assertEquals("P002", result.getElements().get(0).getPersonne().getIdentifiant());
+        assertEquals("42", PageCurseur.decoder(result.getCurseurSuivant(), 1)[0]);
+        assertThrows(IllegalArgumentException.class,
+                () -> profileService.getPersonnesDisponiblesPage(PageCurseur.encoder("abc"), 1));
+    }
+}
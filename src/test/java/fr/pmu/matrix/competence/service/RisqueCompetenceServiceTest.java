@@ -0,0 +1,156 @@
+package fr.pmu.matrix.competence.service;
+
+import fr.pmu.matrix.competence.dto.RapportRisques;
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.EquipeEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.MatriceCompetenceStore;
+import fr.pmu.matrix.competence.repository.EquipeRepository;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import fr.pmu.matrix.competence.repository.projection.RattachementProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RisqueCompetenceServiceTest {
+
+    @Mock
+    private MatriceCompetenceStore matriceCompetenceStore;
+
+    @Mock
+    private EquipeRepository equipeRepository;
+
+    @Mock
+    private IndexPeriodes indexPeriodes;
+
+    private RisqueCompetenceService risqueCompetenceService;
+
+    @BeforeEach
+    void setUp() {
+        risqueCompetenceService = new RisqueCompetenceService(matriceCompetenceStore, equipeRepository,
+                indexPeriodes, 4, 2);
+
+        EquipeEntity equipe1 = createEquipeEntity("EQ1");
+        EquipeEntity equipe2 = createEquipeEntity("EQ2");
+        // EQ1 : deux experts JAVA (P001 absent), un seul expert SPRING (P002 en partance)
+        // EQ2 : un expert JAVA, note insuffisante en SPRING
+        PersonneEntity p1 = createPersonneEntity("P001", equipe1);
+        PersonneEntity p2 = createPersonneEntity("P002", equipe1);
+        PersonneEntity p3 = createPersonneEntity("P003", equipe2);
+        PersonneEntity p4 = createPersonneEntity("P004", null);
+        when(matriceCompetenceStore.getSnapshot()).thenReturn(MatriceCompetenceSnapshot.construire(
+                Arrays.asList(p1, p2, p3, p4),
+                Arrays.asList(new CompetenceEntity("JAVA", "Java"), new CompetenceEntity("SPRING", "Spring")),
+                Arrays.asList(new NoteEntity(3, "Intermédiaire"), new NoteEntity(4, "Avancé"), new NoteEntity(5, "Expert")),
+                Arrays.asList(
+                        new NoteMatriceProjection("P001", "JAVA", 5),
+                        new NoteMatriceProjection("P002", "JAVA", 4),
+                        new NoteMatriceProjection("P002", "SPRING", 4),
+                        new NoteMatriceProjection("P003", "JAVA", 4),
+                        new NoteMatriceProjection("P003", "SPRING", 3),
+                        new NoteMatriceProjection("P004", "JAVA", 5))));
+        when(equipeRepository.findAllRattachements()).thenReturn(Arrays.asList(
+                new RattachementProjection("EQ1", "GRP1"),
+                new RattachementProjection("EQ2", "GRP1")));
+    }
+
+    @Test
+    void testCalculer_RisquesParEquipeEtGroupement() {
+        // Given
+        when(indexPeriodes.personnesAbsentes(any(Date.class))).thenReturn(Set.of("P001"));
+        when(indexPeriodes.personnesDisponibles(any(Date.class))).thenReturn(Set.of("P002"));
+
+        // When
+        RapportRisques rapport = risqueCompetenceService.calculer(new Date());
+
+        // Then
+        assertEquals(4, rapport.getNoteExpert());
+        assertEquals(2, rapport.getSeuil());
+
+        List<RapportRisques.Perimetre> equipes = rapport.getEquipes();
+        assertEquals(2, equipes.size());
+        assertEquals("EQ1", equipes.get(0).getCode());
+        assertEquals(2, equipes.get(0).getCompetences().size());
+        RapportRisques.CompetenceARisque java = equipes.get(0).getCompetences().get(0);
+        assertEquals("JAVA", java.getCompetenceLibelle());
+        assertEquals(0, java.getNbExpertsDisponibles());
+        assertEquals(Arrays.asList("P001", "P002"), java.getExpertsIndisponibles());
+        assertEquals("SPRING", equipes.get(0).getCompetences().get(1).getCompetenceLibelle());
+        assertEquals("EQ2", equipes.get(1).getCode());
+        assertEquals(1, equipes.get(1).getCompetences().size());
+        assertEquals(Collections.singletonList("P003"), equipes.get(1).getCompetences().get(0).getExpertsDisponibles());
+
+        // Au niveau du groupement, JAVA ne compte qu'un expert disponible (P003)
+        List<RapportRisques.Perimetre> groupements = rapport.getGroupements();
+        assertEquals(1, groupements.size());
+        assertEquals("GRP1", groupements.get(0).getCode());
+        assertEquals(2, groupements.get(0).getCompetences().size());
+        assertEquals(1, groupements.get(0).getCompetences().get(0).getNbExpertsDisponibles());
+    }
+
+    @Test
+    void testCalculer_AucunRisque() {
+        // Given
+        risqueCompetenceService = new RisqueCompetenceService(matriceCompetenceStore, equipeRepository,
+                indexPeriodes, 4, 1);
+        when(indexPeriodes.personnesAbsentes(any(Date.class))).thenReturn(Collections.emptySet());
+        when(indexPeriodes.personnesDisponibles(any(Date.class))).thenReturn(Collections.emptySet());
+
+        // When
+        RapportRisques rapport = risqueCompetenceService.calculer(new Date());
+
+        // Then
+        assertTrue(rapport.getEquipes().isEmpty());
+        assertTrue(rapport.getGroupements().isEmpty());
+    }
+
+    @Test
+    void testGetRapport_ServiDepuisLeCache() {
+        // Given
+        when(indexPeriodes.personnesAbsentes(any(Date.class))).thenReturn(Collections.emptySet());
+        when(indexPeriodes.personnesDisponibles(any(Date.class))).thenReturn(Collections.emptySet());
+
+        // When
+        RapportRisques premier = risqueCompetenceService.getRapport();
+        RapportRisques second = risqueCompetenceService.getRapport();
+        RapportRisques rafraichi = risqueCompetenceService.rafraichir();
+
+        // Then
+        assertSame(premier, second);
+        assertNotSame(premier, rafraichi);
+        assertSame(rafraichi, risqueCompetenceService.getRapport());
+        verify(matriceCompetenceStore, times(2)).getSnapshot();
+    }
+
+    private EquipeEntity createEquipeEntity(String code) {
+        EquipeEntity entity = new EquipeEntity();
+        entity.setCode(code);
+        entity.setNom("Equipe " + code);
+        return entity;
+    }
+
+    private PersonneEntity createPersonneEntity(String id, EquipeEntity equipe) {
+        PersonneEntity entity = new PersonneEntity();
+        entity.setIdentifiant(id);
+        entity.setNom("Nom " + id);
+        entity.setPrenom("Prénom " + id);
+        entity.setEquipe(equipe);
+        return entity;
+    }
+}
@@ -0,0 +1,276 @@
+package fr.pmu.matrix.competence.service;
+
+import fr.pmu.matrix.competence.domain.Evenement;
+import fr.pmu.matrix.competence.dto.CompetenceRequiseRequest;
+import fr.pmu.matrix.competence.dto.StaffingEvenement;
+import fr.pmu.matrix.competence.entity.CompetenceEntity;
+import fr.pmu.matrix.competence.entity.EquipeEntity;
+import fr.pmu.matrix.competence.entity.EvenementCompetenceRequiseEntity;
+import fr.pmu.matrix.competence.entity.EvenementEntity;
+import fr.pmu.matrix.competence.entity.NoteEntity;
+import fr.pmu.matrix.competence.entity.PersonneEntity;
+import fr.pmu.matrix.competence.index.IndexPeriodes;
+import fr.pmu.matrix.competence.index.MatriceCompetenceSnapshot;
+import fr.pmu.matrix.competence.index.MatriceCompetenceStore;
+import fr.pmu.matrix.competence.index.Referentiel;
+import fr.pmu.matrix.competence.repository.EvenementRepository;
+import fr.pmu.matrix.competence.repository.projection.NoteMatriceProjection;
+import fr.pmu.matrix.competence.repository.projection.PeriodePersonneProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StaffingEvenementServiceTest {
+
+    @Mock
+    private EvenementRepository evenementRepository;
+
+    @Mock
+    private IndexPeriodes indexPeriodes;
+
+    @Mock
+    private MatriceCompetenceStore matriceCompetenceStore;
+
+    @Mock
+    private Referentiel referentiel;
+
+    private StaffingEvenementService staffingService;
+
+    private final CompetenceEntity java = new CompetenceEntity("JAVA", "Java");
+    private final CompetenceEntity sql = new CompetenceEntity("SQL", "SQL");
+    private final NoteEntity note3 = new NoteEntity(3, "Intermédiaire");
+    private final NoteEntity note4 = new NoteEntity(4, "Avancé");
+
+    @BeforeEach
+    void setUp() {
+        staffingService = new StaffingEvenementService(evenementRepository, indexPeriodes,
+                matriceCompetenceStore, referentiel);
+    }
+
+    @Test
+    void testGetStaffing_AbsencesEtDoublesAffectations() {
+        // Given
+        EvenementEntity evenement = createEvenementEntity(10L, date(3, 5, 8), date(3, 5, 18));
+        exiger(evenement, java, note4);
+        exiger(evenement, sql, note3);
+        when(evenementRepository.findById(10L)).thenReturn(Optional.of(evenement));
+        snapshotDeReference();
+        when(evenementRepository.findParticipationsPersonnes(evenement.getDateDebut(), evenement.getDateFin())).thenReturn(Arrays.asList(
+                new PeriodePersonneProjection(10L, "P001", date(3, 5, 8), date(3, 5, 18)),
+                // Événement qui commence à la fin du premier : pas de conflit
+                new PeriodePersonneProjection(12L, "P001", date(3, 5, 18), date(3, 5, 20))));
+        when(evenementRepository.findParticipationsEquipes(evenement.getDateDebut(), evenement.getDateFin())).thenReturn(Arrays.asList(
+                // P001 participe aussi par son équipe
+                new PeriodePersonneProjection(10L, "P001", date(3, 5, 8), date(3, 5, 18)),
+                new PeriodePersonneProjection(10L, "P002", date(3, 5, 8), date(3, 5, 18)),
+                new PeriodePersonneProjection(10L, "P003", date(3, 5, 8), date(3, 5, 18)),
+                new PeriodePersonneProjection(11L, "P003", date(3, 5, 12), date(3, 6, 12))));
+        // L'absence de P002 se termine le 5 mars, jour de l'événement
+        when(indexPeriodes.absencesChevauchant(eq(date(3, 5, 0)), eq(evenement.getDateFin()))).thenReturn(Collections.singletonList(
+                new PeriodePersonneProjection(1L, "P002", date(3, 4, 0), date(3, 5, 0))));
+
+        // When
+        StaffingEvenement staffing = staffingService.getStaffing(10L);
+
+        // Then
+        assertEquals(10L, staffing.getEvenementId());
+        assertEquals(Evenement.Criticite.CRITICAL, staffing.getCriticite());
+        assertEquals(3, staffing.getNbParticipants());
+        assertEquals(Collections.singletonList("P002"), staffing.getAbsentes());
+        assertEquals(1, staffing.getConflits().size());
+        assertEquals("P003", staffing.getConflits().get(0).getPersonneIdentifiant());
+        assertEquals(Collections.singletonList(11L), staffing.getConflits().get(0).getEvenements());
+
+        StaffingEvenement.BesoinCompetence besoinJava = staffing.getCompetences().get(0);
+        assertEquals("JAVA", besoinJava.getCompetenceLibelle());
+        assertEquals(Collections.singletonList("P001"), besoinJava.getPersonnes());
+        assertTrue(besoinJava.isCouverte());
+        // Seules P002 (absente) et P003 (en conflit) détiennent SQL
+        StaffingEvenement.BesoinCompetence besoinSql = staffing.getCompetences().get(1);
+        assertTrue(besoinSql.getPersonnes().isEmpty());
+        assertFalse(besoinSql.isCouverte());
+        assertFalse(staffing.isCouvert());
+    }
+
+    @Test
+    void testGetStaffing_NonTrouve() {
+        // Given
+        when(evenementRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> staffingService.getStaffing(99L));
+        assertTrue(exception.getMessage().contains("non trouvé"));
+    }
+
+    @Test
+    void testGetStaffingEvenementsAVenir_UneRequeteParTypeDeParticipant() {
+        // Given
+        EvenementEntity premier = createEvenementEntity(10L, date(3, 5, 8), date(3, 5, 18));
+        EvenementEntity second = createEvenementEntity(20L, date(4, 1, 8), date(4, 2, 18));
+        exiger(second, java, note4);
+        when(evenementRepository.findNonTermines(eq(StaffingEvenementService.CRITICITES_VERIFIEES), any(Date.class)))
+                .thenReturn(Arrays.asList(premier, second));
+        snapshotDeReference();
+        when(evenementRepository.findParticipationsPersonnes(premier.getDateDebut(), second.getDateFin())).thenReturn(Collections.singletonList(
+                new PeriodePersonneProjection(20L, "P001", date(4, 1, 8), date(4, 2, 18))));
+        when(evenementRepository.findParticipationsEquipes(premier.getDateDebut(), second.getDateFin())).thenReturn(Collections.emptyList());
+        when(indexPeriodes.absencesChevauchant(any(Date.class), any(Date.class))).thenReturn(Collections.emptyList());
+
+        // When
+        List<StaffingEvenement> staffings = staffingService.getStaffingEvenementsAVenir();
+
+        // Then
+        assertEquals(2, staffings.size());
+        // Sans compétence requise, l'événement est couvert
+        assertEquals(0, staffings.get(0).getNbParticipants());
+        assertTrue(staffings.get(0).isCouvert());
+        assertTrue(staffings.get(1).isCouvert());
+        verify(evenementRepository, times(1)).findParticipationsPersonnes(any(), any());
+        verify(evenementRepository, times(1)).findParticipationsEquipes(any(), any());
+    }
+
+    @Test
+    void testDefinirCompetencesRequises() {
+        // Given
+        EvenementEntity evenement = createEvenementEntity(10L, date(3, 5, 8), date(3, 5, 18));
+        exiger(evenement, sql, note3);
+        when(evenementRepository.findById(10L)).thenReturn(Optional.of(evenement));
+        when(evenementRepository.save(evenement)).thenReturn(evenement);
+        when(referentiel.competence("JAVA")).thenReturn(Optional.of(java));
+        when(referentiel.note(3)).thenReturn(Optional.of(note3));
+        when(referentiel.note(4)).thenReturn(Optional.of(note4));
+        snapshotDeReference();
+        when(evenementRepository.findParticipationsPersonnes(any(Date.class), any(Date.class))).thenReturn(Collections.emptyList());
+        when(evenementRepository.findParticipationsEquipes(any(Date.class), any(Date.class))).thenReturn(Collections.emptyList());
+        when(indexPeriodes.absencesChevauchant(any(Date.class), any(Date.class))).thenReturn(Collections.emptyList());
+
+        // When
+        StaffingEvenement staffing = staffingService.definirCompetencesRequises(10L,
+                Arrays.asList(createRequest("JAVA", 3), createRequest("JAVA", 4)));
+
+        // Then
+        assertEquals(1, evenement.getCompetencesRequises().size());
+        assertEquals(4, evenement.getCompetencesRequises().get(0).getNoteRequise().getValeur());
+        assertSame(evenement, evenement.getCompetencesRequises().get(0).getEvenement());
+        assertEquals("JAVA", staffing.getCompetences().get(0).getCompetenceLibelle());
+        assertFalse(staffing.isCouvert());
+    }
+
+    @Test
+    void testDefinirCompetencesRequises_CompetenceInconnue() {
+        // Given
+        EvenementEntity evenement = createEvenementEntity(10L, date(3, 5, 8), date(3, 5, 18));
+        exiger(evenement, sql, note3);
+        when(evenementRepository.findById(10L)).thenReturn(Optional.of(evenement));
+        when(referentiel.competence("COBOL")).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> staffingService.definirCompetencesRequises(10L, Collections.singletonList(createRequest("COBOL", 3))));
+        assertEquals("Compétence non trouvée: COBOL", exception.getMessage());
+        assertEquals(1, evenement.getCompetencesRequises().size());
+        verify(evenementRepository, never()).save(any());
+    }
+
+    @Test
+    void testDetecterConflits_IdentiqueAuxComparaisonsDeuxADeux() {
+        // Given
+        Random random = new Random(42);
+        List<PeriodePersonneProjection> participations = new ArrayList<>();
+        long origine = date(1, 1, 0).getTime();
+        for (long id = 0; id < 2000; id++) {
+            long debut = origine + random.nextInt(365 * 24) * 3_600_000L;
+            long fin = debut + (1 + random.nextInt(72)) * 3_600_000L;
+            participations.add(new PeriodePersonneProjection(id, "P" + random.nextInt(100), new Date(debut), new Date(fin)));
+        }
+
+        // When
+        Map<Long, Map<String, Set<Long>>> conflits = StaffingEvenementService.detecterConflits(participations);
+
+        // Then
+        Map<Long, Map<String, Set<Long>>> attendus = new HashMap<>();
+        for (PeriodePersonneProjection a : participations) {
+            for (PeriodePersonneProjection b : participations) {
+                if (a != b && a.personneIdentifiant().equals(b.personneIdentifiant())
+                        && a.dateDebut().before(b.dateFin()) && b.dateDebut().before(a.dateFin())) {
+                    attendus.computeIfAbsent(a.id(), id -> new HashMap<>())
+                            .computeIfAbsent(a.personneIdentifiant(), p -> new HashSet<>()).add(b.id());
+                }
+            }
+        }
+        assertFalse(attendus.isEmpty());
+        assertEquals(attendus, conflits);
+    }
+
+    private void snapshotDeReference() {
+        EquipeEntity equipe = new EquipeEntity();
+        equipe.setCode("EQ1");
+        equipe.setNom("Equipe EQ1");
+        when(matriceCompetenceStore.getSnapshot()).thenReturn(MatriceCompetenceSnapshot.construire(
+                Arrays.asList(createPersonneEntity("P001", equipe), createPersonneEntity("P002", equipe),
+                        createPersonneEntity("P003", equipe)),
+                Arrays.asList(java, sql),
+                Arrays.asList(note3, note4),
+                Arrays.asList(
+                        new NoteMatriceProjection("P001", "JAVA", 4),
+                        new NoteMatriceProjection("P002", "JAVA", 4),
+                        new NoteMatriceProjection("P002", "SQL", 4),
+                        new NoteMatriceProjection("P003", "SQL", 4))));
+    }
+
+    private void exiger(EvenementEntity evenement, CompetenceEntity competence, NoteEntity note) {
+        evenement.getCompetencesRequises().add(new EvenementCompetenceRequiseEntity(null, evenement, competence, note));
+    }
+
+    private Date date(int mois, int jour, int heure) {
+        return Date.from(LocalDate.of(2024, mois, jour).atTime(heure, 0).atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private EvenementEntity createEvenementEntity(Long id, Date debut, Date fin) {
+        EvenementEntity evenement = new EvenementEntity();
+        evenement.setId(id);
+        evenement.setType("MEP");
+        evenement.setCriticite(EvenementEntity.Criticite.CRITICAL);
+        evenement.setDateDebut(debut);
+        evenement.setDateFin(fin);
+        return evenement;
+    }
+
+    private PersonneEntity createPersonneEntity(String identifiant, EquipeEntity equipe) {
+        PersonneEntity personne = new PersonneEntity();
+        personne.setIdentifiant(identifiant);
+        personne.setNom("Nom " + identifiant);
+        personne.setPrenom("Prénom " + identifiant);
+        personne.setEquipe(equipe);
+        return personne;
+    }
+
+    private CompetenceRequiseRequest createRequest(String competenceLibelle, int noteValeur) {
+        CompetenceRequiseRequest request = new CompetenceRequiseRequest();
+        request.setCompetenceLibelle(competenceLibelle);
+        request.setNoteValeur(noteValeur);
+        return request;
+    }
+}